@@ -0,0 +1,350 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.benchmarks;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The stored benchmark scores the {@link RegressionGate} compares against, kept as JSON:
+ * <pre>
+ * {
+ *   "benchmarks": [
+ *     {"name": "ParserBenchmark.parse:corruption=0,format=PASSPORT", "throughput": 0.0187, "allocation": 10320.0}
+ *   ]
+ * }
+ * </pre>
+ * Throughput is in operations per microsecond, allocation in bytes per operation.
+ */
+final class Baseline {
+
+	private final Map<String, Score> scores = new LinkedHashMap<>();
+
+	/**
+	 * A benchmark score.
+	 */
+	static final class Score {
+
+		private final double throughput;
+		private final double allocation;
+
+		/**
+		 * @param throughput operations per microsecond
+		 * @param allocation bytes allocated per operation, NaN if not measured
+		 */
+		Score(final double throughput, final double allocation) {
+			this.throughput = throughput;
+			this.allocation = allocation;
+		}
+
+		/**
+		 * @return operations per microsecond
+		 */
+		double getThroughput() {
+			return throughput;
+		}
+
+		/**
+		 * @return bytes allocated per operation, NaN if not measured
+		 */
+		double getAllocation() {
+			return allocation;
+		}
+	}
+
+	/**
+	 * @return the scores by benchmark name, in insertion order
+	 */
+	Map<String, Score> getScores() {
+		return scores;
+	}
+
+	/**
+	 * @param name the benchmark name, with its parameters
+	 * @param score the score
+	 */
+	void put(final String name, final Score score) {
+		scores.put(name, score);
+	}
+
+	/**
+	 * @param file the file to write
+	 * @throws IOException failed to write the file
+	 */
+	void write(final Path file) throws IOException {
+		try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			out.write("{\n  \"benchmarks\": [");
+			String separator = "\n";
+			for (final Map.Entry<String, Score> entry : scores.entrySet()) {
+				out.write(separator);
+				final Score score = entry.getValue();
+				out.write(String.format(Locale.ROOT, "    {\"name\": \"%s\", \"throughput\": %.6g, \"allocation\": %s}",
+						escape(entry.getKey()), score.getThroughput(), Double.isNaN(score.getAllocation()) ? "null"
+						: String.format(Locale.ROOT, "%.1f", score.getAllocation())));
+				separator = ",\n";
+			}
+			out.write("\n  ]\n}\n");
+		}
+	}
+
+	/**
+	 * @param file the file to read
+	 * @return the baseline
+	 * @throws IOException failed to read the file or it is not a valid baseline
+	 */
+	static Baseline read(final Path file) throws IOException {
+		final Object json = new JsonReader(new String(Files.readAllBytes(file), StandardCharsets.UTF_8)).readDocument();
+		final Object benchmarks = json instanceof Map ? ((Map<?, ?>) json).get("benchmarks") : null;
+		if (!(benchmarks instanceof List)) {
+			throw new IOException(file + ": expected an object with a \"benchmarks\" array");
+		}
+		final Baseline baseline = new Baseline();
+		for (final Object item : (List<?>) benchmarks) {
+			if (!(item instanceof Map)) {
+				throw new IOException(file + ": expected a benchmark object, found " + item);
+			}
+			final Map<?, ?> benchmark = (Map<?, ?>) item;
+			final Object name = benchmark.get("name");
+			final Object throughput = benchmark.get("throughput");
+			final Object allocation = benchmark.get("allocation");
+			if (!(name instanceof String) || !(throughput instanceof Double)) {
+				throw new IOException(file + ": benchmark without name or throughput " + benchmark);
+			}
+			baseline.put((String) name, new Score((Double) throughput, allocation instanceof Double ? (Double) allocation : Double.NaN));
+		}
+		return baseline;
+	}
+
+	/**
+	 * @param str the string
+	 * @return the string with JSON special characters escaped
+	 */
+	private static String escape(final String str) {
+		return str.replace("\\", "\\\\").replace("\"", "\\\"");
+	}
+
+	/**
+	 * Reads JSON into maps, lists, strings, doubles, booleans and nulls.
+	 */
+	private static final class JsonReader {
+
+		private final String json;
+		private int pos;
+
+		private JsonReader(final String json) {
+			this.json = json;
+		}
+
+		/**
+		 * @return the value of the whole document
+		 * @throws IOException invalid JSON
+		 */
+		private Object readDocument() throws IOException {
+			final Object value = readValue();
+			skipWhitespace();
+			if (pos < json.length()) {
+				throw error("end of document");
+			}
+			return value;
+		}
+
+		/**
+		 * @return the next value
+		 * @throws IOException invalid JSON
+		 */
+		private Object readValue() throws IOException {
+			skipWhitespace();
+			if (pos >= json.length()) {
+				throw error("value");
+			}
+			final char c = json.charAt(pos);
+			if (c == '{') {
+				return readObject();
+			}
+			if (c == '[') {
+				return readArray();
+			}
+			if (c == '"') {
+				return readString();
+			}
+			if (json.startsWith("true", pos)) {
+				pos += 4;
+				return Boolean.TRUE;
+			}
+			if (json.startsWith("false", pos)) {
+				pos += 5;
+				return Boolean.FALSE;
+			}
+			if (json.startsWith("null", pos)) {
+				pos += 4;
+				return null;
+			}
+			return readNumber();
+		}
+
+		/**
+		 * @return the object members
+		 * @throws IOException invalid JSON
+		 */
+		private Map<String, Object> readObject() throws IOException {
+			final Map<String, Object> result = new LinkedHashMap<>();
+			pos++;
+			if (consume('}')) {
+				return result;
+			}
+			do {
+				skipWhitespace();
+				if (pos >= json.length() || json.charAt(pos) != '"') {
+					throw error("member name");
+				}
+				final String name = readString();
+				if (!consume(':')) {
+					throw error("':'");
+				}
+				result.put(name, readValue());
+			} while (consume(','));
+			if (!consume('}')) {
+				throw error("',' or '}'");
+			}
+			return result;
+		}
+
+		/**
+		 * @return the array items
+		 * @throws IOException invalid JSON
+		 */
+		private List<Object> readArray() throws IOException {
+			final List<Object> result = new ArrayList<>();
+			pos++;
+			if (consume(']')) {
+				return result;
+			}
+			do {
+				result.add(readValue());
+			} while (consume(','));
+			if (!consume(']')) {
+				throw error("',' or ']'");
+			}
+			return result;
+		}
+
+		/**
+		 * @return the string value
+		 * @throws IOException invalid JSON
+		 */
+		private String readString() throws IOException {
+			final StringBuilder sb = new StringBuilder();
+			pos++;
+			while (pos < json.length()) {
+				final char c = json.charAt(pos++);
+				if (c == '"') {
+					return sb.toString();
+				}
+				if (c != '\\') {
+					sb.append(c);
+				} else if (pos < json.length()) {
+					final char escaped = json.charAt(pos++);
+					switch (escaped) {
+						case 'n':
+							sb.append('\n');
+							break;
+						case 't':
+							sb.append('\t');
+							break;
+						case 'r':
+							sb.append('\r');
+							break;
+						case 'b':
+							sb.append('\b');
+							break;
+						case 'f':
+							sb.append('\f');
+							break;
+						case 'u':
+							if (pos + 4 > json.length()) {
+								throw error("unicode escape");
+							}
+							sb.append((char) Integer.parseInt(json.substring(pos, pos + 4), 16));
+							pos += 4;
+							break;
+						default:
+							sb.append(escaped);
+					}
+				}
+			}
+			throw error("'\"'");
+		}
+
+		/**
+		 * @return the number value
+		 * @throws IOException invalid JSON
+		 */
+		private Double readNumber() throws IOException {
+			final int start = pos;
+			while (pos < json.length() && "+-.0123456789eE".indexOf(json.charAt(pos)) >= 0) {
+				pos++;
+			}
+			try {
+				return Double.valueOf(json.substring(start, pos));
+			} catch (NumberFormatException e) {
+				pos = start;
+				throw error("value");
+			}
+		}
+
+		/**
+		 * @param c the expected character
+		 * @return true if the next non-whitespace character is the expected one, which is then consumed
+		 */
+		private boolean consume(final char c) {
+			skipWhitespace();
+			if (pos < json.length() && json.charAt(pos) == c) {
+				pos++;
+				return true;
+			}
+			return false;
+		}
+
+		/**
+		 * Skips whitespace.
+		 */
+		private void skipWhitespace() {
+			while (pos < json.length() && Character.isWhitespace(json.charAt(pos))) {
+				pos++;
+			}
+		}
+
+		/**
+		 * @param expected what was expected
+		 * @return the exception to throw
+		 */
+		private IOException error(final String expected) {
+			return new IOException("Invalid JSON: expected " + expected + " at offset " + pos);
+		}
+	}
+
+}
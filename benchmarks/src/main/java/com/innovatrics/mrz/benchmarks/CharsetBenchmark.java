@@ -0,0 +1,111 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.benchmarks;
+
+import com.innovatrics.mrz.MrzCharset;
+import com.innovatrics.mrz.MrzParser;
+import com.innovatrics.mrz.types.MrzFormat;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Validating the characters of whole MRZ rows with {@link MrzCharset}, against comparing each character with the three valid ranges.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CharsetBenchmark {
+
+	/**
+	 * The format of the inputs.
+	 */
+	@Param({"MRTD_TD1", "PASSPORT"})
+	public MrzFormat format;
+
+	private String[] mrz;
+	private byte[][] bytes;
+	private int index;
+
+	/**
+	 * Generates the inputs.
+	 */
+	@Setup
+	public void setup() {
+		mrz = Samples.mrz(format, 0);
+		bytes = new byte[mrz.length][];
+		for (int i = 0; i < mrz.length; i++) {
+			bytes[i] = mrz[i].replace("\n", "").getBytes(StandardCharsets.US_ASCII);
+		}
+	}
+
+	/**
+	 * @return the first invalid position, -1 if none
+	 */
+	@Benchmark
+	public int ranges() {
+		final String s = mrz[index++ & Samples.MASK];
+		for (int i = 0; i < s.length(); i++) {
+			final char c = s.charAt(i);
+			if (c != '\n' && c != MrzParser.FILLER && (c < '0' || c > '9') && (c < 'A' || c > 'Z')) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return the first invalid position, -1 if none
+	 */
+	@Benchmark
+	public int bitmap() {
+		final String s = mrz[index++ & Samples.MASK];
+		final int columns = format.getColumns();
+		for (int start = 0; start < s.length(); start += columns + 1) {
+			final int invalid = MrzCharset.firstInvalid(s, start, start + columns);
+			if (invalid >= 0) {
+				return invalid;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return the first invalid position, -1 if none
+	 */
+	@Benchmark
+	public int swar() {
+		final byte[] b = bytes[index++ & Samples.MASK];
+		return MrzCharset.firstInvalid(b, 0, b.length);
+	}
+
+}
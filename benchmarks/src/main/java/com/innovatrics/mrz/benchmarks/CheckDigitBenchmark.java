@@ -0,0 +1,127 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.benchmarks;
+
+import com.innovatrics.mrz.MrzCheckDigits;
+import com.innovatrics.mrz.MrzParser;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Check digit computation with {@link MrzParser#computeCheckDigit(String)}, and of a batch of values with {@link MrzCheckDigits}: by the
+ * scalar kernel, and by the Vector API kernel in a JVM with the <code>jdk.incubator.vector</code> module.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CheckDigitBenchmark {
+
+	private static final String ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ<";
+
+	/**
+	 * The length of the checked value: a date, a document number, a personal number, a TD1 composite.
+	 */
+	@Param({"6", "9", "14", "48"})
+	public int length;
+
+	private String[] values;
+	private byte[] batch;
+	private byte[] digits;
+	private int index;
+
+	/**
+	 * Generates random values of the MRZ alphabet.
+	 */
+	@Setup
+	public void setup() {
+		final SplittableRandom random = new SplittableRandom(length);
+		values = new String[Samples.SIZE];
+		for (int i = 0; i < Samples.SIZE; i++) {
+			final char[] chars = new char[length];
+			for (int c = 0; c < length; c++) {
+				chars[c] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+			}
+			values[i] = new String(chars);
+		}
+		batch = String.join("", values).getBytes(StandardCharsets.US_ASCII);
+		digits = new byte[Samples.SIZE];
+	}
+
+	/**
+	 * @return the check digit
+	 */
+	@Benchmark
+	public int computeCheckDigit() {
+		return MrzParser.computeCheckDigit(values[index++ & Samples.MASK]);
+	}
+
+	/**
+	 * @return the sum of the check digits of all values
+	 */
+	@Benchmark
+	@OperationsPerInvocation(Samples.SIZE)
+	public int computeCheckDigitAll() {
+		int result = 0;
+		for (final String value : values) {
+			result += MrzParser.computeCheckDigit(value);
+		}
+		return result;
+	}
+
+	/**
+	 * @return the check digits of all values, by the scalar kernel
+	 */
+	@Benchmark
+	@OperationsPerInvocation(Samples.SIZE)
+	public byte[] batchScalar() {
+		MrzCheckDigits.compute(batch, 0, length, Samples.SIZE, length, digits);
+		return digits;
+	}
+
+	/**
+	 * @return the check digits of all values, by the Vector API kernel
+	 */
+	@Benchmark
+	@OperationsPerInvocation(Samples.SIZE)
+	@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+	public byte[] batchVector() {
+		if (!MrzCheckDigits.isVectorized()) {
+			throw new IllegalStateException("The Vector API kernel requires Java 17 or later and the multi-release mrz-java jar");
+		}
+		MrzCheckDigits.compute(batch, 0, length, Samples.SIZE, length, digits);
+		return digits;
+	}
+
+}
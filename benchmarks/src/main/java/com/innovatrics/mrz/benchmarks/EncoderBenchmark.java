@@ -0,0 +1,102 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.benchmarks;
+
+import com.innovatrics.mrz.MrzEncoder;
+import com.innovatrics.mrz.MrzParser;
+import com.innovatrics.mrz.MrzRecord;
+import com.innovatrics.mrz.types.MrzFormat;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serializing records: {@link MrzRecord#toMrz()}, {@link MrzEncoder}, {@link MrzParser#nameToMrz(String, String, int)} and
+ * {@link MrzRecord#toString()}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EncoderBenchmark {
+
+	/**
+	 * The format of the records.
+	 */
+	@Param
+	public MrzFormat format;
+
+	private MrzRecord[] records;
+	private int index;
+	private final MrzEncoder encoder = new MrzEncoder(false);
+	private final char[] buffer = new char[128];
+
+	/**
+	 * Parses the records.
+	 */
+	@Setup
+	public void setup() {
+		records = Samples.records(format);
+	}
+
+	/**
+	 * @return the MRZ
+	 */
+	@Benchmark
+	public String toMrz() {
+		return records[index++ & Samples.MASK].toMrz();
+	}
+
+	/**
+	 * @return the number of characters written into the reused buffer
+	 */
+	@Benchmark
+	public int encodeInto() {
+		return encoder.encode(records[index++ & Samples.MASK], buffer, 0);
+	}
+
+	/**
+	 * @return the name field of a passport
+	 */
+	@Benchmark
+	public String nameToMrz() {
+		final MrzRecord record = records[index++ & Samples.MASK];
+		return MrzParser.nameToMrz(record.getSurname(), record.getGivenNames(), 39);
+	}
+
+	/**
+	 * @return the JSON representation of the record
+	 */
+	@Benchmark
+	public String recordToString() {
+		return records[index++ & Samples.MASK].toString();
+	}
+
+}
@@ -0,0 +1,110 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.benchmarks;
+
+import com.innovatrics.mrz.MrzFinderUtil;
+import com.innovatrics.mrz.MrzNotFoundException;
+import com.innovatrics.mrz.MrzParseException;
+import com.innovatrics.mrz.types.MrzFormat;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Locating an MRZ in surrounding text with {@link MrzFinderUtil#findMrz(String)}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FinderBenchmark {
+
+	private static final String[] WORDS = {"the", "holder", "of", "this", "passport", "is", "entitled", "to", "travel", "Republic", "page",
+		"signature", "authority", "date", "issue", "valid", "until", "No.", "Name", "Nationality", "12", "2024", "-", "/"};
+
+	/**
+	 * The approximate length of the input text, in characters.
+	 */
+	@Param({"256", "4096", "65536"})
+	public int size;
+	/**
+	 * The share of corrupted MRZs.
+	 */
+	@Param({"0", "0.25"})
+	public double corruption;
+
+	private String[] input;
+	private int index;
+
+	/**
+	 * Generates the inputs: text lines with an MRZ of a random format at a random line.
+	 */
+	@Setup
+	public void setup() {
+		final SplittableRandom random = new SplittableRandom(size);
+		final MrzFormat[] formats = MrzFormat.values();
+		final String[][] mrz = new String[formats.length][];
+		for (int i = 0; i < formats.length; i++) {
+			mrz[i] = Samples.mrz(formats[i], corruption);
+		}
+		input = new String[Samples.SIZE];
+		for (int i = 0; i < Samples.SIZE; i++) {
+			final StringBuilder sb = new StringBuilder(size + 100);
+			final int mrzAt = random.nextInt(size);
+			boolean inserted = false;
+			while (sb.length() < size || !inserted) {
+				if (!inserted && sb.length() >= mrzAt) {
+					sb.append(mrz[random.nextInt(formats.length)][i]).append('\n');
+					inserted = true;
+				}
+				final int lineStart = sb.length();
+				while (sb.length() - lineStart < 60) {
+					sb.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+				}
+				sb.append('\n');
+			}
+			input[i] = sb.toString();
+		}
+	}
+
+	/**
+	 * @return the MRZ, null if not found or malformed
+	 */
+	@Benchmark
+	public String findMrz() {
+		try {
+			return MrzFinderUtil.findMrz(input[index++ & Samples.MASK]);
+		} catch (MrzNotFoundException | MrzParseException e) {
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,162 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.benchmarks;
+
+import java.io.PrintStream;
+import java.util.Locale;
+
+/**
+ * A log-linear latency histogram in the style of HdrHistogram: values below {@code 2 * SUB_BUCKETS} are counted exactly, larger values in
+ * buckets whose width is 1/{@value #SUB_BUCKETS} of their magnitude, so each recorded value is within 0.8% of its bucket bounds.
+ * <p>
+ * Not thread safe; record into one histogram per thread and {@link #add(LatencyHistogram) add} them up.
+ * </p>
+ */
+final class LatencyHistogram {
+
+	private static final int SUB_BITS = 7;
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+	private final long[] counts = new long[(64 - SUB_BITS) * SUB_BUCKETS];
+	private long count;
+	private long max;
+
+	/**
+	 * @param value the value to record, negative values are recorded as 0
+	 */
+	void record(final long value) {
+		final long v = Math.max(0, value);
+		counts[index(v)]++;
+		count++;
+		max = Math.max(max, v);
+	}
+
+	/**
+	 * @param other the histogram to add to this one
+	 */
+	void add(final LatencyHistogram other) {
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] += other.counts[i];
+		}
+		count += other.count;
+		max = Math.max(max, other.max);
+	}
+
+	/**
+	 * @return the number of recorded values
+	 */
+	long getCount() {
+		return count;
+	}
+
+	/**
+	 * @return the largest recorded value
+	 */
+	long getMax() {
+		return max;
+	}
+
+	/**
+	 * @param percentile the percentile, from 0 to 100
+	 * @return the highest value of the bucket holding the percentile, capped by the largest recorded value; 0 if empty
+	 */
+	long getValueAtPercentile(final double percentile) {
+		final long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= target) {
+				return Math.min(max, highestValue(i));
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Prints the percentile distribution in the HdrHistogram format: value, percentile, total count and 1/(1-percentile), with five
+	 * reporting ticks per halving of the remaining percentile.
+	 *
+	 * @param out the stream to print to
+	 * @param scale the value divisor, e.g. 1000 to print nanoseconds as microseconds
+	 */
+	void printDistribution(final PrintStream out, final double scale) {
+		out.printf(Locale.ROOT, "%12s %14s %10s %14s%n%n", "Value", "Percentile", "TotalCount", "1/(1-Percentile)");
+		if (count == 0) {
+			return;
+		}
+		double percentile = 0;
+		long previous = -1;
+		while (percentile < 100) {
+			final long value = getValueAtPercentile(percentile);
+			final long below = countAtOrBelow(value);
+			if (value != previous) {
+				final double reached = 100.0 * below / count;
+				out.printf(Locale.ROOT, "%12.3f %14.12f %10d %14.2f%n", value / scale, reached / 100, below, reached < 100 ? 100 / (100 - reached)
+						: Double.POSITIVE_INFINITY);
+				previous = value;
+			}
+			if (below == count) {
+				break;
+			}
+			final double remaining = 100 - percentile;
+			percentile += remaining / 2 / 5;
+			percentile = Math.max(percentile, 100.0 * below / count);
+		}
+		out.printf(Locale.ROOT, "#[Max = %.3f, Total count = %d]%n", max / scale, count);
+	}
+
+	/**
+	 * @param value the value
+	 * @return the number of recorded values in buckets up to the bucket of the value
+	 */
+	private long countAtOrBelow(final long value) {
+		final int last = index(value);
+		long result = 0;
+		for (int i = 0; i <= last; i++) {
+			result += counts[i];
+		}
+		return result;
+	}
+
+	/**
+	 * @param value the non-negative value
+	 * @return the bucket index
+	 */
+	private static int index(final long value) {
+		if (value < 2 * SUB_BUCKETS) {
+			return (int) value;
+		}
+		final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+		return shift * SUB_BUCKETS + (int) (value >>> shift);
+	}
+
+	/**
+	 * @param index the bucket index
+	 * @return the highest value counted in the bucket
+	 */
+	private static long highestValue(final int index) {
+		if (index < 2 * SUB_BUCKETS) {
+			return index;
+		}
+		final int shift = index / SUB_BUCKETS - 1;
+		final long mantissa = index - shift * SUB_BUCKETS;
+		return ((mantissa + 1) << shift) - 1;
+	}
+
+}
@@ -0,0 +1,323 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.benchmarks;
+
+import com.innovatrics.mrz.MrzFinderUtil;
+import com.innovatrics.mrz.MrzNotFoundException;
+import com.innovatrics.mrz.MrzParseException;
+import com.innovatrics.mrz.MrzParser;
+import com.innovatrics.mrz.MrzRecord;
+import com.innovatrics.mrz.corpus.MrzCorpusGenerator;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end load harness: concurrent callers run {@link MrzFinderUtil#findMrz(String)} and {@link MrzParser#parse(String)} on a mix of
+ * valid, corrupted and non-MRZ text, at increasing concurrency.
+ * <p>
+ * Scheduling is open-loop: every caller issues requests at a fixed rate and the latency of a request is measured from the time it was
+ * scheduled, not from the time it was sent. A caller which falls behind sends its late requests immediately, and their queueing delay is
+ * part of their latency, so stalls are not hidden by coordinated omission.
+ * </p>
+ * <p>
+ * Options, all optional:
+ * </p>
+ * <ul>
+ * <li>{@code --concurrency=1,2,4,8,16,32,64} the numbers of concurrent callers to run, one level after the other;</li>
+ * <li>{@code --rate=1000} requests per second of each caller, so the offered load grows with the concurrency;</li>
+ * <li>{@code --duration=10} measured seconds per level, preceded by {@code --warmup=2} unmeasured seconds;</li>
+ * <li>{@code --corruption=0.1} the share of corrupted MRZs and {@code --noise=0.1} the share of inputs with no MRZ at all;</li>
+ * <li>{@code --virtual} to run the callers on virtual threads, requires Java 21;</li>
+ * <li>{@code --histogram} to print the full latency distribution of every level;</li>
+ * <li>{@code --seed=9303} the seed of the generated inputs.</li>
+ * </ul>
+ */
+public final class LoadHarness {
+
+	private static final int INPUTS = 4096;
+	private static final String[] WORDS = {"the", "holder", "of", "this", "document", "is", "entitled", "to", "travel", "Republic", "page",
+		"signature", "authority", "date", "issue", "valid", "until", "No.", "Name", "Nationality", "12", "2024", "-", "/"};
+
+	private final int[] concurrency;
+	private final double rate;
+	private final long warmupNanos;
+	private final long durationNanos;
+	private final boolean virtual;
+	private final boolean histogram;
+	private final String[] inputs;
+
+	/**
+	 * @param options the options by name, without the leading dashes
+	 */
+	private LoadHarness(final Map<String, String> options) {
+		final String[] levels = options.getOrDefault("concurrency", "1,2,4,8,16,32,64").split(",");
+		concurrency = new int[levels.length];
+		for (int i = 0; i < levels.length; i++) {
+			concurrency[i] = Integer.parseInt(levels[i].trim());
+		}
+		rate = Double.parseDouble(options.getOrDefault("rate", "1000"));
+		warmupNanos = TimeUnit.MILLISECONDS.toNanos((long) (Double.parseDouble(options.getOrDefault("warmup", "2")) * 1000));
+		durationNanos = TimeUnit.MILLISECONDS.toNanos((long) (Double.parseDouble(options.getOrDefault("duration", "10")) * 1000));
+		virtual = options.containsKey("virtual");
+		histogram = options.containsKey("histogram");
+		inputs = generateInputs(Long.parseLong(options.getOrDefault("seed", "9303")), Double.parseDouble(options.getOrDefault("corruption",
+				"0.1")), Double.parseDouble(options.getOrDefault("noise", "0.1")));
+	}
+
+	/**
+	 * @param args the options, see the class documentation
+	 * @throws InterruptedException interrupted while waiting for the callers
+	 */
+	public static void main(final String[] args) throws InterruptedException {
+		final Map<String, String> options = new HashMap<>();
+		for (final String arg : args) {
+			if (!arg.startsWith("--")) {
+				System.err.println("Unexpected argument " + arg + ", see the LoadHarness documentation for the options");
+				System.exit(2);
+			}
+			final int eq = arg.indexOf('=');
+			options.put(eq < 0 ? arg.substring(2) : arg.substring(2, eq), eq < 0 ? "" : arg.substring(eq + 1));
+		}
+		new LoadHarness(options).run();
+	}
+
+	/**
+	 * Runs all concurrency levels and prints a line per level.
+	 *
+	 * @throws InterruptedException interrupted while waiting for the callers
+	 */
+	private void run() throws InterruptedException {
+		System.out.printf(Locale.ROOT, "%d inputs, %.0f requests/s per caller, %s threads%n", inputs.length, rate, virtual ? "virtual"
+				: "platform");
+		final String header = String.format(Locale.ROOT, "%8s %12s %12s %10s %10s %10s %10s %10s %8s %8s %8s", "callers", "offered/s",
+				"achieved/s", "p50 us", "p90 us", "p99 us", "p99.9 us", "max us", "parsed", "invalid", "no MRZ");
+		if (!histogram) {
+			System.out.println(header);
+		}
+		for (final int callers : concurrency) {
+			final Level level = runLevel(callers);
+			final LatencyHistogram latency = level.latency;
+			if (histogram) {
+				System.out.println();
+				System.out.println(header);
+			}
+			System.out.printf(Locale.ROOT, "%8d %12.0f %12.0f %10.1f %10.1f %10.1f %10.1f %10.1f %8d %8d %8d%n", callers, callers * rate,
+					latency.getCount() * 1e9 / level.elapsedNanos, micros(latency.getValueAtPercentile(50)), micros(latency
+					.getValueAtPercentile(90)), micros(latency.getValueAtPercentile(99)), micros(latency.getValueAtPercentile(99.9)), micros(
+					latency.getMax()), level.parsed, level.invalid, level.notFound);
+			if (histogram) {
+				System.out.println();
+				latency.printDistribution(System.out, 1000.0);
+			}
+		}
+	}
+
+	/**
+	 * @param callers the number of concurrent callers
+	 * @return the merged results of the callers
+	 * @throws InterruptedException interrupted while waiting for the callers
+	 */
+	private Level runLevel(final int callers) throws InterruptedException {
+		final long interval = (long) (1e9 / rate);
+		final long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50);
+		final long measureFrom = start + warmupNanos;
+		final long end = measureFrom + durationNanos;
+		final List<Caller> workers = new ArrayList<>(callers);
+		final List<Thread> threads = new ArrayList<>(callers);
+		for (int i = 0; i < callers; i++) {
+			// Stagger the callers over one interval so that they do not send in bursts
+			final Caller caller = new Caller(start + interval * i / callers, interval, measureFrom, end, i * (INPUTS / callers));
+			workers.add(caller);
+			threads.add(newThread(caller, "mrz-load-" + i));
+		}
+		for (final Thread thread : threads) {
+			thread.start();
+		}
+		final Level level = new Level();
+		long lastDone = measureFrom;
+		for (int i = 0; i < callers; i++) {
+			threads.get(i).join();
+			final Caller caller = workers.get(i);
+			level.latency.add(caller.latency);
+			level.parsed += caller.parsed;
+			level.invalid += caller.invalid;
+			level.notFound += caller.notFound;
+			lastDone = Math.max(lastDone, caller.lastDone);
+		}
+		level.elapsedNanos = Math.max(1, lastDone - measureFrom);
+		return level;
+	}
+
+	/**
+	 * @param task the task
+	 * @param name the thread name
+	 * @return a platform thread, or a virtual thread if requested
+	 */
+	private Thread newThread(final Runnable task, final String name) {
+		if (!virtual) {
+			return new Thread(task, name);
+		}
+		try {
+			final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			final Object named = builderClass.getMethod("name", String.class).invoke(builder, name);
+			return (Thread) builderClass.getMethod("unstarted", Runnable.class).invoke(named, task);
+		} catch (NoSuchMethodException | ClassNotFoundException | IllegalAccessException | InvocationTargetException e) {
+			throw new IllegalStateException("Virtual threads require Java 21", e);
+		}
+	}
+
+	/**
+	 * Generates the inputs: text lines with an MRZ of a random format at a random line, or with no MRZ at all.
+	 *
+	 * @param seed the seed
+	 * @param corruption the share of corrupted MRZs
+	 * @param noise the share of inputs without an MRZ
+	 * @return the inputs
+	 */
+	private static String[] generateInputs(final long seed, final double corruption, final double noise) {
+		final MrzCorpusGenerator generator = new MrzCorpusGenerator(seed);
+		generator.setCorruptionRate(corruption);
+		final SplittableRandom random = new SplittableRandom(seed);
+		final String[] result = new String[INPUTS];
+		for (int i = 0; i < INPUTS; i++) {
+			final StringBuilder sb = new StringBuilder();
+			final int lines = 2 + random.nextInt(8);
+			final int mrzAt = random.nextDouble() < noise ? -1 : random.nextInt(lines);
+			for (int line = 0; line < lines; line++) {
+				if (line == mrzAt) {
+					sb.append(generator.generate(i).getMrz()).append('\n');
+				}
+				final int lineStart = sb.length();
+				while (sb.length() - lineStart < 60) {
+					sb.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+				}
+				sb.append('\n');
+			}
+			result[i] = sb.toString();
+		}
+		return result;
+	}
+
+	/**
+	 * @param nanos the nanoseconds
+	 * @return the microseconds
+	 */
+	private static double micros(final long nanos) {
+		return nanos / 1000.0;
+	}
+
+	/**
+	 * The merged results of one concurrency level.
+	 */
+	private static final class Level {
+
+		private final LatencyHistogram latency = new LatencyHistogram();
+		private long elapsedNanos;
+		private long parsed;
+		private long invalid;
+		private long notFound;
+	}
+
+	/**
+	 * A caller sending requests on its own open-loop schedule.
+	 */
+	private final class Caller implements Runnable {
+
+		private final long first;
+		private final long interval;
+		private final long measureFrom;
+		private final long end;
+		private final LatencyHistogram latency = new LatencyHistogram();
+		private int input;
+		private long lastDone;
+		private long parsed;
+		private long invalid;
+		private long notFound;
+
+		/**
+		 * @param first the time the first request is scheduled at
+		 * @param interval the nanoseconds between two scheduled requests
+		 * @param measureFrom the time from which scheduled requests are measured
+		 * @param end the time from which no more requests are scheduled
+		 * @param input the index of the first input
+		 */
+		private Caller(final long first, final long interval, final long measureFrom, final long end, final int input) {
+			this.first = first;
+			this.interval = interval;
+			this.measureFrom = measureFrom;
+			this.end = end;
+			this.input = input;
+		}
+
+		@Override
+		public void run() {
+			for (long scheduled = first; scheduled < end; scheduled += interval) {
+				long now = System.nanoTime();
+				while (now < scheduled) {
+					LockSupport.parkNanos(scheduled - now);
+					now = System.nanoTime();
+				}
+				final boolean measured = scheduled >= measureFrom;
+				request(inputs[input++ % INPUTS], measured);
+				final long done = System.nanoTime();
+				if (measured) {
+					// Measured from the scheduled time, including any delay of this caller falling behind
+					latency.record(done - scheduled);
+					lastDone = done;
+				}
+			}
+		}
+
+		/**
+		 * @param text the text to find and parse the MRZ in
+		 * @param measured true to count the outcome
+		 */
+		private void request(final String text, final boolean measured) {
+			try {
+				final MrzRecord record = MrzParser.parse(MrzFinderUtil.findMrz(text));
+				if (measured) {
+					if (record.isValidDocumentNumber() && record.isValidDateOfBirth() && record.isValidExpirationDate() && record
+							.isValidComposite()) {
+						parsed++;
+					} else {
+						invalid++;
+					}
+				}
+			} catch (MrzNotFoundException e) {
+				if (measured) {
+					notFound++;
+				}
+			} catch (MrzParseException | IllegalArgumentException e) {
+				if (measured) {
+					invalid++;
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,117 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.benchmarks;
+
+import com.innovatrics.mrz.MrzParseException;
+import com.innovatrics.mrz.MrzParser;
+import com.innovatrics.mrz.MrzProjection;
+import com.innovatrics.mrz.MrzRecord;
+import com.innovatrics.mrz.types.MrzField;
+import com.innovatrics.mrz.types.MrzFormat;
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing and validation with {@link MrzParser#parse(String)}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParserBenchmark {
+
+	/**
+	 * The fields a border gate needs.
+	 */
+	private static final MrzProjection GATE = MrzProjection.of(EnumSet.of(MrzField.DOCUMENT_NUMBER, MrzField.EXPIRATION_DATE));
+
+	/**
+	 * The format of the inputs.
+	 */
+	@Param
+	public MrzFormat format;
+	/**
+	 * The share of corrupted inputs.
+	 */
+	@Param({"0", "0.25"})
+	public double corruption;
+
+	private String[] mrz;
+	private int index;
+
+	/**
+	 * Generates the inputs.
+	 */
+	@Setup
+	public void setup() {
+		mrz = Samples.mrz(format, corruption);
+	}
+
+	/**
+	 * @return the record, or the exception if the MRZ is malformed or has invalid characters
+	 */
+	@Benchmark
+	public Object parse() {
+		try {
+			return MrzParser.parse(mrz[index++ & Samples.MASK]);
+		} catch (MrzParseException | IllegalArgumentException e) {
+			return e;
+		}
+	}
+
+	/**
+	 * @return true if all check digits of the record are valid
+	 */
+	@Benchmark
+	public boolean parseAndValidate() {
+		try {
+			final MrzRecord record = MrzParser.parse(mrz[index++ & Samples.MASK]);
+			return record.isValidDocumentNumber() && record.isValidDateOfBirth() && record.isValidExpirationDate() && record.isValidComposite();
+		} catch (MrzParseException | IllegalArgumentException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * @return true if the document number and the expiration date are valid, decoding no other field
+	 */
+	@Benchmark
+	public boolean parseProjected() {
+		try {
+			final MrzRecord record = GATE.parse(mrz[index++ & Samples.MASK]);
+			return record.isValidDocumentNumber() && record.isValidExpirationDate();
+		} catch (MrzParseException e) {
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,239 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Runs a fixed subset of the benchmarks and compares throughput and allocation per operation against a stored {@link Baseline}.
+ * <p>
+ * Usage: {@code RegressionGate <baseline.json> [--update]}. A benchmark regresses if its throughput drops by more than the
+ * {@code gate.throughputTolerance} system property (default 0.15, i.e. 15%) or its allocation grows by more than
+ * {@code gate.allocationTolerance} (default 0.05) plus {@value #ALLOCATION_SLACK} bytes. The process exits with 1 on a regression, with 2
+ * if the baseline cannot be read. With {@code --update} the baseline is rewritten from the run instead.
+ * </p>
+ * <p>
+ * Throughput depends on the machine, so the baseline must be recorded on the machine the gate runs on.
+ * </p>
+ */
+public final class RegressionGate {
+
+	/**
+	 * The allocation growth in bytes per operation always tolerated, as the GC profiler is not exact for small allocations.
+	 */
+	private static final double ALLOCATION_SLACK = 16;
+	private static final String ALLOCATION_LABEL = "gc.alloc.rate.norm";
+	private static final String ROW_FORMAT = "%-62s %10s %10s %8s %10s %10s %8s  %s%n";
+
+	/**
+	 * Prevent instantiation.
+	 */
+	private RegressionGate() {
+		// Do nothing
+	}
+
+	/**
+	 * @param args the baseline file and optionally {@code --update}
+	 * @throws RunnerException the benchmarks failed
+	 * @throws IOException failed to write the baseline
+	 */
+	public static void main(final String[] args) throws RunnerException, IOException {
+		if (args.length < 1 || args.length > 2 || args.length == 2 && !"--update".equals(args[1])) {
+			System.err.println("Usage: RegressionGate <baseline.json> [--update]");
+			System.exit(2);
+		}
+		final Path file = Paths.get(args[0]);
+		final boolean update = args.length == 2;
+		Baseline baseline = null;
+		if (!update) {
+			try {
+				baseline = Baseline.read(file);
+			} catch (IOException e) {
+				System.err.println("Failed to read the baseline " + file + ": " + e.getMessage());
+				System.exit(2);
+			}
+		}
+
+		final Baseline current = toBaseline(new Runner(options()).run());
+		if (update) {
+			Files.createDirectories(file.toAbsolutePath().getParent());
+			current.write(file);
+			System.out.println("Wrote " + current.getScores().size() + " benchmarks to " + file);
+			return;
+		}
+		final int regressions = compare(baseline, current, Double.parseDouble(System.getProperty("gate.throughputTolerance", "0.15")), Double
+				.parseDouble(System.getProperty("gate.allocationTolerance", "0.05")));
+		if (regressions > 0) {
+			System.out.println(regressions + " benchmark(s) regressed against " + file);
+			System.exit(1);
+		}
+		System.out.println("No regression against " + file);
+	}
+
+	/**
+	 * @return the fixed subset of benchmarks, in throughput mode with the GC profiler
+	 */
+	private static Options options() {
+		return new OptionsBuilder()
+				.include("\\.FormatBenchmark\\.get$")
+				.include("\\.ParserBenchmark\\.parse$")
+				.include("\\.FinderBenchmark\\.findMrz$")
+				.include("\\.CheckDigitBenchmark\\.computeCheckDigit$")
+				.include("\\.EncoderBenchmark\\.(toMrz|encodeInto|recordToString)$")
+				.param("format", "PASSPORT", "MRTD_TD1")
+				.param("corruption", "0")
+				.param("size", "4096")
+				.param("length", "9")
+				.mode(Mode.Throughput)
+				.timeUnit(TimeUnit.MICROSECONDS)
+				.warmupIterations(2)
+				.warmupTime(TimeValue.seconds(1))
+				.measurementIterations(3)
+				.measurementTime(TimeValue.seconds(1))
+				.forks(1)
+				.addProfiler(GCProfiler.class)
+				.build();
+	}
+
+	/**
+	 * @param results the benchmark results
+	 * @return the scores of the results
+	 */
+	private static Baseline toBaseline(final Collection<RunResult> results) {
+		final List<RunResult> sorted = new ArrayList<>(results);
+		sorted.sort(RunResult.DEFAULT_SORT_COMPARATOR);
+		final Baseline baseline = new Baseline();
+		for (final RunResult result : sorted) {
+			double allocation = Double.NaN;
+			for (final Map.Entry<String, Result> secondary : result.getSecondaryResults().entrySet()) {
+				if (secondary.getKey().endsWith(ALLOCATION_LABEL)) {
+					allocation = secondary.getValue().getScore();
+				}
+			}
+			baseline.put(getName(result.getParams()), new Baseline.Score(result.getPrimaryResult().getScore(), allocation));
+		}
+		return baseline;
+	}
+
+	/**
+	 * @param params the benchmark parameters
+	 * @return the benchmark class and method without the package, followed by the parameters
+	 */
+	private static String getName(final BenchmarkParams params) {
+		final String benchmark = params.getBenchmark();
+		final StringBuilder name = new StringBuilder(benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1));
+		char separator = ':';
+		for (final String key : params.getParamsKeys()) {
+			name.append(separator).append(key).append('=').append(params.getParam(key));
+			separator = ',';
+		}
+		return name.toString();
+	}
+
+	/**
+	 * Prints the diff table.
+	 *
+	 * @param baseline the stored scores
+	 * @param current the scores of this run
+	 * @param throughputTolerance the tolerated relative throughput drop
+	 * @param allocationTolerance the tolerated relative allocation growth
+	 * @return the number of regressed benchmarks
+	 */
+	private static int compare(final Baseline baseline, final Baseline current, final double throughputTolerance,
+			final double allocationTolerance) {
+		System.out.printf(Locale.ROOT, ROW_FORMAT, "Benchmark", "base op/us", "op/us", "change", "base B/op", "B/op", "change", "");
+		int regressions = 0;
+		for (final Map.Entry<String, Baseline.Score> entry : current.getScores().entrySet()) {
+			final Baseline.Score now = entry.getValue();
+			final Baseline.Score base = baseline.getScores().get(entry.getKey());
+			if (base == null) {
+				System.out.printf(Locale.ROOT, ROW_FORMAT, entry.getKey(), "", format(now.getThroughput()), "", "",
+						formatBytes(now.getAllocation()), "", "NEW");
+				continue;
+			}
+			final List<String> problems = new ArrayList<>();
+			if (now.getThroughput() < base.getThroughput() * (1 - throughputTolerance)) {
+				problems.add("SLOWER");
+			}
+			if (now.getAllocation() > base.getAllocation() * (1 + allocationTolerance) + ALLOCATION_SLACK) {
+				problems.add("ALLOCATES MORE");
+			}
+			if (!problems.isEmpty()) {
+				regressions++;
+			}
+			System.out.printf(Locale.ROOT, ROW_FORMAT, entry.getKey(), format(base.getThroughput()), format(now.getThroughput()),
+					change(base.getThroughput(), now.getThroughput()), formatBytes(base.getAllocation()), formatBytes(now.getAllocation()),
+					change(base.getAllocation(), now.getAllocation()), problems.isEmpty() ? "OK" : "REGRESSION " + String.join(", ", problems));
+		}
+		for (final String name : baseline.getScores().keySet()) {
+			if (!current.getScores().containsKey(name)) {
+				System.out.printf(Locale.ROOT, ROW_FORMAT, name, "", "", "", "", "", "", "NOT RUN");
+			}
+		}
+		return regressions;
+	}
+
+	/**
+	 * @param value the score
+	 * @return the score with four significant digits, empty if not measured
+	 */
+	private static String format(final double value) {
+		return Double.isNaN(value) ? "" : String.format(Locale.ROOT, "%.4g", value);
+	}
+
+	/**
+	 * @param value the bytes per operation
+	 * @return the bytes with one decimal, empty if not measured
+	 */
+	private static String formatBytes(final double value) {
+		return Double.isNaN(value) ? "" : String.format(Locale.ROOT, "%.1f", value);
+	}
+
+	/**
+	 * @param base the baseline score
+	 * @param now the current score
+	 * @return the relative change in percent, empty if not comparable
+	 */
+	private static String change(final double base, final double now) {
+		if (Double.isNaN(base) || Double.isNaN(now) || base == 0) {
+			return "";
+		}
+		return String.format(Locale.ROOT, "%+.1f%%", (now - base) * 100 / base);
+	}
+
+}
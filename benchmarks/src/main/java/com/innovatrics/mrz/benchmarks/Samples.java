@@ -0,0 +1,84 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.benchmarks;
+
+import com.innovatrics.mrz.MrzParseException;
+import com.innovatrics.mrz.MrzParser;
+import com.innovatrics.mrz.MrzRecord;
+import com.innovatrics.mrz.corpus.MrzCorpusGenerator;
+import com.innovatrics.mrz.corpus.MrzSample;
+import com.innovatrics.mrz.types.MrzFormat;
+
+/**
+ * Benchmark inputs, generated by {@link MrzCorpusGenerator} with a fixed seed so that all runs measure the same data.
+ */
+final class Samples {
+
+	/**
+	 * The number of inputs a benchmark cycles through, a power of two.
+	 */
+	static final int SIZE = 1024;
+	/**
+	 * Mask to wrap an input index.
+	 */
+	static final int MASK = SIZE - 1;
+	private static final long SEED = 9303;
+
+	/**
+	 * Prevent instantiation.
+	 */
+	private Samples() {
+		// Do nothing
+	}
+
+	/**
+	 * @param format the format
+	 * @param corruption the share of corrupted samples
+	 * @return MRZs of given format, rows separated by newlines
+	 */
+	static String[] mrz(final MrzFormat format, final double corruption) {
+		final MrzCorpusGenerator generator = new MrzCorpusGenerator(SEED, format);
+		generator.setCorruptionRate(corruption);
+		final String[] result = new String[SIZE];
+		for (int i = 0; i < SIZE; i++) {
+			result[i] = generator.generate(i).getMrz();
+		}
+		return result;
+	}
+
+	/**
+	 * @param format the format
+	 * @return records parsed from valid MRZs of given format
+	 */
+	static MrzRecord[] records(final MrzFormat format) {
+		final MrzCorpusGenerator generator = new MrzCorpusGenerator(SEED, format);
+		generator.setCorruptionRate(0);
+		final MrzRecord[] result = new MrzRecord[SIZE];
+		for (int i = 0; i < SIZE; i++) {
+			final MrzSample sample = generator.generate(i);
+			try {
+				result[i] = MrzParser.parse(sample.getMrz());
+			} catch (MrzParseException e) {
+				throw new IllegalStateException("Generated MRZ is invalid: " + sample, e);
+			}
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,115 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.benchmarks;
+
+import com.innovatrics.mrz.MrzFilter;
+import com.innovatrics.mrz.MrzParseException;
+import com.innovatrics.mrz.MrzParser;
+import com.innovatrics.mrz.MrzRecord;
+import com.innovatrics.mrz.MrzScanner;
+import com.innovatrics.mrz.corpus.MrzCorpusGenerator;
+import com.innovatrics.mrz.types.MrzDate;
+import com.innovatrics.mrz.types.MrzField;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Filtering an archive of MRZs by nationality and expiration date with {@link MrzScanner}, against parsing every MRZ before filtering.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScanBenchmark {
+
+	private static final String NATIONALITY = "FRA";
+	private static final MrzDate EXPIRATION = new MrzDate(25, 1, 1);
+	private static final MrzScanner SCANNER = new MrzScanner(MrzFilter.equalTo(MrzField.NATIONALITY, NATIONALITY).and(MrzFilter.before(
+		MrzField.EXPIRATION_DATE, EXPIRATION)));
+
+	/**
+	 * The share of corrupted MRZs.
+	 */
+	@Param({"0", "0.25"})
+	public double corruption;
+
+	private byte[] archive;
+
+	/**
+	 * Generates the archive.
+	 *
+	 * @throws IOException never
+	 */
+	@Setup
+	public void setup() throws IOException {
+		final MrzCorpusGenerator generator = new MrzCorpusGenerator(9303);
+		generator.setCorruptionRate(corruption);
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		generator.write(out, 10_000);
+		archive = out.toByteArray();
+	}
+
+	/**
+	 * @param blackhole consumes the matching records
+	 * @return the number of matching records
+	 */
+	@Benchmark
+	public long scan(final Blackhole blackhole) {
+		return SCANNER.scan(archive, 0, archive.length, blackhole::consume);
+	}
+
+	/**
+	 * @param blackhole consumes the matching records
+	 * @return the number of matching records
+	 */
+	@Benchmark
+	public long parseAndFilter(final Blackhole blackhole) {
+		long matched = 0;
+		for (final String mrz : new String(archive, StandardCharsets.US_ASCII).split("\n\n")) {
+			try {
+				final MrzRecord record = MrzParser.parse(mrz);
+				if (NATIONALITY.equals(record.getNationality()) && record.getExpirationDate() != null
+						&& record.getExpirationDate().compareTo(EXPIRATION) < 0) {
+					blackhole.consume(record);
+					matched++;
+				}
+			} catch (MrzParseException | IllegalArgumentException e) {
+				blackhole.consume(e);
+			}
+		}
+		return matched;
+	}
+
+}
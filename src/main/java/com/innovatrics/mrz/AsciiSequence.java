@@ -0,0 +1,62 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ASCII characters backed by a byte buffer, read in place.
+ */
+final class AsciiSequence implements CharSequence {
+
+	private final byte[] data;
+	private final int offset;
+	private final int length;
+
+	/**
+	 * @param data the buffer
+	 * @param offset the offset of the characters in the buffer
+	 * @param length the number of characters
+	 */
+	AsciiSequence(final byte[] data, final int offset, final int length) {
+		this.data = data;
+		this.offset = offset;
+		this.length = length;
+	}
+
+	@Override
+	public int length() {
+		return length;
+	}
+
+	@Override
+	public char charAt(final int index) {
+		return (char) (data[offset + index] & 0xFF);
+	}
+
+	@Override
+	public CharSequence subSequence(final int start, final int end) {
+		return new AsciiSequence(data, offset + start, end - start);
+	}
+
+	@Override
+	public String toString() {
+		return new String(data, offset, length, StandardCharsets.ISO_8859_1);
+	}
+}
@@ -0,0 +1,57 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz;
+
+/**
+ * Computes the weighted sums of {@link MrzCheckDigits}. This version runs on any Java version and delegates to the scalar kernel; the
+ * multi-release jar replaces it on Java 17 and later with a version using the Vector API.
+ */
+final class CheckDigitKernel {
+
+	/**
+	 * Prevent instantiation.
+	 */
+	private CheckDigitKernel() {
+		// Do nothing
+	}
+
+	/**
+	 * @return true if the sums are computed with the Vector API
+	 */
+	static boolean isVectorized() {
+		return false;
+	}
+
+	/**
+	 * Adds the weighted sum of a contiguous range of each MRZ to its sum.
+	 *
+	 * @param data the ASCII bytes of the MRZs
+	 * @param offset the offset of the range in the first MRZ
+	 * @param stride the distance between two MRZs
+	 * @param count the number of MRZs
+	 * @param length the length of the range
+	 * @param phase the index of the weight of the first character, 0..2
+	 * @param sums the sum of each MRZ, {@link MrzCheckDigits#INVALID} if an invalid character was found
+	 */
+	static void sums(final byte[] data, final int offset, final int stride, final int count, final int length, final int phase,
+			final int[] sums) {
+		MrzCheckDigits.sums(data, offset, stride, count, length, phase, sums);
+	}
+
+}
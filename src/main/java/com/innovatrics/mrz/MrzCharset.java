@@ -0,0 +1,131 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz;
+
+/**
+ * Validates MRZ characters: digits, upper case letters and the filler.
+ * <p>
+ * Characters are looked up in a 128-bit class bitmap, two words of 64 bits, without branching on the character class. Byte buffers are
+ * validated 8 bytes at a time: each byte of a word is range-checked in place with SIMD-within-a-register arithmetic, and the first invalid
+ * byte is found by counting the trailing zeros of the resulting mask.
+ * </p>
+ */
+public final class MrzCharset {
+
+	/**
+	 * Bit c set for the valid characters 0 to 63: the digits and the filler.
+	 */
+	private static final long VALID_LOW = 0x3FFL << '0' | 1L << MrzParser.FILLER;
+	/**
+	 * Bit c - 64 set for the valid characters 64 to 127: the upper case letters.
+	 */
+	private static final long VALID_HIGH = 0x3FFFFFFL << 'A' - 64;
+
+	private static final long ONES = 0x0101010101010101L;
+	private static final long HIGH_BITS = 0x8080808080808080L;
+	private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+	/**
+	 * Prevent instantiation.
+	 */
+	private MrzCharset() {
+		// Do nothing
+	}
+
+	/**
+	 * @param c the character
+	 * @return true if the character is a digit, an upper case letter or the filler
+	 */
+	public static boolean isValid(final char c) {
+		// Shifts use the low 6 bits of c only
+		return c < 128 && ((c < 64 ? VALID_LOW : VALID_HIGH) >>> c & 1) != 0;
+	}
+
+	/**
+	 * @param sequence the characters
+	 * @param from the start of the checked characters
+	 * @param to the end of the checked characters, exclusive
+	 * @return the position of the first character which is not valid, -1 if all are valid
+	 */
+	public static int firstInvalid(final CharSequence sequence, final int from, final int to) {
+		for (int i = from; i < to; i++) {
+			if (!isValid(sequence.charAt(i))) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @param data the ASCII bytes
+	 * @param from the start of the checked bytes
+	 * @param to the end of the checked bytes, exclusive
+	 * @return the position of the first byte which is not a valid character, -1 if all are valid
+	 */
+	public static int firstInvalid(final byte[] data, final int from, final int to) {
+		int i = from;
+		for (; i + 8 <= to; i += 8) {
+			final long mask = invalidMask(word(data, i));
+			if (mask != 0) {
+				return i + (Long.numberOfTrailingZeros(mask) >>> 3);
+			}
+		}
+		for (; i < to; i++) {
+			if (!isValid((char) (data[i] & 0xFF))) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @param data the bytes
+	 * @param offset the offset of the word
+	 * @return the 8 bytes at given offset, the first byte in the lowest bits
+	 */
+	private static long word(final byte[] data, final int offset) {
+		return data[offset] & 0xFFL | (data[offset + 1] & 0xFFL) << 8 | (data[offset + 2] & 0xFFL) << 16 | (data[offset + 3] & 0xFFL) << 24
+				| (data[offset + 4] & 0xFFL) << 32 | (data[offset + 5] & 0xFFL) << 40 | (data[offset + 6] & 0xFFL) << 48
+				| (data[offset + 7] & 0xFFL) << 56;
+	}
+
+	/**
+	 * @param word 8 bytes
+	 * @return the high bit of each byte set if the byte is not a valid character
+	 */
+	private static long invalidMask(final long word) {
+		// Adding to the low 7 bits never carries into the next byte
+		final long low = word & LOW_BITS;
+		final long valid = inRange(low, '0', '9') | inRange(low, MrzParser.FILLER, MrzParser.FILLER) | inRange(low, 'A', 'Z');
+		return ~valid & HIGH_BITS | word & HIGH_BITS;
+	}
+
+	/**
+	 * @param low 8 bytes of 7 bits
+	 * @param min the lowest value, at least 1
+	 * @param max the highest value, at most 127
+	 * @return the high bit of each byte set if the byte is within the range
+	 */
+	private static long inRange(final long low, final char min, final char max) {
+		final long atLeast = low + ONES * (0x80 - min);
+		final long atMost = ~(low + ONES * (0x7F - max));
+		return atLeast & atMost & HIGH_BITS;
+	}
+
+}
@@ -0,0 +1,190 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz;
+
+import java.util.Arrays;
+
+/**
+ * Computes and verifies check digits of many MRZs of the same format at once, straight from their ASCII bytes.
+ * <p>
+ * The MRZs are stored in one buffer at a fixed stride, such as an archive of fixed-width records or the MRZ data elements of DG1s. A field is
+ * addressed by its offset in the first MRZ; the same field of MRZ i is at <code>offset + i * stride</code>. Weighted sums are computed by a
+ * kernel picked once: on Java 17 and later, run with <code>--add-modules jdk.incubator.vector</code>, the kernel uses the Vector API,
+ * otherwise a scalar kernel looking character values up in a table. Both give the same results, see {@link #isVectorized()}.
+ * </p>
+ * <p>
+ * Unlike {@link MrzParser#computeCheckDigit(String)}, invalid characters do not throw: the check digit of a field holding an invalid
+ * character is -1, and such a field never verifies.
+ * </p>
+ */
+public final class MrzCheckDigits {
+
+	/**
+	 * The sum of a field holding an invalid character.
+	 */
+	static final int INVALID = Integer.MIN_VALUE;
+
+	/**
+	 * The value of each byte in the check digit sum, -1 if the byte is not a valid character.
+	 */
+	private static final byte[] VALUES = new byte[256];
+
+	static {
+		Arrays.fill(VALUES, (byte) -1);
+		VALUES[MrzParser.FILLER] = 0;
+		for (char c = '0'; c <= '9'; c++) {
+			VALUES[c] = (byte) (c - '0');
+		}
+		for (char c = 'A'; c <= 'Z'; c++) {
+			VALUES[c] = (byte) (c - 'A' + 10);
+		}
+	}
+
+	/**
+	 * Prevent instantiation.
+	 */
+	private MrzCheckDigits() {
+		// Do nothing
+	}
+
+	/**
+	 * @return true if the sums are computed with the Vector API, false if by the scalar kernel
+	 */
+	public static boolean isVectorized() {
+		return CheckDigitKernel.isVectorized();
+	}
+
+	/**
+	 * Computes the check digit of one contiguous field in each MRZ.
+	 *
+	 * @param data the ASCII bytes of the MRZs
+	 * @param offset the offset of the field in the first MRZ
+	 * @param stride the distance between two MRZs
+	 * @param count the number of MRZs
+	 * @param length the length of the field
+	 * @param digits receives the check digit of each MRZ, 0..9, or -1 if the field holds an invalid character
+	 */
+	public static void compute(final byte[] data, final int offset, final int stride, final int count, final int length, final byte[] digits) {
+		checkBounds(data, offset, stride, count, length);
+		if (digits.length < count) {
+			throw new IllegalArgumentException("Parameter digits: length " + digits.length + " lower than the count " + count);
+		}
+		final int[] sums = new int[count];
+		CheckDigitKernel.sums(data, offset, stride, count, length, 0, sums);
+		for (int i = 0; i < count; i++) {
+			digits[i] = sums[i] < 0 ? -1 : (byte) (sums[i] % 10);
+		}
+	}
+
+	/**
+	 * Verifies one check digit of the layout in each MRZ.
+	 *
+	 * @param data the ASCII bytes of the MRZs
+	 * @param offset the offset of the first MRZ
+	 * @param stride the distance between two MRZs
+	 * @param count the number of MRZs
+	 * @param check the check digit, see {@link MrzLayout#getChecks()}
+	 * @param rowStride the distance between two rows of a MRZ: the number of columns, plus one if rows are separated by a newline
+	 * @param valid receives bit i of word i / 64 set if the check digit of MRZ i is valid, at least (count + 63) / 64 words
+	 * @return the number of MRZs whose check digit is valid
+	 */
+	public static int verify(final byte[] data, final int offset, final int stride, final int count, final MrzLayout.Check check,
+			final int rowStride, final long[] valid) {
+		if (valid.length < (count + 63) / 64) {
+			throw new IllegalArgumentException("Parameter valid: length " + valid.length + " too low for " + count + " MRZs");
+		}
+		final int[] sums = new int[count];
+		int phase = 0;
+		for (final MrzRange range : check.getRanges()) {
+			final int start = offset + range.getRow() * rowStride + range.getColumn();
+			final int length = range.getColumnTo() - range.getColumn();
+			checkBounds(data, start, stride, count, length);
+			CheckDigitKernel.sums(data, start, stride, count, length, phase, sums);
+			phase = (phase + length) % MrzParser.MRZ_WEIGHTS.length;
+		}
+		final int digit = offset + check.getDigit().getRow() * rowStride + check.getDigit().getColumn();
+		checkBounds(data, digit, stride, count, 1);
+		int result = 0;
+		for (int i = 0; i < count; i++) {
+			final int expected = data[digit + i * stride] == MrzParser.FILLER ? 0 : data[digit + i * stride] - '0';
+			if (sums[i] >= 0 && sums[i] % 10 == expected) {
+				valid[i >>> 6] |= 1L << i;
+				result++;
+			} else {
+				valid[i >>> 6] &= ~(1L << i);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param data the buffer
+	 * @param offset the offset of the field in the first MRZ
+	 * @param stride the distance between two MRZs
+	 * @param count the number of MRZs
+	 * @param length the length of the field
+	 */
+	private static void checkBounds(final byte[] data, final int offset, final int stride, final int count, final int length) {
+		if (offset < 0 || stride < 0 || count < 0 || length < 0 || count > 0 && (long) offset + (long) (count - 1) * stride + length
+				> data.length) {
+			throw new IllegalArgumentException("Invalid field " + offset + "+" + length + " of " + count + " MRZs at stride " + stride
+					+ " in buffer of length " + data.length);
+		}
+	}
+
+	/**
+	 * The scalar kernel: adds the weighted sum of a contiguous range of each MRZ to its sum.
+	 *
+	 * @param data the ASCII bytes of the MRZs
+	 * @param offset the offset of the range in the first MRZ
+	 * @param stride the distance between two MRZs
+	 * @param count the number of MRZs
+	 * @param length the length of the range
+	 * @param phase the index of the weight of the first character, 0..2
+	 * @param sums the sum of each MRZ, {@link #INVALID} if an invalid character was found
+	 */
+	static void sums(final byte[] data, final int offset, final int stride, final int count, final int length, final int phase,
+			final int[] sums) {
+		for (int i = 0, start = offset; i < count; i++, start += stride) {
+			final int sum = sum(data, start, length, phase);
+			sums[i] = sums[i] < 0 || sum < 0 ? INVALID : sums[i] + sum;
+		}
+	}
+
+	/**
+	 * @param data the ASCII bytes
+	 * @param start the start of the range
+	 * @param length the length of the range
+	 * @param phase the index of the weight of the first character, 0..2
+	 * @return the weighted sum of the range, {@link #INVALID} if it holds an invalid character
+	 */
+	static int sum(final byte[] data, final int start, final int length, final int phase) {
+		final int[] weights = MrzParser.MRZ_WEIGHTS;
+		int sum = 0;
+		int invalid = 0;
+		for (int j = 0, w = phase; j < length; j++) {
+			final int value = VALUES[data[start + j] & 0xFF];
+			invalid |= value;
+			sum += value * weights[w];
+			w = w == weights.length - 1 ? 0 : w + 1;
+		}
+		return invalid < 0 ? INVALID : sum;
+	}
+
+}
@@ -0,0 +1,301 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz;
+
+import com.innovatrics.mrz.types.MrzField;
+import com.innovatrics.mrz.types.MrzFormat;
+import com.innovatrics.mrz.types.MrzFormatDefinition;
+import com.innovatrics.mrz.types.MrzFormatRegistry;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Reads the MRZ stored in the data group 1 (DG1) of an eMRTD chip, as specified by ICAO 9303 part 10.
+ * <p>
+ * DG1 is a BER-TLV template with tag {@code 61} wrapping the MRZ data element with tag {@code 5F1F}: the MRZ characters without row
+ * separators. The TLV structure is navigated in place; the format is inferred from the length of the MRZ data element (90 for TD1, 72 for
+ * TD2 and 88 for TD3) and its leading characters. The fields are decoded by a {@link MrzParser} reading the rows straight from the DG1 bytes;
+ * the only String built is the MRZ held by the record.
+ * </p>
+ */
+public final class MrzDg1 {
+
+	/**
+	 * The DG1 template tag.
+	 */
+	public static final int TAG_DG1 = 0x61;
+	/**
+	 * The MRZ data element tag.
+	 */
+	public static final int TAG_MRZ = 0x5F1F;
+
+	/**
+	 * Prevent instantiation.
+	 */
+	private MrzDg1() {
+		// Do nothing
+	}
+
+	/**
+	 * @param dg1 the DG1 bytes: the {@code 61} template, or just the {@code 5F1F} data element
+	 * @return the MRZ record
+	 * @throws MrzParseException malformed DG1, unsupported MRZ length or invalid MRZ
+	 */
+	public static MrzRecord parse(final byte[] dg1) throws MrzParseException {
+		return parse(dg1, 0, dg1.length);
+	}
+
+	/**
+	 * @param data the buffer
+	 * @param offset the offset of DG1 in the buffer
+	 * @param length the length of DG1
+	 * @return the MRZ record
+	 * @throws MrzParseException malformed DG1, unsupported MRZ length or invalid MRZ
+	 */
+	public static MrzRecord parse(final byte[] data, final int offset, final int length) throws MrzParseException {
+		return parse(data, offset, length, null);
+	}
+
+	/**
+	 * @param data the buffer
+	 * @param offset the offset of DG1 in the buffer
+	 * @param length the length of DG1
+	 * @param projection the fields to decode and verify, null for all
+	 * @return the MRZ record
+	 * @throws MrzParseException malformed DG1, unsupported MRZ length or invalid MRZ
+	 */
+	public static MrzRecord parse(final byte[] data, final int offset, final int length, final MrzProjection projection) throws MrzParseException {
+		final AsciiSequence mrz = findMrz(data, offset, length);
+		final MrzFormat format = getFormat(mrz);
+		final int columns = format.getColumns();
+		final CharSequence[] rows = new CharSequence[format.getRows()];
+		for (int row = 0; row < rows.length; row++) {
+			rows[row] = mrz.subSequence(row * columns, (row + 1) * columns);
+		}
+		final MrzFormatDefinition definition = MrzFormatRegistry.get(rows.length, columns, mrz);
+		return (projection == null ? MrzProjection.ALL : projection).parse(definition, new MrzParser(rows, format));
+	}
+
+	/**
+	 * @param data the buffer
+	 * @param offset the offset of DG1 in the buffer
+	 * @param length the length of DG1
+	 * @return the format of the MRZ stored in DG1
+	 * @throws MrzParseException malformed DG1 or unsupported MRZ length
+	 */
+	public static MrzFormat getFormat(final byte[] data, final int offset, final int length) throws MrzParseException {
+		return getFormat(findMrz(data, offset, length));
+	}
+
+	/**
+	 * Compares the MRZ stored in DG1 with the printed MRZ field by field, on the raw characters.
+	 *
+	 * @param data the buffer
+	 * @param offset the offset of DG1 in the buffer
+	 * @param length the length of DG1
+	 * @param printed the printed MRZ, rows separated by newlines or not separated at all
+	 * @return the fields which differ, including {@link MrzField#COMPOSITE} if the composite check digit differs; empty if the MRZs match
+	 * @throws MrzParseException malformed DG1, unsupported MRZ length or the printed MRZ is not of the same size
+	 */
+	public static Set<MrzField> compare(final byte[] data, final int offset, final int length, final CharSequence printed) throws MrzParseException {
+		final AsciiSequence chip = findMrz(data, offset, length);
+		final MrzFormat format = getFormat(chip);
+		final int columns = format.getColumns();
+		final int rows = format.getRows();
+		final int stride;
+		if (printed.length() == rows * columns) {
+			stride = columns;
+		} else if (printed.length() == rows * (columns + 1) - 1 || printed.length() == rows * (columns + 1) && printed.charAt(printed.length() - 1) == '\n') {
+			stride = columns + 1;
+		} else {
+			throw new MrzParseException("Printed MRZ of length " + printed.length() + " does not match the " + format + " MRZ of the chip", printed
+					.toString(), new MrzRange(0, 0, 0), format);
+		}
+
+		final MrzLayout layout = MrzLayout.get(format, chip);
+		final Set<MrzField> result = EnumSet.noneOf(MrzField.class);
+		for (final MrzLayout.Field field : layout.getFields()) {
+			if (!result.contains(field.getField()) && !equals(chip, columns, printed, stride, field.getRange())) {
+				result.add(field.getField());
+			}
+		}
+		for (final MrzLayout.Check check : layout.getChecks()) {
+			if (!equals(chip, columns, printed, stride, check.getDigit())) {
+				result.add(check.getField());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Compares the MRZ stored in DG1 with the printed MRZ field by field, on the raw characters.
+	 *
+	 * @param data the buffer
+	 * @param offset the offset of DG1 in the buffer
+	 * @param length the length of DG1
+	 * @param printed the buffer holding the printed MRZ as ASCII
+	 * @param printedOffset the offset of the printed MRZ in its buffer
+	 * @param printedLength the length of the printed MRZ, rows separated by newlines or not separated at all
+	 * @return the fields which differ, including {@link MrzField#COMPOSITE} if the composite check digit differs; empty if the MRZs match
+	 * @throws MrzParseException malformed DG1, unsupported MRZ length or the printed MRZ is not of the same size
+	 */
+	public static Set<MrzField> compare(final byte[] data, final int offset, final int length, final byte[] printed, final int printedOffset,
+			final int printedLength) throws MrzParseException {
+		return compare(data, offset, length, new AsciiSequence(printed, printedOffset, printedLength));
+	}
+
+	/**
+	 * @param chip the chip MRZ, without row separators
+	 * @param columns the number of characters per row
+	 * @param printed the printed MRZ
+	 * @param stride the distance between the starts of two printed rows
+	 * @param range the range to compare
+	 * @return true if the range is equal in both MRZs
+	 */
+	private static boolean equals(final AsciiSequence chip, final int columns, final CharSequence printed, final int stride, final MrzRange range) {
+		final int chipStart = range.getRow() * columns;
+		final int printedStart = range.getRow() * stride;
+		for (int col = range.getColumn(); col < range.getColumnTo(); col++) {
+			if (chip.charAt(chipStart + col) != printed.charAt(printedStart + col)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param mrz the MRZ data element
+	 * @return the format inferred from the length and the leading characters
+	 * @throws MrzParseException no format has this length
+	 */
+	private static MrzFormat getFormat(final AsciiSequence mrz) throws MrzParseException {
+		for (final MrzFormat f : MrzFormat.values()) {
+			if (f.getRows() * f.getColumns() == mrz.length()) {
+				final MrzFormat format = MrzFormat.get(f.getRows(), f.getColumns(), mrz);
+				if (format != null) {
+					return format;
+				}
+			}
+		}
+		throw new MrzParseException("Unsupported MRZ length " + mrz.length(), mrz.toString(), new MrzRange(0, 0, 0), null);
+	}
+
+	/**
+	 * Locates the value of the MRZ data element.
+	 *
+	 * @param data the buffer
+	 * @param offset the offset of DG1 in the buffer
+	 * @param length the length of DG1
+	 * @return the MRZ characters, backed by the buffer
+	 * @throws MrzParseException malformed DG1 or no MRZ data element
+	 */
+	private static AsciiSequence findMrz(final byte[] data, final int offset, final int length) throws MrzParseException {
+		if (offset < 0 || length < 0 || offset + length > data.length) {
+			throw new IllegalArgumentException("Invalid DG1 range " + offset + "+" + length + " of buffer of length " + data.length);
+		}
+		final TlvReader reader = new TlvReader(data, offset, offset + length);
+		int tag = reader.readTag();
+		int valueLength = reader.readLength();
+		if (tag == TAG_DG1) {
+			final int end = reader.pos + valueLength;
+			while (reader.pos < end) {
+				tag = reader.readTag();
+				valueLength = reader.readLength();
+				if (tag == TAG_MRZ) {
+					break;
+				}
+				reader.pos += valueLength;
+			}
+		}
+		if (tag != TAG_MRZ) {
+			throw new MrzParseException("No MRZ data element " + Integer.toHexString(TAG_MRZ) + " in DG1", null, new MrzRange(0, 0, 0), null);
+		}
+		return new AsciiSequence(data, reader.pos, valueLength);
+	}
+
+	/**
+	 * Reads BER-TLV tags and lengths.
+	 */
+	private static final class TlvReader {
+
+		private final byte[] data;
+		private final int end;
+		private int pos;
+
+		private TlvReader(final byte[] data, final int pos, final int end) {
+			this.data = data;
+			this.pos = pos;
+			this.end = end;
+		}
+
+		/**
+		 * @return the next byte
+		 * @throws MrzParseException no more bytes
+		 */
+		private int next() throws MrzParseException {
+			if (pos >= end) {
+				throw new MrzParseException("Truncated DG1", null, new MrzRange(0, 0, 0), null);
+			}
+			return data[pos++] & 0xFF;
+		}
+
+		/**
+		 * @return the tag, with all its bytes
+		 * @throws MrzParseException truncated or too long tag
+		 */
+		private int readTag() throws MrzParseException {
+			int tag = next();
+			if ((tag & 0x1F) == 0x1F) {
+				int b;
+				int count = 1;
+				do {
+					if (++count > 3) {
+						throw new MrzParseException("DG1 tag too long", null, new MrzRange(0, 0, 0), null);
+					}
+					b = next();
+					tag = (tag << 8) | b;
+				} while ((b & 0x80) != 0);
+			}
+			return tag;
+		}
+
+		/**
+		 * @return the length of the value, checked to fit the data
+		 * @throws MrzParseException truncated, indefinite or too long length
+		 */
+		private int readLength() throws MrzParseException {
+			int length = next();
+			if (length > 0x7F) {
+				final int count = length & 0x7F;
+				if (count == 0 || count > 3) {
+					throw new MrzParseException("Unsupported DG1 length encoding " + Integer.toHexString(length), null, new MrzRange(0, 0, 0), null);
+				}
+				length = 0;
+				for (int i = 0; i < count; i++) {
+					length = (length << 8) | next();
+				}
+			}
+			if (length > end - pos) {
+				throw new MrzParseException("Truncated DG1: value of length " + length + " exceeds the data", null, new MrzRange(0, 0, 0), null);
+			}
+			return length;
+		}
+	}
+
+}
@@ -0,0 +1,258 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz;
+
+import java.util.function.Predicate;
+
+/**
+ * National document number rule, compiled once from a fixed-length pattern of character classes into one 128-bit mask per position.
+ * <p>
+ * The pattern is a sequence of literal characters and bracket classes such as {@code [A-Z0-9]}, each optionally repeated with {@code {n}}, for
+ * example {@code [0-9]{9}[A-Za-z]{2}[0-9]}. A value matches when it has exactly the pattern length, every character is in the class of its
+ * position and the optional {@link Check} passes. Matching does not allocate and works on any range of a character sequence, including the
+ * MRZ itself.
+ * </p>
+ * <p>
+ * Rules are registered per issuing state through {@link MrzProfile#withDocumentNumber}.
+ * </p>
+ */
+public final class MrzDocumentNumberRule implements Predicate<CharSequence> {
+
+	private final String pattern;
+	/**
+	 * Characters 0-63 allowed at each position.
+	 */
+	private final long[] low;
+	/**
+	 * Characters 64-127 allowed at each position.
+	 */
+	private final long[] high;
+	private final Check check;
+
+	/**
+	 * Routine validating a value whose characters already match the classes, typically a weighted checksum.
+	 */
+	@FunctionalInterface
+	public interface Check {
+
+		/**
+		 * @param value the character sequence
+		 * @param start the start of the value
+		 * @param end the end of the value, exclusive
+		 * @return true if the value is valid
+		 */
+		boolean test(CharSequence value, int start, int end);
+	}
+
+	private MrzDocumentNumberRule(final String pattern, final long[] low, final long[] high, final Check check) {
+		this.pattern = pattern;
+		this.low = low;
+		this.high = high;
+		this.check = check;
+	}
+
+	/**
+	 * @param pattern the character class pattern
+	 * @return the rule
+	 * @throws IllegalArgumentException invalid pattern
+	 */
+	public static MrzDocumentNumberRule compile(final String pattern) {
+		return compile(pattern, null);
+	}
+
+	/**
+	 * @param pattern the character class pattern
+	 * @param check the routine validating the matched value, null for none
+	 * @return the rule
+	 * @throws IllegalArgumentException invalid pattern
+	 */
+	public static MrzDocumentNumberRule compile(final String pattern, final Check check) {
+		// Two passes: the first counts the positions, the second fills their masks
+		final int length = parse(pattern, null, null);
+		final long[] low = new long[length];
+		final long[] high = new long[length];
+		parse(pattern, low, high);
+		return new MrzDocumentNumberRule(pattern, low, high, check);
+	}
+
+	/**
+	 * @param pattern the character class pattern
+	 * @param low the masks of characters 0-63 to fill, null to only count the positions
+	 * @param high the masks of characters 64-127 to fill, null to only count the positions
+	 * @return the number of positions
+	 */
+	private static int parse(final String pattern, final long[] low, final long[] high) {
+		int position = 0;
+		int i = 0;
+		while (i < pattern.length()) {
+			long classLow = 0;
+			long classHigh = 0;
+			if (pattern.charAt(i) == '[') {
+				final int close = pattern.indexOf(']', i + 1);
+				if (close <= i + 1) {
+					throw new IllegalArgumentException("Unterminated or empty character class at " + i + " in " + pattern);
+				}
+				for (int j = i + 1; j < close; j++) {
+					final char from = pattern.charAt(j);
+					char to = from;
+					if (j + 2 < close && pattern.charAt(j + 1) == '-') {
+						to = pattern.charAt(j + 2);
+						j += 2;
+					}
+					for (char c = checkAscii(from, pattern); c <= checkAscii(to, pattern); c++) {
+						if (c < 64) {
+							classLow |= 1L << c;
+						} else {
+							classHigh |= 1L << c;
+						}
+					}
+				}
+				i = close + 1;
+			} else {
+				final char c = checkAscii(pattern.charAt(i), pattern);
+				if (c < 64) {
+					classLow = 1L << c;
+				} else {
+					classHigh = 1L << c;
+				}
+				i++;
+			}
+			int repeat = 1;
+			if (i < pattern.length() && pattern.charAt(i) == '{') {
+				final int close = pattern.indexOf('}', i + 1);
+				if (close < 0) {
+					throw new IllegalArgumentException("Unterminated repetition at " + i + " in " + pattern);
+				}
+				try {
+					repeat = Integer.parseInt(pattern.substring(i + 1, close));
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException("Invalid repetition at " + i + " in " + pattern, e);
+				}
+				i = close + 1;
+			}
+			for (int r = 0; r < repeat; r++, position++) {
+				if (low != null) {
+					low[position] = classLow;
+					high[position] = classHigh;
+				}
+			}
+		}
+		return position;
+	}
+
+	/**
+	 * @param c the pattern character
+	 * @param pattern the pattern
+	 * @return the character
+	 * @throws IllegalArgumentException not an ASCII character
+	 */
+	private static char checkAscii(final char c, final String pattern) {
+		if (c >= 128) {
+			throw new IllegalArgumentException("Non-ASCII character " + c + " in " + pattern);
+		}
+		return c;
+	}
+
+	/**
+	 * Check passing when the ICAO weighted sum (weights 7, 3, 1, values 0-9 and 10-35 for A-Z) of the first characters gives given remainder.
+	 *
+	 * @param length the number of characters summed
+	 * @param remainder the expected remainder of the sum divided by 10
+	 * @return the check
+	 */
+	public static Check weightedSum(final int length, final int remainder) {
+		return (value, start, end) -> {
+			final int sum = sum(value, start, start + length);
+			return sum >= 0 && sum % 10 == remainder;
+		};
+	}
+
+	/**
+	 * Check passing when the last character is the ICAO check digit of the preceding ones.
+	 *
+	 * @return the check
+	 */
+	public static Check checkDigit() {
+		return (value, start, end) -> {
+			final int sum = sum(value, start, end - 1);
+			return sum >= 0 && value.charAt(end - 1) == '0' + sum % 10;
+		};
+	}
+
+	/**
+	 * @param value the character sequence
+	 * @param start the start of the summed characters
+	 * @param end the end of the summed characters, exclusive
+	 * @return the ICAO weighted sum, -1 if a character is not a MRZ character
+	 */
+	private static int sum(final CharSequence value, final int start, final int end) {
+		int sum = 0;
+		for (int i = start; i < end; i++) {
+			final char c = value.charAt(i);
+			final int v;
+			if (c >= '0' && c <= '9') {
+				v = c - '0';
+			} else if (c >= 'A' && c <= 'Z') {
+				v = c - 'A' + 10;
+			} else if (c == MrzParser.FILLER) {
+				v = 0;
+			} else {
+				return -1;
+			}
+			sum += v * MrzParser.MRZ_WEIGHTS[(i - start) % MrzParser.MRZ_WEIGHTS.length];
+		}
+		return sum;
+	}
+
+	/**
+	 * @return the number of characters of a matching value
+	 */
+	public int getLength() {
+		return low.length;
+	}
+
+	@Override
+	public boolean test(final CharSequence value) {
+		return test(value, 0, value.length());
+	}
+
+	/**
+	 * @param value the character sequence
+	 * @param start the start of the value
+	 * @param end the end of the value, exclusive
+	 * @return true if the value matches this rule
+	 */
+	public boolean test(final CharSequence value, final int start, final int end) {
+		if (end - start != low.length) {
+			return false;
+		}
+		for (int i = 0; i < low.length; i++) {
+			final char c = value.charAt(start + i);
+			if (c >= 128 || ((c < 64 ? low[i] : high[i]) & 1L << c) == 0) {
+				return false;
+			}
+		}
+		return check == null || check.test(value, start, end);
+	}
+
+	@Override
+	public String toString() {
+		return pattern;
+	}
+}
@@ -0,0 +1,312 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz;
+
+import com.innovatrics.mrz.types.MrzDate;
+import com.innovatrics.mrz.types.MrzField;
+import com.innovatrics.mrz.types.MrzFormat;
+import java.nio.CharBuffer;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Editable MRZ buffer for interactive corrections.
+ * <p>
+ * The MRZ is parsed once. After that, {@link #setChar(int, int, char)} updates the character in place, updates the running sum of every check
+ * digit fed by the edited position and decodes only the record fields covering that position, using the {@link MrzLayout} of the format and a
+ * single {@link MrzParser} reading the edited rows in place. Editing the document code or the issuing state may change the format or its
+ * national variant, in which case the MRZ is parsed again.
+ * </p>
+ * <p>
+ * Instances are not thread-safe.
+ * </p>
+ */
+public class MrzEditor {
+
+	private static final int PREFIX_LENGTH = 5;
+
+	private char[][] chars;
+	/**
+	 * Reads {@link #chars} in place.
+	 */
+	private MrzParser parser;
+	/**
+	 * The current MRZ, null until requested after an edit.
+	 */
+	private String mrz;
+	private MrzRecord record;
+	private MrzProfile profile;
+	private MrzLayout layout;
+	private List<MrzLayout.Field> fields;
+	private List<MrzLayout.Check> checks;
+	/**
+	 * The weighted sum of the characters protected by each check digit.
+	 */
+	private int[] sums;
+	/**
+	 * Bit i set if the position (row * columns + column) belongs to field i.
+	 */
+	private int[] fieldMasks;
+	/**
+	 * Bit i set if the position (row * columns + column) is protected by, or holds, check digit i.
+	 */
+	private int[] checkMasks;
+
+	/**
+	 * @param mrz the MRZ to edit, separated by \n
+	 * @throws MrzParseException could not parse MRZ
+	 */
+	public MrzEditor(final String mrz) throws MrzParseException {
+		init(mrz);
+	}
+
+	private void init(final String newMrz) throws MrzParseException {
+		final MrzRecord parsed = MrzParser.parse(newMrz);
+		final MrzFormat format = parsed.getFormat();
+		final String[] split = newMrz.split("\n");
+		final MrzProfile resolvedProfile = MrzProfile.get(format, split[0]);
+		final MrzLayout resolved = resolvedProfile.getLayout();
+		final int columns = format.getColumns();
+		final List<MrzLayout.Field> layoutFields = resolved.getFields();
+		final List<MrzLayout.Check> layoutChecks = resolved.getChecks();
+		final char[][] newChars = new char[format.getRows()][];
+		final CharBuffer[] views = new CharBuffer[format.getRows()];
+		final int[] newSums = new int[layoutChecks.size()];
+		final int[] newFieldMasks = new int[format.getRows() * columns];
+		final int[] newCheckMasks = new int[format.getRows() * columns];
+		for (int row = 0; row < format.getRows(); row++) {
+			newChars[row] = split[row].toCharArray();
+			views[row] = CharBuffer.wrap(newChars[row]);
+			for (int col = 0; col < columns; col++) {
+				final int pos = row * columns + col;
+				for (int i = 0; i < layoutFields.size(); i++) {
+					if (layoutFields.get(i).contains(row, col)) {
+						newFieldMasks[pos] |= 1 << i;
+					}
+				}
+				for (int i = 0; i < layoutChecks.size(); i++) {
+					final MrzLayout.Check check = layoutChecks.get(i);
+					final int weight = check.getWeight(row, col);
+					final MrzRange digit = check.getDigit();
+					if (weight != 0 || digit.getRow() == row && digit.getColumn() == col) {
+						newCheckMasks[pos] |= 1 << i;
+					}
+					if (weight != 0) {
+						final int value = MrzParser.valueOf(newChars[row][col]);
+						if (value < 0) {
+							throw new MrzParseException("Invalid character in MRZ record: " + newChars[row][col], newMrz,
+									new MrzRange(col, col + 1, row), format);
+						}
+						newSums[i] += weight * value;
+					}
+				}
+			}
+		}
+		this.record = parsed;
+		this.mrz = newMrz;
+		this.chars = newChars;
+		this.parser = new MrzParser(views, format);
+		this.profile = resolvedProfile;
+		this.layout = resolved;
+		this.fields = layoutFields;
+		this.checks = layoutChecks;
+		this.sums = newSums;
+		this.fieldMasks = newFieldMasks;
+		this.checkMasks = newCheckMasks;
+	}
+
+	/**
+	 * @return the record, kept up to date with the edits
+	 */
+	public MrzRecord getRecord() {
+		record.setMrz(getMrz());
+		return record;
+	}
+
+	/**
+	 * @return the MRZ format
+	 */
+	public MrzFormat getFormat() {
+		return layout.getFormat();
+	}
+
+	/**
+	 * @return the current MRZ, separated by \n
+	 */
+	public String getMrz() {
+		if (mrz == null) {
+			final int columns = layout.getFormat().getColumns();
+			final char[] joined = new char[chars.length * (columns + 1) - 1];
+			for (int row = 0; row < chars.length; row++) {
+				System.arraycopy(chars[row], 0, joined, row * (columns + 1), columns);
+				if (row > 0) {
+					joined[row * (columns + 1) - 1] = '\n';
+				}
+			}
+			mrz = new String(joined);
+		}
+		return mrz;
+	}
+
+	/**
+	 * @param row the 0-based row
+	 * @param col the 0-based column
+	 * @return the character at given position
+	 */
+	public char getChar(final int row, final int col) {
+		return chars[row][col];
+	}
+
+	/**
+	 * @param field the field protected by the check digit, {@link MrzField#COMPOSITE} for the composite check digit
+	 * @return true if the check digit is valid or if the format has no such check digit
+	 */
+	public boolean isCheckDigitValid(final MrzField field) {
+		for (int i = 0; i < checks.size(); i++) {
+			if (checks.get(i).getField() == field) {
+				return isCheckDigitValid(i);
+			}
+		}
+		return true;
+	}
+
+	private boolean isCheckDigitValid(final int check) {
+		final MrzRange digit = checks.get(check).getDigit();
+		// A check digit which is not a digit or filler never matches, as in MrzParser
+		return sums[check] % 10 == MrzParser.valueOf(chars[digit.getRow()][digit.getColumn()]);
+	}
+
+	/**
+	 * Replaces a single character and re-validates the affected fields.
+	 *
+	 * @param row the 0-based row
+	 * @param col the 0-based column
+	 * @param c the new character
+	 * @return the fields whose value or check digit validity were updated. Contains {@link MrzField#COMPOSITE} if the composite check digit was
+	 * re-validated.
+	 * @throws MrzParseException the character is not a valid MRZ character, the edited field cannot be decoded, or the edit changed the format
+	 * and the new MRZ cannot be parsed. The edit is then rejected, leaving the MRZ unchanged.
+	 */
+	public Set<MrzField> setChar(final int row, final int col, final char c) throws MrzParseException {
+		final MrzFormat format = layout.getFormat();
+		if (row < 0 || row >= format.getRows() || col < 0 || col >= format.getColumns()) {
+			throw new IllegalArgumentException("Position " + col + "," + row + " is outside of the " + format + " MRZ");
+		}
+		if (!MrzCharset.isValid(c)) {
+			throw new MrzParseException("Invalid character in MRZ record: " + c, getMrz(), new MrzRange(col, col + 1, row), format);
+		}
+		final char old = chars[row][col];
+		try {
+			return update(row, col, old, c);
+		} catch (MrzParseException ex) {
+			reject(row, col, old);
+			throw ex;
+		} catch (IllegalArgumentException ex) {
+			final String rejected = getMrz();
+			reject(row, col, old);
+			final MrzParseException parseException = new MrzParseException(ex.getMessage(), rejected, new MrzRange(col, col + 1, row), format);
+			parseException.initCause(ex);
+			throw parseException;
+		}
+	}
+
+	/**
+	 * Restores the character of a rejected edit, leaving the buffer consistent.
+	 *
+	 * @param row the 0-based row
+	 * @param col the 0-based column
+	 * @param old the character before the edit
+	 * @throws MrzParseException the restored MRZ cannot be parsed
+	 */
+	private void reject(final int row, final int col, final char old) throws MrzParseException {
+		chars[row][col] = old;
+		mrz = null;
+		init(getMrz());
+	}
+
+	private Set<MrzField> update(final int row, final int col, final char old, final char c) throws MrzParseException {
+		final MrzFormat format = layout.getFormat();
+		if (old != c) {
+			chars[row][col] = c;
+			mrz = null;
+		}
+		if (row == 0 && col < PREFIX_LENGTH && old != c) {
+			final CharSequence firstRow = parser.getRow(0);
+			if (MrzFormat.get(format.getRows(), format.getColumns(), firstRow) != format || MrzProfile.get(format, firstRow) != profile) {
+				init(getMrz());
+				return EnumSet.allOf(MrzField.class);
+			}
+		}
+		final Set<MrzField> updated = EnumSet.noneOf(MrzField.class);
+		final int pos = row * format.getColumns() + col;
+		// A character which is not a valid MRZ character may only stand where no check digit sum weighs it
+		final int delta = MrzParser.valueOf(c) - MrzParser.valueOf(old);
+		final int checkMask = checkMasks[pos];
+		for (int i = 0; i < checks.size(); i++) {
+			if ((checkMask & 1 << i) != 0) {
+				sums[i] += delta * checks.get(i).getWeight(row, col);
+				updated.add(checks.get(i).getField());
+			}
+		}
+		final Set<MrzField> decoded = EnumSet.noneOf(MrzField.class);
+		final int fieldMask = fieldMasks[pos];
+		for (int i = 0; i < fields.size(); i++) {
+			final MrzLayout.Field field = fields.get(i);
+			if ((fieldMask & 1 << i) != 0 && !decoded.contains(field.getField()) && !profile.decode(record, parser, field, decoded)) {
+				throw new MrzParseException("Invalid " + field.getField() + " in MRZ record", getMrz(), field.getRange(), format);
+			}
+		}
+		updated.addAll(decoded);
+		for (final MrzField field : updated) {
+			updateValidity(field);
+		}
+		return updated;
+	}
+
+	private void updateValidity(final MrzField field) {
+		boolean hasCheck = false;
+		boolean valid = true;
+		for (int i = 0; i < checks.size(); i++) {
+			if (checks.get(i).getField() == field) {
+				hasCheck = true;
+				valid = isCheckDigitValid(i);
+			}
+		}
+		if (field == MrzField.DOCUMENT_NUMBER && profile.hasDocumentNumberValidator()) {
+			// National variants validate the number itself
+			hasCheck = true;
+			valid = profile.isValidDocumentNumber(parser, record.getDocumentNumber());
+		}
+		if (!hasCheck) {
+			return;
+		}
+		if (field == MrzField.DATE_OF_BIRTH) {
+			valid = valid && isDateValid(record.getDateOfBirth());
+		} else if (field == MrzField.EXPIRATION_DATE) {
+			valid = valid && isDateValid(record.getExpirationDate());
+		}
+		record.setValid(field, valid);
+	}
+
+	private static boolean isDateValid(final MrzDate date) {
+		return date != null && date.isDateValid();
+	}
+
+}
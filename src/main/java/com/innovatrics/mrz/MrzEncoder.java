@@ -0,0 +1,511 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz;
+
+import com.innovatrics.mrz.types.MrzDate;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Serializes MRZ records into reusable buffers.
+ * <p>
+ * Records write their fields in order; values are converted to MRZ characters as they are copied into the buffer (plain ASCII values
+ * without a detour through {@link MrzTransliterator}), and check digits are accumulated as the characters are written. An encoder keeps its
+ * buffers between records, so encoding a batch with one encoder allocates nothing per record besides the transliteration of non-ASCII values.
+ * Instances are not thread safe.
+ * </p>
+ */
+public final class MrzEncoder {
+
+	private static final String SEPARATORS = " \n\t\f\r";
+
+	private final boolean separators;
+	private char[] buffer = new char[3 * 45];
+	private int length;
+
+	private int checkSum;
+	private int checkIndex;
+	private char checkInvalid;
+	private boolean composite;
+	private int compositeSum;
+	private int compositeIndex;
+	private char compositeInvalid;
+
+	/**
+	 * Name tokens, converted to MRZ characters.
+	 */
+	private char[] names = new char[64];
+	private int namesLength;
+	private int[] tokenStart = new int[8];
+	private int[] tokenLength = new int[8];
+	private int tokenCount;
+	private final StringBuilder scratch = new StringBuilder();
+
+	/**
+	 * Creates an encoder terminating every row with a newline, as {@link MrzRecord#toMrz()} does.
+	 */
+	public MrzEncoder() {
+		this(true);
+	}
+
+	/**
+	 * @param separators true to terminate every row with a newline, false to write the rows back to back
+	 */
+	public MrzEncoder(final boolean separators) {
+		this.separators = separators;
+	}
+
+	/**
+	 * @param record the record
+	 * @return the MRZ of given record
+	 */
+	public String encode(final MrzRecord record) {
+		write(record);
+		return new String(buffer, 0, length);
+	}
+
+	/**
+	 * @param record the record
+	 * @param out the output buffer
+	 * @param offset the offset to write to
+	 * @return the number of characters written
+	 * @throws IndexOutOfBoundsException the MRZ does not fit the buffer
+	 */
+	public int encode(final MrzRecord record, final char[] out, final int offset) {
+		write(record);
+		System.arraycopy(buffer, 0, out, offset, length);
+		return length;
+	}
+
+	/**
+	 * Writes the MRZ of given record as ASCII bytes at the position of the buffer, advancing it.
+	 *
+	 * @param record the record
+	 * @param out the output buffer
+	 * @return the number of bytes written
+	 * @throws BufferOverflowException the MRZ does not fit the buffer
+	 */
+	public int encode(final MrzRecord record, final ByteBuffer out) {
+		write(record);
+		if (out.remaining() < length) {
+			throw new BufferOverflowException();
+		}
+		for (int i = 0; i < length; i++) {
+			out.put((byte) buffer[i]);
+		}
+		return length;
+	}
+
+	/**
+	 * @param surname the surname, not blank.
+	 * @param givenNames given names, not blank.
+	 * @param fieldLength the field length
+	 * @return the name as per {@link #name(String, String, int)}
+	 */
+	String encodeName(final String surname, final String givenNames, final int fieldLength) {
+		length = 0;
+		name(surname, givenNames, fieldLength);
+		return new String(buffer, 0, length);
+	}
+
+	/**
+	 * @param record the record to write into the internal buffer
+	 */
+	private void write(final MrzRecord record) {
+		length = 0;
+		checkSum = 0;
+		checkIndex = 0;
+		checkInvalid = 0;
+		composite = false;
+		compositeSum = 0;
+		compositeIndex = 0;
+		compositeInvalid = 0;
+		record.encode(this);
+	}
+
+	/**
+	 * Writes a character as is.
+	 *
+	 * @param c the character
+	 * @return this
+	 */
+	public MrzEncoder put(final char c) {
+		if (length == buffer.length) {
+			buffer = Arrays.copyOf(buffer, length * 2);
+		}
+		buffer[length++] = c;
+		final int value = MrzParser.valueOf(c);
+		if (value < 0) {
+			checkInvalid = c;
+		} else {
+			checkSum += value * MrzParser.MRZ_WEIGHTS[checkIndex % 3];
+		}
+		checkIndex++;
+		if (composite) {
+			if (value < 0) {
+				compositeInvalid = c;
+			} else {
+				compositeSum += value * MrzParser.MRZ_WEIGHTS[compositeIndex % 3];
+			}
+			compositeIndex++;
+		}
+		return this;
+	}
+
+	/**
+	 * Writes characters as they are.
+	 *
+	 * @param chars the characters
+	 * @return this
+	 */
+	public MrzEncoder put(final CharSequence chars) {
+		for (int i = 0; i < chars.length(); i++) {
+			put(chars.charAt(i));
+		}
+		return this;
+	}
+
+	/**
+	 * Terminates a row.
+	 *
+	 * @return this
+	 */
+	public MrzEncoder newLine() {
+		if (separators) {
+			if (length == buffer.length) {
+				buffer = Arrays.copyOf(buffer, length * 2);
+			}
+			buffer[length++] = '\n';
+		}
+		return this;
+	}
+
+	/**
+	 * Writes a value converted to MRZ characters as per {@link MrzParser#toMrz(String, int)}, and starts a new check digit computation.
+	 *
+	 * @param value the value, null is the same as an empty string
+	 * @param fieldLength the field length: the value is truncated or padded with fillers
+	 * @return this
+	 */
+	public MrzEncoder field(final String value, final int fieldLength) {
+		startCheck();
+		int written = 0;
+		if (value != null) {
+			if (MrzTransliterator.isAscii(value)) {
+				for (int i = 0; i < value.length() && written < fieldLength; i++) {
+					final char c = value.charAt(i);
+					if (c != '\'') {
+						put(MrzTransliterator.toMrzChar(c));
+						written++;
+					}
+				}
+			} else {
+				final String converted = MrzTransliterator.transliterate(value);
+				for (int i = 0; i < converted.length() && written < fieldLength; i++) {
+					put(converted.charAt(i));
+					written++;
+				}
+			}
+		}
+		for (; written < fieldLength; written++) {
+			put(MrzParser.FILLER);
+		}
+		return this;
+	}
+
+	/**
+	 * Writes a date in the YYMMDD form and starts a new check digit computation.
+	 *
+	 * @param date the date
+	 * @return this
+	 */
+	public MrzEncoder date(final MrzDate date) {
+		startCheck();
+		if (date.getMrz() != null) {
+			return put(date.getMrz());
+		}
+		if (isTwoDigits(date.getYear()) && isTwoDigits(date.getMonth()) && isTwoDigits(date.getDay())) {
+			putTwoDigits(date.getYear());
+			putTwoDigits(date.getMonth());
+			putTwoDigits(date.getDay());
+			return this;
+		}
+		return put(date.toMrz());
+	}
+
+	/**
+	 * Writes the check digit of the characters written since the last {@link #field(String, int)} or {@link #date(MrzDate)}.
+	 *
+	 * @return this
+	 * @throws IllegalArgumentException the checked characters are not valid MRZ characters
+	 */
+	public MrzEncoder checkDigit() {
+		if (checkInvalid != 0) {
+			throw new IllegalArgumentException("Invalid character in MRZ record: " + checkInvalid);
+		}
+		return put((char) ('0' + checkSum % 10));
+	}
+
+	/**
+	 * Starts or stops including the written characters in the composite check digit.
+	 *
+	 * @param include true to include the following characters
+	 * @return this
+	 */
+	public MrzEncoder composite(final boolean include) {
+		composite = include;
+		return this;
+	}
+
+	/**
+	 * Writes the composite check digit and stops including characters in it.
+	 *
+	 * @return this
+	 * @throws IllegalArgumentException the checked characters are not valid MRZ characters
+	 */
+	public MrzEncoder compositeCheckDigit() {
+		if (compositeInvalid != 0) {
+			throw new IllegalArgumentException("Invalid character in MRZ record: " + compositeInvalid);
+		}
+		composite = false;
+		return put((char) ('0' + compositeSum % 10));
+	}
+
+	/**
+	 * Writes a surname and given names, shortened as per Doc 9303 Part 3 Vol 1 Section 6.7 when necessary. Produces the same characters as
+	 * {@link MrzParser#nameToMrz(String, String, int)}.
+	 *
+	 * @param surname the surname, not blank.
+	 * @param givenNames given names, not blank.
+	 * @param fieldLength the field length
+	 * @return this
+	 */
+	public MrzEncoder name(final String surname, final String givenNames, final int fieldLength) {
+		if (isBlank(surname)) {
+			throw new IllegalArgumentException("Parameter surname: invalid value " + surname + ": blank");
+		}
+		if (isBlank(givenNames)) {
+			throw new IllegalArgumentException("Parameter givenNames: invalid value " + givenNames + ": blank");
+		}
+		if (fieldLength <= 0) {
+			throw new IllegalArgumentException("Parameter length: invalid value " + fieldLength + ": not positive");
+		}
+		namesLength = 0;
+		tokenCount = 0;
+		tokenize(surname);
+		final int surnameCount = tokenCount;
+		tokenize(givenNames);
+		truncateNames(surnameCount, fieldLength, surname, givenNames);
+
+		startCheck();
+		int written = 0;
+		for (int t = 0; t < tokenCount; t++) {
+			if (t > 0 && written < fieldLength) {
+				put(MrzParser.FILLER);
+				written++;
+			}
+			if (t == surnameCount && written < fieldLength) {
+				// SURNAME<<GIVEN
+				put(MrzParser.FILLER);
+				written++;
+			}
+			for (int i = 0; i < tokenLength[t] && written < fieldLength; i++, written++) {
+				put(names[tokenStart[t] + i]);
+			}
+		}
+		if (surnameCount == tokenCount && written < fieldLength) {
+			put(MrzParser.FILLER);
+			written++;
+		}
+		for (; written < fieldLength; written++) {
+			put(MrzParser.FILLER);
+		}
+		return this;
+	}
+
+	/**
+	 * @param name the names, separated by whitespace or ", "
+	 */
+	private void tokenize(final String name) {
+		// Same tokens as name.replace(", ", " ").trim().split("[ \n\t\f\r]+"): a removed comma is always followed by a space
+		int start = 0;
+		int end = name.length();
+		while (start < end && (name.charAt(start) <= ' ' || isDroppedComma(name, start))) {
+			start++;
+		}
+		while (end > start && name.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		if (start == end) {
+			addToken(name, start, end);
+			return;
+		}
+		int i = start;
+		while (i < end) {
+			int tokenEnd = i;
+			while (tokenEnd < end && !isSeparator(name, tokenEnd)) {
+				tokenEnd++;
+			}
+			addToken(name, i, tokenEnd);
+			i = tokenEnd;
+			while (i < end && isSeparator(name, i)) {
+				i++;
+			}
+		}
+	}
+
+	/**
+	 * @param name the name
+	 * @param index the index
+	 * @return true if given character separates names
+	 */
+	private static boolean isSeparator(final String name, final int index) {
+		return SEPARATORS.indexOf(name.charAt(index)) >= 0 || isDroppedComma(name, index);
+	}
+
+	/**
+	 * @param name the name
+	 * @param index the index
+	 * @return true if given character is the comma of a ", " sequence, which is removed
+	 */
+	private static boolean isDroppedComma(final String name, final int index) {
+		return name.charAt(index) == ',' && index + 1 < name.length() && name.charAt(index + 1) == ' ';
+	}
+
+	/**
+	 * Converts a name token to MRZ characters and appends it to the name buffer.
+	 *
+	 * @param name the names
+	 * @param from the token start
+	 * @param to the token end, exclusive
+	 */
+	private void addToken(final String name, final int from, final int to) {
+		if (tokenCount == tokenStart.length) {
+			tokenStart = Arrays.copyOf(tokenStart, tokenCount * 2);
+			tokenLength = Arrays.copyOf(tokenLength, tokenCount * 2);
+		}
+		if (names.length < namesLength + 2 * (to - from)) {
+			names = Arrays.copyOf(names, Math.max(names.length * 2, namesLength + 2 * (to - from)));
+		}
+		final int start = namesLength;
+		boolean ascii = true;
+		for (int i = from; i < to && ascii; i++) {
+			ascii = name.charAt(i) < 0x80;
+		}
+		if (ascii) {
+			for (int i = from; i < to; i++) {
+				final char c = name.charAt(i);
+				if (c != '\'') {
+					names[namesLength++] = MrzTransliterator.toMrzChar(c);
+				}
+			}
+		} else {
+			scratch.setLength(0);
+			MrzTransliterator.transliterate(name, from, to, scratch);
+			if (names.length < namesLength + scratch.length()) {
+				names = Arrays.copyOf(names, namesLength + scratch.length());
+			}
+			scratch.getChars(0, scratch.length(), names, namesLength);
+			namesLength += scratch.length();
+		}
+		tokenStart[tokenCount] = start;
+		tokenLength[tokenCount] = namesLength - start;
+		tokenCount++;
+	}
+
+	/**
+	 * Shortens the given names, then the surnames, starting with the last one, until the name fits.
+	 *
+	 * @param surnameCount the number of surname tokens, the given name tokens follow
+	 * @param fieldLength the field length
+	 * @param surname the surname, for the error message
+	 * @param givenNames the given names, for the error message
+	 */
+	private void truncateNames(final int surnameCount, final int fieldLength, final String surname, final String givenNames) {
+		int nameSize = 0;
+		for (int t = 0; t < tokenCount; t++) {
+			nameSize += tokenLength[t] + 1;
+		}
+		int first = surnameCount;
+		int current = tokenCount - 1;
+		while (nameSize > fieldLength) {
+			final int size = tokenLength[current];
+			if (nameSize - size + 1 <= fieldLength) {
+				int length = size - (nameSize - fieldLength);
+				// A hyphenated name cut right after its hyphen would end with a filler, read back as the name separator
+				while (length > 1 && names[tokenStart[current] + length - 1] == MrzParser.FILLER) {
+					length--;
+				}
+				tokenLength[current] = length;
+				nameSize -= size - length;
+			} else {
+				tokenLength[current] = Math.min(1, size);
+				nameSize -= size - tokenLength[current];
+				current--;
+				if (current < first) {
+					if (first == 0) {
+						throw new IllegalArgumentException("Cannot truncate name " + surname + " " + givenNames + ": length too small: " + fieldLength
+								+ "; truncated to " + toName(surnameCount));
+					}
+					first = 0;
+					current = surnameCount - 1;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param surnameCount the number of surname tokens
+	 * @return the name tokens in the form of SURNAME&lt;&lt;GIVEN&lt;NAMES
+	 */
+	private String toName(final int surnameCount) {
+		final StringBuilder sb = new StringBuilder();
+		for (int t = 0; t < tokenCount; t++) {
+			if (t > 0 && t != surnameCount) {
+				sb.append(MrzParser.FILLER);
+			}
+			if (t == surnameCount) {
+				sb.append(MrzParser.FILLER).append(MrzParser.FILLER);
+			}
+			sb.append(names, tokenStart[t], tokenLength[t]);
+		}
+		return sb.toString();
+	}
+
+	private void startCheck() {
+		checkSum = 0;
+		checkIndex = 0;
+		checkInvalid = 0;
+	}
+
+	private void putTwoDigits(final int value) {
+		put((char) ('0' + value / 10));
+		put((char) ('0' + value % 10));
+	}
+
+	private static boolean isTwoDigits(final int value) {
+		return value >= 0 && value <= 99;
+	}
+
+	private static boolean isBlank(final String str) {
+		return str == null || str.trim().length() == 0;
+	}
+
+}
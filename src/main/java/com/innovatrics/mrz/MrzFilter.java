@@ -0,0 +1,283 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz;
+
+import com.innovatrics.mrz.types.MrzDate;
+import com.innovatrics.mrz.types.MrzField;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Conjunction of simple conditions on MRZ fields, evaluated on the raw characters at the fixed positions of each format, before parsing.
+ * <p>
+ * Values are converted to the MRZ form by {@link MrzParser#toMrz(String, int)} and compared with the field character by character, the
+ * shorter of both padded with fillers; dates compare as their <code>YYMMDD</code> MRZ form, as in {@link MrzDate#compareTo(MrzDate)}. Where
+ * the surname and the given names share one range, the surname ends at the first <code>&lt;&lt;</code> and the given names follow it. A
+ * condition on a field the format does not have never matches.
+ * </p>
+ * <p>
+ * Instances are immutable; {@link #and(MrzFilter)} returns a new filter.
+ * </p>
+ */
+public final class MrzFilter {
+
+	/**
+	 * Matches every MRZ of a known format.
+	 */
+	public static final MrzFilter ALL = new MrzFilter(new MrzField[0], new byte[0], new byte[0][]);
+
+	private static final byte EQUAL = 0;
+	private static final byte PREFIX = 1;
+	private static final byte LESS = 2;
+	private static final byte NOT_LESS = 3;
+	private static final byte GREATER = 4;
+	private static final byte NOT_GREATER = 5;
+	private static final String[] OPERATORS = {"=", " starts with ", "<", ">=", ">", "<="};
+
+	private final MrzField[] fields;
+	private final byte[] operators;
+	/**
+	 * The values in MRZ form, as ASCII.
+	 */
+	private final byte[][] values;
+
+	/**
+	 * @param fields the field of each condition
+	 * @param operators the operator of each condition
+	 * @param values the value of each condition
+	 */
+	private MrzFilter(final MrzField[] fields, final byte[] operators, final byte[][] values) {
+		this.fields = fields;
+		this.operators = operators;
+		this.values = values;
+	}
+
+	/**
+	 * @param field the field
+	 * @param operator the operator
+	 * @param value the value, converted to the MRZ form
+	 * @return the filter of a single condition
+	 */
+	private static MrzFilter of(final MrzField field, final byte operator, final String value) {
+		if (field == MrzField.COMPOSITE) {
+			throw new IllegalArgumentException("Parameter field: " + field + " is not a data field");
+		}
+		return new MrzFilter(new MrzField[]{field}, new byte[]{operator}, new byte[][]{MrzParser.toMrz(value, -1).getBytes(
+			StandardCharsets.US_ASCII)});
+	}
+
+	/**
+	 * @param field the field
+	 * @param value the value
+	 * @return a filter matching MRZs whose field equals the value
+	 */
+	public static MrzFilter equalTo(final MrzField field, final String value) {
+		return of(field, EQUAL, value);
+	}
+
+	/**
+	 * @param field the field
+	 * @param prefix the prefix
+	 * @return a filter matching MRZs whose field starts with the prefix
+	 */
+	public static MrzFilter startsWith(final MrzField field, final String prefix) {
+		return of(field, PREFIX, prefix);
+	}
+
+	/**
+	 * @param field the field
+	 * @param from the lowest value, inclusive
+	 * @param to the highest value, inclusive
+	 * @return a filter matching MRZs whose field is within the range
+	 */
+	public static MrzFilter between(final MrzField field, final String from, final String to) {
+		return of(field, NOT_LESS, from).and(of(field, NOT_GREATER, to));
+	}
+
+	/**
+	 * @param field the field
+	 * @param value the value
+	 * @return a filter matching MRZs whose field is lower than the value
+	 */
+	public static MrzFilter lessThan(final MrzField field, final String value) {
+		return of(field, LESS, value);
+	}
+
+	/**
+	 * @param field the field
+	 * @param value the value
+	 * @return a filter matching MRZs whose field is greater than the value
+	 */
+	public static MrzFilter greaterThan(final MrzField field, final String value) {
+		return of(field, GREATER, value);
+	}
+
+	/**
+	 * @param field the date field
+	 * @param date the date
+	 * @return a filter matching MRZs whose date is before given date
+	 */
+	public static MrzFilter before(final MrzField field, final MrzDate date) {
+		return of(field, LESS, date.toMrz());
+	}
+
+	/**
+	 * @param field the date field
+	 * @param date the date
+	 * @return a filter matching MRZs whose date is after given date
+	 */
+	public static MrzFilter after(final MrzField field, final MrzDate date) {
+		return of(field, GREATER, date.toMrz());
+	}
+
+	/**
+	 * @param other the other filter
+	 * @return a filter matching MRZs matched by both filters
+	 */
+	public MrzFilter and(final MrzFilter other) {
+		final int size = fields.length;
+		final MrzField[] newFields = Arrays.copyOf(fields, size + other.fields.length);
+		final byte[] newOperators = Arrays.copyOf(operators, size + other.fields.length);
+		final byte[][] newValues = Arrays.copyOf(values, size + other.fields.length);
+		System.arraycopy(other.fields, 0, newFields, size, other.fields.length);
+		System.arraycopy(other.operators, 0, newOperators, size, other.fields.length);
+		System.arraycopy(other.values, 0, newValues, size, other.fields.length);
+		return new MrzFilter(newFields, newOperators, newValues);
+	}
+
+	/**
+	 * Evaluates the filter on the raw characters of a MRZ, rows separated by a single newline, all of the same length.
+	 *
+	 * @param data the buffer holding the MRZ as ASCII
+	 * @param offset the offset of the MRZ in the buffer
+	 * @param profile the profile of the MRZ
+	 * @param columns the number of characters per row
+	 * @return true if all conditions match
+	 */
+	boolean matches(final byte[] data, final int offset, final MrzProfile profile, final int columns) {
+		for (int i = 0; i < fields.length; i++) {
+			final MrzField field = fields[i];
+			final MrzRange range = profile.getRange(field);
+			if (range == null) {
+				return false;
+			}
+			final int rowStart = offset + range.getRow() * (columns + 1);
+			int from = rowStart + range.getColumn();
+			int to = rowStart + range.getColumnTo();
+			if ((field == MrzField.SURNAME || field == MrzField.GIVEN_NAMES) && profile.getRange(MrzField.SURNAME) == profile.getRange(
+				MrzField.GIVEN_NAMES)) {
+				final int separator = separator(data, from, to);
+				if (field == MrzField.SURNAME) {
+					to = separator;
+				} else {
+					from = Math.min(separator + 2, to);
+				}
+			}
+			if (!matches(operators[i], values[i], data, from, to)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param data the buffer
+	 * @param from the start of the name range
+	 * @param to the end of the name range, exclusive
+	 * @return the position of the first <code>&lt;&lt;</code> in the range, the end of the range if none
+	 */
+	private static int separator(final byte[] data, final int from, final int to) {
+		for (int i = from; i < to - 1; i++) {
+			if (data[i] == MrzParser.FILLER && data[i + 1] == MrzParser.FILLER) {
+				return i;
+			}
+		}
+		return to;
+	}
+
+	/**
+	 * @param operator the operator
+	 * @param value the value in MRZ form
+	 * @param data the buffer
+	 * @param from the start of the field
+	 * @param to the end of the field, exclusive
+	 * @return true if the field matches the condition
+	 */
+	private static boolean matches(final byte operator, final byte[] value, final byte[] data, final int from, final int to) {
+		if (operator == PREFIX) {
+			if (value.length > to - from) {
+				return false;
+			}
+			for (int i = 0; i < value.length; i++) {
+				if (data[from + i] != value[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+		final int cmp = compare(value, data, from, to);
+		switch (operator) {
+			case EQUAL:
+				return cmp == 0;
+			case LESS:
+				return cmp < 0;
+			case NOT_LESS:
+				return cmp >= 0;
+			case GREATER:
+				return cmp > 0;
+			default:
+				return cmp <= 0;
+		}
+	}
+
+	/**
+	 * @param value the value in MRZ form
+	 * @param data the buffer
+	 * @param from the start of the field
+	 * @param to the end of the field, exclusive
+	 * @return the comparison of the field with the value, the shorter of both padded with fillers
+	 */
+	private static int compare(final byte[] value, final byte[] data, final int from, final int to) {
+		final int length = Math.max(value.length, to - from);
+		for (int i = 0; i < length; i++) {
+			final int a = from + i < to ? data[from + i] : MrzParser.FILLER;
+			final int b = i < value.length ? value[i] : MrzParser.FILLER;
+			if (a != b) {
+				return a - b;
+			}
+		}
+		return 0;
+	}
+
+	@Override
+	public String toString() {
+		if (fields.length == 0) {
+			return "ALL";
+		}
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < fields.length; i++) {
+			if (i > 0) {
+				sb.append(" AND ");
+			}
+			sb.append(fields[i]).append(OPERATORS[operators[i]]).append(new String(values[i], StandardCharsets.US_ASCII));
+		}
+		return sb.toString();
+	}
+
+}
@@ -1,5 +1,10 @@
 package com.innovatrics.mrz;
 
+import com.innovatrics.mrz.jfr.MrzFlightRecorder;
+import com.innovatrics.mrz.metrics.MrzFailure;
+import com.innovatrics.mrz.metrics.MrzInstrumentation;
+import com.innovatrics.mrz.metrics.MrzMetrics;
+import com.innovatrics.mrz.metrics.MrzStage;
 import com.innovatrics.mrz.types.MrzFormat;
 import java.util.regex.Pattern;
 
@@ -29,6 +34,55 @@ public final class MrzFinderUtil {
 	 * @throws MrzParseException MRZ found but invalid
 	 */
 	public static String findMrz(final String input) throws MrzNotFoundException, MrzParseException {
+		if (!MrzFlightRecorder.isRecording()) {
+			return findMeasured(input);
+		}
+		final Object event = MrzFlightRecorder.begin(MrzStage.FIND);
+		MrzFailure failure = MrzFailure.NOT_FOUND;
+		try {
+			final String mrz = findMeasured(input);
+			failure = null;
+			return mrz;
+		} catch (MrzParseException e) {
+			failure = MrzFailure.UNSUPPORTED_FORMAT;
+			throw e;
+		} finally {
+			MrzFlightRecorder.end(event, null, input == null ? 0 : input.length(), failure);
+		}
+	}
+
+	/**
+	 * @param input the string containing the MRZ
+	 * @return the MRZ string
+	 * @throws MrzNotFoundException MRZ not found
+	 * @throws MrzParseException MRZ found but invalid
+	 */
+	private static String findMeasured(final String input) throws MrzNotFoundException, MrzParseException {
+		final MrzMetrics metrics = MrzInstrumentation.getMetrics();
+		if (metrics == null) {
+			return find(input);
+		}
+		final long start = System.nanoTime();
+		try {
+			return find(input);
+		} catch (MrzNotFoundException e) {
+			metrics.failed(MrzFailure.NOT_FOUND, null);
+			throw e;
+		} catch (MrzParseException e) {
+			metrics.failed(MrzFailure.UNSUPPORTED_FORMAT, null);
+			throw e;
+		} finally {
+			metrics.latency(MrzStage.FIND, System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * @param input the string containing the MRZ
+	 * @return the MRZ string
+	 * @throws MrzNotFoundException MRZ not found
+	 * @throws MrzParseException MRZ found but invalid
+	 */
+	private static String find(final String input) throws MrzNotFoundException, MrzParseException {
 		// Check input provided
 		if (input == null) {
 			throw new MrzNotFoundException();
@@ -0,0 +1,348 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz;
+
+import com.innovatrics.mrz.types.MrzField;
+import com.innovatrics.mrz.types.MrzFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Describes where the fields and check digits of a MRZ format are located and which characters the check digits protect. Mirrors the ranges
+ * used by the {@link MrzRecord#fromMrz(String)} implementations.
+ */
+public final class MrzLayout {
+
+	private static final Map<MrzFormat, MrzLayout> LAYOUTS = new EnumMap<>(MrzFormat.class);
+
+	static {
+		final MrzLayout td1 = newTd1Layout(new MrzRange(5, 14, 0));
+		td1.check(MrzField.DOCUMENT_NUMBER, 14, 0, new MrzRange(5, 14, 0));
+		addTd1DateChecks(td1);
+		LAYOUTS.put(MrzFormat.MRTD_TD1, td1);
+
+		final MrzLayout french = new MrzLayout(MrzFormat.FRENCH_ID);
+		french.field(MrzField.DOCUMENT_CODE, new MrzRange(0, 2, 0));
+		french.field(MrzField.ISSUING_COUNTRY, new MrzRange(2, 5, 0));
+		french.field(MrzField.NATIONALITY, new MrzRange(2, 5, 0));
+		french.field(MrzField.SURNAME, new MrzRange(5, 30, 0));
+		french.field(MrzField.OPTIONAL, new MrzRange(30, 36, 0));
+		french.field(MrzField.DOCUMENT_NUMBER, new MrzRange(0, 12, 1));
+		french.field(MrzField.GIVEN_NAMES, new MrzRange(13, 27, 1));
+		french.field(MrzField.DATE_OF_BIRTH, new MrzRange(27, 33, 1));
+		french.field(MrzField.SEX, new MrzRange(34, 35, 1));
+		french.check(MrzField.DOCUMENT_NUMBER, 12, 1, new MrzRange(0, 12, 1));
+		french.check(MrzField.DATE_OF_BIRTH, 33, 1, new MrzRange(27, 33, 1));
+		french.check(MrzField.COMPOSITE, 35, 1, new MrzRange(0, 36, 0), new MrzRange(0, 35, 1));
+		LAYOUTS.put(MrzFormat.FRENCH_ID, french);
+
+		final MrzLayout td2 = newTwoRowLayout(MrzFormat.MRTD_TD2, MrzField.OPTIONAL, new MrzRange(28, 35, 1));
+		td2.check(MrzField.COMPOSITE, 35, 1, new MrzRange(0, 10, 1), new MrzRange(13, 20, 1), new MrzRange(21, 35, 1));
+		LAYOUTS.put(MrzFormat.MRTD_TD2, td2);
+
+		final MrzLayout passport = newTwoRowLayout(MrzFormat.PASSPORT, MrzField.PERSONAL_NUMBER, new MrzRange(28, 42, 1));
+		passport.check(MrzField.PERSONAL_NUMBER, 42, 1, new MrzRange(28, 42, 1));
+		passport.check(MrzField.COMPOSITE, 43, 1, new MrzRange(0, 10, 1), new MrzRange(13, 20, 1), new MrzRange(21, 43, 1));
+		LAYOUTS.put(MrzFormat.PASSPORT, passport);
+
+		LAYOUTS.put(MrzFormat.MRV_VISA_A, newTwoRowLayout(MrzFormat.MRV_VISA_A, MrzField.OPTIONAL, new MrzRange(28, 44, 1)));
+		LAYOUTS.put(MrzFormat.MRV_VISA_B, newTwoRowLayout(MrzFormat.MRV_VISA_B, MrzField.OPTIONAL, new MrzRange(28, 36, 1)));
+		LAYOUTS.put(MrzFormat.SLOVAK_ID_234, newTwoRowLayout(MrzFormat.SLOVAK_ID_234, MrzField.OPTIONAL, new MrzRange(28, 34, 1)));
+	}
+
+	private final MrzFormat format;
+	private final List<Field> fields = new ArrayList<>();
+	private final List<Check> checks = new ArrayList<>();
+
+	private MrzLayout(final MrzFormat format) {
+		this.format = format;
+	}
+
+	/**
+	 * @param documentNumber the range of the document number
+	 * @return the TD1 layout, without check digits
+	 */
+	private static MrzLayout newTd1Layout(final MrzRange documentNumber) {
+		final MrzLayout layout = new MrzLayout(MrzFormat.MRTD_TD1);
+		layout.field(MrzField.DOCUMENT_CODE, new MrzRange(0, 2, 0));
+		layout.field(MrzField.ISSUING_COUNTRY, new MrzRange(2, 5, 0));
+		layout.field(MrzField.DOCUMENT_NUMBER, documentNumber);
+		layout.field(MrzField.PERSONAL_NUMBER, new MrzRange(15, 24, 0));
+		layout.field(MrzField.OPTIONAL, new MrzRange(15, 30, 0));
+		layout.field(MrzField.DATE_OF_BIRTH, new MrzRange(0, 6, 1));
+		layout.field(MrzField.SEX, new MrzRange(7, 8, 1));
+		layout.field(MrzField.EXPIRATION_DATE, new MrzRange(8, 14, 1));
+		layout.field(MrzField.NATIONALITY, new MrzRange(15, 18, 1));
+		layout.field(MrzField.OPTIONAL2, new MrzRange(18, 29, 1));
+		final MrzRange name = new MrzRange(0, 30, 2);
+		layout.field(MrzField.SURNAME, name);
+		layout.field(MrzField.GIVEN_NAMES, name);
+		return layout;
+	}
+
+	private static void addTd1DateChecks(final MrzLayout layout) {
+		layout.check(MrzField.DATE_OF_BIRTH, 6, 1, new MrzRange(0, 6, 1));
+		layout.check(MrzField.EXPIRATION_DATE, 14, 1, new MrzRange(8, 14, 1));
+		layout.check(MrzField.COMPOSITE, 29, 1, new MrzRange(5, 30, 0), new MrzRange(0, 7, 1), new MrzRange(8, 15, 1), new MrzRange(18, 29, 1));
+	}
+
+	/**
+	 * The second row of TD2, TD3, MRV and the Slovak ID share the document number, date of birth and expiration date positions.
+	 *
+	 * @param format the MRZ format
+	 * @param last the field following the expiration date
+	 * @param lastRange the range of the field following the expiration date
+	 * @return the layout with the common fields and check digits
+	 */
+	private static MrzLayout newTwoRowLayout(final MrzFormat format, final MrzField last, final MrzRange lastRange) {
+		final MrzLayout layout = new MrzLayout(format);
+		final int columns = format.getColumns();
+		layout.field(MrzField.DOCUMENT_CODE, new MrzRange(0, 2, 0));
+		layout.field(MrzField.ISSUING_COUNTRY, new MrzRange(2, 5, 0));
+		final MrzRange name = new MrzRange(5, columns, 0);
+		layout.field(MrzField.SURNAME, name);
+		layout.field(MrzField.GIVEN_NAMES, name);
+		layout.field(MrzField.DOCUMENT_NUMBER, new MrzRange(0, 9, 1));
+		layout.field(MrzField.NATIONALITY, new MrzRange(10, 13, 1));
+		layout.field(MrzField.DATE_OF_BIRTH, new MrzRange(13, 19, 1));
+		layout.field(MrzField.SEX, new MrzRange(20, 21, 1));
+		layout.field(MrzField.EXPIRATION_DATE, new MrzRange(21, 27, 1));
+		layout.field(last, lastRange);
+		layout.check(MrzField.DOCUMENT_NUMBER, 9, 1, new MrzRange(0, 9, 1));
+		layout.check(MrzField.DATE_OF_BIRTH, 19, 1, new MrzRange(13, 19, 1));
+		layout.check(MrzField.EXPIRATION_DATE, 27, 1, new MrzRange(21, 27, 1));
+		return layout;
+	}
+
+	/**
+	 * Copies this layout for a national variant, moving given field. The check digits are kept as they are.
+	 *
+	 * @param field the field to move
+	 * @param range the new range of the field
+	 * @return the new layout
+	 */
+	MrzLayout withField(final MrzField field, final MrzRange range) {
+		final MrzLayout copy = new MrzLayout(format);
+		for (final Field f : fields) {
+			copy.fields.add(f.getField() == field ? new Field(field, range) : f);
+		}
+		if (copy.getRange(field) == null) {
+			throw new IllegalArgumentException("Format " + format + " has no field " + field);
+		}
+		copy.checks.addAll(checks);
+		return copy;
+	}
+
+	/**
+	 * Copies this layout for a national variant which validates given field by other means than its check digit.
+	 *
+	 * @param field the field whose check digit to drop
+	 * @return the new layout
+	 */
+	MrzLayout withoutCheck(final MrzField field) {
+		final MrzLayout copy = new MrzLayout(format);
+		copy.fields.addAll(fields);
+		for (final Check check : checks) {
+			if (check.getField() != field) {
+				copy.checks.add(check);
+			}
+		}
+		return copy;
+	}
+
+	private void field(final MrzField field, final MrzRange range) {
+		fields.add(new Field(field, range));
+	}
+
+	private void check(final MrzField field, final int col, final int row, final MrzRange... ranges) {
+		checks.add(new Check(format, field, new MrzRange(col, col + 1, row), ranges));
+	}
+
+	/**
+	 * @param format the MRZ format
+	 * @return the layout of given format, never null.
+	 */
+	public static MrzLayout get(final MrzFormat format) {
+		return LAYOUTS.get(format);
+	}
+
+	/**
+	 * Returns the layout of given format, taking national variants recognized by the start of the first row into account.
+	 *
+	 * @param format the MRZ format
+	 * @param firstRow the first MRZ row, or at least its first five characters
+	 * @return the layout, never null.
+	 * @see MrzProfile#get(MrzFormat, CharSequence)
+	 */
+	public static MrzLayout get(final MrzFormat format, final CharSequence firstRow) {
+		return MrzProfile.get(format, firstRow).getLayout();
+	}
+
+	/**
+	 * @return the MRZ format
+	 */
+	public MrzFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * Returns the data fields of this layout. Fields may overlap, see {@link #hasCombinedName()}.
+	 *
+	 * @return the data fields of this layout, in the order they appear in the MRZ.
+	 */
+	public List<Field> getFields() {
+		return Collections.unmodifiableList(fields);
+	}
+
+	/**
+	 * @return true if the surname and the given names share one range in the form of SURNAME&lt;&lt;GIVEN&lt;NAMES
+	 */
+	public boolean hasCombinedName() {
+		return getRange(MrzField.SURNAME) == getRange(MrzField.GIVEN_NAMES);
+	}
+
+	/**
+	 * @param field the field
+	 * @return the range of given field, or null if this layout does not contain the field.
+	 */
+	public MrzRange getRange(final MrzField field) {
+		for (final Field f : fields) {
+			if (f.getField() == field) {
+				return f.getRange();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the check digits of this layout, in the order they appear in the MRZ.
+	 */
+	public List<Check> getChecks() {
+		return Collections.unmodifiableList(checks);
+	}
+
+	/**
+	 * A data field and its location.
+	 */
+	public static final class Field {
+
+		private final MrzField field;
+		private final MrzRange range;
+
+		private Field(final MrzField field, final MrzRange range) {
+			this.field = field;
+			this.range = range;
+		}
+
+		/**
+		 * @return the field
+		 */
+		public MrzField getField() {
+			return field;
+		}
+
+		/**
+		 * @return the location of the field
+		 */
+		public MrzRange getRange() {
+			return range;
+		}
+
+		/**
+		 * @param row the 0-based row
+		 * @param col the 0-based column
+		 * @return true if given position belongs to this field
+		 */
+		public boolean contains(final int row, final int col) {
+			return range.getRow() == row && col >= range.getColumn() && col < range.getColumnTo();
+		}
+
+		@Override
+		public String toString() {
+			return field + "@" + range;
+		}
+	}
+
+	/**
+	 * A single check digit and the characters it protects.
+	 */
+	public static final class Check {
+
+		private final MrzField field;
+		private final MrzRange digit;
+		private final MrzRange[] ranges;
+		/**
+		 * The weight of each MRZ position (row * columns + column) in the check digit sum, 0 if the position is not protected.
+		 */
+		private final byte[] weights;
+		private final int columns;
+
+		private Check(final MrzFormat format, final MrzField field, final MrzRange digit, final MrzRange... ranges) {
+			this.field = field;
+			this.digit = digit;
+			this.ranges = ranges.clone();
+			this.columns = format.getColumns();
+			this.weights = new byte[format.getRows() * columns];
+			int index = 0;
+			for (final MrzRange range : ranges) {
+				for (int col = range.getColumn(); col < range.getColumnTo(); col++) {
+					weights[range.getRow() * columns + col] = (byte) MrzParser.MRZ_WEIGHTS[index++ % MrzParser.MRZ_WEIGHTS.length];
+				}
+			}
+		}
+
+		/**
+		 * @return the field protected by this check digit
+		 */
+		public MrzField getField() {
+			return field;
+		}
+
+		/**
+		 * @return the position of the check digit itself
+		 */
+		public MrzRange getDigit() {
+			return digit;
+		}
+
+		/**
+		 * @return the protected ranges, in the order they are concatenated for the check digit computation
+		 */
+		public MrzRange[] getRanges() {
+			return ranges.clone();
+		}
+
+		/**
+		 * @param row the 0-based row
+		 * @param col the 0-based column
+		 * @return the weight of given position in the check digit sum, 0 if the position is not protected by this check digit.
+		 */
+		public int getWeight(final int row, final int col) {
+			return weights[row * columns + col];
+		}
+
+		@Override
+		public String toString() {
+			return field + "@" + digit;
+		}
+	}
+}
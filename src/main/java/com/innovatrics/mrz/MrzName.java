@@ -0,0 +1,210 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz;
+
+import com.innovatrics.mrz.types.MrzField;
+
+/**
+ * Tokenized MRZ name in the form of SURNAME&lt;&lt;GIVEN&lt;NAMES.
+ * <p>
+ * {@link #tokenize(CharSequence, int, int)} walks the name characters once, keeping only offsets into the MRZ row: the surname, the given
+ * names and, within both, the components separated by fillers. Strings are created only when asked for. An instance may be reused for
+ * many names; it is not thread-safe.
+ * </p>
+ */
+public final class MrzName {
+
+	private CharSequence row;
+	private int surnameStart;
+	private int surnameEnd;
+	private int givenNamesStart;
+	private int givenNamesEnd;
+
+	/**
+	 * Tokenizes the name in given range of a MRZ row. Trailing fillers are ignored; the surname ends at the first double filler. A name
+	 * without a double filler is considered to consist of given names only.
+	 *
+	 * @param sequence the MRZ row
+	 * @param start the start of the name
+	 * @param end the end of the name, exclusive
+	 * @return the index of the first character which is neither a filler, a digit nor an upper case letter, -1 if all are valid
+	 */
+	public int tokenize(final CharSequence sequence, final int start, final int end) {
+		int last = start;
+		int separator = -1;
+		for (int i = start; i < end; i++) {
+			final char c = sequence.charAt(i);
+			if (c == MrzParser.FILLER) {
+				if (separator < 0 && i > start && sequence.charAt(i - 1) == MrzParser.FILLER) {
+					separator = i - 1;
+				}
+			} else if (MrzCharset.isValid(c)) {
+				last = i + 1;
+			} else {
+				return i;
+			}
+		}
+		this.row = sequence;
+		if (separator < 0 || separator + 2 > last) {
+			surnameStart = start;
+			surnameEnd = start;
+			givenNamesStart = start;
+		} else {
+			surnameStart = start;
+			surnameEnd = separator;
+			givenNamesStart = separator + 2;
+		}
+		givenNamesEnd = last;
+		return -1;
+	}
+
+	/**
+	 * @return the offset of the surname in the row
+	 */
+	public int getSurnameStart() {
+		return surnameStart;
+	}
+
+	/**
+	 * @return the offset after the surname in the row
+	 */
+	public int getSurnameEnd() {
+		return surnameEnd;
+	}
+
+	/**
+	 * @return the offset of the given names in the row
+	 */
+	public int getGivenNamesStart() {
+		return givenNamesStart;
+	}
+
+	/**
+	 * @return the offset after the given names in the row
+	 */
+	public int getGivenNamesEnd() {
+		return givenNamesEnd;
+	}
+
+	/**
+	 * @return the surname, fillers replaced as by {@link MrzParser#parseString(MrzRange)}
+	 */
+	public String getSurname() {
+		return MrzParser.toText(row, surnameStart, surnameEnd);
+	}
+
+	/**
+	 * @return the given names, fillers replaced as by {@link MrzParser#parseString(MrzRange)}
+	 */
+	public String getGivenNames() {
+		return MrzParser.toText(row, givenNamesStart, givenNamesEnd);
+	}
+
+	/**
+	 * @param field {@link MrzField#SURNAME} or {@link MrzField#GIVEN_NAMES}
+	 * @return the number of components separated by fillers
+	 */
+	public int getComponentCount(final MrzField field) {
+		final int start = start(field);
+		final int end = end(field);
+		int count = 0;
+		for (int i = start; i < end; i++) {
+			if (row.charAt(i) != MrzParser.FILLER && (i == start || row.charAt(i - 1) == MrzParser.FILLER)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @param field {@link MrzField#SURNAME} or {@link MrzField#GIVEN_NAMES}
+	 * @param index the 0-based index of the component
+	 * @return the offset of the component in the row
+	 * @throws IndexOutOfBoundsException no such component
+	 */
+	public int getComponentStart(final MrzField field, final int index) {
+		final int start = start(field);
+		final int end = end(field);
+		int count = 0;
+		for (int i = start; i < end; i++) {
+			if (row.charAt(i) != MrzParser.FILLER && (i == start || row.charAt(i - 1) == MrzParser.FILLER) && count++ == index) {
+				return i;
+			}
+		}
+		throw new IndexOutOfBoundsException("No " + field + " component " + index);
+	}
+
+	/**
+	 * @param field {@link MrzField#SURNAME} or {@link MrzField#GIVEN_NAMES}
+	 * @param index the 0-based index of the component
+	 * @return the offset after the component in the row
+	 * @throws IndexOutOfBoundsException no such component
+	 */
+	public int getComponentEnd(final MrzField field, final int index) {
+		final int end = end(field);
+		int i = getComponentStart(field, index);
+		while (i < end && row.charAt(i) != MrzParser.FILLER) {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * @param field {@link MrzField#SURNAME} or {@link MrzField#GIVEN_NAMES}
+	 * @param index the 0-based index of the component
+	 * @return the component
+	 * @throws IndexOutOfBoundsException no such component
+	 */
+	public String getComponent(final MrzField field, final int index) {
+		return row.subSequence(getComponentStart(field, index), getComponentEnd(field, index)).toString();
+	}
+
+	/**
+	 * @param field {@link MrzField#SURNAME} or {@link MrzField#GIVEN_NAMES}
+	 * @return the offset of the field
+	 */
+	private int start(final MrzField field) {
+		return checkField(field) ? surnameStart : givenNamesStart;
+	}
+
+	/**
+	 * @param field {@link MrzField#SURNAME} or {@link MrzField#GIVEN_NAMES}
+	 * @return the offset after the field
+	 */
+	private int end(final MrzField field) {
+		return checkField(field) ? surnameEnd : givenNamesEnd;
+	}
+
+	/**
+	 * @param field the field
+	 * @return true for the surname, false for the given names
+	 * @throws IllegalArgumentException not a name field
+	 */
+	private static boolean checkField(final MrzField field) {
+		if (field != MrzField.SURNAME && field != MrzField.GIVEN_NAMES) {
+			throw new IllegalArgumentException("Not a name field: " + field);
+		}
+		return field == MrzField.SURNAME;
+	}
+
+	@Override
+	public String toString() {
+		return row == null ? "" : row.subSequence(surnameStart, givenNamesEnd).toString();
+	}
+}
@@ -18,12 +18,23 @@
  */
 package com.innovatrics.mrz;
 
+import com.innovatrics.mrz.jfr.MrzFlightRecorder;
+import com.innovatrics.mrz.metrics.MrzFailure;
+import com.innovatrics.mrz.metrics.MrzInstrumentation;
+import com.innovatrics.mrz.metrics.MrzMetrics;
+import com.innovatrics.mrz.metrics.MrzStage;
+import com.innovatrics.mrz.types.MrzCountryCode;
 import com.innovatrics.mrz.types.MrzDate;
+import com.innovatrics.mrz.types.MrzDocumentCode;
+import com.innovatrics.mrz.types.MrzField;
 import com.innovatrics.mrz.types.MrzFormat;
+import com.innovatrics.mrz.types.MrzFormatDefinition;
+import com.innovatrics.mrz.types.MrzFormatRegistry;
 import com.innovatrics.mrz.types.MrzSex;
-import java.text.Normalizer;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,39 +47,24 @@ public class MrzParser {
 
 	private static final Logger LOG = LoggerFactory.getLogger(MrzParser.class);
 
-	private static final int[] MRZ_WEIGHTS = new int[]{7, 3, 1};
-	private static final Map<String, String> EXPAND_CHARACTERS = new HashMap<String, String>();
+	static final int[] MRZ_WEIGHTS = new int[]{7, 3, 1};
 	/**
 	 * The filler character, '&lt;'.
 	 */
 	public static final char FILLER = '<';
-
-	static {
-		EXPAND_CHARACTERS.put("\u00C4", "AE"); // Ä
-		EXPAND_CHARACTERS.put("\u00E4", "AE"); // ä
-		EXPAND_CHARACTERS.put("\u00C5", "AA"); // Å
-		EXPAND_CHARACTERS.put("\u00E5", "AA"); // å
-		EXPAND_CHARACTERS.put("\u00C6", "AE"); // Æ
-		EXPAND_CHARACTERS.put("\u00E6", "AE"); // æ
-		EXPAND_CHARACTERS.put("\u0132", "IJ"); // Ĳ
-		EXPAND_CHARACTERS.put("\u0133", "IJ"); // ĳ
-		EXPAND_CHARACTERS.put("\u00D6", "OE"); // Ö
-		EXPAND_CHARACTERS.put("\u00F6", "OE"); // ö
-		EXPAND_CHARACTERS.put("\u00D8", "OE"); // Ø
-		EXPAND_CHARACTERS.put("\u00F8", "OE"); // ø
-		EXPAND_CHARACTERS.put("\u00DC", "UE"); // Ü
-		EXPAND_CHARACTERS.put("\u00FC", "UE"); // ü
-		EXPAND_CHARACTERS.put("\u00DF", "SS"); // ß
-	}
+	/**
+	 * Pads the rows shorter than the first row in lenient parsing, not a MRZ character.
+	 */
+	private static final char MISSING = '\0';
 
 	/**
-	 * The MRZ record, not null.
+	 * The MRZ record, null if the parser reads the rows in place.
 	 */
 	private final String mrz;
 	/**
 	 * The MRZ record separated into rows.
 	 */
-	private final String[] rows;
+	private final CharSequence[] rows;
 	/**
 	 * MRZ record format.
 	 */
@@ -87,18 +83,69 @@ public class MrzParser {
 		this.format = MrzFormat.get(mrz);
 	}
 
+	/**
+	 * Creates new parser reading MRZ rows of a known format in place, skipping the format detection. Later changes of the rows are seen by the
+	 * parser.
+	 *
+	 * @param rows the MRZ rows, not null.
+	 * @param format the MRZ format of the rows, not null.
+	 */
+	MrzParser(final CharSequence[] rows, final MrzFormat format) {
+		this.mrz = null;
+		this.rows = rows;
+		this.format = format;
+	}
+
+	/**
+	 * Creates new parser over a MRZ record of a known format already split into rows, skipping the format detection.
+	 *
+	 * @param mrz the MRZ record, not null.
+	 * @param rows the rows of the MRZ record, not null.
+	 * @param format the MRZ format of the rows, not null.
+	 */
+	MrzParser(final String mrz, final String[] rows, final MrzFormat format) {
+		this.mrz = mrz;
+		this.rows = rows;
+		this.format = format;
+	}
+
 	/**
 	 * @return the MRZ record
 	 */
 	public String getMrz() {
-		return mrz;
+		if (mrz != null) {
+			return mrz;
+		}
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < rows.length; i++) {
+			if (i > 0) {
+				sb.append('\n');
+			}
+			sb.append(rows[i]);
+		}
+		return sb.toString();
 	}
 
 	/**
 	 * @return the MRZ rows
 	 */
 	public String[] getRows() {
-		return rows;
+		if (rows instanceof String[]) {
+			return (String[]) rows;
+		}
+		final String[] strings = new String[rows.length];
+		for (int i = 0; i < rows.length; i++) {
+			strings[i] = rows[i].toString();
+		}
+		return strings;
+	}
+
+	/**
+	 * @param row the 0-based row
+	 * @return the MRZ row, read in place
+	 */
+	CharSequence getRow(final int row) {
+		return rows[row];
 	}
 
 	/**
@@ -117,22 +164,26 @@ public class MrzParser {
 	 * @throws MrzParseException could not parse range
 	 */
 	public String[] parseName(final MrzRange range) throws MrzParseException {
-		checkValidCharacters(range);
-		String str = rawValue(range);
-		while (str.endsWith("<")) {
-			str = str.substring(0, str.length() - 1);
-		}
-		final String[] names = str.split("<<");
-		String givenNames = "";
-		String surname = parseString(new MrzRange(range.getColumn(), range.getColumn() + names[0].length(), range.getRow()));
-		if (names.length == 1) {
-			givenNames = parseString(new MrzRange(range.getColumn(), range.getColumn() + names[0].length(), range.getRow()));
-			surname = "";
-		} else if (names.length > 1) {
-			surname = parseString(new MrzRange(range.getColumn(), range.getColumn() + names[0].length(), range.getRow()));
-			givenNames = parseString(new MrzRange(range.getColumn() + names[0].length() + 2, range.getColumn() + str.length(), range.getRow()));
+		final MrzName name = parseName(range, new MrzName());
+		return new String[]{name.getSurname(), name.getGivenNames()};
+	}
+
+	/**
+	 * Tokenizes the MRZ name in form of SURNAME &lt;&lt;FIRSTNAME&lt;, without creating any String.
+	 *
+	 * @param range the range
+	 * @param name the name to fill, may be reused
+	 * @return the name
+	 * @throws MrzParseException could not parse range
+	 */
+	public MrzName parseName(final MrzRange range, final MrzName name) throws MrzParseException {
+		final CharSequence row = rows[range.getRow()];
+		checkRange(row, range);
+		final int invalid = name.tokenize(row, range.getColumn(), range.getColumnTo());
+		if (invalid >= 0) {
+			throw invalidCharacter(row.charAt(invalid), invalid, range.getRow());
 		}
-		return new String[]{surname, givenNames};
+		return name;
 	}
 
 	/**
@@ -144,7 +195,7 @@ public class MrzParser {
 	public String rawValue(final MrzRange... range) {
 		final StringBuilder sb = new StringBuilder();
 		for (MrzRange r : range) {
-			sb.append(getRows()[r.getRow()].substring(r.getColumn(), r.getColumnTo()));
+			sb.append(rows[r.getRow()], r.getColumn(), r.getColumnTo());
 		}
 		return sb.toString();
 	}
@@ -156,15 +207,35 @@ public class MrzParser {
 	 * @throws MrzParseException could not parse range
 	 */
 	public void checkValidCharacters(final MrzRange range) throws MrzParseException {
-		final String str = rawValue(range);
-		for (int i = 0; i < str.length(); i++) {
-			final char c = str.charAt(i);
-			if (c != FILLER && (c < '0' || c > '9') && (c < 'A' || c > 'Z')) {
-				throw new MrzParseException("Invalid character in MRZ record: " + c, getMrz(), new MrzRange(range.getColumn() + i, range.getColumn() + i + 1, range.getRow()), getFormat());
-			}
+		final CharSequence row = rows[range.getRow()];
+		checkRange(row, range);
+		final int col = MrzCharset.firstInvalid(row, range.getColumn(), range.getColumnTo());
+		if (col >= 0) {
+			throw invalidCharacter(row.charAt(col), col, range.getRow());
 		}
 	}
 
+	/**
+	 * @param row the MRZ row
+	 * @param range the range
+	 * @throws StringIndexOutOfBoundsException the range exceeds the row
+	 */
+	private static void checkRange(final CharSequence row, final MrzRange range) {
+		if (range.getColumnTo() > row.length()) {
+			throw new StringIndexOutOfBoundsException("Range " + range + " exceeds row of length " + row.length());
+		}
+	}
+
+	/**
+	 * @param c the invalid character
+	 * @param col the 0-based column of the character
+	 * @param row the 0-based row of the character
+	 * @return the exception
+	 */
+	private MrzParseException invalidCharacter(final char c, final int col, final int row) {
+		return new MrzParseException("Invalid character in MRZ record: " + c, getMrz(), new MrzRange(col, col + 1, row), getFormat());
+	}
+
 	/**
 	 * Parses a string in given range. &lt;&lt; are replaced with ", ", &lt; is replaced by space.
 	 *
@@ -174,11 +245,65 @@ public class MrzParser {
 	 */
 	public String parseString(final MrzRange range) throws MrzParseException {
 		checkValidCharacters(range);
-		String str = rawValue(range);
-		while (str.endsWith("<")) {
-			str = str.substring(0, str.length() - 1);
+		final CharSequence row = rows[range.getRow()];
+		int end = range.getColumnTo();
+		while (end > range.getColumn() && row.charAt(end - 1) == FILLER) {
+			end--;
+		}
+		return toText(row, range.getColumn(), end);
+	}
+
+	/**
+	 * Converts MRZ characters to text: &lt;&lt; are replaced with ", ", &lt; is replaced by space.
+	 *
+	 * @param sequence the characters
+	 * @param start the start of the converted characters
+	 * @param end the end of the converted characters, exclusive
+	 * @return the text
+	 */
+	static String toText(final CharSequence sequence, final int start, final int end) {
+		int i = start;
+		while (i < end && sequence.charAt(i) != FILLER) {
+			i++;
 		}
-		return str.replace("" + FILLER + FILLER, ", ").replace(FILLER, ' ');
+		if (i == end) {
+			return sequence.subSequence(start, end).toString();
+		}
+		// Both replacements keep the length
+		final char[] text = new char[end - start];
+		for (int j = start; j < i; j++) {
+			text[j - start] = sequence.charAt(j);
+		}
+		for (; i < end; i++) {
+			final char c = sequence.charAt(i);
+			if (c != FILLER) {
+				text[i - start] = c;
+			} else if (i + 1 < end && sequence.charAt(i + 1) == FILLER) {
+				text[i - start] = ',';
+				text[++i - start] = ' ';
+			} else {
+				text[i - start] = ' ';
+			}
+		}
+		return new String(text);
+	}
+
+	/**
+	 * Parses a country code in given range. Known codes are returned as the shared instances of {@link MrzCountryCode} without allocating;
+	 * other values are parsed as by {@link #parseString(MrzRange)}.
+	 *
+	 * @param range the range
+	 * @return parsed country code.
+	 * @throws MrzParseException could not parse range
+	 */
+	public String parseCountry(final MrzRange range) throws MrzParseException {
+		if (range.getColumnTo() - range.getColumn() == 3) {
+			final short id = MrzCountryCode.getId(rows[range.getRow()], range.getColumn());
+			if (id != MrzCountryCode.UNKNOWN) {
+				return MrzCountryCode.getCode(id);
+			}
+		}
+		return parseString(range);
 	}
 
 	/**
@@ -208,8 +333,10 @@ public class MrzParser {
 		// If the check digit validation fails, this will contain the location.
 		MrzRange invalidCheckdigit = null;
 
+		final MrzMetrics metrics = MrzInstrumentation.getMetrics();
+		final long start = metrics == null ? 0 : System.nanoTime();
 		final char digit = (char) (computeCheckDigit(str) + '0');
-		char checkDigit = getRows()[row].charAt(col);
+		char checkDigit = rows[row].charAt(col);
 		if (checkDigit == FILLER) {
 			checkDigit = '0';
 		}
@@ -217,9 +344,35 @@ public class MrzParser {
 			invalidCheckdigit = new MrzRange(col, col + 1, row);
 			LOG.info("Check digit verification failed for " + fieldName + ": expected " + digit + " but got " + checkDigit);
 		}
+		if (metrics != null) {
+			metrics.latency(MrzStage.VALIDATE, System.nanoTime() - start);
+			if (invalidCheckdigit != null) {
+				metrics.failed(MrzFailure.CHECK_DIGIT, getCheckedField(col, row));
+			}
+		}
+		if (invalidCheckdigit != null && MrzFlightRecorder.isRecording()) {
+			MrzFlightRecorder.checkDigitFailed(format, getCheckedField(col, row), str.length(), digit, checkDigit);
+		}
 		return invalidCheckdigit == null;
 	}
 
+	/**
+	 * @param col the 0-based column of the check digit.
+	 * @param row the 0-based row of the check digit.
+	 * @return the field protected by the check digit at given position, null if unknown.
+	 */
+	private MrzField getCheckedField(final int col, final int row) {
+		if (format == null) {
+			return null;
+		}
+		for (final MrzLayout.Check check : MrzLayout.get(format, rows[0]).getChecks()) {
+			if (check.getDigit().getRow() == row && check.getDigit().getColumn() == col) {
+				return check.getField();
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * Parses MRZ date.
 	 *
@@ -290,20 +443,22 @@ public class MrzParser {
 	 * @return sex, never null.
 	 */
 	public MrzSex parseSex(final int col, final int row) {
-		return MrzSex.fromMrz(getRows()[row].charAt(col));
+		return MrzSex.fromMrz(rows[row].charAt(col));
 	}
 
-	/**
-	 * Checks if given character is valid in MRZ.
-	 *
-	 * @param c the character.
-	 * @return true if the character is valid, false otherwise.
-	 */
-	private static boolean isValid(final char c) {
-		return (c == FILLER) || (c >= '0' && c <= '9') || (c >= 'A' && c <= 'Z');
+	static int getCharacterValue(final char c) {
+		final int value = valueOf(c);
+		if (value < 0) {
+			throw new IllegalArgumentException("Invalid character in MRZ record: " + c);
+		}
+		return value;
 	}
 
-	private static int getCharacterValue(final char c) {
+	/**
+	 * @param c the character
+	 * @return the check digit value of given character, -1 if it is not a valid MRZ character
+	 */
+	static int valueOf(final char c) {
 		if (c == FILLER) {
 			return 0;
 		}
@@ -313,7 +468,7 @@ public class MrzParser {
 		if (c >= 'A' && c <= 'Z') {
 			return c - 'A' + 10;
 		}
-		throw new IllegalArgumentException("Invalid character in MRZ record: " + c);
+		return -1;
 	}
 
 	/**
@@ -344,6 +499,181 @@ public class MrzParser {
 		return (char) ('0' + computeCheckDigit(str));
 	}
 
+	/**
+	 * Parses the MRZ into an immutable record, safe to share between threads and caches without copying.
+	 *
+	 * @param mrz MRZ to parse.
+	 * @return the record snapshot.
+	 * @throws MrzParseException could not parse MRZ
+	 */
+	public static MrzRecordSnapshot parseSnapshot(final String mrz) throws MrzParseException {
+		return parse(mrz).freeze();
+	}
+
+	/**
+	 * Parses the MRZ leniently: instead of stopping at the first problem, reports all invalid characters, invalid values and failed checks,
+	 * and decodes every field without invalid characters. Rows shorter or longer than the first row are reported, and the fields reaching
+	 * past the end of a short row are left undecoded.
+	 *
+	 * @param mrz MRZ to parse.
+	 * @return the report, holding the record with the decoded fields unless the format is not known.
+	 */
+	public static MrzValidationReport parseLenient(final String mrz) {
+		final String[] split = mrz.split("\n");
+		final int columns = split[0].length();
+		boolean sameLength = true;
+		for (final String row : split) {
+			sameLength = sameLength && row.length() == columns;
+		}
+		final MrzFormatDefinition definition;
+		if (sameLength) {
+			try {
+				definition = MrzFormatRegistry.get(mrz);
+			} catch (MrzParseException e) {
+				final MrzValidationReport report = new MrzValidationReport(null, null);
+				report.add(e.getRange(), null, MrzValidationReport.Reason.UNSUPPORTED_FORMAT);
+				return report;
+			}
+		} else {
+			// The first row gives the format
+			definition = MrzFormatRegistry.get(split.length, columns, split[0]);
+		}
+		final MrzFormat format = definition == null ? null : definition.getFormat();
+		final MrzRecord record = definition == null ? null : definition.newRecord();
+		final MrzValidationReport report = new MrzValidationReport(format, record);
+		for (int row = 1; row < split.length; row++) {
+			final int length = split[row].length();
+			if (length != columns) {
+				report.add(new MrzRange(Math.min(length, columns), Math.max(length, columns), row), null, MrzValidationReport.Reason.ROW_LENGTH);
+			}
+		}
+		if (definition == null) {
+			report.add(new MrzRange(0, columns, 0), null, MrzValidationReport.Reason.UNSUPPORTED_FORMAT);
+			return report;
+		}
+		final String[] rows = split.clone();
+		for (int row = 1; row < rows.length; row++) {
+			rows[row] = fitRow(rows[row], columns);
+		}
+		final MrzParser parser = new MrzParser(mrz, rows, format);
+		final MrzProfile profile = MrzProfile.get(format, rows[0]);
+		final List<MrzLayout.Field> fields = profile.getLayout().getFields();
+		final List<MrzLayout.Check> checks = profile.getLayout().getChecks();
+		record.setMrz(mrz);
+
+		// One walk over the characters, marking the fields and check digits they spoil
+		int invalidFields = 0;
+		int invalidChecks = 0;
+		for (int row = 0; row < rows.length; row++) {
+			final int length = rows[row].length();
+			for (int col = MrzCharset.firstInvalid(rows[row], 0, length); col >= 0; col = MrzCharset.firstInvalid(rows[row], col + 1, length)) {
+				MrzField field = null;
+				for (final MrzLayout.Field f : fields) {
+					if (f.contains(row, col)) {
+						field = field == null ? f.getField() : field;
+						invalidFields |= 1 << f.getField().ordinal();
+					}
+				}
+				for (int i = 0; i < checks.size(); i++) {
+					final MrzRange digit = checks.get(i).getDigit();
+					if (checks.get(i).getWeight(row, col) != 0 || digit.getRow() == row && digit.getColumn() == col) {
+						invalidChecks |= 1 << i;
+					}
+				}
+				if (col < split[row].length()) {
+					// Missing characters are reported with the row length
+					report.add(new MrzRange(col, col + 1, row), field, MrzValidationReport.Reason.INVALID_CHARACTER);
+				}
+			}
+		}
+
+		final Set<MrzField> decoded = EnumSet.noneOf(MrzField.class);
+		for (final MrzLayout.Field field : fields) {
+			if ((invalidFields & 1 << field.getField().ordinal()) != 0 || decoded.contains(field.getField())) {
+				if (field.getField() == MrzField.DOCUMENT_CODE && !decoded.contains(MrzField.DOCUMENT_CODE)) {
+					decodeDocumentCode(record, rows[0]);
+				}
+				continue;
+			}
+			boolean valid;
+			try {
+				valid = profile.decode(record, parser, field, decoded);
+			} catch (MrzParseException e) {
+				valid = false;
+			}
+			if (!valid) {
+				report.add(field.getRange(), field.getField(), MrzValidationReport.Reason.INVALID_VALUE);
+			} else if (field.getField() == MrzField.DATE_OF_BIRTH && !record.getDateOfBirth().isDateValid()
+					|| field.getField() == MrzField.EXPIRATION_DATE && !record.getExpirationDate().isDateValid()) {
+				report.add(field.getRange(), field.getField(), MrzValidationReport.Reason.INVALID_DATE);
+			}
+		}
+
+		for (int i = 0; i < checks.size(); i++) {
+			final MrzLayout.Check check = checks.get(i);
+			boolean valid = (invalidChecks & 1 << i) == 0;
+			if (valid && !profile.checkDigit(parser, check.getField())) {
+				report.add(check.getDigit(), check.getField(), MrzValidationReport.Reason.CHECK_DIGIT);
+				valid = false;
+			}
+			if (check.getField() == MrzField.DATE_OF_BIRTH) {
+				valid = valid && record.getDateOfBirth() != null && record.getDateOfBirth().isDateValid();
+			} else if (check.getField() == MrzField.EXPIRATION_DATE) {
+				valid = valid && record.getExpirationDate() != null && record.getExpirationDate().isDateValid();
+			}
+			record.setValid(check.getField(), valid);
+		}
+		if (profile.hasDocumentNumberValidator()) {
+			final String documentNumber = record.getDocumentNumber();
+			final boolean valid = documentNumber != null && profile.isValidDocumentNumber(parser, documentNumber);
+			if (documentNumber != null && !valid) {
+				report.add(profile.getRange(MrzField.DOCUMENT_NUMBER), MrzField.DOCUMENT_NUMBER, MrzValidationReport.Reason.INVALID_DOCUMENT_NUMBER);
+			}
+			record.setValid(MrzField.DOCUMENT_NUMBER, valid);
+		}
+		return report;
+	}
+
+	/**
+	 * Cuts or pads a row to the length of the first row, padding with a character which is not a MRZ character so that the fields reaching
+	 * past the end of the row are taken for invalid.
+	 *
+	 * @param row the row
+	 * @param columns the length of the first row
+	 * @return the row of given length
+	 */
+	private static String fitRow(final String row, final int columns) {
+		if (row.length() >= columns) {
+			return row.substring(0, columns);
+		}
+		final char[] chars = Arrays.copyOf(row.toCharArray(), columns);
+		Arrays.fill(chars, row.length(), columns, MISSING);
+		return new String(chars);
+	}
+
+	/**
+	 * Decodes the characters of a document code holding an invalid character on their own: sets each valid code character, and the document
+	 * code if the first character is valid. A two letter code with its second letter invalid is then read as its one letter code.
+	 *
+	 * @param record the record
+	 * @param firstRow the first row
+	 */
+	private static void decodeDocumentCode(final MrzRecord record, final String firstRow) {
+		final char code1 = firstRow.charAt(0);
+		final char code2 = firstRow.charAt(1);
+		if (MrzCharset.isValid(code1)) {
+			record.setCode1(code1);
+			try {
+				record.setCode(MrzDocumentCode.parse(firstRow));
+			} catch (MrzParseException e) {
+				// Not a known document code, left null
+			}
+		}
+		if (MrzCharset.isValid(code2)) {
+			record.setCode2(code2);
+		}
+	}
+
 	/**
 	 * Factory method, which parses the MRZ and returns appropriate record class.
 	 *
@@ -352,16 +682,134 @@ public class MrzParser {
 	 * @throws MrzParseException could not parse MRZ
 	 */
 	public static MrzRecord parse(final String mrz) throws MrzParseException {
-		final MrzRecord result = MrzFormat.get(mrz).newRecord();
+		if (!MrzFlightRecorder.isRecording()) {
+			return parseRecord(mrz);
+		}
+		final Object event = MrzFlightRecorder.begin(MrzStage.PARSE);
+		MrzFormat format = null;
+		MrzFailure failure = MrzFailure.MALFORMED;
+		try {
+			final MrzRecord result = parseRecord(mrz);
+			format = result.getFormat();
+			failure = result.isValidDocumentNumber() && result.isValidDateOfBirth() && result.isValidExpirationDate() && result.isValidComposite()
+					? null : MrzFailure.CHECK_DIGIT;
+			return result;
+		} catch (MrzParseException e) {
+			format = e.getFormat();
+			failure = format == null ? MrzFailure.UNSUPPORTED_FORMAT : MrzFailure.MALFORMED;
+			throw e;
+		} finally {
+			MrzFlightRecorder.end(event, format, mrz.length(), failure);
+		}
+	}
+
+	/**
+	 * Parses only given fields of the MRZ, verifying only their check digits. See {@link MrzProjection}.
+	 *
+	 * @param mrz MRZ to parse.
+	 * @param fields the fields to decode and verify, {@link MrzField#COMPOSITE} for the composite check digit.
+	 * @return record class, holding given fields only.
+	 * @throws MrzParseException could not parse MRZ
+	 */
+	public static MrzRecord parse(final String mrz, final Set<MrzField> fields) throws MrzParseException {
+		return MrzProjection.of(fields).parse(mrz);
+	}
+
+	/**
+	 * Parses the MRZ, reporting to the metrics if installed.
+	 *
+	 * @param mrz MRZ to parse.
+	 * @return record class.
+	 * @throws MrzParseException could not parse MRZ
+	 */
+	private static MrzRecord parseRecord(final String mrz) throws MrzParseException {
+		final MrzMetrics metrics = MrzInstrumentation.getMetrics();
+		if (metrics != null) {
+			return parse(mrz, metrics);
+		}
+		final MrzRecord result = MrzFormatRegistry.get(mrz).newRecord();
 		result.fromMrz(mrz);
 		return result;
 	}
 
+	/**
+	 * Parses the MRZ, reporting the stage latencies, the parsed record and any failure to the metrics.
+	 *
+	 * @param mrz MRZ to parse.
+	 * @param metrics the metrics to report to.
+	 * @return record class.
+	 * @throws MrzParseException could not parse MRZ
+	 */
+	private static MrzRecord parse(final String mrz, final MrzMetrics metrics) throws MrzParseException {
+		final long start = System.nanoTime();
+		final MrzFormatDefinition definition;
+		try {
+			definition = MrzFormatRegistry.get(mrz);
+		} catch (MrzParseException e) {
+			metrics.failed(MrzFailure.UNSUPPORTED_FORMAT, null);
+			throw e;
+		} finally {
+			metrics.latency(MrzStage.DETECT, System.nanoTime() - start);
+		}
+		final long parseStart = System.nanoTime();
+		final MrzFormat format = definition.getFormat();
+		final MrzRecord result = definition.newRecord();
+		try {
+			result.fromMrz(mrz);
+		} catch (MrzParseException e) {
+			metrics.failed(MrzFailure.MALFORMED, getField(format, mrz, e.getRange()));
+			throw e;
+		} catch (IllegalArgumentException e) {
+			metrics.failed(MrzFailure.MALFORMED, null);
+			throw e;
+		} finally {
+			metrics.latency(MrzStage.PARSE, System.nanoTime() - parseStart);
+		}
+		if (result.getDateOfBirth() != null && !result.getDateOfBirth().isDateValid()) {
+			metrics.failed(MrzFailure.INVALID_DATE, MrzField.DATE_OF_BIRTH);
+		}
+		if (result.getExpirationDate() != null && !result.getExpirationDate().isDateValid()) {
+			metrics.failed(MrzFailure.INVALID_DATE, MrzField.EXPIRATION_DATE);
+		}
+		metrics.parsed(format, result.getCode());
+		return result;
+	}
+
+	/**
+	 * @param format the MRZ format
+	 * @param mrz the MRZ
+	 * @param range the range of the failure, may be null
+	 * @return the field containing the start of the range, null if none
+	 */
+	private static MrzField getField(final MrzFormat format, final String mrz, final MrzRange range) {
+		if (range == null) {
+			return null;
+		}
+		final int rowEnd = mrz.indexOf('\n');
+		for (final MrzLayout.Field field : MrzLayout.get(format, rowEnd < 0 ? mrz : mrz.substring(0, rowEnd)).getFields()) {
+			if (field.contains(range.getRow(), range.getColumn())) {
+				return field.getField();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Factory method, which parses the MRZ stored in the data group 1 of an eMRTD chip and returns appropriate record class.
+	 *
+	 * @param dg1 the DG1 bytes, see {@link MrzDg1}.
+	 * @return record class.
+	 * @throws MrzParseException malformed DG1 or could not parse MRZ
+	 */
+	public static MrzRecord parseDg1(final byte[] dg1) throws MrzParseException {
+		return MrzDg1.parse(dg1);
+	}
+
 	/**
 	 * Converts given string to a MRZ string: removes all accents, converts the string to upper-case and replaces all spaces and invalid characters
 	 * with '&lt;'.
 	 * <p>
-	 * Several characters are expanded:
+	 * Characters are transliterated by {@link MrzTransliterator}, which also covers Cyrillic, Greek and Arabic. Several characters are expanded:
 	 * </p>
 	 * <table border="1">
 	 * <caption>Expanded characters</caption>
@@ -375,6 +823,8 @@ public class MrzParser {
 	 * <tr><td>Ø</td><td>OE</td></tr>
 	 * <tr><td>Ü</td><td>UE</td></tr>
 	 * <tr><td>ß</td><td>SS</td></tr>
+	 * <tr><td>Þ</td><td>TH</td></tr>
+	 * <tr><td>Œ</td><td>OE</td></tr>
 	 * </table>
 	 * Examples:
 	 * <ul>
@@ -390,32 +840,21 @@ public class MrzParser {
 	 * @return MRZ-valid string.
 	 */
 	public static String toMrz(final String input, final int length) {
-		String string = input == null ? "" : input;
-		for (final Map.Entry<String, String> e : EXPAND_CHARACTERS.entrySet()) {
-			string = string.replace(e.getKey(), e.getValue());
-		}
-		string = string.replace("’", "");
-		string = string.replace("'", "");
-		string = deaccent(string).toUpperCase();
-		if (length >= 0 && string.length() > length) {
-			string = string.substring(0, length);
-		}
-		final StringBuilder sb = new StringBuilder(string);
-		for (int i = 0; i < sb.length(); i++) {
-			if (!isValid(sb.charAt(i))) {
-				sb.setCharAt(i, FILLER);
-			}
+		final String string = MrzTransliterator.transliterate(input);
+		if (length < 0 || string.length() == length) {
+			return string;
+		}
+		if (string.length() > length) {
+			return string.substring(0, length);
 		}
+		final StringBuilder sb = new StringBuilder(length);
+		sb.append(string);
 		while (sb.length() < length) {
 			sb.append(FILLER);
 		}
 		return sb.toString();
 	}
 
-	private static boolean isBlank(final String str) {
-		return str == null || str.trim().length() == 0;
-	}
-
 	/**
 	 * Converts a surname and given names to a MRZ string, shortening them as per Doc 9303 Part 3 Vol 1 Section 6.7 of the MRZ specification when
 	 * necessary.
@@ -427,87 +866,7 @@ public class MrzParser {
 	 * @return name, properly converted to MRZ format of SURNAME&lt;&lt;GIVENNAMES&lt;..., with the exact length of given length.
 	 */
 	public static String nameToMrz(final String surname, final String givenNames, final int length) {
-		if (isBlank(surname)) {
-			throw new IllegalArgumentException("Parameter surname: invalid value " + surname + ": blank");
-		}
-		if (isBlank(givenNames)) {
-			throw new IllegalArgumentException("Parameter givenNames: invalid value " + givenNames + ": blank");
-		}
-		if (length <= 0) {
-			throw new IllegalArgumentException("Parameter length: invalid value " + length + ": not positive");
-		}
-		final String[] surnames = extractNames(surname);
-		final String[] given = extractNames(givenNames);
-		// Truncate
-		truncateNames(surnames, given, length, surname, givenNames);
-		return toMrz(toName(surnames, given), length);
-	}
-
-	private static String[] extractNames(final String name) {
-		final String[] names = name.replace(", ", " ").trim().split("[ \n\t\f\r]+");
-		for (int i = 0; i < names.length; i++) {
-			names[i] = toMrz(names[i], -1);
-		}
-		return names;
-	}
-
-	private static void truncateNames(final String[] surnames, final String[] given, final int length, final String surname, final String givenNames) {
-		int nameSize = getNameSize(surnames, given);
-		String[] currentlyTruncating = given;
-		int currentlyTruncatingIndex = given.length - 1;
-		while (nameSize > length) {
-			final String ct = currentlyTruncating[currentlyTruncatingIndex];
-			final int ctsize = ct.length();
-			if (nameSize - ctsize + 1 <= length) {
-				currentlyTruncating[currentlyTruncatingIndex] = ct.substring(0, ctsize - (nameSize - length));
-			} else {
-				currentlyTruncating[currentlyTruncatingIndex] = ct.substring(0, 1);
-				currentlyTruncatingIndex--;
-				if (currentlyTruncatingIndex < 0) {
-					if (currentlyTruncating == surnames) {
-						throw new IllegalArgumentException("Cannot truncate name " + surname + " " + givenNames + ": length too small: " + length + "; truncated to " + toName(surnames, given));
-					}
-					currentlyTruncating = surnames;
-					currentlyTruncatingIndex = currentlyTruncating.length - 1;
-				}
-			}
-			nameSize = getNameSize(surnames, given);
-		}
-	}
-
-	private static String toName(final String[] surnames, final String[] given) {
-		final StringBuilder sb = new StringBuilder();
-		boolean first = true;
-		for (String s : surnames) {
-			if (first) {
-				first = false;
-			} else {
-				sb.append(FILLER);
-			}
-			sb.append(s);
-		}
-		sb.append(FILLER);
-		for (String s : given) {
-			sb.append(FILLER);
-			sb.append(s);
-		}
-		return sb.toString();
-	}
-
-	private static int getNameSize(final String[] surnames, final String[] given) {
-		int result = 0;
-		for (String s : surnames) {
-			result += s.length() + 1;
-		}
-		for (String s : given) {
-			result += s.length() + 1;
-		}
-		return result;
-	}
-
-	private static String deaccent(final String str) {
-		String n = Normalizer.normalize(str, Normalizer.Form.NFD);
-		return n.replaceAll("[^\\p{ASCII}]", "").toLowerCase();
+		return new MrzEncoder().encodeName(surname, givenNames, length);
 	}
 
 }
@@ -0,0 +1,430 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz;
+
+import com.innovatrics.mrz.records.MrtdTd1;
+import com.innovatrics.mrz.types.MrzField;
+import com.innovatrics.mrz.types.MrzFormat;
+import com.innovatrics.mrz.types.MrzFormatProvider;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Country or document specific variant of a MRZ format: the field layout and the document number rules the issuer deviates in.
+ * <p>
+ * Profiles are keyed by format and a prefix of the first row of up to five characters, the document code followed by the issuing state, for
+ * example {@code I<PRT}. They are resolved through a prefix trie, so finding the most specific profile of a MRZ takes at most five steps
+ * however many profiles are registered. Every format has a default profile with the empty prefix.
+ * </p>
+ * <p>
+ * TD1, TD2 and TD3 records parse their fields through their profile. National variants are added with {@link #register(MrzProfile)} or
+ * contributed by a {@link MrzFormatProvider}.
+ * </p>
+ */
+public final class MrzProfile {
+
+	private static final Logger LOG = LoggerFactory.getLogger(MrzProfile.class);
+
+	/**
+	 * Maximum prefix length: document code and issuing state.
+	 */
+	public static final int MAX_PREFIX = 5;
+
+	private static final MrzField[] FIELDS = MrzField.values();
+
+	/**
+	 * The field names used in check digit failure messages.
+	 */
+	private static final String[] NAMES = new String[FIELDS.length];
+
+	private static final List<MrzProfile> PROFILES = new ArrayList<>();
+
+	private static final AtomicReference<Trie> TRIE = new AtomicReference<>();
+
+	static {
+		for (final MrzField field : FIELDS) {
+			NAMES[field.ordinal()] = field.name().toLowerCase(Locale.ROOT).replace('_', ' ');
+		}
+		for (final MrzFormat format : MrzFormat.values()) {
+			PROFILES.add(new MrzProfile(format, ""));
+		}
+		// TD1 cards of Portugal carry a longer document number, validated with a national rule instead of the check digit
+		PROFILES.add(new MrzProfile(MrzFormat.MRTD_TD1, "I<PRT").withField(MrzField.DOCUMENT_NUMBER, new MrzRange(5, 18, 0))
+				.withDocumentNumber(MrtdTd1::replaceNumberChar, MrtdTd1.PORTUGAL_ID_NUMBER));
+		// TD1 cards of France validate the document number with a national rule instead of the check digit
+		PROFILES.add(new MrzProfile(MrzFormat.MRTD_TD1, "IDFRA").withDocumentNumber(null, MrtdTd1.FRENCH_ID_NUMBER));
+		// Providers may already look up profiles, which then resolve to the built-in ones
+		TRIE.set(new Trie(PROFILES));
+		try {
+			for (final MrzFormatProvider provider : ServiceLoader.load(MrzFormatProvider.class)) {
+				PROFILES.addAll(provider.getProfiles());
+			}
+		} catch (ServiceConfigurationError e) {
+			LOG.warn("Could not load MRZ profiles: " + e.getMessage(), e);
+		}
+		TRIE.set(new Trie(PROFILES));
+	}
+
+	private final MrzFormat format;
+	private final String prefix;
+	private final MrzLayout layout;
+	private final UnaryOperator<String> documentNumberNormalizer;
+	private final Predicate<? super String> documentNumberValidator;
+	/**
+	 * The range of each field by ordinal, null if the layout does not contain the field.
+	 */
+	private final MrzRange[] ranges = new MrzRange[FIELDS.length];
+	/**
+	 * The check digit protecting each field by ordinal, null if the field is not protected.
+	 */
+	private final MrzLayout.Check[] checks = new MrzLayout.Check[FIELDS.length];
+	/**
+	 * The ranges protected by each check digit by field ordinal.
+	 */
+	private final MrzRange[][] checkRanges = new MrzRange[FIELDS.length][];
+
+	/**
+	 * Creates a profile with the standard layout of the format.
+	 *
+	 * @param format the MRZ format
+	 * @param prefix the start of the first row the profile applies to, up to {@link #MAX_PREFIX} characters {@code 0-9}, {@code A-Z} or
+	 * {@code <}; empty for the default profile of the format
+	 */
+	public MrzProfile(final MrzFormat format, final String prefix) {
+		this(format, prefix, MrzLayout.get(format), null, null);
+	}
+
+	private MrzProfile(final MrzFormat format, final String prefix, final MrzLayout layout, final UnaryOperator<String> documentNumberNormalizer,
+			final Predicate<? super String> documentNumberValidator) {
+		if (prefix.length() > MAX_PREFIX) {
+			throw new IllegalArgumentException("Profile prefix " + prefix + " longer than " + MAX_PREFIX + " characters");
+		}
+		for (int i = 0; i < prefix.length(); i++) {
+			if (Trie.symbol(prefix.charAt(i)) < 0) {
+				throw new IllegalArgumentException("Invalid character in profile prefix " + prefix);
+			}
+		}
+		this.format = format;
+		this.prefix = prefix;
+		this.layout = layout;
+		this.documentNumberNormalizer = documentNumberNormalizer;
+		this.documentNumberValidator = documentNumberValidator;
+		for (final MrzLayout.Field field : layout.getFields()) {
+			ranges[field.getField().ordinal()] = field.getRange();
+		}
+		for (final MrzLayout.Check check : layout.getChecks()) {
+			checks[check.getField().ordinal()] = check;
+			checkRanges[check.getField().ordinal()] = check.getRanges();
+		}
+	}
+
+	/**
+	 * Copies this profile, moving given field.
+	 *
+	 * @param field the field
+	 * @param range the range of the field in this variant
+	 * @return the new profile
+	 */
+	public MrzProfile withField(final MrzField field, final MrzRange range) {
+		return new MrzProfile(format, prefix, layout.withField(field, range), documentNumberNormalizer, documentNumberValidator);
+	}
+
+	/**
+	 * Copies this profile, replacing the rules of the document number.
+	 *
+	 * @param normalizer converts the parsed document number, null to keep it as it is
+	 * @param validator validates the document number instead of its check digit, null to verify the check digit
+	 * @return the new profile
+	 */
+	public MrzProfile withDocumentNumber(final UnaryOperator<String> normalizer, final Predicate<? super String> validator) {
+		final MrzLayout newLayout = validator == null ? layout : layout.withoutCheck(MrzField.DOCUMENT_NUMBER);
+		return new MrzProfile(format, prefix, newLayout, normalizer, validator);
+	}
+
+	/**
+	 * Registers a profile, replacing the profile of the same format and prefix.
+	 *
+	 * @param profile the profile
+	 */
+	public static synchronized void register(final MrzProfile profile) {
+		for (int i = PROFILES.size() - 1; i >= 0; i--) {
+			final MrzProfile registered = PROFILES.get(i);
+			if (registered.format == profile.format && registered.prefix.equals(profile.prefix)) {
+				PROFILES.remove(i);
+			}
+		}
+		PROFILES.add(profile);
+		TRIE.set(new Trie(PROFILES));
+	}
+
+	/**
+	 * @return the registered profiles, including the defaults, in registration order
+	 */
+	public static synchronized List<MrzProfile> getProfiles() {
+		return Collections.unmodifiableList(new ArrayList<>(PROFILES));
+	}
+
+	/**
+	 * Returns the profile with the longest prefix matching given first row.
+	 *
+	 * @param format the MRZ format
+	 * @param firstRow the first MRZ row, or at least its first five characters
+	 * @return the profile, never null
+	 */
+	public static MrzProfile get(final MrzFormat format, final CharSequence firstRow) {
+		return TRIE.get().get(format, firstRow);
+	}
+
+	/**
+	 * @return the MRZ format
+	 */
+	public MrzFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * @return the start of the first row this profile applies to, empty for the default profile
+	 */
+	public String getPrefix() {
+		return prefix;
+	}
+
+	/**
+	 * @return the field layout
+	 */
+	public MrzLayout getLayout() {
+		return layout;
+	}
+
+	/**
+	 * @param field the field
+	 * @return the range of given field, or null if the format does not contain the field.
+	 */
+	public MrzRange getRange(final MrzField field) {
+		return ranges[field.ordinal()];
+	}
+
+	/**
+	 * @param parser the parser over the MRZ
+	 * @return the document number, normalized as per this profile
+	 * @throws MrzParseException could not parse the document number
+	 */
+	public String parseDocumentNumber(final MrzParser parser) throws MrzParseException {
+		return normalizeDocumentNumber(parser.parseString(getRange(MrzField.DOCUMENT_NUMBER)));
+	}
+
+	/**
+	 * @param documentNumber the parsed document number
+	 * @return the document number, normalized as per this profile
+	 */
+	public String normalizeDocumentNumber(final String documentNumber) {
+		return documentNumberNormalizer == null ? documentNumber : documentNumberNormalizer.apply(documentNumber);
+	}
+
+	/**
+	 * @return true if the document number is validated by a national rule instead of its check digit
+	 */
+	public boolean hasDocumentNumberValidator() {
+		return documentNumberValidator != null;
+	}
+
+	/**
+	 * Validates the document number. A {@link MrzDocumentNumberRule} of a profile without normalizer is matched on the MRZ row in place,
+	 * without its trailing fillers, instead of on the parsed document number.
+	 *
+	 * @param parser the parser over the MRZ
+	 * @param documentNumber the normalized document number
+	 * @return true if the document number passes the national rule of this profile, or its check digit if there is none
+	 */
+	public boolean isValidDocumentNumber(final MrzParser parser, final String documentNumber) {
+		if (documentNumberValidator == null) {
+			return checkDigit(parser, MrzField.DOCUMENT_NUMBER);
+		}
+		if (documentNumberNormalizer == null && documentNumberValidator instanceof MrzDocumentNumberRule) {
+			final MrzRange range = getRange(MrzField.DOCUMENT_NUMBER);
+			final CharSequence row = parser.getRow(range.getRow());
+			int end = range.getColumnTo();
+			while (end > range.getColumn() && row.charAt(end - 1) == MrzParser.FILLER) {
+				end--;
+			}
+			return ((MrzDocumentNumberRule) documentNumberValidator).test(row, range.getColumn(), end);
+		}
+		return documentNumberValidator.test(documentNumber);
+	}
+
+	/**
+	 * @param documentNumber the normalized document number
+	 * @return true if the document number passes the national rule of this profile, or there is none
+	 */
+	public boolean isValidDocumentNumber(final String documentNumber) {
+		return documentNumberValidator == null || documentNumberValidator.test(documentNumber);
+	}
+
+	/**
+	 * Verifies the check digit protecting given field.
+	 *
+	 * @param parser the parser over the MRZ
+	 * @param field the field, {@link MrzField#COMPOSITE} for the composite check digit
+	 * @return true if the check digit is valid or the field is not protected by a check digit
+	 */
+	public boolean checkDigit(final MrzParser parser, final MrzField field) {
+		final MrzLayout.Check check = checks[field.ordinal()];
+		if (check == null) {
+			return true;
+		}
+		final MrzRange digit = check.getDigit();
+		return parser.checkDigit(digit.getColumn(), digit.getRow(), parser.rawValue(checkRanges[field.ordinal()]), NAMES[field.ordinal()]);
+	}
+
+	/**
+	 * Decodes a field of the MRZ into the record.
+	 *
+	 * @param record the record of the format of this profile
+	 * @param parser the parser over the MRZ
+	 * @param field the field to decode
+	 * @param decoded the fields decoded so far, updated with the decoded fields: both names if they share one range
+	 * @return false if the field holds an invalid value, which was left null; true otherwise
+	 * @throws MrzParseException could not parse the field
+	 */
+	boolean decode(final MrzRecord record, final MrzParser parser, final MrzLayout.Field field, final Set<MrzField> decoded)
+			throws MrzParseException {
+		final MrzRange range = field.getRange();
+		decoded.add(field.getField());
+		switch (field.getField()) {
+			case SURNAME:
+			case GIVEN_NAMES:
+				// Layouts either share one range between both names (SURNAME<<GIVEN<NAMES) or keep them apart, as the French ID card does
+				if (!layout.hasCombinedName()) {
+					return record.setField(field.getField(), parser, range);
+				}
+				record.setName(parser.parseName(range));
+				decoded.add(MrzField.SURNAME);
+				decoded.add(MrzField.GIVEN_NAMES);
+				return true;
+			case DOCUMENT_NUMBER:
+				record.setDocumentNumber(normalizeDocumentNumber(parser.parseString(range)));
+				return true;
+			default:
+				return record.setField(field.getField(), parser, range);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return format + "[" + prefix + "]";
+	}
+
+	/**
+	 * Immutable prefix trie over the profiles. The root of each format is the node of the format ordinal; the children of a node are indexed
+	 * by symbol, 0 meaning no child as roots are never children.
+	 */
+	private static final class Trie {
+
+		/**
+		 * The filler, digits and letters.
+		 */
+		private static final int SYMBOLS = 37;
+
+		private final int[] children;
+		private final MrzProfile[] profiles;
+
+		/**
+		 * @param list the profiles, later ones replacing earlier ones of the same format and prefix
+		 */
+		private Trie(final List<MrzProfile> list) {
+			int size = MrzFormat.values().length;
+			for (final MrzProfile profile : list) {
+				size += profile.prefix.length();
+			}
+			int[] nodes = new int[size * SYMBOLS];
+			final MrzProfile[] values = new MrzProfile[size];
+			int count = MrzFormat.values().length;
+			for (final MrzProfile profile : list) {
+				int node = profile.format.ordinal();
+				for (int i = 0; i < profile.prefix.length(); i++) {
+					final int index = node * SYMBOLS + symbol(profile.prefix.charAt(i));
+					if (nodes[index] == 0) {
+						nodes[index] = count++;
+					}
+					node = nodes[index];
+				}
+				values[node] = profile;
+			}
+			if (count < size) {
+				final int[] compact = new int[count * SYMBOLS];
+				System.arraycopy(nodes, 0, compact, 0, compact.length);
+				nodes = compact;
+			}
+			this.children = nodes;
+			this.profiles = values;
+		}
+
+		/**
+		 * @param c the character
+		 * @return the symbol of given character, -1 if not a MRZ character
+		 */
+		private static int symbol(final char c) {
+			if (c == MrzParser.FILLER) {
+				return 0;
+			}
+			if (c >= '0' && c <= '9') {
+				return 1 + c - '0';
+			}
+			if (c >= 'A' && c <= 'Z') {
+				return 11 + c - 'A';
+			}
+			return -1;
+		}
+
+		/**
+		 * @param format the MRZ format
+		 * @param firstRow the start of the first row
+		 * @return the profile with the longest matching prefix
+		 */
+		MrzProfile get(final MrzFormat format, final CharSequence firstRow) {
+			int node = format.ordinal();
+			MrzProfile result = profiles[node];
+			final int length = Math.min(MAX_PREFIX, firstRow.length());
+			for (int i = 0; i < length; i++) {
+				final int symbol = symbol(firstRow.charAt(i));
+				if (symbol < 0) {
+					break;
+				}
+				node = children[node * SYMBOLS + symbol];
+				if (node == 0) {
+					break;
+				}
+				if (profiles[node] != null) {
+					result = profiles[node];
+				}
+			}
+			return result;
+		}
+	}
+}
@@ -0,0 +1,214 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz;
+
+import com.innovatrics.mrz.types.MrzField;
+import com.innovatrics.mrz.types.MrzFormat;
+import com.innovatrics.mrz.types.MrzFormatDefinition;
+import com.innovatrics.mrz.types.MrzFormatRegistry;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Parses only the fields a caller asks for.
+ * <p>
+ * The requested fields and check digits are compiled into bitmasks over the {@link MrzField} ordinals. Parsing decodes the requested fields
+ * only, using the {@link MrzLayout} of the format, and verifies the requested check digits only; the other fields are left null and the
+ * validity of the other check digits keeps its default, true. Verifying the check digit of the document number or of a date also decodes the
+ * field, as its validity depends on the value.
+ * </p>
+ * <p>
+ * Instances are immutable and may be shared by threads, so one projection serves a whole batch.
+ * </p>
+ */
+public final class MrzProjection {
+
+	/**
+	 * Decodes all fields and verifies all check digits.
+	 */
+	public static final MrzProjection ALL = new MrzProjection(EnumSet.allOf(MrzField.class), EnumSet.allOf(MrzField.class));
+
+	/**
+	 * Fields whose value is needed to verify their check digit.
+	 */
+	private static final int VALUE_CHECKS = 1 << MrzField.DOCUMENT_NUMBER.ordinal() | 1 << MrzField.DATE_OF_BIRTH.ordinal()
+			| 1 << MrzField.EXPIRATION_DATE.ordinal();
+
+	/**
+	 * Bit i set if the field of ordinal i is decoded.
+	 */
+	private final int fields;
+	/**
+	 * Bit i set if the check digit of the field of ordinal i is verified.
+	 */
+	private final int checks;
+
+	/**
+	 * @param fields the fields to decode
+	 * @param checks the check digits to verify
+	 */
+	private MrzProjection(final Set<MrzField> fields, final Set<MrzField> checks) {
+		final int checkMask = mask(checks);
+		this.fields = mask(fields) | checkMask & VALUE_CHECKS;
+		this.checks = checkMask;
+	}
+
+	/**
+	 * @param fields the fields to decode and whose check digits to verify, {@link MrzField#COMPOSITE} for the composite check digit
+	 * @return the projection
+	 */
+	public static MrzProjection of(final Set<MrzField> fields) {
+		return new MrzProjection(fields, fields);
+	}
+
+	/**
+	 * @param fields the fields to decode
+	 * @param checks the fields whose check digits to verify, {@link MrzField#COMPOSITE} for the composite check digit; empty to skip validation
+	 * @return the projection
+	 */
+	public static MrzProjection of(final Set<MrzField> fields, final Set<MrzField> checks) {
+		return new MrzProjection(fields, checks);
+	}
+
+	/**
+	 * @param set the fields
+	 * @return the bitmask of the field ordinals
+	 */
+	private static int mask(final Set<MrzField> set) {
+		int mask = 0;
+		for (final MrzField field : set) {
+			mask |= 1 << field.ordinal();
+		}
+		return mask;
+	}
+
+	/**
+	 * @param field the field
+	 * @return true if the field is decoded, either requested or needed to verify its check digit
+	 */
+	public boolean isDecoded(final MrzField field) {
+		return (fields & 1 << field.ordinal()) != 0;
+	}
+
+	/**
+	 * @param field the field, {@link MrzField#COMPOSITE} for the composite check digit
+	 * @return true if the check digit of the field is verified
+	 */
+	public boolean isVerified(final MrzField field) {
+		return (checks & 1 << field.ordinal()) != 0;
+	}
+
+	/**
+	 * Parses the requested fields of the MRZ.
+	 *
+	 * @param mrz the MRZ, separated by \n
+	 * @return the record of the MRZ format, holding the requested fields
+	 * @throws MrzParseException unsupported format, invalid characters or invalid value in a requested field, or invalid characters protected
+	 * by a verified check digit
+	 */
+	public MrzRecord parse(final String mrz) throws MrzParseException {
+		final MrzFormatDefinition definition = MrzFormatRegistry.get(mrz);
+		return parse(definition, new MrzParser(mrz, mrz.split("\n"), definition.getFormat()));
+	}
+
+	/**
+	 * Parses the requested fields of the MRZ read by given parser.
+	 *
+	 * @param definition the format definition of the MRZ
+	 * @param parser the parser over the MRZ rows
+	 * @return the record of the MRZ format, holding the requested fields
+	 * @throws MrzParseException invalid characters or invalid value in a requested field, or invalid characters protected by a verified check
+	 * digit
+	 */
+	MrzRecord parse(final MrzFormatDefinition definition, final MrzParser parser) throws MrzParseException {
+		final MrzFormat format = definition.getFormat();
+		final MrzRecord record = definition.newRecord();
+		final String mrz = parser.getMrz();
+		record.setMrz(mrz);
+		final MrzProfile profile = MrzProfile.get(format, parser.getRow(0));
+		if (fields != 0) {
+			final Set<MrzField> decoded = EnumSet.noneOf(MrzField.class);
+			for (final MrzLayout.Field field : profile.getLayout().getFields()) {
+				if ((fields & 1 << field.getField().ordinal()) != 0 && !decoded.contains(field.getField())
+						&& !profile.decode(record, parser, field, decoded)) {
+					throw new MrzParseException("Invalid " + field.getField() + " in MRZ record", mrz, field.getRange(), format);
+				}
+			}
+		}
+		for (final MrzLayout.Check check : profile.getLayout().getChecks()) {
+			if ((checks & 1 << check.getField().ordinal()) != 0) {
+				try {
+					record.setValid(check.getField(), isValid(record, parser, profile, check.getField()));
+				} catch (IllegalArgumentException ex) {
+					// An invalid character in a range protected by the check digit, outside of the decoded fields
+					final MrzParseException parseException = new MrzParseException(ex.getMessage(), mrz, check.getDigit(), format);
+					parseException.initCause(ex);
+					throw parseException;
+				}
+			}
+		}
+		if ((checks & 1 << MrzField.DOCUMENT_NUMBER.ordinal()) != 0 && profile.hasDocumentNumberValidator()) {
+			record.setValid(MrzField.DOCUMENT_NUMBER, isValid(record, parser, profile, MrzField.DOCUMENT_NUMBER));
+		}
+		return record;
+	}
+
+	/**
+	 * @param record the record holding the decoded fields
+	 * @param parser the parser over the MRZ
+	 * @param profile the profile of the MRZ
+	 * @param field the field, {@link MrzField#COMPOSITE} for the composite check digit
+	 * @return true if the check digit, or the national rule, and the value of the field are valid
+	 */
+	private static boolean isValid(final MrzRecord record, final MrzParser parser, final MrzProfile profile, final MrzField field) {
+		switch (field) {
+			case DOCUMENT_NUMBER:
+				return profile.isValidDocumentNumber(parser, record.getDocumentNumber());
+			case DATE_OF_BIRTH:
+				return profile.checkDigit(parser, field) && record.getDateOfBirth().isDateValid();
+			case EXPIRATION_DATE:
+				return profile.checkDigit(parser, field) && record.getExpirationDate().isDateValid();
+			default:
+				return profile.checkDigit(parser, field);
+		}
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder("MrzProjection[fields=");
+		final MrzField[] values = MrzField.values();
+		String separator = "";
+		for (final MrzField field : values) {
+			if (isDecoded(field)) {
+				sb.append(separator).append(field);
+				separator = ",";
+			}
+		}
+		sb.append(", checks=");
+		separator = "";
+		for (final MrzField field : values) {
+			if (isVerified(field)) {
+				sb.append(separator).append(field);
+				separator = ",";
+			}
+		}
+		return sb.append(']').toString();
+	}
+
+}
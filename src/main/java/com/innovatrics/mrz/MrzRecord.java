@@ -18,8 +18,10 @@
  */
 package com.innovatrics.mrz;
 
+import com.innovatrics.mrz.types.MrzCountryCode;
 import com.innovatrics.mrz.types.MrzDate;
 import com.innovatrics.mrz.types.MrzDocumentCode;
+import com.innovatrics.mrz.types.MrzField;
 import com.innovatrics.mrz.types.MrzFormat;
 import com.innovatrics.mrz.types.MrzSex;
 import java.io.Serializable;
@@ -166,7 +168,7 @@ public abstract class MrzRecord implements Serializable {
 		setCode1(mrz.charAt(0));
 		setCode2(mrz.charAt(1));
 		setMrz(mrz);
-		setIssuingCountry(new MrzParser(mrz).parseString(new MrzRange(2, 5, 0)));
+		setIssuingCountry(new MrzParser(mrz).parseCountry(new MrzRange(2, 5, 0)));
 	}
 
 	/**
@@ -186,6 +188,24 @@ public abstract class MrzRecord implements Serializable {
 	 */
 	public abstract String toMrz();
 
+	/**
+	 * Writes this record to given encoder, row by row. The built-in records write their fields one by one and implement {@link #toMrz()} with
+	 * {@link MrzEncoder#encode(MrzRecord)}; by default, the characters of {@link #toMrz()} are written as they are.
+	 *
+	 * @param encoder the encoder
+	 */
+	protected void encode(final MrzEncoder encoder) {
+		final String mrz = toMrz();
+		for (int i = 0; i < mrz.length(); i++) {
+			final char c = mrz.charAt(i);
+			if (c == '\n') {
+				encoder.newLine();
+			} else {
+				encoder.put(c);
+			}
+		}
+	}
+
 	/**
 	 * @return the document code
 	 */
@@ -232,7 +252,7 @@ public abstract class MrzRecord implements Serializable {
 	 * @return the document mrzString
 	 */
     public String getMrz() {
-        return this.mrzString.replace("\n", "_");
+        return this.mrzString == null ? null : this.mrzString.replace('\n', '_');
     }
 
 	/**
@@ -253,7 +273,14 @@ public abstract class MrzRecord implements Serializable {
 	 * @param issuingCountry the issuing country
 	 */
 	public void setIssuingCountry(final String issuingCountry) {
-		this.issuingCountry = issuingCountry;
+		this.issuingCountry = MrzCountryCode.canonical(issuingCountry);
+	}
+
+	/**
+	 * @return the {@link MrzCountryCode} ID of the issuing country, {@link MrzCountryCode#UNKNOWN} if the code is not known
+	 */
+	public short getIssuingCountryId() {
+		return MrzCountryCode.getId(issuingCountry);
 	}
 
 	/**
@@ -365,7 +392,14 @@ public abstract class MrzRecord implements Serializable {
 	 * @param nationality the nationality
 	 */
 	public void setNationality(final String nationality) {
-		this.nationality = nationality;
+		this.nationality = MrzCountryCode.canonical(nationality);
+	}
+
+	/**
+	 * @return the {@link MrzCountryCode} ID of the nationality, {@link MrzCountryCode#UNKNOWN} if the code is not known
+	 */
+	public short getNationalityId() {
+		return MrzCountryCode.getId(nationality);
 	}
 
 	/**
@@ -424,45 +458,185 @@ public abstract class MrzRecord implements Serializable {
 		this.validComposite = validComposite;
 	}
 
+	/**
+	 * @param field the field, {@link MrzField#COMPOSITE} for the composite check digit
+	 * @return true if the check digit protecting given field is valid, or the field is not protected by a check digit
+	 */
+	public boolean isValid(final MrzField field) {
+		switch (field) {
+			case DOCUMENT_NUMBER:
+				return isValidDocumentNumber();
+			case DATE_OF_BIRTH:
+				return isValidDateOfBirth();
+			case EXPIRATION_DATE:
+				return isValidExpirationDate();
+			case COMPOSITE:
+				return isValidComposite();
+			default:
+				return true;
+		}
+	}
+
+	/**
+	 * Sets the validity of the check digit protecting given field.
+	 *
+	 * @param field the field protected by the check digit, {@link MrzField#COMPOSITE} for the composite check digit
+	 * @param valid true if the check digit is valid
+	 */
+	protected void setValid(final MrzField field, final boolean valid) {
+		switch (field) {
+			case DOCUMENT_NUMBER:
+				setValidDocumentNumber(valid);
+				break;
+			case DATE_OF_BIRTH:
+				setValidDateOfBirth(valid);
+				break;
+			case EXPIRATION_DATE:
+				setValidExpirationDate(valid);
+				break;
+			case COMPOSITE:
+				setValidComposite(valid);
+				break;
+			default:
+			// Not protected by a check digit
+		}
+	}
+
+	/**
+	 * Parses a field from given range of the MRZ and sets it on this record. Records holding fields beyond the common ones, such as the optional
+	 * data, override this method to set them and delegate the other fields.
+	 *
+	 * @param field the field to set
+	 * @param parser the parser over the MRZ
+	 * @param range the range of the field
+	 * @return false if the field holds an invalid value, which was left null; true otherwise
+	 * @throws MrzParseException could not parse the field
+	 * @throws IllegalArgumentException this record does not hold given field
+	 */
+	protected boolean setField(final MrzField field, final MrzParser parser, final MrzRange range) throws MrzParseException {
+		switch (field) {
+			case DOCUMENT_CODE:
+				setCode(MrzDocumentCode.parse(parser.getRow(0).toString()));
+				setCode1(parser.getRow(0).charAt(0));
+				setCode2(parser.getRow(0).charAt(1));
+				break;
+			case ISSUING_COUNTRY:
+				setIssuingCountry(parser.parseCountry(range));
+				break;
+			case SURNAME:
+				setSurname(parser.parseString(range));
+				break;
+			case GIVEN_NAMES:
+				setGivenNames(parser.parseString(range));
+				break;
+			case DOCUMENT_NUMBER:
+				setDocumentNumber(parser.parseString(range));
+				break;
+			case NATIONALITY:
+				setNationality(parser.parseCountry(range));
+				break;
+			case DATE_OF_BIRTH:
+				setDateOfBirth(parser.parseDate(range));
+				break;
+			case SEX:
+				try {
+					setSex(parser.parseSex(range.getColumn(), range.getRow()));
+				} catch (IllegalArgumentException ex) {
+					setSex(null);
+					return false;
+				}
+				break;
+			case EXPIRATION_DATE:
+				setExpirationDate(parser.parseDate(range));
+				break;
+			case PERSONAL_NUMBER:
+				setPersonalNumberID(parser.parseString(range));
+				break;
+			default:
+				throw new IllegalArgumentException("Field " + field + " is not held by " + getRecordName() + " records");
+		}
+		return true;
+	}
+
+	/**
+	 * Creates an immutable snapshot of this record, safe to share between threads and caches without copying. Later changes of this record
+	 * do not affect the snapshot.
+	 *
+	 * @return the snapshot
+	 */
+	public MrzRecordSnapshot freeze() {
+		return new MrzRecordSnapshot(this, mrzString);
+	}
+
 	@Override
 	public String toString() {
-		StringBuilder jsonBuilder = new StringBuilder();
-		jsonBuilder.append("{");
-		jsonBuilder.append("\"documentCode\": \"").append(getCode1()).append(getCode2()).append("\",");
-		jsonBuilder.append("\"documentType\": \"").append(getCode()).append("\",");
-		jsonBuilder.append("\"issuingState\": \"").append(getIssuingCountry()).append("\",");
-		jsonBuilder.append("\"documentNumber\": \"").append(getDocumentNumber()).append("\",");
-		jsonBuilder.append("\"lastName\": \"").append(getSurname()).append("\",");
-		jsonBuilder.append("\"firstName\": \"").append(getGivenNames()).append("\",");
-        jsonBuilder.append("\"mrzString\": \"").append(getMrz()).append("\",");
-		jsonBuilder.append("\"birthDate\": \"");
-		try {
-			jsonBuilder.append(convertToYYMMDD(getDateOfBirth().toString()));
-		} catch (Exception e) {
-			jsonBuilder.append("null");
+		final StringBuilder json = new StringBuilder();
+		json.append("{");
+		json.append("\"documentCode\": \"").append(getCode1()).append(getCode2()).append("\",");
+		json.append("\"documentType\": \"").append(getCode()).append("\",");
+		json.append("\"issuingState\": \"").append(getIssuingCountry()).append("\",");
+		json.append("\"documentNumber\": \"").append(getDocumentNumber()).append("\",");
+		json.append("\"lastName\": \"").append(getSurname()).append("\",");
+		json.append("\"firstName\": \"").append(getGivenNames()).append("\",");
+		json.append("\"mrzString\": \"").append(getMrz()).append("\",");
+		json.append("\"birthDate\": \"").append(toYYMMDD(getDateOfBirth())).append("\",");
+		json.append("\"sex\": \"").append(getSex()).append("\",");
+		json.append("\"expirationDate\": \"").append(toYYMMDD(getExpirationDate())).append("\",");
+		json.append("\"nationality\": \"").append(getNationality()).append("\",");
+		json.append("\"personalNumber\": \"").append(getPersonalNumberID()).append("\",");
+		json.append("\"validComposite\": \"").append(isValidComposite()).append("\",");
+		json.append("\"validDocumentNumber\": \"").append(isValidDocumentNumber()).append("\",");
+		json.append("\"validDateOfBirth\": \"").append(isValidDateOfBirth()).append("\",");
+		json.append("\"validExpirationDate\": \"").append(isValidExpirationDate()).append("\"");
+		json.append("}");
+		return json.toString();
+	}
+
+	/**
+	 * @param date the date
+	 * @return the date as yymmdd, or "null"
+	 */
+	static String toYYMMDD(final MrzDate date) {
+		if (date == null) {
+			return "null";
+		}
+		// Calendar dates print as they are; others go through the lenient SimpleDateFormat, rolling over the day and month
+		if (date.getYear() >= 0 && date.getYear() <= 99 && date.getMonth() >= 1 && date.getMonth() <= 12 && date.getDay() >= 1
+				&& date.getDay() <= daysInMonth(date.getYear(), date.getMonth())) {
+			final char[] digits = new char[6];
+			digits[0] = (char) ('0' + date.getYear() / 10);
+			digits[1] = (char) ('0' + date.getYear() % 10);
+			digits[2] = (char) ('0' + date.getMonth() / 10);
+			digits[3] = (char) ('0' + date.getMonth() % 10);
+			digits[4] = (char) ('0' + date.getDay() / 10);
+			digits[5] = (char) ('0' + date.getDay() % 10);
+			return new String(digits);
 		}
-		jsonBuilder.append("\",");
-		jsonBuilder.append("\"sex\": \"").append(getSex()).append("\",");
-		jsonBuilder.append("\"expirationDate\": \"");
 		try {
-			jsonBuilder.append(convertToYYMMDD(getExpirationDate().toString()));
-		} catch (Exception e) {
-			jsonBuilder.append("null");
+			return convertToYYMMDD(date.toString());
+		} catch (RuntimeException e) {
+			return "null";
 		}
-		jsonBuilder.append("\",");
-		jsonBuilder.append("\"nationality\": \"").append(getNationality()).append("\",");
-
-		// Adding the new fields
-		jsonBuilder.append("\"personalNumber\": \"").append(getPersonalNumberID()).append("\",");
-		jsonBuilder.append("\"validComposite\": \"").append(isValidComposite()).append("\",");
-		jsonBuilder.append("\"validDocumentNumber\": \"").append(isValidDocumentNumber()).append("\",");
-		jsonBuilder.append("\"validDateOfBirth\": \"").append(isValidDateOfBirth()).append("\",");
-		jsonBuilder.append("\"validExpirationDate\": \"").append(isValidExpirationDate()).append("\"");
-
-		jsonBuilder.append("}");
-    	return jsonBuilder.toString();
 	}
 
+	/**
+	 * @param year the two-digit year; the century window of {@link SimpleDateFormat} never holds 1900, so every fourth year is a leap year
+	 * @param month the month, 1..12
+	 * @return the number of days of the month
+	 */
+	private static int daysInMonth(final int year, final int month) {
+		switch (month) {
+			case 2:
+				return year % 4 == 0 ? 29 : 28;
+			case 4:
+			case 6:
+			case 9:
+			case 11:
+				return 30;
+			default:
+				return 31;
+		}
+	}
 
 	/**
 	 * @param sb the string builder to hold the record details
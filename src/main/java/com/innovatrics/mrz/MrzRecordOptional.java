@@ -1,5 +1,6 @@
 package com.innovatrics.mrz;
 
+import com.innovatrics.mrz.types.MrzField;
 import com.innovatrics.mrz.types.MrzFormat;
 
 /**
@@ -20,6 +21,15 @@ public abstract class MrzRecordOptional extends MrzRecord {
 		super(format, recordName);
 	}
 
+	@Override
+	protected boolean setField(final MrzField field, final MrzParser parser, final MrzRange range) throws MrzParseException {
+		if (field == MrzField.OPTIONAL) {
+			setOptional(parser.parseString(range));
+			return true;
+		}
+		return super.setField(field, parser, range);
+	}
+
 	@Override
 	protected void buildToString(final StringBuilder sb) {
 		super.buildToString(sb);
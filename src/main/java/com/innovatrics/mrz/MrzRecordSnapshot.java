@@ -0,0 +1,424 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz;
+
+import com.innovatrics.mrz.records.MRP;
+import com.innovatrics.mrz.records.MrtdTd1;
+import com.innovatrics.mrz.types.MrzCountryCode;
+import com.innovatrics.mrz.types.MrzDate;
+import com.innovatrics.mrz.types.MrzDocumentCode;
+import com.innovatrics.mrz.types.MrzField;
+import com.innovatrics.mrz.types.MrzFormat;
+import com.innovatrics.mrz.types.MrzSex;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Immutable snapshot of a {@link MrzRecord}, created by {@link MrzRecord#freeze()} or {@link MrzParser#parseSnapshot(String)}.
+ * <p>
+ * All fields are final and hold immutable values, so a snapshot is safely published to other threads without synchronization and may be
+ * shared by caches and thread pools without defensive copies. The hash code is computed once; {@link #equals(Object)} compares it before
+ * comparing the fields.
+ * </p>
+ * <p>
+ * Two snapshots are equal when their format, record name, values and check digit validity are equal; the source MRZ string is not compared.
+ * </p>
+ */
+public final class MrzRecordSnapshot implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final MrzField[] FIELDS = MrzField.values();
+
+	/**
+	 * The MRZ format.
+	 */
+	private final MrzFormat format;
+	/**
+	 * Name used for record type.
+	 */
+	private final String recordName;
+	/**
+	 * The document code.
+	 */
+	private final MrzDocumentCode code;
+	/**
+	 * First character of the document code.
+	 */
+	private final char code1;
+	/**
+	 * Second character of the document code.
+	 */
+	private final char code2;
+	/**
+	 * Issuing country, an ISO 3166-1 alpha-3 code or one of the additional MRZ codes.
+	 */
+	private final String issuingCountry;
+	/**
+	 * Document number, e.g. passport number.
+	 */
+	private final String documentNumber;
+	/**
+	 * Personal number ID of the national variants.
+	 */
+	private final String personalNumberID;
+	/**
+	 * The surname in uppercase.
+	 */
+	private final String surname;
+	/**
+	 * The given names in uppercase, separated by spaces.
+	 */
+	private final String givenNames;
+	/**
+	 * Date of birth.
+	 */
+	private final MrzDate dateOfBirth;
+	/**
+	 * Sex.
+	 */
+	private final MrzSex sex;
+	/**
+	 * Expiration date of the document.
+	 */
+	private final MrzDate expirationDate;
+	/**
+	 * Nationality, an ISO 3166-1 alpha-3 code or one of the additional MRZ codes.
+	 */
+	private final String nationality;
+	/**
+	 * Personal number of passports, null for other records.
+	 */
+	private final String personalNumber;
+	/**
+	 * Optional data, null for records without it.
+	 */
+	private final String optional;
+	/**
+	 * Second optional data field of TD1 records, null for other records.
+	 */
+	private final String optional2;
+	/**
+	 * The MRZ the record was parsed from, null if none; not compared.
+	 */
+	private final String mrz;
+	/**
+	 * Bit per {@link MrzField} ordinal, set if the field is valid.
+	 */
+	private final int valid;
+	/**
+	 * The hash code, computed once.
+	 */
+	private final int hash;
+
+	/**
+	 * @param record the record to copy
+	 * @param mrz the MRZ the record was parsed from, null if none
+	 */
+	MrzRecordSnapshot(final MrzRecord record, final String mrz) {
+		this.format = record.getFormat();
+		this.recordName = record.getRecordName();
+		this.code = record.getCode();
+		this.code1 = record.getCode1();
+		this.code2 = record.getCode2();
+		this.issuingCountry = record.getIssuingCountry();
+		this.documentNumber = record.getDocumentNumber();
+		this.personalNumberID = record.getPersonalNumberID();
+		this.surname = record.getSurname();
+		this.givenNames = record.getGivenNames();
+		this.dateOfBirth = record.getDateOfBirth();
+		this.sex = record.getSex();
+		this.expirationDate = record.getExpirationDate();
+		this.nationality = record.getNationality();
+		this.personalNumber = record instanceof MRP ? ((MRP) record).getPersonalNumber() : null;
+		this.optional = record instanceof MrzRecordOptional ? ((MrzRecordOptional) record).getOptional() : null;
+		this.optional2 = record instanceof MrtdTd1 ? ((MrtdTd1) record).getOptional2() : null;
+		this.mrz = mrz;
+		int bits = 0;
+		for (final MrzField field : FIELDS) {
+			if (record.isValid(field)) {
+				bits |= 1 << field.ordinal();
+			}
+		}
+		this.valid = bits;
+		this.hash = computeHash();
+	}
+
+	/**
+	 * Hashes the compared fields, using enum ordinals so that the hash does not depend on the JVM.
+	 *
+	 * @return the hash code
+	 */
+	private int computeHash() {
+		int h = format.ordinal();
+		h = 31 * h + recordName.hashCode();
+		h = 31 * h + (code == null ? -1 : code.ordinal());
+		h = 31 * h + code1;
+		h = 31 * h + code2;
+		h = 31 * h + Objects.hashCode(issuingCountry);
+		h = 31 * h + Objects.hashCode(documentNumber);
+		h = 31 * h + Objects.hashCode(personalNumberID);
+		h = 31 * h + Objects.hashCode(surname);
+		h = 31 * h + Objects.hashCode(givenNames);
+		h = 31 * h + Objects.hashCode(dateOfBirth);
+		h = 31 * h + (sex == null ? -1 : sex.ordinal());
+		h = 31 * h + Objects.hashCode(expirationDate);
+		h = 31 * h + Objects.hashCode(nationality);
+		h = 31 * h + Objects.hashCode(personalNumber);
+		h = 31 * h + Objects.hashCode(optional);
+		h = 31 * h + Objects.hashCode(optional2);
+		return 31 * h + valid;
+	}
+
+	/**
+	 * @return the format
+	 */
+	public MrzFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * @return the record name
+	 */
+	public String getRecordName() {
+		return recordName;
+	}
+
+	/**
+	 * @return the document code
+	 */
+	public MrzDocumentCode getCode() {
+		return code;
+	}
+
+	/**
+	 * @return the document code1
+	 */
+	public char getCode1() {
+		return code1;
+	}
+
+	/**
+	 * @return the document code2
+	 */
+	public char getCode2() {
+		return code2;
+	}
+
+	/**
+	 * @return the MRZ the record was parsed from, rows separated by underscores; null if the record was not parsed
+	 */
+	public String getMrz() {
+		return mrz == null ? null : mrz.replace('\n', '_');
+	}
+
+	/**
+	 * @return the issuing country
+	 */
+	public String getIssuingCountry() {
+		return issuingCountry;
+	}
+
+	/**
+	 * @return the {@link MrzCountryCode} ID of the issuing country, {@link MrzCountryCode#UNKNOWN} if the code is not known
+	 */
+	public short getIssuingCountryId() {
+		return MrzCountryCode.getId(issuingCountry);
+	}
+
+	/**
+	 * @return the document number
+	 */
+	public String getDocumentNumber() {
+		return documentNumber;
+	}
+
+	/**
+	 * @return the personal number
+	 */
+	public String getPersonalNumberID() {
+		return personalNumberID;
+	}
+
+	/**
+	 * @return the surname
+	 */
+	public String getSurname() {
+		return surname;
+	}
+
+	/**
+	 * @return the given names
+	 */
+	public String getGivenNames() {
+		return givenNames;
+	}
+
+	/**
+	 * @return the date of birth
+	 */
+	public MrzDate getDateOfBirth() {
+		return dateOfBirth;
+	}
+
+	/**
+	 * @return the sex
+	 */
+	public MrzSex getSex() {
+		return sex;
+	}
+
+	/**
+	 * @return the expiration date
+	 */
+	public MrzDate getExpirationDate() {
+		return expirationDate;
+	}
+
+	/**
+	 * @return the nationality
+	 */
+	public String getNationality() {
+		return nationality;
+	}
+
+	/**
+	 * @return the {@link MrzCountryCode} ID of the nationality, {@link MrzCountryCode#UNKNOWN} if the code is not known
+	 */
+	public short getNationalityId() {
+		return MrzCountryCode.getId(nationality);
+	}
+
+	/**
+	 * @return the personal number of a {@link MRP} record, null for other records
+	 */
+	public String getPersonalNumber() {
+		return personalNumber;
+	}
+
+	/**
+	 * @return the optional data of a {@link MrzRecordOptional} record, null for other records
+	 */
+	public String getOptional() {
+		return optional;
+	}
+
+	/**
+	 * @return the second optional data of a {@link MrtdTd1} record, null for other records
+	 */
+	public String getOptional2() {
+		return optional2;
+	}
+
+	/**
+	 * @param field the field
+	 * @return true if the check digit protecting given field is valid, or the field is not protected by a check digit
+	 */
+	public boolean isValid(final MrzField field) {
+		return (valid & 1 << field.ordinal()) != 0;
+	}
+
+	/**
+	 * @return true if valid document number
+	 */
+	public boolean isValidDocumentNumber() {
+		return isValid(MrzField.DOCUMENT_NUMBER);
+	}
+
+	/**
+	 * @return true if valid date of birth
+	 */
+	public boolean isValidDateOfBirth() {
+		return isValid(MrzField.DATE_OF_BIRTH);
+	}
+
+	/**
+	 * @return true if valid expiration date
+	 */
+	public boolean isValidExpirationDate() {
+		return isValid(MrzField.EXPIRATION_DATE);
+	}
+
+	/**
+	 * @return true if valid composite
+	 */
+	public boolean isValidComposite() {
+		return isValid(MrzField.COMPOSITE);
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof MrzRecordSnapshot)) {
+			return false;
+		}
+		final MrzRecordSnapshot other = (MrzRecordSnapshot) obj;
+		return hash == other.hash
+				&& format == other.format
+				&& valid == other.valid
+				&& code == other.code
+				&& code1 == other.code1
+				&& code2 == other.code2
+				&& sex == other.sex
+				&& recordName.equals(other.recordName)
+				&& Objects.equals(documentNumber, other.documentNumber)
+				&& Objects.equals(surname, other.surname)
+				&& Objects.equals(givenNames, other.givenNames)
+				&& Objects.equals(dateOfBirth, other.dateOfBirth)
+				&& Objects.equals(expirationDate, other.expirationDate)
+				&& Objects.equals(issuingCountry, other.issuingCountry)
+				&& Objects.equals(nationality, other.nationality)
+				&& Objects.equals(personalNumberID, other.personalNumberID)
+				&& Objects.equals(personalNumber, other.personalNumber)
+				&& Objects.equals(optional, other.optional)
+				&& Objects.equals(optional2, other.optional2);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder json = new StringBuilder();
+		json.append("{");
+		json.append("\"documentCode\": \"").append(code1).append(code2).append("\",");
+		json.append("\"documentType\": \"").append(code).append("\",");
+		json.append("\"issuingState\": \"").append(issuingCountry).append("\",");
+		json.append("\"documentNumber\": \"").append(documentNumber).append("\",");
+		json.append("\"lastName\": \"").append(surname).append("\",");
+		json.append("\"firstName\": \"").append(givenNames).append("\",");
+		json.append("\"mrzString\": \"").append(getMrz()).append("\",");
+		json.append("\"birthDate\": \"").append(MrzRecord.toYYMMDD(dateOfBirth)).append("\",");
+		json.append("\"sex\": \"").append(sex).append("\",");
+		json.append("\"expirationDate\": \"").append(MrzRecord.toYYMMDD(expirationDate)).append("\",");
+		json.append("\"nationality\": \"").append(nationality).append("\",");
+		json.append("\"personalNumber\": \"").append(personalNumberID).append("\",");
+		json.append("\"validComposite\": \"").append(isValidComposite()).append("\",");
+		json.append("\"validDocumentNumber\": \"").append(isValidDocumentNumber()).append("\",");
+		json.append("\"validDateOfBirth\": \"").append(isValidDateOfBirth()).append("\",");
+		json.append("\"validExpirationDate\": \"").append(isValidExpirationDate()).append("\"");
+		json.append("}");
+		return json.toString();
+	}
+
+}
@@ -0,0 +1,212 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz;
+
+import com.innovatrics.mrz.types.MrzFormatDefinition;
+import com.innovatrics.mrz.types.MrzFormatRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Scans archives of MRZs in bulk, parsing only the MRZs matching a {@link MrzFilter}.
+ * <p>
+ * The input is ASCII, rows separated by a newline and MRZs by an empty line, as written by
+ * {@link com.innovatrics.mrz.corpus.MrzCorpusGenerator#write(java.io.OutputStream, long)}. The format and the national profile of each MRZ are
+ * detected on its raw bytes and the filter is evaluated on the raw bytes at the positions of its fields; only the matching MRZs are converted to
+ * strings and parsed, with the {@link MrzProjection} of the scanner. MRZs of no known format never match.
+ * </p>
+ * <p>
+ * Instances are immutable and may scan several inputs in parallel.
+ * </p>
+ */
+public final class MrzScanner {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final MrzFilter filter;
+	private final MrzProjection projection;
+
+	/**
+	 * Receives the matching records.
+	 */
+	@FunctionalInterface
+	public interface Handler {
+
+		/**
+		 * @param record a record matching the filter
+		 */
+		void matched(MrzRecord record);
+
+		/**
+		 * Called for MRZs which match the filter but cannot be parsed. Does nothing by default.
+		 *
+		 * @param mrz the MRZ
+		 * @param ex the parse failure
+		 */
+		default void failed(final String mrz, final MrzParseException ex) {
+			// Skip the MRZ
+		}
+	}
+
+	/**
+	 * Creates a scanner decoding all fields of the matching MRZs.
+	 *
+	 * @param filter the filter
+	 */
+	public MrzScanner(final MrzFilter filter) {
+		this(filter, MrzProjection.ALL);
+	}
+
+	/**
+	 * @param filter the filter
+	 * @param projection the fields to decode and verify in the matching MRZs
+	 */
+	public MrzScanner(final MrzFilter filter, final MrzProjection projection) {
+		this.filter = filter;
+		this.projection = projection;
+	}
+
+	/**
+	 * @return the filter
+	 */
+	public MrzFilter getFilter() {
+		return filter;
+	}
+
+	/**
+	 * @return the fields decoded in the matching MRZs
+	 */
+	public MrzProjection getProjection() {
+		return projection;
+	}
+
+	/**
+	 * @param data the buffer
+	 * @param offset the offset of the MRZs in the buffer
+	 * @param length the length of the MRZs
+	 * @param handler receives the matching records
+	 * @return the number of records passed to the handler
+	 */
+	public long scan(final byte[] data, final int offset, final int length, final Handler handler) {
+		if (offset < 0 || length < 0 || offset + length > data.length) {
+			throw new IllegalArgumentException("Invalid range " + offset + "+" + length + " of buffer of length " + data.length);
+		}
+		final long[] matched = new long[1];
+		scan(data, offset, offset + length, true, handler, matched);
+		return matched[0];
+	}
+
+	/**
+	 * @param in the input, not closed
+	 * @param handler receives the matching records
+	 * @return the number of records passed to the handler
+	 * @throws IOException failed to read the input
+	 */
+	public long scan(final InputStream in, final Handler handler) throws IOException {
+		final long[] matched = new long[1];
+		byte[] buffer = new byte[BUFFER_SIZE];
+		int end = 0;
+		for (int read = in.read(buffer); read >= 0; read = in.read(buffer, end, buffer.length - end)) {
+			end += read;
+			final int consumed = scan(buffer, 0, end, false, handler, matched);
+			System.arraycopy(buffer, consumed, buffer, 0, end - consumed);
+			end -= consumed;
+			if (end == buffer.length) {
+				// A single MRZ fills the buffer
+				buffer = Arrays.copyOf(buffer, buffer.length * 2);
+			}
+		}
+		scan(buffer, 0, end, true, handler, matched);
+		return matched[0];
+	}
+
+	/**
+	 * @param data the buffer
+	 * @param from the start of the MRZs
+	 * @param to the end of the MRZs, exclusive
+	 * @param last true if no more MRZs follow, false if the last MRZ may continue past the end
+	 * @param handler receives the matching records
+	 * @param matched holds the number of records passed to the handler
+	 * @return the start of the first MRZ not scanned
+	 */
+	private int scan(final byte[] data, final int from, final int to, final boolean last, final Handler handler, final long[] matched) {
+		int pos = from;
+		while (pos < to) {
+			if (data[pos] == '\n') {
+				pos++;
+				continue;
+			}
+			int end = pos;
+			while (end < to - 1 && (data[end] != '\n' || data[end + 1] != '\n')) {
+				end++;
+			}
+			if (end >= to - 1) {
+				if (!last) {
+					return pos;
+				}
+				end = data[to - 1] == '\n' ? to - 1 : to;
+			}
+			if (match(data, pos, end, handler)) {
+				matched[0]++;
+			}
+			pos = end + 1;
+		}
+		return pos;
+	}
+
+	/**
+	 * @param data the buffer
+	 * @param start the start of the MRZ
+	 * @param end the end of the MRZ, exclusive
+	 * @param handler receives the record if it matches
+	 * @return true if the record was passed to the handler
+	 */
+	private boolean match(final byte[] data, final int start, final int end, final Handler handler) {
+		int columns = 0;
+		while (start + columns < end && data[start + columns] != '\n') {
+			columns++;
+		}
+		final int length = end - start + 1;
+		if (length % (columns + 1) != 0) {
+			return false;
+		}
+		final int rows = length / (columns + 1);
+		for (int row = 1; row < rows; row++) {
+			if (data[start + row * (columns + 1) - 1] != '\n') {
+				return false;
+			}
+		}
+		final CharSequence firstRow = new AsciiSequence(data, start, columns);
+		final MrzFormatDefinition definition = MrzFormatRegistry.get(rows, columns, firstRow);
+		if (definition == null || !filter.matches(data, start, MrzProfile.get(definition.getFormat(), firstRow), columns)) {
+			return false;
+		}
+		final String mrz = new String(data, start, end - start, StandardCharsets.ISO_8859_1);
+		try {
+			handler.matched(projection.parse(mrz));
+			return true;
+		} catch (MrzParseException ex) {
+			handler.failed(mrz, ex);
+			return false;
+		}
+	}
+
+}
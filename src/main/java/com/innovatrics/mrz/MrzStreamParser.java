@@ -0,0 +1,374 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz;
+
+import com.innovatrics.mrz.types.MrzDocumentCode;
+import com.innovatrics.mrz.types.MrzField;
+import com.innovatrics.mrz.types.MrzFormat;
+import com.innovatrics.mrz.types.MrzFormatDefinition;
+import com.innovatrics.mrz.types.MrzFormatRegistry;
+import java.nio.CharBuffer;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Push-based MRZ parser for readers delivering one character at a time, such as keyboard-wedge and serial MRZ scanners.
+ * <p>
+ * Rows are separated by CR and/or LF. The candidate formats are narrowed down while the first row grows and the format is fixed at the end
+ * of the first row, which must start with a valid document code. From then on every check digit is verified as soon as its last character
+ * arrives and the record is emitted the moment the last character of the last row is received, without waiting for a trailing line
+ * separator. The record is decoded from the received rows in place, keeping the check digit results already reported. The parser then
+ * resets itself and is ready for the next document; anything following the last row on the same line is ignored.
+ * </p>
+ * <p>
+ * On invalid input, such as an invalid character or a row of the wrong length, the current document is dropped together with the rest of the
+ * line and a single error is reported. The remaining rows of the dropped document are then skipped without further errors: every following
+ * line not starting with a document code letter is ignored, and parsing starts over with the first line which does. A row of the dropped
+ * document starting with such a letter, e.g. a TD1 name row, is read as a new first row and may cause another error.
+ * </p>
+ * <p>
+ * Instances are not thread-safe.
+ * </p>
+ */
+public class MrzStreamParser {
+
+	/**
+	 * Receives the results of a {@link MrzStreamParser}.
+	 */
+	public interface Listener {
+
+		/**
+		 * Called the moment a complete MRZ has been received.
+		 *
+		 * @param record the parsed record
+		 */
+		void onRecord(MrzRecord record);
+
+		/**
+		 * Called as soon as a check digit and all characters it protects have been received.
+		 *
+		 * @param field the field protected by the check digit
+		 * @param digit the position of the check digit
+		 * @param valid true if the check digit matches
+		 */
+		default void onCheckDigit(final MrzField field, final MrzRange digit, final boolean valid) {
+			// Do nothing
+		}
+
+		/**
+		 * Called when the input cannot be a MRZ. The parser discards the current document and the rest of the line, and starts over with the
+		 * next line starting with a document code letter.
+		 *
+		 * @param ex the problem
+		 */
+		default void onError(final MrzParseException ex) {
+			// Do nothing
+		}
+	}
+
+	private static final int MAX_ROWS = 3;
+	private static final int MAX_COLUMNS = 44;
+	/**
+	 * The first letters of the document codes accepted by {@link MrzDocumentCode#parse(String)}.
+	 */
+	private static final String DOCUMENT_CODE_LETTERS = "ACIMPRTV";
+
+	private final Listener listener;
+	private final char[][] rows = new char[MAX_ROWS][MAX_COLUMNS];
+	private final Set<MrzFormat> candidates = EnumSet.allOf(MrzFormat.class);
+	private int row;
+	private int col;
+	private MrzFormat format;
+	private MrzProfile profile;
+	private List<MrzLayout.Check> checks;
+	private int[] sums;
+	/**
+	 * Bit i set if check digit i did not match.
+	 */
+	private int invalidChecks;
+	/**
+	 * True while skipping the rest of a line after a failure or after the last row.
+	 */
+	private boolean discarding;
+	/**
+	 * True after a failure, until a line starting with a document code letter.
+	 */
+	private boolean resyncing;
+
+	/**
+	 * @param listener receives the parsed records, not null.
+	 */
+	public MrzStreamParser(final Listener listener) {
+		if (listener == null) {
+			throw new IllegalArgumentException("Parameter listener: invalid value null");
+		}
+		this.listener = listener;
+	}
+
+	/**
+	 * @return the formats the current input may still turn out to be, never empty.
+	 */
+	public Set<MrzFormat> getCandidates() {
+		return EnumSet.copyOf(candidates);
+	}
+
+	/**
+	 * @return the detected format, or null while the first row is incomplete.
+	 */
+	public MrzFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * Discards any partially received MRZ.
+	 */
+	public void reset() {
+		row = 0;
+		col = 0;
+		format = null;
+		profile = null;
+		checks = null;
+		sums = null;
+		invalidChecks = 0;
+		discarding = false;
+		resyncing = false;
+		candidates.addAll(EnumSet.allOf(MrzFormat.class));
+	}
+
+	/**
+	 * Pushes a chunk of ASCII encoded bytes.
+	 *
+	 * @param data the buffer
+	 * @param offset the first byte to push
+	 * @param length the number of bytes to push
+	 */
+	public void push(final byte[] data, final int offset, final int length) {
+		for (int i = offset; i < offset + length; i++) {
+			push((char) (data[i] & 0xFF));
+		}
+	}
+
+	/**
+	 * Pushes a sequence of characters.
+	 *
+	 * @param data the characters
+	 */
+	public void push(final CharSequence data) {
+		for (int i = 0; i < data.length(); i++) {
+			push(data.charAt(i));
+		}
+	}
+
+	/**
+	 * Pushes a single character.
+	 *
+	 * @param c the character
+	 */
+	public void push(final char c) {
+		if (c == '\n' || c == '\r') {
+			if (!discarding) {
+				endRow();
+			}
+			// A failure at the end of the row or the last row leave nothing to skip
+			discarding = false;
+		} else if (!discarding && !Character.isISOControl(c)) {
+			append(c);
+		}
+	}
+
+	private void append(final char c) {
+		if (resyncing) {
+			// Skip the rest of the dropped document
+			if (DOCUMENT_CODE_LETTERS.indexOf(c) < 0) {
+				discarding = true;
+				return;
+			}
+			resyncing = false;
+		}
+		if (!MrzCharset.isValid(c)) {
+			fail("Invalid character in MRZ record: " + c, new MrzRange(col, col + 1, row));
+			return;
+		}
+		if (format == null) {
+			if (col == MAX_COLUMNS) {
+				fail("First row too long", new MrzRange(0, col, 0));
+				return;
+			}
+			rows[0][col++] = c;
+			narrow();
+			return;
+		}
+		final int columns = format.getColumns();
+		if (col == columns) {
+			fail("Different row lengths: 0: " + columns + " and " + row + ": " + (col + 1), new MrzRange(0, col, row));
+			return;
+		}
+		rows[row][col] = c;
+		accept(row, col);
+		col++;
+		if (row == format.getRows() - 1 && col == columns) {
+			emit();
+		}
+	}
+
+	private void endRow() {
+		if (col == 0) {
+			// Empty row
+			return;
+		}
+		if (format == null) {
+			detect();
+			if (format == null) {
+				return;
+			}
+		} else if (col != format.getColumns()) {
+			fail("Different row lengths: 0: " + format.getColumns() + " and " + row + ": " + col, new MrzRange(0, col, row));
+			return;
+		}
+		row++;
+		col = 0;
+	}
+
+	/**
+	 * Removes all formats narrower than the first row received so far.
+	 */
+	private void narrow() {
+		candidates.removeIf(f -> f.getColumns() < col);
+		if (candidates.isEmpty()) {
+			fail("Unknown format / unsupported number of cols: " + col, new MrzRange(0, col, 0));
+		}
+	}
+
+	private void detect() {
+		final String first = new String(rows[0], 0, col);
+		MrzFormat detected = null;
+		for (final MrzFormat f : candidates) {
+			if (f.getColumns() == col) {
+				detected = MrzFormat.get(f.getRows(), col, first);
+				if (detected != null) {
+					break;
+				}
+			}
+		}
+		if (detected == null) {
+			fail("Unknown format / unsupported number of cols: " + col, new MrzRange(0, col, 0));
+			return;
+		}
+		try {
+			MrzDocumentCode.parse(first);
+		} catch (MrzParseException ex) {
+			fail(ex.getMessage(), ex.getRange());
+			return;
+		}
+		candidates.retainAll(EnumSet.of(detected));
+		format = detected;
+		profile = MrzProfile.get(detected, first);
+		checks = profile.getLayout().getChecks();
+		sums = new int[checks.size()];
+		for (int i = 0; i < col; i++) {
+			accept(0, i);
+		}
+	}
+
+	/**
+	 * Adds a character to the running check digit sums and verifies every check digit located at the position.
+	 *
+	 * @param r the 0-based row of the character
+	 * @param c the 0-based column of the character
+	 */
+	private void accept(final int r, final int c) {
+		final int value = MrzParser.getCharacterValue(rows[r][c]);
+		for (int i = 0; i < checks.size(); i++) {
+			final MrzLayout.Check check = checks.get(i);
+			sums[i] += value * check.getWeight(r, c);
+			final MrzRange digit = check.getDigit();
+			if (digit.getRow() == r && digit.getColumn() == c) {
+				final boolean valid = sums[i] % 10 == value;
+				if (!valid) {
+					invalidChecks |= 1 << i;
+				}
+				listener.onCheckDigit(check.getField(), digit, valid);
+			}
+		}
+	}
+
+	private void emit() {
+		final int columns = format.getColumns();
+		final CharSequence[] views = new CharSequence[format.getRows()];
+		for (int i = 0; i < views.length; i++) {
+			views[i] = CharBuffer.wrap(rows[i], 0, columns);
+		}
+		final MrzParser parser = new MrzParser(views, format);
+		// A national variant of the detected format creates its own record
+		final MrzFormatDefinition definition = MrzFormatRegistry.get(format.getRows(), columns, views[0]);
+		final MrzRecord record = definition != null && definition.getFormat() == format ? definition.newRecord() : format.newRecord();
+		final MrzProfile parsedProfile = profile;
+		final List<MrzLayout.Check> parsedChecks = checks;
+		final int invalid = invalidChecks;
+		final String mrz = parser.getMrz();
+		reset();
+		// Ignore anything following the last row on the same line
+		discarding = true;
+		try {
+			record.setMrz(mrz);
+			final Set<MrzField> decoded = EnumSet.noneOf(MrzField.class);
+			for (final MrzLayout.Field field : parsedProfile.getLayout().getFields()) {
+				if (!decoded.contains(field.getField()) && !parsedProfile.decode(record, parser, field, decoded)) {
+					throw new MrzParseException("Invalid " + field.getField() + " in MRZ record", mrz, field.getRange(), parser.getFormat());
+				}
+			}
+		} catch (MrzParseException ex) {
+			listener.onError(ex);
+			return;
+		} catch (IllegalArgumentException ex) {
+			listener.onError(new MrzParseException(ex.getMessage(), mrz, new MrzRange(0, 0, 0), parser.getFormat()));
+			return;
+		}
+		// The check digits were verified as they arrived
+		for (int i = 0; i < parsedChecks.size(); i++) {
+			final MrzField field = parsedChecks.get(i).getField();
+			boolean valid = (invalid & 1 << i) == 0;
+			if (field == MrzField.DATE_OF_BIRTH) {
+				valid = valid && record.getDateOfBirth().isDateValid();
+			} else if (field == MrzField.EXPIRATION_DATE) {
+				valid = valid && record.getExpirationDate().isDateValid();
+			}
+			record.setValid(field, valid);
+		}
+		if (parsedProfile.hasDocumentNumberValidator()) {
+			record.setValid(MrzField.DOCUMENT_NUMBER, parsedProfile.isValidDocumentNumber(parser, record.getDocumentNumber()));
+		}
+		listener.onRecord(record);
+	}
+
+	private void fail(final String message, final MrzRange range) {
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < row; i++) {
+			sb.append(rows[i], 0, format.getColumns()).append('\n');
+		}
+		sb.append(rows[row], 0, col);
+		final MrzFormat failed = format;
+		reset();
+		discarding = true;
+		resyncing = true;
+		listener.onError(new MrzParseException(message, sb.toString(), range, failed));
+	}
+
+}
@@ -0,0 +1,418 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Transliterates names to MRZ characters as per ICAO Doc 9303 Part 3 Section 6: Latin characters with diacritics, Cyrillic, Greek and
+ * Arabic.
+ * <p>
+ * The mapping of every BMP character is compiled once into a two-level table indexed by the character; the few Greek digraphs transliterated
+ * as a whole are kept in a small trie. A string is transliterated in a single pass. Characters with no transliteration, such as combining
+ * marks, are omitted; other ASCII characters than letters and digits become fillers. The transliterator keeps no state, so it is safe to
+ * call from any thread without locking.
+ * </p>
+ */
+public final class MrzTransliterator {
+
+	private static final int PAGE_BITS = 8;
+	private static final int PAGE_MASK = (1 << PAGE_BITS) - 1;
+
+	/**
+	 * MRZ character of every ASCII character, 0 for characters which are omitted.
+	 */
+	private static final char[] ASCII = new char[0x80];
+	/**
+	 * Transliteration of non-ASCII characters by high byte and low byte; null pages and entries are omitted.
+	 */
+	private static final String[][] PAGES = new String[1 << (16 - PAGE_BITS)][];
+	/**
+	 * Upper-case characters starting a sequence in {@link #SEQUENCES}.
+	 */
+	private static final BitSet SEQUENCE_STARTS = new BitSet();
+	/**
+	 * Character sequences transliterated as a whole, by their upper-case form.
+	 */
+	private static final Node SEQUENCES = new Node();
+
+	/**
+	 * The BMP ranges holding all characters with ASCII characters in their canonical decomposition.
+	 */
+	private static final int[][] DECOMPOSED = {{0x00C0, 0x024F}, {0x037E, 0x037E}, {0x1E00, 0x1EFF}, {0x1FEF, 0x1FEF}, {0x212A, 0x212B},
+		{0x2260, 0x226F}};
+
+	/**
+	 * Characters differing from their canonical decomposition, as per Doc 9303 Part 3 Section 6.A.
+	 */
+	private static final String[] LATIN = {
+		"\u00C4", "AE", // Ä
+		"\u00C5", "AA", // Å
+		"\u00C6", "AE", // Æ
+		"\u00D0", "D", // Ð
+		"\u00D6", "OE", // Ö
+		"\u00D8", "OE", // Ø
+		"\u00DC", "UE", // Ü
+		"\u00DE", "TH", // Þ
+		"\u00DF", "SS", // ß
+		"\u0110", "D", // Đ
+		"\u0126", "H", // Ħ
+		"\u0131", "I", // ı
+		"\u0132", "IJ", // Ĳ
+		"\u013F", "L", // Ŀ
+		"\u0141", "L", // Ł
+		"\u014A", "N", // Ŋ
+		"\u0152", "OE", // Œ
+		"\u0166", "T", // Ŧ
+	};
+
+	/**
+	 * Cyrillic U+0400 to U+042F, as per Doc 9303 Part 3 Section 6.B.
+	 */
+	private static final String[] CYRILLIC = {
+		"E", "E", "D", "G", "IE", "DZ", "I", "I", "J", "LJ", "NJ", "C", "K", "I", "U", "DZ",
+		"A", "B", "V", "G", "D", "E", "ZH", "Z", "I", "I", "K", "L", "M", "N", "O", "P",
+		"R", "S", "T", "U", "F", "KH", "TS", "CH", "SH", "SHCH", "IE", "Y", "", "E", "IU", "IA",
+	};
+
+	/**
+	 * Greek U+0386 to U+03AB, as per Doc 9303 Part 3 Section 6.C; null for unassigned characters.
+	 */
+	private static final String[] GREEK = {
+		"A", null, "E", "I", "I", null, "O", null, "Y", "O", "I",
+		"A", "V", "G", "D", "E", "Z", "I", "TH", "I", "K", "L", "M", "N", "X", "O", "P",
+		"R", null, "S", "T", "Y", "F", "CH", "PS", "O", "I", "Y",
+	};
+
+	/**
+	 * Greek vowel digraphs.
+	 */
+	private static final String[] GREEK_DIGRAPHS = {
+		"\u0391\u03A5", "AV", // ΑΥ
+		"\u0395\u03A5", "EV", // ΕΥ
+		"\u0397\u03A5", "IV", // ΗΥ
+		"\u039F\u03A5", "OU", // ΟΥ
+		"\u0391\u038E", "AV", // ΑΎ
+		"\u0395\u038E", "EV", // ΕΎ
+		"\u0397\u038E", "IV", // ΗΎ
+		"\u039F\u038E", "OU", // ΟΎ
+	};
+
+	/**
+	 * Arabic, as per Doc 9303 Part 3 Section 6.D.
+	 */
+	private static final String[] ARABIC = {
+		"\u0621", "XE", // ء
+		"\u0622", "XAA", // آ
+		"\u0623", "XAE", // أ
+		"\u0624", "U", // ؤ
+		"\u0625", "I", // إ
+		"\u0626", "XI", // ئ
+		"\u0627", "A", // ا
+		"\u0628", "B", // ب
+		"\u0629", "XTA", // ة
+		"\u062A", "T", // ت
+		"\u062B", "XTH", // ث
+		"\u062C", "J", // ج
+		"\u062D", "XH", // ح
+		"\u062E", "XKH", // خ
+		"\u062F", "D", // د
+		"\u0630", "XDH", // ذ
+		"\u0631", "R", // ر
+		"\u0632", "Z", // ز
+		"\u0633", "S", // س
+		"\u0634", "XSH", // ش
+		"\u0635", "XSS", // ص
+		"\u0636", "XDZ", // ض
+		"\u0637", "XTT", // ط
+		"\u0638", "XZZ", // ظ
+		"\u0639", "E", // ع
+		"\u063A", "G", // غ
+		"\u0641", "F", // ف
+		"\u0642", "Q", // ق
+		"\u0643", "K", // ك
+		"\u0644", "L", // ل
+		"\u0645", "M", // م
+		"\u0646", "N", // ن
+		"\u0647", "H", // ه
+		"\u0648", "W", // و
+		"\u0649", "XAY", // ى
+		"\u064A", "Y", // ي
+		"\u0671", "XXA", // ٱ
+		"\u067E", "P", // پ
+		"\u0686", "XC", // چ
+		"\u0698", "XJ", // ژ
+		"\u06A4", "XV", // ڤ
+		"\u06A9", "XKK", // ک
+		"\u06AF", "XG", // گ
+		"\u06CC", "XYA", // ی
+	};
+
+	static {
+		for (char c = 0; c < ASCII.length; c++) {
+			ASCII[c] = toMrzChar(c);
+		}
+		ASCII['\''] = 0;
+		// Accented characters: the ASCII part of the canonical decomposition
+		for (final int[] range : DECOMPOSED) {
+			for (int c = range[0]; c <= range[1]; c++) {
+				final String decomposed = Normalizer.normalize(String.valueOf((char) c), Normalizer.Form.NFD);
+				final StringBuilder sb = new StringBuilder(decomposed.length());
+				for (int i = 0; i < decomposed.length(); i++) {
+					if (decomposed.charAt(i) < 0x80) {
+						sb.append(toMrzChar(decomposed.charAt(i)));
+					}
+				}
+				if (sb.length() > 0) {
+					put((char) c, sb.toString());
+				}
+			}
+		}
+		put('\u2019', ""); // ’
+		putPairs(LATIN);
+		for (int i = 0; i < CYRILLIC.length; i++) {
+			put((char) (0x0400 + i), CYRILLIC[i]);
+		}
+		put('\u0490', "G"); // Ґ
+		for (int i = 0; i < GREEK.length; i++) {
+			if (GREEK[i] != null) {
+				put((char) (0x0386 + i), GREEK[i]);
+			}
+		}
+		put('\u0390', "I"); // ΐ
+		put('\u03B0', "Y"); // ΰ
+		put('\u03C2', "S"); // ς
+		putPairs(ARABIC);
+		// Lower-case letters of the tables above
+		for (final int[] range : new int[][]{{0x00E0, 0x017F}, {0x0370, 0x04FF}}) {
+			for (int c = range[0]; c <= range[1]; c++) {
+				final char upper = Character.toUpperCase((char) c);
+				if (upper != c && (isListed(upper) || get((char) c) == null && get(upper) != null)) {
+					put((char) c, get(upper));
+				}
+			}
+		}
+		for (int i = 0; i < GREEK_DIGRAPHS.length; i += 2) {
+			SEQUENCES.put(GREEK_DIGRAPHS[i], 0, GREEK_DIGRAPHS[i + 1]);
+			SEQUENCE_STARTS.set(GREEK_DIGRAPHS[i].charAt(0));
+		}
+	}
+
+	/**
+	 * Prevent instantiation.
+	 */
+	private MrzTransliterator() {
+		// Do nothing
+	}
+
+	/**
+	 * Transliterates given string to MRZ characters: upper-case letters, digits and fillers. The result is neither truncated nor padded.
+	 *
+	 * @param input the string, null is the same as an empty string
+	 * @return the MRZ characters
+	 */
+	public static String transliterate(final String input) {
+		if (input == null) {
+			return "";
+		}
+		final StringBuilder sb = new StringBuilder(input.length() + 8);
+		transliterate(input, 0, input.length(), sb);
+		return sb.toString();
+	}
+
+	/**
+	 * Transliterates a part of given characters to MRZ characters.
+	 *
+	 * @param input the characters
+	 * @param from the start index
+	 * @param to the end index, exclusive
+	 * @param out receives the MRZ characters
+	 */
+	public static void transliterate(final CharSequence input, final int from, final int to, final StringBuilder out) {
+		int i = from;
+		while (i < to) {
+			final char c = input.charAt(i);
+			if (c < 0x80) {
+				if (ASCII[c] != 0) {
+					out.append(ASCII[c]);
+				}
+				i++;
+				continue;
+			}
+			final char upper = Character.toUpperCase(c);
+			if (SEQUENCE_STARTS.get(upper)) {
+				final Node node = SEQUENCES.match(input, i, to);
+				if (node != null) {
+					out.append(node.output);
+					i += node.depth;
+					continue;
+				}
+			}
+			final String mapped = get(c);
+			if (mapped != null) {
+				out.append(mapped);
+			}
+			i++;
+		}
+	}
+
+	/**
+	 * @param c the character
+	 * @return the transliteration of given non-ASCII character, null if it is omitted
+	 */
+	private static String get(final char c) {
+		final String[] page = PAGES[c >>> PAGE_BITS];
+		return page == null ? null : page[c & PAGE_MASK];
+	}
+
+	/**
+	 * @param c the character
+	 * @param mrz its transliteration
+	 */
+	private static void put(final char c, final String mrz) {
+		String[] page = PAGES[c >>> PAGE_BITS];
+		if (page == null) {
+			page = new String[PAGE_MASK + 1];
+			PAGES[c >>> PAGE_BITS] = page;
+		}
+		page[c & PAGE_MASK] = mrz;
+	}
+
+	/**
+	 * @param pairs characters followed by their transliteration
+	 */
+	private static void putPairs(final String[] pairs) {
+		for (int i = 0; i < pairs.length; i += 2) {
+			put(pairs[i].charAt(0), pairs[i + 1]);
+		}
+	}
+
+	/**
+	 * @param c an upper-case character
+	 * @return true if the transliteration of given character is listed explicitly, overriding the one of its lower-case form
+	 */
+	private static boolean isListed(final char c) {
+		if (c >= 0x0400 && c < 0x0400 + CYRILLIC.length || c >= 0x0386 && c < 0x0386 + GREEK.length && GREEK[c - 0x0386] != null) {
+			return true;
+		}
+		for (int i = 0; i < LATIN.length; i += 2) {
+			if (LATIN[i].charAt(0) == c) {
+				return true;
+			}
+		}
+		return c == '\u0490';
+	}
+
+	/**
+	 * @param c an ASCII character
+	 * @return the MRZ character: upper-cased letter, digit or filler
+	 */
+	static char toMrzChar(final char c) {
+		if (c >= 'a' && c <= 'z') {
+			return (char) (c - 'a' + 'A');
+		}
+		if (c >= 'A' && c <= 'Z' || c >= '0' && c <= '9') {
+			return c;
+		}
+		return MrzParser.FILLER;
+	}
+
+	/**
+	 * @param value the string
+	 * @return true if all characters are ASCII
+	 */
+	static boolean isAscii(final String value) {
+		for (int i = 0; i < value.length(); i++) {
+			if (value.charAt(i) >= 0x80) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * A trie node of upper-case character sequences.
+	 */
+	private static final class Node {
+
+		private char key;
+		private int depth;
+		private String output;
+		private Node[] children = new Node[0];
+
+		/**
+		 * @param sequence the upper-case sequence
+		 * @param index the index of the next character
+		 * @param mrz the transliteration of the sequence
+		 */
+		private void put(final String sequence, final int index, final String mrz) {
+			if (index == sequence.length()) {
+				output = mrz;
+				return;
+			}
+			final char c = sequence.charAt(index);
+			Node child = find(c);
+			if (child == null) {
+				child = new Node();
+				child.key = c;
+				child.depth = index + 1;
+				children = Arrays.copyOf(children, children.length + 1);
+				children[children.length - 1] = child;
+			}
+			child.put(sequence, index + 1, mrz);
+		}
+
+		/**
+		 * @param c an upper-case character
+		 * @return the child for given character, null if none
+		 */
+		private Node find(final char c) {
+			for (final Node child : children) {
+				if (child.key == c) {
+					return child;
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * @param input the characters
+		 * @param from the start of the sequence
+		 * @param to the end of the input, exclusive
+		 * @return the node of the longest sequence with a transliteration, null if none matches
+		 */
+		private Node match(final CharSequence input, final int from, final int to) {
+			Node node = this;
+			Node result = null;
+			for (int i = from; i < to; i++) {
+				node = node.find(Character.toUpperCase(input.charAt(i)));
+				if (node == null) {
+					break;
+				}
+				if (node.output != null) {
+					result = node;
+				}
+			}
+			return result;
+		}
+	}
+
+}
@@ -0,0 +1,215 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz;
+
+import com.innovatrics.mrz.types.MrzField;
+import com.innovatrics.mrz.types.MrzFormat;
+import java.util.Arrays;
+
+/**
+ * All problems found in a MRZ by {@link MrzParser#parseLenient(String)}, with the fields that could be decoded despite them.
+ * <p>
+ * The problems are kept in primitive arrays: the row and columns of each problem, the ordinal of its field and of its reason. Problems are
+ * listed in the order they were found: rows of the wrong length, invalid characters in MRZ order, then invalid values, then failed checks.
+ * </p>
+ */
+public final class MrzValidationReport {
+
+	private static final MrzField[] FIELDS = MrzField.values();
+	private static final Reason[] REASONS = Reason.values();
+
+	/**
+	 * The reason of a problem.
+	 */
+	public enum Reason {
+		/**
+		 * The MRZ has no known format; the range is the one reported by the format detection, or the first row if the rows differ in length.
+		 */
+		UNSUPPORTED_FORMAT,
+		/**
+		 * The row is shorter or longer than the first row; the range covers the missing or extra columns.
+		 */
+		ROW_LENGTH,
+		/**
+		 * A character other than a digit, an upper case letter or the filler.
+		 */
+		INVALID_CHARACTER,
+		/**
+		 * The field characters are valid, but do not form a valid value, for example an unknown sex.
+		 */
+		INVALID_VALUE,
+		/**
+		 * The date does not exist.
+		 */
+		INVALID_DATE,
+		/**
+		 * The check digit does not match; the range covers the check digit.
+		 */
+		CHECK_DIGIT,
+		/**
+		 * The document number does not pass the national rule of the issuer.
+		 */
+		INVALID_DOCUMENT_NUMBER
+	}
+
+	private final MrzFormat format;
+	private final MrzRecord record;
+	/**
+	 * Row, column and end column of each problem.
+	 */
+	private int[] ranges = new int[3 * 4];
+	/**
+	 * The field ordinal of each problem, -1 if the problem is not in a field.
+	 */
+	private byte[] fields = new byte[4];
+	private byte[] reasons = new byte[4];
+	private int size;
+
+	/**
+	 * @param format the detected format, null if none
+	 * @param record the record holding the decoded fields, null if the format is not known
+	 */
+	MrzValidationReport(final MrzFormat format, final MrzRecord record) {
+		this.format = format;
+		this.record = record;
+	}
+
+	/**
+	 * @param range the location of the problem
+	 * @param field the field, null if the problem is not in a field
+	 * @param reason the reason
+	 */
+	void add(final MrzRange range, final MrzField field, final Reason reason) {
+		if (size == reasons.length) {
+			ranges = Arrays.copyOf(ranges, 6 * size);
+			fields = Arrays.copyOf(fields, 2 * size);
+			reasons = Arrays.copyOf(reasons, 2 * size);
+		}
+		ranges[3 * size] = range.getRow();
+		ranges[3 * size + 1] = range.getColumn();
+		ranges[3 * size + 2] = range.getColumnTo();
+		fields[size] = (byte) (field == null ? -1 : field.ordinal());
+		reasons[size] = (byte) reason.ordinal();
+		size++;
+	}
+
+	/**
+	 * @return the detected format, null if the MRZ has no known format
+	 */
+	public MrzFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * Returns the record with all fields which could be decoded; fields with problems are null. The check digit validity of the record
+	 * reflects the problems.
+	 *
+	 * @return the record, null if the MRZ has no known format
+	 */
+	public MrzRecord getRecord() {
+		return record;
+	}
+
+	/**
+	 * @return true if no problem was found
+	 */
+	public boolean isValid() {
+		return size == 0;
+	}
+
+	/**
+	 * @return the number of problems
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param index the index of the problem
+	 * @return the 0-based row of the problem
+	 */
+	public int getRow(final int index) {
+		checkIndex(index);
+		return ranges[3 * index];
+	}
+
+	/**
+	 * @param index the index of the problem
+	 * @return the 0-based column of the first character of the problem
+	 */
+	public int getColumn(final int index) {
+		checkIndex(index);
+		return ranges[3 * index + 1];
+	}
+
+	/**
+	 * @param index the index of the problem
+	 * @return the 0-based column after the last character of the problem
+	 */
+	public int getColumnTo(final int index) {
+		checkIndex(index);
+		return ranges[3 * index + 2];
+	}
+
+	/**
+	 * @param index the index of the problem
+	 * @return the location of the problem
+	 */
+	public MrzRange getRange(final int index) {
+		return new MrzRange(getColumn(index), getColumnTo(index), getRow(index));
+	}
+
+	/**
+	 * @param index the index of the problem
+	 * @return the field of the problem, null if the problem is not in a field
+	 */
+	public MrzField getField(final int index) {
+		checkIndex(index);
+		return fields[index] < 0 ? null : FIELDS[fields[index]];
+	}
+
+	/**
+	 * @param index the index of the problem
+	 * @return the reason of the problem
+	 */
+	public Reason getReason(final int index) {
+		checkIndex(index);
+		return REASONS[reasons[index]];
+	}
+
+	/**
+	 * @param index the index of the problem
+	 * @throws IndexOutOfBoundsException no such problem
+	 */
+	private void checkIndex(final int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Problem " + index + " of " + size);
+		}
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder();
+		sb.append(format).append(": ").append(size).append(" problem(s)");
+		for (int i = 0; i < size; i++) {
+			sb.append("\n  ").append(getReason(i)).append(' ').append(getField(i)).append(' ').append(getRange(i));
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,456 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.corpus;
+
+import com.innovatrics.mrz.MrzEncoder;
+import com.innovatrics.mrz.MrzLayout;
+import com.innovatrics.mrz.MrzParser;
+import com.innovatrics.mrz.MrzRecord;
+import com.innovatrics.mrz.MrzRecordOptional;
+import com.innovatrics.mrz.records.MRP;
+import com.innovatrics.mrz.records.MrtdTd1;
+import com.innovatrics.mrz.types.MrzDate;
+import com.innovatrics.mrz.types.MrzFormat;
+import com.innovatrics.mrz.types.MrzSex;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Generates synthetic MRZs of all formats, including the <code>I&lt;PRT</code> and <code>IDFRA</code> TD1 variants.
+ * <p>
+ * Countries, names, ages and document validity follow rough real-world distributions; names include diacritics, multi-part and overlong names
+ * so that transliteration and truncation are exercised. A configurable share of the samples is corrupted, see {@link MrzCorruption}.
+ * </p>
+ * <p>
+ * Every sample is derived from the seed and its index only, so a corpus is reproducible and can be generated in parallel, in any order. Dates
+ * are relative to a fixed reference date, not to the current date.
+ * </p>
+ */
+public final class MrzCorpusGenerator {
+
+	/**
+	 * The date the samples are generated as of.
+	 */
+	private static final LocalDate REFERENCE = LocalDate.of(2024, 1, 1);
+	/**
+	 * Samples generated per parallel task by {@link #write(OutputStream, long)}.
+	 */
+	private static final int BLOCK_SIZE = 1024;
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+	private static final int[] WEIGHTS = {7, 3, 1};
+
+	private static final String[] COUNTRIES = {"USA", "CHN", "IND", "GBR", "D", "FRA", "JPN", "ITA", "ESP", "CAN", "BRA", "MEX", "RUS", "KOR",
+		"AUS", "NLD", "POL", "TUR", "PHL", "NGA", "PRT", "SVK", "CZE", "SWE", "NOR", "AUT", "CHE", "GRC", "EGY", "ZAF", "UTO"};
+	private static final int[] COUNTRY_WEIGHTS = {18, 10, 9, 7, 7, 6, 5, 4, 4, 4, 3, 3, 3, 3, 3, 2, 2, 2, 2, 2, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1};
+	private static final int COUNTRY_TOTAL = IntStream.of(COUNTRY_WEIGHTS).sum();
+
+	private static final String[] SURNAMES = {"Smith", "Johnson", "Williams", "Brown", "Wang", "Li", "Zhang", "Kumar", "Singh", "Patel",
+		"M\u00FCller", "Schmidt", "Schneider", "Martin", "Bernard", "Dubois", "Garc\u00EDa", "Fern\u00E1ndez", "Hern\u00E1ndez", "Rossi", "Russo",
+		"Sato", "Suzuki", "Takahashi", "Kim", "Lee", "Park", "Nguyen", "Silva", "Santos", "Kowalski", "Nov\u00E1k", "Horv\u00E1th", "Ivanov",
+		"\u00D8stergaard", "Eriksson", "Janssen", "O'Brien", "De la Cruz", "van der Berg", "Papadopoulos", "Y\u0131lmaz", "Okafor", "Abdulrahman",
+		"Wolfeschlegelsteinhausenbergerdorff"};
+	private static final String[] GIVEN_NAMES = {"John", "Mary", "James", "Linda", "Wei", "Fang", "Priya", "Rahul", "Anna", "Maria", "Jos\u00E9",
+		"Jean-Pierre", "Fran\u00E7ois", "Mohammed", "Ahmed", "Fatima", "Yuki", "Hiroshi", "Min-jun", "Seo-yeon", "Sofia", "Lucas", "Olivia",
+		"Hans", "Zo\u00EB", "\u0141ukasz", "Chiamaka", "Oluwaseun", "Ingrid", "Bj\u00F6rn", "Dmitri", "Elena", "Giuseppe", "Ana", "Thanh"};
+
+	/**
+	 * Pairs of characters OCR engines commonly confuse.
+	 */
+	private static final String CONFUSABLE = "0O1I8B5S2Z6GK<";
+	/**
+	 * ASCII characters outside of the MRZ alphabet.
+	 */
+	private static final String INVALID = "abkoxz -./,";
+	private static final String DIGITS = "0123456789";
+	private static final String LETTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+	private final long seed;
+	private final MrzFormat[] formats;
+	private double corruptionRate = 0.1;
+
+	/**
+	 * Creates a generator of all formats.
+	 *
+	 * @param seed the seed
+	 */
+	public MrzCorpusGenerator(final long seed) {
+		this(seed, MrzFormat.values());
+	}
+
+	/**
+	 * @param seed the seed
+	 * @param formats the formats to generate, picked with equal probability
+	 */
+	public MrzCorpusGenerator(final long seed, final MrzFormat... formats) {
+		if (formats.length == 0) {
+			throw new IllegalArgumentException("Parameter formats: no format given");
+		}
+		this.seed = seed;
+		this.formats = formats.clone();
+	}
+
+	/**
+	 * @return the share of corrupted samples, 0..1
+	 */
+	public double getCorruptionRate() {
+		return corruptionRate;
+	}
+
+	/**
+	 * @param corruptionRate the share of corrupted samples, 0..1; 0.1 by default
+	 */
+	public void setCorruptionRate(final double corruptionRate) {
+		if (corruptionRate < 0 || corruptionRate > 1) {
+			throw new IllegalArgumentException("Parameter corruptionRate: invalid value " + corruptionRate + ": not within 0..1");
+		}
+		this.corruptionRate = corruptionRate;
+	}
+
+	/**
+	 * @param index the sample index
+	 * @return the sample of given index
+	 */
+	public MrzSample generate(final long index) {
+		return generate(index, new MrzEncoder(false));
+	}
+
+	/**
+	 * @param count the number of samples
+	 * @return the samples of indices 0 to count - 1, in order; the stream may be made parallel
+	 */
+	public Stream<MrzSample> samples(final long count) {
+		return LongStream.range(0, count).mapToObj(this::generate);
+	}
+
+	/**
+	 * Writes samples of indices 0 to count - 1 as ASCII, in order, each followed by an empty line. Samples are generated in parallel.
+	 *
+	 * @param out the output stream, not closed
+	 * @param count the number of samples
+	 * @return the number of bytes written
+	 * @throws IOException failed to write
+	 */
+	public long write(final OutputStream out, final long count) throws IOException {
+		final int batch = 4 * Runtime.getRuntime().availableProcessors();
+		long written = 0;
+		for (long start = 0; start < count; start += (long) batch * BLOCK_SIZE) {
+			final long first = start;
+			final List<byte[]> blocks = IntStream.range(0, batch).parallel().mapToObj(b -> block(first + (long) b * BLOCK_SIZE, Math.min(count, first
+					+ (long) (b + 1) * BLOCK_SIZE))).collect(Collectors.toList());
+			for (final byte[] block : blocks) {
+				out.write(block);
+				written += block.length;
+			}
+		}
+		return written;
+	}
+
+	/**
+	 * Writes a corpus to a file.
+	 *
+	 * @param args the number of samples, the output file, optionally the seed and the corruption rate
+	 * @throws IOException failed to write
+	 */
+	public static void main(final String[] args) throws IOException {
+		if (args.length < 2) {
+			System.out.println("Usage: java " + MrzCorpusGenerator.class.getName() + " <count> <file> [seed] [corruption rate]");
+			return;
+		}
+		final long count = Long.parseLong(args[0]);
+		final MrzCorpusGenerator generator = new MrzCorpusGenerator(args.length > 2 ? Long.parseLong(args[2]) : 0);
+		if (args.length > 3) {
+			generator.setCorruptionRate(Double.parseDouble(args[3]));
+		}
+		final long start = System.nanoTime();
+		final long bytes;
+		try (OutputStream out = new BufferedOutputStream(new FileOutputStream(args[1]), 1 << 20)) {
+			bytes = generator.write(out, count);
+		}
+		final double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("Wrote %d samples, %d bytes in %.1f s (%.0f MB/s)%n", count, bytes, seconds, bytes / seconds / 1e6);
+	}
+
+	/**
+	 * @param from the first sample index
+	 * @param to the last sample index, exclusive
+	 * @return the samples as ASCII, each followed by an empty line
+	 */
+	private byte[] block(final long from, final long to) {
+		if (from >= to) {
+			return new byte[0];
+		}
+		final MrzEncoder encoder = new MrzEncoder(false);
+		final StringBuilder sb = new StringBuilder((int) (to - from) * 100);
+		for (long i = from; i < to; i++) {
+			sb.append(generate(i, encoder).getMrz()).append("\n\n");
+		}
+		return sb.toString().getBytes(StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * @param index the sample index
+	 * @param encoder the encoder to use
+	 * @return the sample of given index
+	 */
+	private MrzSample generate(final long index, final MrzEncoder encoder) {
+		final SplittableRandom random = new SplittableRandom(seed ^ index * GOLDEN_GAMMA);
+		final MrzFormat format = formats[random.nextInt(formats.length)];
+		final MrzRecord record = format.newRecord();
+		final double variant = random.nextDouble();
+		final String country = pick(random, COUNTRIES, COUNTRY_WEIGHTS, COUNTRY_TOTAL);
+		// Portuguese TD1 cards are recognized by I<PRT, so all of them follow the national layout
+		final boolean portugal = format == MrzFormat.MRTD_TD1 && (variant < 0.15 || "PRT".equals(country));
+		final boolean france = format == MrzFormat.MRTD_TD1 && !portugal && variant < 0.3 || format == MrzFormat.FRENCH_ID;
+		fill(record, random, portugal ? "PRT" : france ? "FRA" : country);
+		if (france) {
+			record.setCode2('D');
+			record.setDocumentNumber(format == MrzFormat.FRENCH_ID ? digits(random, 12) : frenchDocumentNumber(random));
+		}
+
+		final int columns = format.getColumns();
+		final char[] chars = new char[format.getRows() * columns];
+		encoder.encode(record, chars, 0);
+		if (portugal) {
+			portugueseDocumentNumber(chars, random);
+		}
+
+		MrzCorruption corruption = MrzCorruption.NONE;
+		if (random.nextDouble() < corruptionRate) {
+			corruption = MrzCorruption.values()[1 + random.nextInt(MrzCorruption.values().length - 1)];
+			corrupt(chars, format, corruption, random);
+		}
+		int truncatedRow = -1;
+		int truncatedLength = 0;
+		if (corruption == MrzCorruption.TRUNCATION) {
+			truncatedRow = random.nextInt(format.getRows());
+			truncatedLength = 1 + random.nextInt(5);
+		}
+		final StringBuilder sb = new StringBuilder(chars.length + format.getRows());
+		for (int row = 0; row < format.getRows(); row++) {
+			if (row > 0) {
+				sb.append('\n');
+			}
+			sb.append(chars, row * columns, row == truncatedRow ? columns - truncatedLength : columns);
+		}
+		return new MrzSample(index, format, sb.toString(), corruption);
+	}
+
+	/**
+	 * Fills the record with a random person and document.
+	 *
+	 * @param record the record
+	 * @param random the random generator
+	 * @param country the issuing country
+	 */
+	private static void fill(final MrzRecord record, final SplittableRandom random, final String country) {
+		final MrzFormat format = record.getFormat();
+		record.setCode1(format == MrzFormat.PASSPORT ? 'P' : format == MrzFormat.MRV_VISA_A || format == MrzFormat.MRV_VISA_B ? 'V' : 'I');
+		record.setCode2(MrzParser.FILLER);
+		record.setIssuingCountry(country);
+		record.setNationality(random.nextInt(20) == 0 ? pick(random, COUNTRIES, COUNTRY_WEIGHTS, COUNTRY_TOTAL) : country);
+		final StringBuilder surname = new StringBuilder(pick(random, SURNAMES));
+		if (random.nextInt(10) == 0) {
+			surname.append(' ').append(pick(random, SURNAMES));
+		}
+		record.setSurname(surname.toString());
+		final StringBuilder given = new StringBuilder(pick(random, GIVEN_NAMES));
+		for (int i = random.nextInt(10) < 3 ? 1 + random.nextInt(2) : 0; i > 0; i--) {
+			given.append(' ').append(pick(random, GIVEN_NAMES));
+		}
+		record.setGivenNames(given.toString());
+		record.setDocumentNumber(documentNumber(random));
+		final int sex = random.nextInt(100);
+		record.setSex(sex < 49 ? MrzSex.MALE : sex < 98 ? MrzSex.FEMALE : MrzSex.UNSPECIFIED);
+
+		// Ages: 15% minors, adults with a half-normal spread
+		final boolean minor = random.nextInt(100) < 15;
+		final int age = minor ? random.nextInt(18) : Math.min(95, 18 + (int) Math.abs(gaussian(random) * 22));
+		record.setDateOfBirth(toMrzDate(REFERENCE.minusYears(age).minusDays(random.nextInt(365))));
+		// Documents valid for 5 years for minors and 10 years for adults, 5% of them expired
+		final int validity = minor ? 5 : 10;
+		final LocalDate issued = REFERENCE.minusDays(random.nextInt(validity * 365) + (random.nextInt(20) == 0 ? validity * 365 : 0));
+		record.setExpirationDate(toMrzDate(issued.plusYears(validity).minusDays(1)));
+
+		if (record instanceof MrzRecordOptional) {
+			((MrzRecordOptional) record).setOptional(random.nextInt(5) == 0 ? digits(random, 1 + random.nextInt(6)) : "");
+		}
+		if (record instanceof MrtdTd1) {
+			((MrtdTd1) record).setOptional2(random.nextInt(5) == 0 ? digits(random, 1 + random.nextInt(11)) : "");
+		}
+		if (record instanceof MRP) {
+			((MRP) record).setPersonalNumber(random.nextInt(10) < 3 ? digits(random, 9 + random.nextInt(6)) : "");
+		}
+	}
+
+	/**
+	 * @param random the random generator
+	 * @return a document number of one or two letters followed by digits, sometimes shorter than 9 characters
+	 */
+	private static String documentNumber(final SplittableRandom random) {
+		final int letters = random.nextInt(3);
+		final int length = random.nextInt(5) == 0 ? 7 + random.nextInt(2) : 9;
+		final StringBuilder sb = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			sb.append(i < letters ? LETTERS.charAt(random.nextInt(LETTERS.length())) : DIGITS.charAt(random.nextInt(10)));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * @param random the random generator
+	 * @return a document number passing {@link MrtdTd1#isValidFrenchIDNumber(String)}
+	 */
+	private static String frenchDocumentNumber(final SplittableRandom random) {
+		final String alphabet = DIGITS + LETTERS;
+		final StringBuilder sb = new StringBuilder(9);
+		int sum = 0;
+		for (int i = 0; i < 7; i++) {
+			final char c = i < 2 ? DIGITS.charAt(random.nextInt(10)) : alphabet.charAt(random.nextInt(alphabet.length()));
+			sum += alphabet.indexOf(c) * WEIGHTS[i % 3];
+			sb.append(c);
+		}
+		// The 8th character makes the weighted sum a multiple of 10; its weight is 3, and 3 * 7 = 21
+		sb.append((char) ('0' + (10 - sum % 10) * 7 % 10));
+		sb.append(DIGITS.charAt(random.nextInt(10)));
+		return sb.toString();
+	}
+
+	/**
+	 * Overwrites the document number and optional data of a TD1 MRZ with a Portuguese citizen card number: 8 digits, a check digit, two
+	 * letters and a digit. The composite check digit is updated.
+	 *
+	 * @param chars the MRZ without row separators
+	 * @param random the random generator
+	 */
+	private static void portugueseDocumentNumber(final char[] chars, final SplittableRandom random) {
+		final int columns = MrzFormat.MRTD_TD1.getColumns();
+		final String number = digits(random, 8);
+		number.getChars(0, 8, chars, 5);
+		chars[13] = MrzParser.computeCheckDigitChar(number);
+		chars[14] = LETTERS.charAt(random.nextInt(LETTERS.length()));
+		chars[15] = LETTERS.charAt(random.nextInt(LETTERS.length()));
+		chars[16] = DIGITS.charAt(random.nextInt(10));
+		for (int i = 17; i < columns; i++) {
+			chars[i] = MrzParser.FILLER;
+		}
+		final String composite = new String(chars, 5, columns - 5) + new String(chars, columns, 7) + new String(chars, columns + 8, 7) + new String(
+				chars, columns + 18, 11);
+		chars[columns + 29] = MrzParser.computeCheckDigitChar(composite);
+	}
+
+	/**
+	 * @param chars the MRZ without row separators
+	 * @param format the MRZ format
+	 * @param corruption the damage to apply; truncation is applied when the rows are joined
+	 * @param random the random generator
+	 */
+	private static void corrupt(final char[] chars, final MrzFormat format, final MrzCorruption corruption, final SplittableRandom random) {
+		switch (corruption) {
+			case CHECK_DIGIT:
+				final List<MrzLayout.Check> checks = MrzLayout.get(format, new String(chars, 0, 5)).getChecks();
+				final MrzLayout.Check check = checks.get(random.nextInt(checks.size()));
+				final int digit = check.getDigit().getRow() * format.getColumns() + check.getDigit().getColumn();
+				final int value = chars[digit] >= '0' && chars[digit] <= '9' ? chars[digit] - '0' : 0;
+				chars[digit] = (char) ('0' + (value + 1 + random.nextInt(9)) % 10);
+				break;
+			case SUBSTITUTION:
+				final int position = random.nextInt(chars.length);
+				final int confusable = CONFUSABLE.indexOf(chars[position]);
+				if (confusable >= 0) {
+					chars[position] = CONFUSABLE.charAt(confusable ^ 1);
+				} else {
+					chars[position] = chars[position] == 'E' ? 'F' : 'E';
+				}
+				break;
+			case INVALID_CHARACTER:
+				chars[random.nextInt(chars.length)] = INVALID.charAt(random.nextInt(INVALID.length()));
+				break;
+			default:
+				break;
+		}
+	}
+
+	/**
+	 * @param date the date
+	 * @return the MRZ date
+	 */
+	private static MrzDate toMrzDate(final LocalDate date) {
+		return new MrzDate(date.getYear() % 100, date.getMonthValue(), date.getDayOfMonth());
+	}
+
+	/**
+	 * @param random the random generator
+	 * @param length the number of digits
+	 * @return random digits
+	 */
+	private static String digits(final SplittableRandom random, final int length) {
+		final char[] chars = new char[length];
+		for (int i = 0; i < length; i++) {
+			chars[i] = DIGITS.charAt(random.nextInt(10));
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * @param random the random generator
+	 * @param values the values
+	 * @return a value picked with equal probability
+	 */
+	private static String pick(final SplittableRandom random, final String[] values) {
+		return values[random.nextInt(values.length)];
+	}
+
+	/**
+	 * @param random the random generator
+	 * @param values the values
+	 * @param weights the weight of every value
+	 * @param total the sum of the weights
+	 * @return a value picked with a probability proportional to its weight
+	 */
+	private static String pick(final SplittableRandom random, final String[] values, final int[] weights, final int total) {
+		int r = random.nextInt(total);
+		for (int i = 0; i < values.length; i++) {
+			r -= weights[i];
+			if (r < 0) {
+				return values[i];
+			}
+		}
+		return values[values.length - 1];
+	}
+
+	/**
+	 * @param random the random generator
+	 * @return a standard normal variate
+	 */
+	private static double gaussian(final SplittableRandom random) {
+		// Box-Muller
+		return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+	}
+
+}
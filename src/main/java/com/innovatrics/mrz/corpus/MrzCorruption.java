@@ -0,0 +1,46 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.corpus;
+
+/**
+ * Deliberate damage applied to a generated MRZ.
+ */
+public enum MrzCorruption {
+
+	/**
+	 * A valid MRZ.
+	 */
+	NONE,
+	/**
+	 * One check digit replaced by another digit.
+	 */
+	CHECK_DIGIT,
+	/**
+	 * One character replaced by a character OCR engines commonly confuse it with, such as 0 and O.
+	 */
+	SUBSTITUTION,
+	/**
+	 * One character replaced by a character outside of the MRZ alphabet.
+	 */
+	INVALID_CHARACTER,
+	/**
+	 * A row shortened by one or more characters.
+	 */
+	TRUNCATION;
+}
@@ -0,0 +1,85 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.corpus;
+
+import com.innovatrics.mrz.types.MrzFormat;
+
+/**
+ * A generated MRZ.
+ */
+public final class MrzSample {
+
+	private final long index;
+	private final MrzFormat format;
+	private final String mrz;
+	private final MrzCorruption corruption;
+
+	/**
+	 * @param index the index of the sample in its corpus
+	 * @param format the format of the MRZ
+	 * @param mrz the MRZ, rows separated by newlines
+	 * @param corruption the damage applied to the MRZ
+	 */
+	MrzSample(final long index, final MrzFormat format, final String mrz, final MrzCorruption corruption) {
+		this.index = index;
+		this.format = format;
+		this.mrz = mrz;
+		this.corruption = corruption;
+	}
+
+	/**
+	 * @return the index of the sample in its corpus
+	 */
+	public long getIndex() {
+		return index;
+	}
+
+	/**
+	 * @return the format of the MRZ
+	 */
+	public MrzFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * @return the MRZ, rows separated by newlines
+	 */
+	public String getMrz() {
+		return mrz;
+	}
+
+	/**
+	 * @return the damage applied to the MRZ, {@link MrzCorruption#NONE} for a valid MRZ
+	 */
+	public MrzCorruption getCorruption() {
+		return corruption;
+	}
+
+	/**
+	 * @return true if the MRZ is valid
+	 */
+	public boolean isValid() {
+		return corruption == MrzCorruption.NONE;
+	}
+
+	@Override
+	public String toString() {
+		return mrz;
+	}
+}
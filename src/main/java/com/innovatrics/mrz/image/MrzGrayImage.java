@@ -0,0 +1,226 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.image;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.Raster;
+import java.util.Arrays;
+
+/**
+ * An 8-bit grayscale image, 0 is black and 255 is white. Wraps the pixel buffer without copying it.
+ */
+public final class MrzGrayImage {
+
+	private final byte[] pixels;
+	private final int width;
+	private final int height;
+	private final int offset;
+	private final int stride;
+
+	/**
+	 * @param pixels the pixels, row by row
+	 * @param width the image width
+	 * @param height the image height
+	 */
+	public MrzGrayImage(final byte[] pixels, final int width, final int height) {
+		this(pixels, width, height, 0, width);
+	}
+
+	/**
+	 * @param pixels the pixel buffer
+	 * @param width the image width
+	 * @param height the image height
+	 * @param offset the index of the top left pixel
+	 * @param stride the distance between two vertically adjacent pixels
+	 */
+	public MrzGrayImage(final byte[] pixels, final int width, final int height, final int offset, final int stride) {
+		if (width <= 0 || height <= 0) {
+			throw new IllegalArgumentException("Parameter width/height: invalid value " + width + "x" + height + ": not positive");
+		}
+		if (stride < width || offset < 0 || offset + (long) (height - 1) * stride + width > pixels.length) {
+			throw new IllegalArgumentException("Pixel buffer of length " + pixels.length + " too small for " + width + "x" + height + " image");
+		}
+		this.pixels = pixels;
+		this.width = width;
+		this.height = height;
+		this.offset = offset;
+		this.stride = stride;
+	}
+
+	/**
+	 * Converts given image to grayscale. Images of {@link BufferedImage#TYPE_BYTE_GRAY} are wrapped without copying.
+	 *
+	 * @param image the image
+	 * @return the grayscale image
+	 */
+	public static MrzGrayImage of(final BufferedImage image) {
+		final int w = image.getWidth();
+		final int h = image.getHeight();
+		final Raster raster = image.getRaster();
+		if (image.getType() == BufferedImage.TYPE_BYTE_GRAY && raster.getDataBuffer() instanceof DataBufferByte
+				&& raster.getSampleModel() instanceof ComponentSampleModel) {
+			final DataBufferByte buffer = (DataBufferByte) raster.getDataBuffer();
+			final int stride = ((ComponentSampleModel) raster.getSampleModel()).getScanlineStride();
+			final int offset = buffer.getOffset() - raster.getSampleModelTranslateY() * stride - raster.getSampleModelTranslateX();
+			return new MrzGrayImage(buffer.getData(), w, h, offset, stride);
+		}
+		final byte[] gray = new byte[w * h];
+		final int[] rgb = new int[w];
+		for (int y = 0; y < h; y++) {
+			image.getRGB(0, y, w, 1, rgb, 0, w);
+			for (int x = 0; x < w; x++) {
+				final int p = rgb[x];
+				// ITU-R BT.601 luma, fixed point
+				gray[y * w + x] = (byte) ((((p >> 16) & 0xFF) * 77 + ((p >> 8) & 0xFF) * 150 + (p & 0xFF) * 29) >> 8);
+			}
+		}
+		return new MrzGrayImage(gray, w, h);
+	}
+
+	/**
+	 * @return the image width
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return the image height
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * @param x the column
+	 * @param y the row
+	 * @return the gray value 0..255
+	 */
+	public int get(final int x, final int y) {
+		return pixels[offset + y * stride + x] & 0xFF;
+	}
+
+	/**
+	 * Returns the gray value at given position, or white if the position lies outside of the image.
+	 *
+	 * @param x the column
+	 * @param y the row
+	 * @return the gray value 0..255
+	 */
+	public int getOrWhite(final int x, final int y) {
+		if (x < 0 || y < 0 || x >= width || y >= height) {
+			return 0xFF;
+		}
+		return get(x, y);
+	}
+
+	/**
+	 * Downsamples this image by averaging square blocks of pixels. Blocks of 4x4 pixels and more are averaged over every other row and column,
+	 * which is enough to suppress noise and reads a quarter of the pixels.
+	 *
+	 * @param factor the block size, at least 1
+	 * @return the downsampled image, or this image if the factor is 1
+	 */
+	public MrzGrayImage downsample(final int factor) {
+		if (factor <= 1) {
+			return this;
+		}
+		final int w = Math.max(1, width / factor);
+		final int h = Math.max(1, height / factor);
+		final int step = factor >= 4 ? 2 : 1;
+		final int samples = (factor + step - 1) / step;
+		final int[] sums = new int[w];
+		final byte[] result = new byte[w * h];
+		for (int y = 0; y < h; y++) {
+			Arrays.fill(sums, 0);
+			int count = 0;
+			for (int dy = 0; dy < factor && y * factor + dy < height; dy += step) {
+				final int rowStart = offset + (y * factor + dy) * stride;
+				for (int x = 0; x < w; x++) {
+					int sum = 0;
+					final int start = rowStart + x * factor;
+					for (int dx = 0; dx < factor; dx += step) {
+						sum += pixels[start + dx] & 0xFF;
+					}
+					sums[x] += sum;
+				}
+				count += samples;
+			}
+			final int rowStart = y * w;
+			for (int x = 0; x < w; x++) {
+				result[rowStart + x] = (byte) (sums[x] / count);
+			}
+		}
+		return new MrzGrayImage(result, w, h);
+	}
+
+	/**
+	 * Computes the integral image (summed-area table), (width + 1) * (height + 1) entries, the first row and column being zero. Entries wrap
+	 * around on very large images; box sums computed with int arithmetic stay exact as long as the box itself sums below 2^31.
+	 *
+	 * @return the integral image
+	 */
+	public int[] integral() {
+		final int w1 = width + 1;
+		final int[] sat = new int[w1 * (height + 1)];
+		for (int y = 0; y < height; y++) {
+			int rowSum = 0;
+			final int rowStart = offset + y * stride;
+			for (int x = 0; x < width; x++) {
+				rowSum += pixels[rowStart + x] & 0xFF;
+				sat[(y + 1) * w1 + x + 1] = sat[y * w1 + x + 1] + rowSum;
+			}
+		}
+		return sat;
+	}
+
+	/**
+	 * Binarizes this image with an adaptive threshold: a pixel is dark if it is darker than the mean of its neighbourhood by more than given
+	 * ratio.
+	 *
+	 * @param window the neighbourhood size in pixels
+	 * @param ratio the required contrast, 0..1
+	 * @return one byte per pixel, 1 for dark and 0 for light, row by row with a stride of {@link #getWidth()}
+	 */
+	public byte[] binarize(final int window, final double ratio) {
+		final int[] sat = integral();
+		final int w1 = width + 1;
+		final int half = Math.max(1, window / 2);
+		final int scale = (int) Math.round((1 - ratio) * 1024);
+		final byte[] dark = new byte[width * height];
+		for (int y = 0; y < height; y++) {
+			final int y0 = Math.max(0, y - half);
+			final int y1 = Math.min(height, y + half + 1);
+			final int rowStart = offset + y * stride;
+			for (int x = 0; x < width; x++) {
+				final int x0 = Math.max(0, x - half);
+				final int x1 = Math.min(width, x + half + 1);
+				final long sum = sat[y1 * w1 + x1] - sat[y0 * w1 + x1] - sat[y1 * w1 + x0] + sat[y0 * w1 + x0];
+				final long area = (long) (x1 - x0) * (y1 - y0);
+				if ((pixels[rowStart + x] & 0xFF) * area * 1024 < sum * scale) {
+					dark[y * width + x] = 1;
+				}
+			}
+		}
+		return dark;
+	}
+
+}
@@ -0,0 +1,399 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.image;
+
+import com.innovatrics.mrz.MrzNotFoundException;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds the MRZ band in a grayscale document image.
+ * <p>
+ * The image is downsampled and binarized with an adaptive threshold computed from its integral image. The start of every dark run is a stroke
+ * edge; the skew is the shear angle maximizing the energy of the horizontal projection profile of the stroke edges. Text lines are bands of the
+ * sheared profile dense in stroke edges. MRZ rows are long, gapless (fillers are printed too) lines of equal width, height and spacing; the
+ * largest group of two or three such lines is returned.
+ * </p>
+ * <p>
+ * The skew is searched within 10 degrees either way, in steps of 0.2 degrees; a MRZ skewed by more is not found.
+ * </p>
+ */
+public final class MrzLocalizer {
+
+	/**
+	 * The larger dimension of the downsampled image.
+	 */
+	private static final int TARGET_SIZE = 800;
+	private static final double MAX_SKEW = 10;
+	private static final double COARSE_STEP = 1;
+	private static final double FINE_STEP = 0.2;
+	/**
+	 * Minimum contrast of a dark pixel against its neighbourhood.
+	 */
+	private static final double CONTRAST = 0.15;
+	/**
+	 * Minimum stroke edges per profile row of a text line, relative to the densest row.
+	 */
+	private static final double LINE_THRESHOLD = 0.2;
+	/**
+	 * A MRZ row has at least 30 characters, each at least half as wide as high.
+	 */
+	private static final int MIN_ASPECT = 12;
+	private static final double SIMILARITY = 0.15;
+	/**
+	 * MRZ rows are printed in a fixed pitch font and have the same number of characters: their ends align to within one character.
+	 */
+	private static final double ALIGNMENT = 0.03;
+
+	/**
+	 * Prevent instantiation.
+	 */
+	private MrzLocalizer() {
+		// Do nothing
+	}
+
+	/**
+	 * @param image the document image
+	 * @return the MRZ location, in the image coordinates
+	 * @throws MrzNotFoundException no MRZ band found
+	 */
+	public static MrzLocation locate(final BufferedImage image) throws MrzNotFoundException {
+		return locate(MrzGrayImage.of(image));
+	}
+
+	/**
+	 * @param gray 8-bit grayscale pixels, row by row
+	 * @param width the image width
+	 * @param height the image height
+	 * @return the MRZ location, in the image coordinates
+	 * @throws MrzNotFoundException no MRZ band found
+	 */
+	public static MrzLocation locate(final byte[] gray, final int width, final int height) throws MrzNotFoundException {
+		return locate(new MrzGrayImage(gray, width, height));
+	}
+
+	/**
+	 * @param image the grayscale document image
+	 * @return the MRZ location, in the image coordinates
+	 * @throws MrzNotFoundException no MRZ band found
+	 */
+	public static MrzLocation locate(final MrzGrayImage image) throws MrzNotFoundException {
+		final int factor = Math.max(1, Math.max(image.getWidth(), image.getHeight()) / TARGET_SIZE);
+		final MrzGrayImage small = image.downsample(factor);
+		final int w = small.getWidth();
+		final int h = small.getHeight();
+		final byte[] dark = small.binarize(Math.max(15, Math.max(w, h) / 25), CONTRAST);
+		final int[] edges = strokeEdges(dark, w, h);
+		if (edges.length == 0) {
+			throw new MrzNotFoundException();
+		}
+
+		// Skew: coarse search, then refine around the best angle
+		double skew = findSkew(edges, w, h, -MAX_SKEW, MAX_SKEW, COARSE_STEP);
+		skew = findSkew(edges, w, h, skew - COARSE_STEP, skew + COARSE_STEP, FINE_STEP);
+		final double slope = Math.tan(Math.toRadians(skew));
+
+		final int margin = (int) Math.ceil(w * Math.abs(slope)) + 1;
+		final int[] profile = profile(edges, w, slope, h + 2 * margin, margin);
+		final List<Line> lines = findLines(edges, w, slope, profile, margin);
+		final List<Line> band = findBand(lines);
+		if (band == null) {
+			throw new MrzNotFoundException();
+		}
+
+		final List<MrzLocation.Row> rows = new ArrayList<>(band.size());
+		for (final Line line : band) {
+			final int height = line.bottom - line.top;
+			final int left = Math.max(0, line.left - height);
+			final int right = Math.min(w, line.right + height);
+			// The stroke edge profile is dense only in the middle of the glyphs: pad the line to include their tops and bottoms
+			final double top = line.top - margin + left * slope - height / 2.0;
+			final double bottom = line.bottom - margin + left * slope + height / 2.0;
+			rows.add(new MrzLocation.Row(left * factor, Math.min(image.getWidth(), right * factor), (int) Math.floor(top * factor),
+					(int) Math.ceil(bottom * factor), slope));
+		}
+		return new MrzLocation(rows, skew);
+	}
+
+	/**
+	 * Collects the left ends of horizontal dark runs. Isolated dark pixels (a single pixel run without a dark pixel above or below it) are
+	 * considered noise and skipped.
+	 *
+	 * @param dark the binarized image
+	 * @param w the image width
+	 * @param h the image height
+	 * @return the positions (y * w + x) of the first pixel of every horizontal dark run
+	 */
+	private static int[] strokeEdges(final byte[] dark, final int w, final int h) {
+		int count = 0;
+		int[] edges = new int[1024];
+		for (int y = 0; y < h; y++) {
+			final int rowStart = y * w;
+			for (int x = 0; x < w; x++) {
+				final int pos = rowStart + x;
+				if (dark[pos] == 0 || x > 0 && dark[pos - 1] != 0) {
+					continue;
+				}
+				final boolean isolated = (x + 1 == w || dark[pos + 1] == 0) && (y == 0 || dark[pos - w] == 0)
+						&& (y + 1 == h || dark[pos + w] == 0);
+				if (isolated) {
+					continue;
+				}
+				if (count == edges.length) {
+					edges = Arrays.copyOf(edges, count * 2);
+				}
+				edges[count++] = pos;
+			}
+		}
+		return Arrays.copyOf(edges, count);
+	}
+
+	private static double findSkew(final int[] edges, final int w, final int h, final double from, final double to, final double step) {
+		double best = 0;
+		long bestEnergy = -1;
+		for (double angle = from; angle <= to + step / 2; angle += step) {
+			final double slope = Math.tan(Math.toRadians(angle));
+			final int margin = (int) Math.ceil(w * Math.abs(slope)) + 1;
+			final int[] profile = profile(edges, w, slope, h + 2 * margin, margin);
+			long energy = 0;
+			for (final int p : profile) {
+				energy += (long) p * p;
+			}
+			if (energy > bestEnergy) {
+				bestEnergy = energy;
+				best = angle;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Projects the stroke edges along lines of given slope.
+	 *
+	 * @param edges the stroke edges
+	 * @param w the image width
+	 * @param slope the vertical displacement per horizontal pixel
+	 * @param size the profile size
+	 * @param margin added to every profile index, so that sheared rows stay positive
+	 * @return the number of stroke edges per sheared row
+	 */
+	private static int[] profile(final int[] edges, final int w, final double slope, final int size, final int margin) {
+		final int[] profile = new int[size];
+		for (final int pos : edges) {
+			final int x = pos % w;
+			final int y = pos / w;
+			profile[y - (int) Math.round(x * slope) + margin]++;
+		}
+		return profile;
+	}
+
+	private static List<Line> findLines(final int[] edges, final int w, final double slope, final int[] profile, final int margin) {
+		int max = 0;
+		for (final int p : profile) {
+			max = Math.max(max, p);
+		}
+		final int threshold = Math.max(3, (int) (max * LINE_THRESHOLD));
+		final List<Line> lines = new ArrayList<>();
+		int y = 0;
+		while (y < profile.length) {
+			if (profile[y] < threshold) {
+				y++;
+				continue;
+			}
+			final int top = y;
+			// Tolerate a single sparse row inside a line
+			while (y < profile.length && (profile[y] >= threshold || y + 1 < profile.length && profile[y + 1] >= threshold)) {
+				y++;
+			}
+			final Line line = measure(edges, w, slope, margin, top, y);
+			if (line != null) {
+				lines.add(line);
+			}
+		}
+		return lines;
+	}
+
+	/**
+	 * Finds the longest horizontal extent of stroke edges within a profile band without a gap wider than about one character.
+	 *
+	 * @param edges the stroke edges
+	 * @param w the image width
+	 * @param slope the vertical displacement per horizontal pixel
+	 * @param margin the profile margin
+	 * @param top the first profile row of the band
+	 * @param bottom the profile row after the band
+	 * @return the line, or null if it is too short to be a MRZ row
+	 */
+	private static Line measure(final int[] edges, final int w, final double slope, final int margin, final int top, final int bottom) {
+		final int height = bottom - top;
+		final int[] columns = new int[w];
+		for (final int pos : edges) {
+			final int x = pos % w;
+			final int row = pos / w - (int) Math.round(x * slope) + margin;
+			if (row >= top && row < bottom) {
+				columns[x]++;
+			}
+		}
+		// Characters give several edges per few columns, scattered noise does not
+		final int radius = height / 2;
+		final int minInk = Math.max(2, height / 2);
+		final int[] ink = new int[w + 1];
+		for (int x = 0; x < w; x++) {
+			ink[x + 1] = ink[x] + columns[x];
+		}
+		final int maxGap = 2 * height + 2;
+		int bestLeft = 0;
+		int bestRight = 0;
+		int left = -1;
+		int last = -1;
+		for (int x = 0; x < w; x++) {
+			if (columns[x] == 0 || ink[Math.min(w, x + radius + 1)] - ink[Math.max(0, x - radius)] < minInk) {
+				continue;
+			}
+			if (left >= 0 && x - last > maxGap) {
+				if (last + 1 - left > bestRight - bestLeft) {
+					bestLeft = left;
+					bestRight = last + 1;
+				}
+				left = -1;
+			}
+			if (left < 0) {
+				left = x;
+			}
+			last = x;
+		}
+		if (left >= 0 && last + 1 - left > bestRight - bestLeft) {
+			bestLeft = left;
+			bestRight = last + 1;
+		}
+		if (bestRight - bestLeft < MIN_ASPECT * height) {
+			return null;
+		}
+		return new Line(bestLeft, bestRight, top, bottom);
+	}
+
+	/**
+	 * @param lines the text lines, top to bottom
+	 * @return the largest group of two or three similar, evenly spaced lines, preferring three lines; null if there is none
+	 */
+	private static List<Line> findBand(final List<Line> lines) {
+		List<Line> best = null;
+		long bestScore = 0;
+		for (int size = 3; size >= 2 && best == null; size--) {
+			for (int i = 0; i + size <= lines.size(); i++) {
+				final List<Line> group = lines.subList(i, i + size);
+				if (!isBand(group) || extendsBand(lines, i, size)) {
+					continue;
+				}
+				long score = 0;
+				for (final Line line : group) {
+					score += (long) line.width() * line.height();
+				}
+				if (score > bestScore) {
+					bestScore = score;
+					best = new ArrayList<>(group);
+				}
+			}
+		}
+		return best;
+	}
+
+	private static boolean isBand(final List<Line> group) {
+		final Line first = group.get(0);
+		for (int i = 1; i < group.size(); i++) {
+			final Line line = group.get(i);
+			if (!first.isSimilar(line)) {
+				return false;
+			}
+			final int pitch = line.center() - group.get(i - 1).center();
+			if (pitch > 4 * first.height() || i > 1 && !isClose(pitch, group.get(i - 1).center() - group.get(i - 2).center())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * A MRZ has at most three rows: a similar, evenly spaced line right above or below means regular text.
+	 *
+	 * @param lines the text lines, top to bottom
+	 * @param start the index of the first line of the group
+	 * @param size the number of lines in the group
+	 * @return true if the group continues above or below
+	 */
+	private static boolean extendsBand(final List<Line> lines, final int start, final int size) {
+		final Line first = lines.get(start);
+		final Line last = lines.get(start + size - 1);
+		final int pitch = lines.get(start + 1).center() - first.center();
+		if (start > 0) {
+			final Line before = lines.get(start - 1);
+			if (first.isSimilar(before) && isClose(first.center() - before.center(), pitch)) {
+				return true;
+			}
+		}
+		if (start + size < lines.size()) {
+			final Line after = lines.get(start + size);
+			return last.isSimilar(after) && isClose(after.center() - last.center(), pitch);
+		}
+		return false;
+	}
+
+	private static boolean isClose(final int a, final int b) {
+		return Math.abs(a - b) <= Math.max(2, SIMILARITY * 2 * Math.max(a, b));
+	}
+
+	/**
+	 * A text line in the downsampled, sheared coordinates.
+	 */
+	private static final class Line {
+
+		private final int left;
+		private final int right;
+		private final int top;
+		private final int bottom;
+
+		private Line(final int left, final int right, final int top, final int bottom) {
+			this.left = left;
+			this.right = right;
+			this.top = top;
+			this.bottom = bottom;
+		}
+
+		private int width() {
+			return right - left;
+		}
+
+		private int height() {
+			return bottom - top;
+		}
+
+		private int center() {
+			return (top + bottom) / 2;
+		}
+
+		private boolean isSimilar(final Line other) {
+			final int tolerance = Math.max(height(), (int) Math.ceil(ALIGNMENT * width()));
+			return Math.abs(left - other.left) <= tolerance && Math.abs(right - other.right) <= tolerance
+					&& Math.abs(height() - other.height()) <= Math.max(2, height() / 2);
+		}
+	}
+
+}
@@ -0,0 +1,171 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.image;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The location of a MRZ band in an image: its text rows, top to bottom, and the skew of the rows.
+ */
+public final class MrzLocation {
+
+	private final List<Row> rows;
+	private final double skew;
+
+	/**
+	 * @param rows the text rows, top to bottom
+	 * @param skew the skew angle of the rows in degrees
+	 */
+	public MrzLocation(final List<Row> rows, final double skew) {
+		this.rows = Collections.unmodifiableList(new ArrayList<>(rows));
+		this.skew = skew;
+	}
+
+	/**
+	 * @return the text rows, top to bottom
+	 */
+	public List<Row> getRows() {
+		return rows;
+	}
+
+	/**
+	 * @return the skew angle of the rows in degrees, positive if the rows descend to the right
+	 */
+	public double getSkew() {
+		return skew;
+	}
+
+	/**
+	 * @return the vertical displacement of the rows per horizontal pixel
+	 */
+	public double getSlope() {
+		return Math.tan(Math.toRadians(skew));
+	}
+
+	/**
+	 * @return the bounding box of the whole band
+	 */
+	public Rectangle getBounds() {
+		final Rectangle bounds = new Rectangle(rows.get(0).getBounds());
+		for (final Row row : rows) {
+			bounds.add(row.getBounds());
+		}
+		return bounds;
+	}
+
+	@Override
+	public String toString() {
+		return "MrzLocation{skew=" + skew + ", rows=" + rows + '}';
+	}
+
+	/**
+	 * A single text row. The row is a parallelogram: its top and bottom edges are measured at its left edge and follow the skew of the band.
+	 */
+	public static final class Row {
+
+		private final int left;
+		private final int right;
+		private final int top;
+		private final int bottom;
+		private final double slope;
+
+		/**
+		 * @param left the left edge
+		 * @param right the right edge, exclusive
+		 * @param top the top edge at the left edge
+		 * @param bottom the bottom edge at the left edge, exclusive
+		 * @param slope the vertical displacement per horizontal pixel
+		 */
+		public Row(final int left, final int right, final int top, final int bottom, final double slope) {
+			this.left = left;
+			this.right = right;
+			this.top = top;
+			this.bottom = bottom;
+			this.slope = slope;
+		}
+
+		/**
+		 * @return the left edge
+		 */
+		public int getLeft() {
+			return left;
+		}
+
+		/**
+		 * @return the right edge, exclusive
+		 */
+		public int getRight() {
+			return right;
+		}
+
+		/**
+		 * @return the top edge at the left edge of the row
+		 */
+		public int getTop() {
+			return top;
+		}
+
+		/**
+		 * @return the bottom edge at the left edge of the row, exclusive
+		 */
+		public int getBottom() {
+			return bottom;
+		}
+
+		/**
+		 * @return the row height
+		 */
+		public int getHeight() {
+			return bottom - top;
+		}
+
+		/**
+		 * @return the vertical displacement of the row per horizontal pixel
+		 */
+		public double getSlope() {
+			return slope;
+		}
+
+		/**
+		 * @param x the column
+		 * @return the top edge of the row at given column
+		 */
+		public double getTopAt(final int x) {
+			return top + (x - left) * slope;
+		}
+
+		/**
+		 * @return the axis aligned bounding box of the row
+		 */
+		public Rectangle getBounds() {
+			final int shift = (int) Math.round((right - left) * slope);
+			final int y0 = Math.min(top, top + shift);
+			final int y1 = Math.max(bottom, bottom + shift);
+			return new Rectangle(left, y0, right - left, y1 - y0);
+		}
+
+		@Override
+		public String toString() {
+			return "Row{" + left + "-" + right + ", " + top + "-" + bottom + '}';
+		}
+	}
+}
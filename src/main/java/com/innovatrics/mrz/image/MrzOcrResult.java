@@ -0,0 +1,110 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.image;
+
+import com.innovatrics.mrz.MrzRange;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recognized MRZ text with per-character confidences.
+ */
+public final class MrzOcrResult {
+
+	private final String[] rows;
+	private final float[][] confidences;
+	private final char[][] alternatives;
+
+	/**
+	 * @param rows the recognized rows
+	 * @param confidences the confidence of every character, 0..1
+	 * @param alternatives the second best match of every character
+	 */
+	MrzOcrResult(final String[] rows, final float[][] confidences, final char[][] alternatives) {
+		this.rows = rows;
+		this.confidences = confidences;
+		this.alternatives = alternatives;
+	}
+
+	/**
+	 * @return the recognized rows, top to bottom
+	 */
+	public String[] getRows() {
+		return rows.clone();
+	}
+
+	/**
+	 * @return the recognized rows separated by newlines, suitable for {@link com.innovatrics.mrz.MrzParser#parse(String)}
+	 */
+	public String getText() {
+		return String.join("\n", rows);
+	}
+
+	/**
+	 * @param row the 0-based row
+	 * @param column the 0-based column
+	 * @return the correlation of the character with its template, 0..1
+	 */
+	public float getConfidence(final int row, final int column) {
+		return confidences[row][column];
+	}
+
+	/**
+	 * @param row the 0-based row
+	 * @param column the 0-based column
+	 * @return the second best match of the character
+	 */
+	public char getAlternative(final int row, final int column) {
+		return alternatives[row][column];
+	}
+
+	/**
+	 * @return the lowest character confidence
+	 */
+	public float getMinConfidence() {
+		float min = 1;
+		for (final float[] row : confidences) {
+			for (final float confidence : row) {
+				min = Math.min(min, confidence);
+			}
+		}
+		return min;
+	}
+
+	/**
+	 * @param threshold the minimum confidence
+	 * @return the single character ranges recognized with a lower confidence than given threshold
+	 */
+	public List<MrzRange> getUncertain(final float threshold) {
+		final List<MrzRange> result = new ArrayList<>();
+		for (int row = 0; row < confidences.length; row++) {
+			for (int column = 0; column < confidences[row].length; column++) {
+				if (confidences[row][column] < threshold) {
+					result.add(new MrzRange(column, column + 1, row));
+				}
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return getText();
+	}
+}
@@ -0,0 +1,497 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.image;
+
+import com.innovatrics.mrz.MrzNotFoundException;
+import com.innovatrics.mrz.types.MrzFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+/**
+ * Reads MRZ rows located by {@link MrzLocalizer} with a template classifier of the OCR-B font.
+ * <p>
+ * Every row is rotated upright and binarized (Otsu threshold). MRZ rows are printed in a fixed pitch font and fillers are printed too, so the
+ * row is divided into as many equal cells as a MRZ row has characters: the number of characters, the pitch and the offset are chosen so that
+ * the cell boundaries cross as little ink as possible. Every cell, also shifted slightly both ways, is then matched against the
+ * {@link MrzTemplates}. Instances are immutable and thread safe.
+ * </p>
+ * <p>
+ * Rows are read reliably up to about 6 degrees of skew. Beyond that, glyphs resampled from low resolution rows (a cap height of about 25
+ * pixels) start to be confused, such as R with H.
+ * </p>
+ */
+public final class MrzRecognizer {
+
+	/**
+	 * Pitches tried per row length when segmenting a row.
+	 */
+	private static final int PITCH_STEPS = 32;
+	/**
+	 * Cell offsets tried per pitch when segmenting a row.
+	 */
+	private static final int OFFSET_STEPS = 8;
+	/**
+	 * Minimum ink per pixel row of the text, relative to the densest pixel row.
+	 */
+	private static final double ROW_THRESHOLD = 0.2;
+	/**
+	 * Minimum difference of the mean ink and mean paper gray level.
+	 */
+	private static final int MIN_CONTRAST = 24;
+	/**
+	 * The largest shift of a cell tried when classifying it, relative to the pitch.
+	 */
+	private static final double MAX_SHIFT = 0.15;
+	/**
+	 * Shifts tried each way when classifying a cell.
+	 */
+	private static final int SHIFT_STEPS = 2;
+
+	private final MrzTemplates templates;
+
+	/**
+	 * Creates a recognizer with the {@link MrzTemplates#getDefault() default templates}.
+	 */
+	public MrzRecognizer() {
+		this(MrzTemplates.getDefault());
+	}
+
+	/**
+	 * @param templates the glyph templates
+	 */
+	public MrzRecognizer(final MrzTemplates templates) {
+		this.templates = templates;
+	}
+
+	/**
+	 * Locates and reads the MRZ of a document image.
+	 *
+	 * @param image the document image
+	 * @return the recognized text
+	 * @throws MrzNotFoundException no MRZ band found
+	 */
+	public MrzOcrResult recognize(final MrzGrayImage image) throws MrzNotFoundException {
+		return recognize(image, MrzLocalizer.locate(image));
+	}
+
+	/**
+	 * @param image the document image
+	 * @param location the MRZ location
+	 * @return the recognized text
+	 */
+	public MrzOcrResult recognize(final MrzGrayImage image, final MrzLocation location) {
+		return recognize(Collections.singletonList(image), Collections.singletonList(location)).get(0);
+	}
+
+	/**
+	 * Reads a batch of images. Rows of all images are processed in parallel.
+	 *
+	 * @param images the document images
+	 * @param locations the MRZ location of each image
+	 * @return the recognized text of each image
+	 */
+	public List<MrzOcrResult> recognize(final List<MrzGrayImage> images, final List<MrzLocation> locations) {
+		if (images.size() != locations.size()) {
+			throw new IllegalArgumentException("Got " + images.size() + " images but " + locations.size() + " locations");
+		}
+		final List<int[]> jobs = new ArrayList<>();
+		for (int i = 0; i < locations.size(); i++) {
+			for (int r = 0; r < locations.get(i).getRows().size(); r++) {
+				jobs.add(new int[]{i, r});
+			}
+		}
+		final Strip[] strips = new Strip[jobs.size()];
+		IntStream.range(0, strips.length).parallel().forEach(j -> {
+			final int[] job = jobs.get(j);
+			strips[j] = Strip.of(images.get(job[0]), locations.get(job[0]).getRows().get(job[1]));
+		});
+
+		// Rows of a MRZ have the same length: choose it per image
+		final int[] lengths = new int[locations.size()];
+		for (int j = 0, i = 0; i < lengths.length; i++) {
+			final int rowCount = locations.get(i).getRows().size();
+			lengths[i] = chooseLength(strips, j, rowCount);
+			j += rowCount;
+		}
+		final String[] texts = new String[strips.length];
+		final float[][] confidences = new float[strips.length][];
+		final char[][] alternatives = new char[strips.length][];
+		IntStream.range(0, strips.length).parallel().forEach(j -> {
+			final int length = lengths[jobs.get(j)[0]];
+			confidences[j] = new float[length];
+			alternatives[j] = new char[length];
+			texts[j] = classify(strips[j], length, confidences[j], alternatives[j]);
+		});
+
+		final List<MrzOcrResult> results = new ArrayList<>(locations.size());
+		for (int j = 0, i = 0; i < lengths.length; i++) {
+			final int rowCount = locations.get(i).getRows().size();
+			final String[] rows = new String[rowCount];
+			final float[][] c = new float[rowCount][];
+			final char[][] a = new char[rowCount][];
+			for (int r = 0; r < rowCount; r++, j++) {
+				rows[r] = texts[j];
+				c[r] = confidences[j];
+				a[r] = alternatives[j];
+			}
+			results.add(new MrzOcrResult(rows, c, a));
+		}
+		return results;
+	}
+
+	/**
+	 * @param strips the row strips
+	 * @param first the index of the first row of the MRZ
+	 * @param rowCount the number of rows of the MRZ
+	 * @return the number of characters per row fitting best, among the MRZ formats with given number of rows
+	 */
+	private static int chooseLength(final Strip[] strips, final int first, final int rowCount) {
+		final TreeSet<Integer> candidates = new TreeSet<>();
+		for (final MrzFormat format : MrzFormat.values()) {
+			if (format.getRows() == rowCount) {
+				candidates.add(format.getColumns());
+			}
+		}
+		if (candidates.isEmpty()) {
+			for (final MrzFormat format : MrzFormat.values()) {
+				candidates.add(format.getColumns());
+			}
+		}
+		int best = candidates.first();
+		double bestScore = Double.MAX_VALUE;
+		for (final int length : candidates) {
+			double score = 0;
+			for (int r = 0; r < rowCount; r++) {
+				score += strips[first + r].segment(length).score;
+			}
+			if (score < bestScore) {
+				bestScore = score;
+				best = length;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * @param strip the row strip
+	 * @param length the number of characters
+	 * @param confidences receives the confidence of every character
+	 * @param alternatives receives the second best match of every character
+	 * @return the recognized row
+	 */
+	private String classify(final Strip strip, final int length, final float[] confidences, final char[] alternatives) {
+		final char[] text = new char[length];
+		final float[][] features = templates.getFeatures();
+		final float[] cell = new float[MrzTemplates.FEATURES];
+		final float[] scores = new float[features.length];
+		final Segmentation segmentation = strip.segment(length);
+		final double maxShift = segmentation.pitch * MAX_SHIFT;
+		for (int i = 0; i < length; i++) {
+			// The equal cells drift from the glyphs by a pixel or two: also try the cell shifted both ways and keep the best match
+			Arrays.fill(scores, -2);
+			boolean found = false;
+			for (int s = -SHIFT_STEPS; s <= SHIFT_STEPS; s++) {
+				final double from = segmentation.start + i * segmentation.pitch + maxShift * s / SHIFT_STEPS;
+				final int left = Math.max(0, (int) Math.round(from));
+				final int right = Math.min(strip.width, (int) Math.round(from + segmentation.pitch));
+				if (left >= right || !MrzTemplates.extract(strip.ink, strip.width, strip.height, left, right, strip.inkTop, strip.inkBottom,
+						segmentation.pitch, cell)) {
+					continue;
+				}
+				found = true;
+				for (int t = 0; t < features.length; t++) {
+					final float[] template = features[t];
+					float score = 0;
+					for (int f = 0; f < MrzTemplates.FEATURES; f++) {
+						score += template[f] * cell[f];
+					}
+					scores[t] = Math.max(scores[t], score);
+				}
+			}
+			if (!found) {
+				text[i] = '<';
+				alternatives[i] = '<';
+				continue;
+			}
+			int best = 0;
+			int second = 0;
+			float bestScore = -2;
+			float secondScore = -2;
+			for (int t = 0; t < features.length; t++) {
+				final float score = scores[t];
+				if (score > bestScore) {
+					second = best;
+					secondScore = bestScore;
+					best = t;
+					bestScore = score;
+				} else if (score > secondScore) {
+					second = t;
+					secondScore = score;
+				}
+			}
+			text[i] = MrzTemplates.ALPHABET.charAt(best);
+			alternatives[i] = MrzTemplates.ALPHABET.charAt(second);
+			confidences[i] = Math.max(0, bestScore);
+		}
+		return new String(text);
+	}
+
+	/**
+	 * Division of a row into character cells.
+	 */
+	private static final class Segmentation {
+
+		private final double start;
+		private final double pitch;
+		/**
+		 * Mean ink crossed by a cell boundary, relative to the text height.
+		 */
+		private final double score;
+
+		private Segmentation(final double start, final double pitch, final double score) {
+			this.start = start;
+			this.pitch = pitch;
+			this.score = score;
+		}
+	}
+
+	/**
+	 * A deskewed, binarized MRZ row.
+	 */
+	private static final class Strip {
+
+		private final byte[] ink;
+		private final int width;
+		private final int height;
+		private final int inkTop;
+		private final int inkBottom;
+		private final int inkLeft;
+		private final int inkRight;
+		/**
+		 * Ink pixels per column between the text top and bottom.
+		 */
+		private final int[] columns;
+
+		private Strip(final byte[] ink, final int width, final int height, final int inkTop, final int inkBottom, final int inkLeft, final int inkRight,
+				final int[] columns) {
+			this.ink = ink;
+			this.width = width;
+			this.height = height;
+			this.inkTop = inkTop;
+			this.inkBottom = inkBottom;
+			this.inkLeft = inkLeft;
+			this.inkRight = inkRight;
+			this.columns = columns;
+		}
+
+		/**
+		 * @param image the document image
+		 * @param row the row location
+		 * @return the deskewed, binarized row
+		 */
+		private static Strip of(final MrzGrayImage image, final MrzLocation.Row row) {
+			// Rotate around the top left corner of the row, rather than shear, so that the glyphs stand upright too
+			final double angle = Math.atan(row.getSlope());
+			final double cos = Math.cos(angle);
+			final double sin = Math.sin(angle);
+			final int width = (int) Math.round((row.getRight() - row.getLeft()) / cos);
+			final int height = row.getHeight();
+			final byte[] gray = new byte[width * height];
+			final int[] histogram = new int[256];
+			for (int y = 0; y < height; y++) {
+				for (int x = 0; x < width; x++) {
+					final int value = sample(image, row.getLeft() + x * cos - y * sin, row.getTop() + x * sin + y * cos);
+					gray[y * width + x] = (byte) value;
+					histogram[value]++;
+				}
+			}
+			final int threshold = otsu(histogram, width * height);
+			final byte[] ink = new byte[width * height];
+			if (threshold > 0) {
+				for (int i = 0; i < ink.length; i++) {
+					if ((gray[i] & 0xFF) < threshold) {
+						ink[i] = 1;
+					}
+				}
+			}
+			final int[] rowInk = new int[height];
+			for (int y = 0; y < height; y++) {
+				for (int x = 0; x < width; x++) {
+					final int i = y * width + x;
+					if (ink[i] == 0) {
+						continue;
+					}
+					if (isIsolated(ink, width, height, x, y)) {
+						ink[i] = 0;
+					} else {
+						rowInk[y]++;
+					}
+				}
+			}
+
+			// The text rows: the longest run of rows dense in ink
+			int max = 0;
+			for (final int count : rowInk) {
+				max = Math.max(max, count);
+			}
+			final int minRow = Math.max(1, (int) (max * ROW_THRESHOLD));
+			int inkTop = 0;
+			int inkBottom = 0;
+			for (int y = 0; y < height;) {
+				if (rowInk[y] < minRow) {
+					y++;
+					continue;
+				}
+				final int top = y;
+				while (y < height && rowInk[y] >= minRow) {
+					y++;
+				}
+				if (y - top > inkBottom - inkTop) {
+					inkTop = top;
+					inkBottom = y;
+				}
+			}
+			final int[] columns = new int[width];
+			final int minColumn = Math.max(1, (inkBottom - inkTop) / 10);
+			int inkLeft = width;
+			int inkRight = 0;
+			for (int x = 0; x < width; x++) {
+				for (int y = inkTop; y < inkBottom; y++) {
+					columns[x] += ink[y * width + x];
+				}
+				// Ignore specks
+				if (columns[x] > minColumn) {
+					inkLeft = Math.min(inkLeft, x);
+					inkRight = Math.max(inkRight, x + 1);
+				}
+			}
+			return new Strip(ink, width, height, inkTop, inkBottom, inkLeft, inkRight, columns);
+		}
+
+		/**
+		 * @param image the image
+		 * @param x the column
+		 * @param y the row
+		 * @return the gray value at given position, interpolated bilinearly; white outside of the image
+		 */
+		private static int sample(final MrzGrayImage image, final double x, final double y) {
+			final int x0 = (int) Math.floor(x);
+			final int y0 = (int) Math.floor(y);
+			final double fx = x - x0;
+			final double fy = y - y0;
+			final double top = image.getOrWhite(x0, y0) * (1 - fx) + image.getOrWhite(x0 + 1, y0) * fx;
+			final double bottom = image.getOrWhite(x0, y0 + 1) * (1 - fx) + image.getOrWhite(x0 + 1, y0 + 1) * fx;
+			return (int) Math.round(top * (1 - fy) + bottom * fy);
+		}
+
+		/**
+		 * @param ink the binarized image
+		 * @param width the image width
+		 * @param height the image height
+		 * @param x the column
+		 * @param y the row
+		 * @return true if the pixel has no ink among its 8 neighbours
+		 */
+		private static boolean isIsolated(final byte[] ink, final int width, final int height, final int x, final int y) {
+			for (int ny = Math.max(0, y - 1); ny <= Math.min(height - 1, y + 1); ny++) {
+				for (int nx = Math.max(0, x - 1); nx <= Math.min(width - 1, x + 1); nx++) {
+					if ((nx != x || ny != y) && ink[ny * width + nx] != 0) {
+						return false;
+					}
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Finds the division of the text into given number of equal cells with the least ink on the cell boundaries.
+		 *
+		 * @param length the number of characters
+		 * @return the best segmentation
+		 */
+		private Segmentation segment(final int length) {
+			final int extent = inkRight - inkLeft;
+			final int textHeight = inkBottom - inkTop;
+			if (extent <= 0 || textHeight <= 0) {
+				return new Segmentation(0, Math.max(1.0, (double) width / length), Double.MAX_VALUE);
+			}
+			// The text spans (length - 1) pitches plus the ink of the last glyph, 0.3 to 1 pitch wide
+			final double minPitch = (double) extent / length;
+			final double maxPitch = extent / (length - 0.7);
+			Segmentation best = null;
+			for (int p = 0; p < PITCH_STEPS; p++) {
+				final double pitch = minPitch + (maxPitch - minPitch) * p / (PITCH_STEPS - 1);
+				for (int o = 0; o < OFFSET_STEPS; o++) {
+					final double start = inkLeft - 0.35 * pitch * o / (OFFSET_STEPS - 1);
+					long crossed = 0;
+					for (int i = 1; i < length; i++) {
+						final int x = (int) Math.round(start + i * pitch);
+						if (x >= 0 && x < width) {
+							crossed += columns[x];
+						}
+					}
+					final double score = (double) crossed / (length - 1) / textHeight;
+					if (best == null || score < best.score) {
+						best = new Segmentation(start, pitch, score);
+					}
+				}
+			}
+			return best;
+		}
+
+		/**
+		 * @param histogram the gray level histogram
+		 * @param total the number of pixels
+		 * @return the Otsu threshold, pixels below it are ink; 0 if the contrast is too low
+		 */
+		private static int otsu(final int[] histogram, final int total) {
+			long sum = 0;
+			for (int i = 0; i < 256; i++) {
+				sum += (long) i * histogram[i];
+			}
+			long sumBelow = 0;
+			int countBelow = 0;
+			double bestVariance = -1;
+			int threshold = 0;
+			double contrast = 0;
+			for (int t = 1; t < 256; t++) {
+				countBelow += histogram[t - 1];
+				sumBelow += (long) (t - 1) * histogram[t - 1];
+				final int countAbove = total - countBelow;
+				if (countBelow == 0 || countAbove == 0) {
+					continue;
+				}
+				final double meanBelow = (double) sumBelow / countBelow;
+				final double meanAbove = (double) (sum - sumBelow) / countAbove;
+				final double variance = (double) countBelow * countAbove * (meanAbove - meanBelow) * (meanAbove - meanBelow);
+				if (variance > bestVariance) {
+					bestVariance = variance;
+					threshold = t;
+					contrast = meanAbove - meanBelow;
+				}
+			}
+			return contrast < MIN_CONTRAST ? 0 : threshold;
+		}
+	}
+
+}
@@ -0,0 +1,270 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.image;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Glyph templates of the 37 MRZ characters, used by {@link MrzRecognizer}.
+ * <p>
+ * A glyph is described by the ink coverage of a {@value #GRID_WIDTH}x{@value #GRID_HEIGHT} grid laid over its character cell: one pitch wide,
+ * centered on the glyph ink, spanning the cap height. The feature vector is normalized to zero mean and unit length, so that the dot product
+ * of two vectors is their correlation.
+ * </p>
+ */
+public final class MrzTemplates {
+
+	/**
+	 * The MRZ alphabet.
+	 */
+	public static final String ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ<";
+	/**
+	 * Feature grid columns.
+	 */
+	static final int GRID_WIDTH = 12;
+	/**
+	 * Feature grid rows.
+	 */
+	static final int GRID_HEIGHT = 18;
+	/**
+	 * Number of features.
+	 */
+	static final int FEATURES = GRID_WIDTH * GRID_HEIGHT;
+	/**
+	 * Font size used to render templates.
+	 */
+	private static final int RENDER_SIZE = 96;
+	/**
+	 * The descent included below the baseline, relative to the cap height.
+	 */
+	private static final double DESCENT = 0.2;
+	/**
+	 * Font families tried for the default templates, in order.
+	 */
+	private static final List<String> OCR_B_FAMILIES = Arrays.asList("OCR-B", "OCR B", "OCRB", "OCR-B 10 BT", "OCR B Std");
+
+	private static MrzTemplates defaultTemplates;
+
+	private final float[][] features;
+
+	/**
+	 * @param features normalized feature vectors, one per {@link #ALPHABET} character
+	 */
+	private MrzTemplates(final float[][] features) {
+		this.features = features;
+	}
+
+	/**
+	 * Returns templates rendered from an installed OCR-B font, falling back to the bold monospaced logical font if there is none. Rendered once,
+	 * on first use.
+	 *
+	 * @return the default templates
+	 */
+	public static synchronized MrzTemplates getDefault() {
+		if (defaultTemplates == null) {
+			defaultTemplates = render(findOcrB());
+		}
+		return defaultTemplates;
+	}
+
+	/**
+	 * Renders templates of given font. The font should be monospaced; its size does not matter.
+	 *
+	 * @param font the font
+	 * @return the templates
+	 */
+	public static MrzTemplates render(final Font font) {
+		final Font large = font.deriveFont((float) RENDER_SIZE);
+		final BufferedImage probe = new BufferedImage(1, 1, BufferedImage.TYPE_BYTE_GRAY);
+		final Graphics2D pg = probe.createGraphics();
+		final FontMetrics metrics = pg.getFontMetrics(large);
+		pg.dispose();
+		final int pitch = metrics.charWidth('X');
+		final int width = pitch * 3;
+		final int height = metrics.getHeight() * 2;
+		final int originX = pitch;
+		final int baseline = metrics.getAscent() + metrics.getHeight() / 2;
+
+		final byte[][] glyphs = new byte[ALPHABET.length()][];
+		for (int i = 0; i < ALPHABET.length(); i++) {
+			glyphs[i] = renderGlyph(large, ALPHABET.charAt(i), width, height, originX, baseline);
+		}
+		// Cap height: the vertical ink extent of a letter with a flat top and bottom
+		final byte[] x = glyphs[ALPHABET.indexOf('X')];
+		int capTop = baseline;
+		int capBottom = baseline;
+		for (int y = 0; y < height; y++) {
+			for (int c = 0; c < width; c++) {
+				if (x[y * width + c] != 0) {
+					capTop = Math.min(capTop, y);
+					capBottom = Math.max(capBottom, y + 1);
+				}
+			}
+		}
+		final float[][] features = new float[ALPHABET.length()][];
+		for (int i = 0; i < glyphs.length; i++) {
+			features[i] = new float[FEATURES];
+			extract(glyphs[i], width, height, originX, originX + pitch, capTop, capBottom, pitch, features[i]);
+		}
+		return new MrzTemplates(features);
+	}
+
+	/**
+	 * @return the normalized feature vectors, one per {@link #ALPHABET} character; not to be modified
+	 */
+	float[][] getFeatures() {
+		return features;
+	}
+
+	/**
+	 * Extracts the normalized feature vector of a glyph.
+	 *
+	 * @param ink the binarized image, 1 for ink
+	 * @param stride the row stride of the image
+	 * @param height the image height
+	 * @param cellLeft the left edge of the character cell
+	 * @param cellRight the right edge of the character cell, exclusive
+	 * @param top the cap top
+	 * @param baseline the baseline, exclusive
+	 * @param pitch the character pitch
+	 * @param out the feature vector
+	 * @return false if the cell contains no ink
+	 */
+	static boolean extract(final byte[] ink, final int stride, final int height, final int cellLeft, final int cellRight, final int top,
+			final int baseline, final double pitch, final float[] out) {
+		final double capHeight = baseline - top;
+		final int bottom = Math.min(height, baseline + (int) Math.round(capHeight * DESCENT));
+		int inkLeft = Integer.MAX_VALUE;
+		int inkRight = -1;
+		for (int y = top; y < bottom; y++) {
+			final int row = y * stride;
+			for (int x = cellLeft; x < cellRight; x++) {
+				if (ink[row + x] != 0) {
+					inkLeft = Math.min(inkLeft, x);
+					inkRight = Math.max(inkRight, x);
+				}
+			}
+		}
+		Arrays.fill(out, 0);
+		if (inkRight < 0) {
+			return false;
+		}
+		final double left = (inkLeft + inkRight + 1) / 2.0 - pitch / 2;
+		final double scaleX = GRID_WIDTH / pitch;
+		final double windowHeight = capHeight * (1 + DESCENT);
+		final double scaleY = GRID_HEIGHT / windowHeight;
+		for (int y = top; y < bottom; y++) {
+			final int gy = Math.min(GRID_HEIGHT - 1, (int) ((y - top + 0.5) * scaleY));
+			final int row = y * stride;
+			final int x0 = Math.max(cellLeft, (int) Math.ceil(left));
+			final int x1 = Math.min(cellRight, (int) Math.floor(left + pitch));
+			for (int x = x0; x < x1; x++) {
+				final int gx = Math.min(GRID_WIDTH - 1, (int) ((x - left + 0.5) * scaleX));
+				if (ink[row + x] != 0) {
+					out[gy * GRID_WIDTH + gx]++;
+				}
+			}
+		}
+		// Pixels per grid cell, including those clipped by the cell edges
+		final double area = pitch * windowHeight / FEATURES;
+		for (int i = 0; i < FEATURES; i++) {
+			out[i] /= area;
+		}
+		normalize(out);
+		return true;
+	}
+
+	/**
+	 * Normalizes given vector to zero mean and unit length.
+	 *
+	 * @param v the vector
+	 */
+	private static void normalize(final float[] v) {
+		double mean = 0;
+		for (final float f : v) {
+			mean += f;
+		}
+		mean /= v.length;
+		double norm = 0;
+		for (int i = 0; i < v.length; i++) {
+			v[i] -= mean;
+			norm += v[i] * v[i];
+		}
+		if (norm == 0) {
+			return;
+		}
+		final float scale = (float) (1 / Math.sqrt(norm));
+		for (int i = 0; i < v.length; i++) {
+			v[i] *= scale;
+		}
+	}
+
+	/**
+	 * @param font the font, at render size
+	 * @param c the character
+	 * @param width the image width
+	 * @param height the image height
+	 * @param originX the horizontal origin of the glyph
+	 * @param baseline the baseline
+	 * @return the binarized glyph, 1 for ink
+	 */
+	private static byte[] renderGlyph(final Font font, final char c, final int width, final int height, final int originX, final int baseline) {
+		final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+		final Graphics2D g = image.createGraphics();
+		g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+		g.setColor(Color.WHITE);
+		g.fillRect(0, 0, width, height);
+		g.setColor(Color.BLACK);
+		g.setFont(font);
+		g.drawString(String.valueOf(c), originX, baseline);
+		g.dispose();
+		final MrzGrayImage gray = MrzGrayImage.of(image);
+		final byte[] ink = new byte[width * height];
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				if (gray.get(x, y) < 128) {
+					ink[y * width + x] = 1;
+				}
+			}
+		}
+		return ink;
+	}
+
+	/**
+	 * @return an installed OCR-B font, or the bold monospaced logical font
+	 */
+	private static Font findOcrB() {
+		final List<String> installed = Arrays.asList(GraphicsEnvironment.getLocalGraphicsEnvironment().getAvailableFontFamilyNames());
+		for (final String family : OCR_B_FAMILIES) {
+			if (installed.contains(family)) {
+				return new Font(family, Font.PLAIN, RENDER_SIZE);
+			}
+		}
+		return new Font(Font.MONOSPACED, Font.BOLD, RENDER_SIZE);
+	}
+
+}
@@ -0,0 +1,4 @@
+/**
+ * MRZ Image Processing.
+ */
+package com.innovatrics.mrz.image;
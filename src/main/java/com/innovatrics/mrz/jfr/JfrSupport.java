@@ -0,0 +1,125 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.jfr;
+
+import com.innovatrics.mrz.metrics.MrzFailure;
+import com.innovatrics.mrz.metrics.MrzStage;
+import com.innovatrics.mrz.types.MrzField;
+import com.innovatrics.mrz.types.MrzFormat;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+/**
+ * The code referencing the {@code jdk.jfr} module, only loaded by {@link MrzFlightRecorder} once the module is known to be present.
+ */
+final class JfrSupport {
+
+	/**
+	 * Prevent instantiation.
+	 */
+	private JfrSupport() {
+		// Do nothing
+	}
+
+	/**
+	 * Tracks whether a recording is running.
+	 */
+	static void register() {
+		FlightRecorder.addListener(new FlightRecorderListener() {
+			@Override
+			public void recorderInitialized(final FlightRecorder recorder) {
+				update(recorder);
+			}
+
+			@Override
+			public void recordingStateChanged(final Recording recording) {
+				update(FlightRecorder.getFlightRecorder());
+			}
+		});
+		if (FlightRecorder.isInitialized()) {
+			update(FlightRecorder.getFlightRecorder());
+		}
+	}
+
+	/**
+	 * @param recorder the flight recorder
+	 */
+	private static void update(final FlightRecorder recorder) {
+		boolean running = false;
+		for (final Recording recording : recorder.getRecordings()) {
+			running |= recording.getState() == RecordingState.RUNNING;
+		}
+		MrzFlightRecorder.setRecording(running);
+	}
+
+	/**
+	 * @param stage the operation
+	 * @return the started event
+	 */
+	static Object begin(final MrzStage stage) {
+		final MrzOperationEvent event;
+		switch (stage) {
+			case PARSE:
+				event = new MrzParseEvent();
+				break;
+			case FIND:
+				event = new MrzFindEvent();
+				break;
+			case DETECT:
+				event = new MrzDetectEvent();
+				break;
+			default:
+				throw new IllegalArgumentException("No event for stage " + stage);
+		}
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * @param event the started event
+	 * @param format the MRZ format, null if not known
+	 * @param inputLength the number of characters of the input
+	 * @param failure the failure of the operation, null if successful
+	 */
+	static void end(final Object event, final MrzFormat format, final int inputLength, final MrzFailure failure) {
+		final MrzOperationEvent e = (MrzOperationEvent) event;
+		e.end();
+		if (e.shouldCommit()) {
+			e.set(format == null ? null : format.name(), inputLength, failure == null ? "OK" : failure.name());
+			e.commit();
+		}
+	}
+
+	/**
+	 * @param format the MRZ format, null if not known
+	 * @param field the field protected by the check digit, null if not known
+	 * @param inputLength the number of characters the check digit is computed from
+	 * @param expected the computed check digit
+	 * @param actual the check digit found in the MRZ
+	 */
+	static void checkDigitFailed(final MrzFormat format, final MrzField field, final int inputLength, final char expected, final char actual) {
+		final MrzCheckDigitFailureEvent event = new MrzCheckDigitFailureEvent();
+		if (event.shouldCommit()) {
+			event.set(format == null ? null : format.name(), field == null ? null : field.name(), inputLength, expected, actual);
+			event.commit();
+		}
+	}
+}
@@ -0,0 +1,82 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A check digit which does not match its field. Recorded without a stack trace.
+ */
+@Name("com.innovatrics.mrz.CheckDigitFailure")
+@Label("MRZ Check Digit Failure")
+@Description("A check digit which does not match its field")
+@Category("MRZ")
+@StackTrace(false)
+public class MrzCheckDigitFailureEvent extends Event {
+
+	/**
+	 * The MRZ format, null if not known.
+	 */
+	@Label("Format")
+	private String format;
+
+	/**
+	 * The field protected by the check digit, null if not known.
+	 */
+	@Label("Field")
+	private String field;
+
+	/**
+	 * The number of characters the check digit is computed from.
+	 */
+	@Label("Input Length")
+	private int inputLength;
+
+	/**
+	 * The computed check digit.
+	 */
+	@Label("Expected")
+	private char expected;
+
+	/**
+	 * The check digit found in the MRZ.
+	 */
+	@Label("Actual")
+	private char actual;
+
+	/**
+	 * @param format the MRZ format, null if not known
+	 * @param field the field protected by the check digit, null if not known
+	 * @param inputLength the number of characters the check digit is computed from
+	 * @param expected the computed check digit
+	 * @param actual the check digit found in the MRZ
+	 */
+	void set(final String format, final String field, final int inputLength, final char expected, final char actual) {
+		this.format = format;
+		this.field = field;
+		this.inputLength = inputLength;
+		this.expected = expected;
+		this.actual = actual;
+	}
+}
@@ -0,0 +1,112 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.jfr;
+
+import com.innovatrics.mrz.metrics.MrzFailure;
+import com.innovatrics.mrz.metrics.MrzStage;
+import com.innovatrics.mrz.types.MrzField;
+import com.innovatrics.mrz.types.MrzFormat;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Emits the JDK Flight Recorder events of the parser.
+ * <p>
+ * The instrumented code checks {@link #isRecording()} first, a single flag read which is false unless a flight recording is running, so
+ * the events cost nothing outside of recordings. The duration events are only committed when slower than their threshold, see
+ * {@link MrzParseEvent}. On JVMs without the {@code jdk.jfr} module no event class is ever loaded.
+ * </p>
+ */
+public final class MrzFlightRecorder {
+
+	private static final Logger LOG = LoggerFactory.getLogger(MrzFlightRecorder.class);
+
+	private static final AtomicBoolean RECORDING = new AtomicBoolean();
+
+	static {
+		try {
+			Class.forName("jdk.jfr.FlightRecorder");
+			JfrSupport.register();
+		} catch (ClassNotFoundException | LinkageError | SecurityException e) {
+			LOG.debug("JDK Flight Recorder not available: " + e);
+		}
+	}
+
+	/**
+	 * Prevent instantiation.
+	 */
+	private MrzFlightRecorder() {
+		// Do nothing
+	}
+
+	/**
+	 * @return true if a flight recording is running
+	 */
+	public static boolean isRecording() {
+		return RECORDING.get();
+	}
+
+	/**
+	 * @param recording true if a flight recording is running
+	 */
+	static void setRecording(final boolean recording) {
+		RECORDING.set(recording);
+	}
+
+	/**
+	 * Starts timing an operation.
+	 *
+	 * @param stage the operation: {@link MrzStage#PARSE}, {@link MrzStage#FIND} or {@link MrzStage#DETECT}
+	 * @return the event to pass to {@link #end(Object, MrzFormat, int, MrzFailure)}, null if not recording
+	 */
+	public static Object begin(final MrzStage stage) {
+		return RECORDING.get() ? JfrSupport.begin(stage) : null;
+	}
+
+	/**
+	 * Ends timing an operation and records it if slower than the threshold.
+	 *
+	 * @param event the event returned by {@link #begin(MrzStage)}, may be null
+	 * @param format the MRZ format, null if not known
+	 * @param inputLength the number of characters of the input
+	 * @param failure the failure of the operation, null if successful
+	 */
+	public static void end(final Object event, final MrzFormat format, final int inputLength, final MrzFailure failure) {
+		if (event != null) {
+			JfrSupport.end(event, format, inputLength, failure);
+		}
+	}
+
+	/**
+	 * Records a check digit which does not match its field, if recording.
+	 *
+	 * @param format the MRZ format, null if not known
+	 * @param field the field protected by the check digit, null if not known
+	 * @param inputLength the number of characters the check digit is computed from
+	 * @param expected the computed check digit
+	 * @param actual the check digit found in the MRZ
+	 */
+	public static void checkDigitFailed(final MrzFormat format, final MrzField field, final int inputLength, final char expected,
+			final char actual) {
+		if (RECORDING.get()) {
+			JfrSupport.checkDigitFailed(format, field, inputLength, expected, actual);
+		}
+	}
+}
@@ -0,0 +1,37 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+
+/**
+ * A timed MRZ operation. Each event type declares the fields itself, as the flight recorder does not record private fields of event
+ * superclasses.
+ */
+@Category("MRZ")
+public abstract class MrzOperationEvent extends Event {
+
+	/**
+	 * @param format the MRZ format, null if not known
+	 * @param inputLength the number of characters of the input
+	 * @param outcome OK, or the failure of the operation
+	 */
+	abstract void set(String format, int inputLength, String outcome);
+}
@@ -0,0 +1,64 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Parsing an MRZ with {@code MrzParser.parse}, including the format detection. Recorded when slower than the threshold, 1 ms by default.
+ */
+@Name("com.innovatrics.mrz.Parse")
+@Label("MRZ Parse")
+@Description("Parsing an MRZ with MrzParser.parse, including the format detection")
+@Threshold("1 ms")
+public class MrzParseEvent extends MrzOperationEvent {
+
+	/**
+	 * The MRZ format, null if not known.
+	 */
+	@Label("Format")
+	private String format;
+
+	/**
+	 * The number of characters of the input.
+	 */
+	@Label("Input Length")
+	private int inputLength;
+
+	/**
+	 * OK, or the {@link com.innovatrics.mrz.metrics.MrzFailure} of the operation.
+	 */
+	@Label("Outcome")
+	private String outcome;
+
+	/**
+	 * @param format the MRZ format, null if not known
+	 * @param inputLength the number of characters of the input
+	 * @param outcome OK, or the failure of the operation
+	 */
+	@Override
+	void set(final String format, final int inputLength, final String outcome) {
+		this.format = format;
+		this.inputLength = inputLength;
+		this.outcome = outcome;
+	}
+}
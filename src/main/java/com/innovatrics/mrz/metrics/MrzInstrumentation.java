@@ -0,0 +1,53 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.metrics;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the {@link MrzMetrics} the parser reports to.
+ * <p>
+ * Disabled by default: until metrics are set, the instrumented code reads a single reference and skips all timing and counting.
+ * </p>
+ */
+public final class MrzInstrumentation {
+
+	private static final AtomicReference<MrzMetrics> METRICS = new AtomicReference<>();
+
+	/**
+	 * Prevent instantiation.
+	 */
+	private MrzInstrumentation() {
+		// Do nothing
+	}
+
+	/**
+	 * @return the installed metrics, null if disabled
+	 */
+	public static MrzMetrics getMetrics() {
+		return METRICS.get();
+	}
+
+	/**
+	 * @param metrics the metrics to report to, null to disable the instrumentation
+	 */
+	public static void setMetrics(final MrzMetrics metrics) {
+		METRICS.set(metrics);
+	}
+}
@@ -0,0 +1,50 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.metrics;
+
+import com.innovatrics.mrz.types.MrzDocumentCode;
+import com.innovatrics.mrz.types.MrzField;
+import com.innovatrics.mrz.types.MrzFormat;
+
+/**
+ * Receives the events of the parser. Installed with {@link MrzInstrumentation#setMetrics(MrzMetrics)}.
+ * <p>
+ * Called concurrently from all parsing threads, so implementations must be thread safe and should not block.
+ * </p>
+ */
+public interface MrzMetrics {
+
+	/**
+	 * @param stage the stage
+	 * @param nanos the duration of the stage in nanoseconds
+	 */
+	void latency(MrzStage stage, long nanos);
+
+	/**
+	 * @param format the format of the parsed MRZ
+	 * @param code the document code of the parsed MRZ
+	 */
+	void parsed(MrzFormat format, MrzDocumentCode code);
+
+	/**
+	 * @param reason the reason of the failure
+	 * @param field the field which failed, null if not related to a field
+	 */
+	void failed(MrzFailure reason, MrzField field);
+}
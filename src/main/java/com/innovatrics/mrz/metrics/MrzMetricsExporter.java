@@ -0,0 +1,41 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.metrics;
+
+import java.util.Map;
+
+/**
+ * Exports the metrics collected by {@link MrzStatistics} to a metrics backend.
+ */
+public interface MrzMetricsExporter {
+
+	/**
+	 * @param name the metric name
+	 * @param tags the tag values by tag name
+	 * @param value the current count
+	 */
+	void counter(String name, Map<String, String> tags, long value);
+
+	/**
+	 * @param name the metric name
+	 * @param tags the tag values by tag name
+	 * @param histogram the histogram of nanoseconds, still recording
+	 */
+	void histogram(String name, Map<String, String> tags, MrzLatencyHistogram histogram);
+}
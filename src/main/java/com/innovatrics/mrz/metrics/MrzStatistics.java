@@ -0,0 +1,189 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.metrics;
+
+import com.innovatrics.mrz.types.MrzDocumentCode;
+import com.innovatrics.mrz.types.MrzField;
+import com.innovatrics.mrz.types.MrzFormat;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The default {@link MrzMetrics}: keeps the counts in striped {@link LongAdder}s and the latencies in lock-free
+ * {@link MrzLatencyHistogram}s, and hands them to a {@link MrzMetricsExporter} on {@link #export(MrzMetricsExporter)}.
+ * <p>
+ * Exported metrics:
+ * </p>
+ * <ul>
+ * <li>{@code mrz.parsed} counter tagged with {@code format};</li>
+ * <li>{@code mrz.parsed.code} counter tagged with {@code code}, the document code;</li>
+ * <li>{@code mrz.failures} counter tagged with {@code reason} and {@code field}, {@code none} if not related to a field; only non-zero
+ * counters are exported;</li>
+ * <li>{@code mrz.latency} histogram of nanoseconds tagged with {@code stage}.</li>
+ * </ul>
+ */
+public class MrzStatistics implements MrzMetrics {
+
+	private static final MrzFormat[] FORMATS = MrzFormat.values();
+	private static final MrzDocumentCode[] CODES = MrzDocumentCode.values();
+	private static final MrzFailure[] FAILURES = MrzFailure.values();
+	private static final MrzField[] FIELDS = MrzField.values();
+	private static final MrzStage[] STAGES = MrzStage.values();
+
+	private final LongAdder[] parsedByFormat = adders(FORMATS.length);
+	private final LongAdder[] parsedByCode = adders(CODES.length);
+	/**
+	 * Failures by reason ordinal * (fields + 1) + field ordinal + 1, the first column counting failures with no field.
+	 */
+	private final LongAdder[] failures = adders(FAILURES.length * (FIELDS.length + 1));
+	private final MrzLatencyHistogram[] latencies = new MrzLatencyHistogram[STAGES.length];
+
+	/**
+	 * Creates empty statistics.
+	 */
+	public MrzStatistics() {
+		for (int i = 0; i < latencies.length; i++) {
+			latencies[i] = new MrzLatencyHistogram();
+		}
+	}
+
+	@Override
+	public void latency(final MrzStage stage, final long nanos) {
+		latencies[stage.ordinal()].record(nanos);
+	}
+
+	@Override
+	public void parsed(final MrzFormat format, final MrzDocumentCode code) {
+		parsedByFormat[format.ordinal()].increment();
+		if (code != null) {
+			parsedByCode[code.ordinal()].increment();
+		}
+	}
+
+	@Override
+	public void failed(final MrzFailure reason, final MrzField field) {
+		failures[failureIndex(reason, field)].increment();
+	}
+
+	/**
+	 * @param format the format
+	 * @return the number of parsed MRZs of given format
+	 */
+	public long getParsed(final MrzFormat format) {
+		return parsedByFormat[format.ordinal()].sum();
+	}
+
+	/**
+	 * @param code the document code
+	 * @return the number of parsed MRZs of given document code
+	 */
+	public long getParsed(final MrzDocumentCode code) {
+		return parsedByCode[code.ordinal()].sum();
+	}
+
+	/**
+	 * @param reason the reason
+	 * @param field the field, null for failures not related to a field
+	 * @return the number of failures of given reason and field
+	 */
+	public long getFailures(final MrzFailure reason, final MrzField field) {
+		return failures[failureIndex(reason, field)].sum();
+	}
+
+	/**
+	 * @param stage the stage
+	 * @return the latency histogram of given stage, in nanoseconds
+	 */
+	public MrzLatencyHistogram getLatency(final MrzStage stage) {
+		return latencies[stage.ordinal()];
+	}
+
+	/**
+	 * Hands all metrics to the exporter.
+	 *
+	 * @param exporter the exporter
+	 */
+	public void export(final MrzMetricsExporter exporter) {
+		for (final MrzFormat format : FORMATS) {
+			exporter.counter("mrz.parsed", Collections.singletonMap("format", format.name()), getParsed(format));
+		}
+		for (final MrzDocumentCode code : CODES) {
+			exporter.counter("mrz.parsed.code", Collections.singletonMap("code", code.name()), getParsed(code));
+		}
+		for (final MrzFailure reason : FAILURES) {
+			for (int f = -1; f < FIELDS.length; f++) {
+				final MrzField field = f < 0 ? null : FIELDS[f];
+				final long value = getFailures(reason, field);
+				if (value > 0) {
+					final Map<String, String> tags = new LinkedHashMap<>();
+					tags.put("reason", reason.name());
+					tags.put("field", field == null ? "none" : field.name());
+					exporter.counter("mrz.failures", tags, value);
+				}
+			}
+		}
+		for (final MrzStage stage : STAGES) {
+			exporter.histogram("mrz.latency", Collections.singletonMap("stage", stage.name()), getLatency(stage));
+		}
+	}
+
+	/**
+	 * Clears all counts and histograms.
+	 */
+	public void reset() {
+		reset(parsedByFormat);
+		reset(parsedByCode);
+		reset(failures);
+		for (final MrzLatencyHistogram latency : latencies) {
+			latency.reset();
+		}
+	}
+
+	/**
+	 * @param reason the reason
+	 * @param field the field, may be null
+	 * @return the index of the failure counter
+	 */
+	private static int failureIndex(final MrzFailure reason, final MrzField field) {
+		return reason.ordinal() * (FIELDS.length + 1) + (field == null ? 0 : field.ordinal() + 1);
+	}
+
+	/**
+	 * @param length the number of adders
+	 * @return new adders
+	 */
+	private static LongAdder[] adders(final int length) {
+		final LongAdder[] result = new LongAdder[length];
+		for (int i = 0; i < length; i++) {
+			result[i] = new LongAdder();
+		}
+		return result;
+	}
+
+	/**
+	 * @param adders the adders to reset
+	 */
+	private static void reset(final LongAdder[] adders) {
+		for (final LongAdder adder : adders) {
+			adder.reset();
+		}
+	}
+}
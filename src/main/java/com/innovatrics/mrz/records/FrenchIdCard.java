@@ -18,6 +18,7 @@
  */
 package com.innovatrics.mrz.records;
 
+import com.innovatrics.mrz.MrzEncoder;
 import com.innovatrics.mrz.MrzParseException;
 import com.innovatrics.mrz.MrzParser;
 import com.innovatrics.mrz.MrzRange;
@@ -58,7 +59,7 @@ public class FrenchIdCard extends MrzRecordOptional {
 		name[0] = parser.parseString(new MrzRange(5, 30, 0));
 		name[1] = parser.parseString(new MrzRange(13, 27, 1));
 		setName(name);
-		setNationality(parser.parseString(new MrzRange(2, 5, 0)));
+		setNationality(parser.parseCountry(new MrzRange(2, 5, 0)));
 		setOptional(parser.parseString(new MrzRange(30, 36, 0)));
 		setDocumentNumber(parser.parseString(new MrzRange(0, 12, 1)));
 		setValidDocumentNumber(parser.checkDigit(12, 1, new MrzRange(0, 12, 1), "document number"));
@@ -72,21 +73,23 @@ public class FrenchIdCard extends MrzRecordOptional {
 
 	@Override
 	public String toMrz() {
-		final StringBuilder sb = new StringBuilder("IDFRA");
+		return new MrzEncoder().encode(this);
+	}
+
+	@Override
+	protected void encode(final MrzEncoder encoder) {
 		// first row
-		sb.append(MrzParser.toMrz(getSurname(), 25));
-		sb.append(MrzParser.toMrz(getOptional(), 6));
-		sb.append('\n');
+		encoder.composite(true).put("IDFRA");
+		encoder.field(getSurname(), 25);
+		encoder.field(getOptional(), 6);
+		encoder.newLine();
 		// second row
-		sb.append(MrzParser.toMrz(getDocumentNumber(), 12));
-		sb.append(MrzParser.computeCheckDigitChar(MrzParser.toMrz(getDocumentNumber(), 12)));
-		sb.append(MrzParser.toMrz(getGivenNames(), 14));
-		sb.append(getDateOfBirth().toMrz());
-		sb.append(MrzParser.computeCheckDigitChar(getDateOfBirth().toMrz()));
-		sb.append(getSex().getMrz());
-		sb.append(MrzParser.computeCheckDigitChar(sb.toString().replace("\n", "")));
-		sb.append('\n');
-		return sb.toString();
+		encoder.field(getDocumentNumber(), 12).checkDigit();
+		encoder.field(getGivenNames(), 14);
+		encoder.date(getDateOfBirth()).checkDigit();
+		encoder.put(getSex().getMrz());
+		encoder.compositeCheckDigit();
+		encoder.newLine();
 	}
 
 }
@@ -18,10 +18,13 @@
  */
 package com.innovatrics.mrz.records;
 
+import com.innovatrics.mrz.MrzEncoder;
 import com.innovatrics.mrz.MrzParseException;
 import com.innovatrics.mrz.MrzParser;
+import com.innovatrics.mrz.MrzProfile;
 import com.innovatrics.mrz.MrzRange;
 import com.innovatrics.mrz.MrzRecord;
+import com.innovatrics.mrz.types.MrzField;
 import com.innovatrics.mrz.types.MrzFormat;
 
 /**
@@ -48,42 +51,43 @@ public class MRP extends MrzRecord {
 	public void fromMrz(final String mrz) throws MrzParseException {
 		super.fromMrz(mrz);
 		setMrz(mrz);
+		final MrzProfile profile = MrzProfile.get(getFormat(), mrz);
 		final MrzParser parser = new MrzParser(mrz);
-		setName(parser.parseName(new MrzRange(5, 44, 0)));
-		setDocumentNumber(parser.parseString(new MrzRange(0, 9, 1)));
-		setValidDocumentNumber(parser.checkDigit(9, 1, new MrzRange(0, 9, 1), "passport number"));
-		setNationality(parser.parseString(new MrzRange(10, 13, 1)));
-		setDateOfBirth(parser.parseDate(new MrzRange(13, 19, 1)));
-		setValidDateOfBirth(parser.checkDigit(19, 1, new MrzRange(13, 19, 1), "date of birth") && getDateOfBirth().isDateValid());
-		setSex(parser.parseSex(20, 1));
-		setExpirationDate(parser.parseDate(new MrzRange(21, 27, 1)));
-		setValidExpirationDate(parser.checkDigit(27, 1, new MrzRange(21, 27, 1), "expiration date") && getExpirationDate().isDateValid());
-		setPersonalNumber(parser.parseString(new MrzRange(28, 42, 1)));
-		setValidPersonalNumber(parser.checkDigit(42, 1, new MrzRange(28, 42, 1), "personal number"));
-		setValidComposite(parser.checkDigit(43, 1, parser.rawValue(new MrzRange(0, 10, 1), new MrzRange(13, 20, 1), new MrzRange(21, 43, 1)), "mrz"));
+		setName(parser.parseName(profile.getRange(MrzField.SURNAME)));
+		setDocumentNumber(profile.parseDocumentNumber(parser));
+		setValidDocumentNumber(profile.isValidDocumentNumber(parser, getDocumentNumber()));
+		setNationality(parser.parseCountry(profile.getRange(MrzField.NATIONALITY)));
+		setDateOfBirth(parser.parseDate(profile.getRange(MrzField.DATE_OF_BIRTH)));
+		setValidDateOfBirth(profile.checkDigit(parser, MrzField.DATE_OF_BIRTH) && getDateOfBirth().isDateValid());
+		setSex(parser.parseSex(profile.getRange(MrzField.SEX).getColumn(), profile.getRange(MrzField.SEX).getRow()));
+		setExpirationDate(parser.parseDate(profile.getRange(MrzField.EXPIRATION_DATE)));
+		setValidExpirationDate(profile.checkDigit(parser, MrzField.EXPIRATION_DATE) && getExpirationDate().isDateValid());
+		setPersonalNumber(parser.parseString(profile.getRange(MrzField.PERSONAL_NUMBER)));
+		setValidPersonalNumber(profile.checkDigit(parser, MrzField.PERSONAL_NUMBER));
+		setValidComposite(profile.checkDigit(parser, MrzField.COMPOSITE));
 	}
 
 	@Override
 	public String toMrz() {
+		return new MrzEncoder().encode(this);
+	}
+
+	@Override
+	protected void encode(final MrzEncoder encoder) {
 		// first line
-		final StringBuilder sb = new StringBuilder();
-		sb.append(getCode1());
-		sb.append(getCode2());
-		sb.append(MrzParser.toMrz(getIssuingCountry(), 3));
-		sb.append(MrzParser.nameToMrz(getSurname(), getGivenNames(), 39));
-		sb.append('\n');
+		encoder.put(getCode1()).put(getCode2());
+		encoder.field(getIssuingCountry(), 3);
+		encoder.name(getSurname(), getGivenNames(), 39);
+		encoder.newLine();
 		// second line
-		final String docNum = MrzParser.toMrz(getDocumentNumber(), 9) + MrzParser.computeCheckDigitChar(MrzParser.toMrz(getDocumentNumber(), 9));
-		sb.append(docNum);
-		sb.append(MrzParser.toMrz(getNationality(), 3));
-		final String dob = getDateOfBirth().toMrz() + MrzParser.computeCheckDigitChar(getDateOfBirth().toMrz());
-		sb.append(dob);
-		sb.append(getSex().getMrz());
-		final String edpn = getExpirationDate().toMrz() + MrzParser.computeCheckDigitChar(getExpirationDate().toMrz()) + MrzParser.toMrz(getPersonalNumber(), 14) + MrzParser.computeCheckDigitChar(MrzParser.toMrz(getPersonalNumber(), 14));
-		sb.append(edpn);
-		sb.append(MrzParser.computeCheckDigitChar(docNum + dob + edpn));
-		sb.append('\n');
-		return sb.toString();
+		encoder.composite(true).field(getDocumentNumber(), 9).checkDigit().composite(false);
+		encoder.field(getNationality(), 3);
+		encoder.composite(true).date(getDateOfBirth()).checkDigit().composite(false);
+		encoder.put(getSex().getMrz());
+		encoder.composite(true).date(getExpirationDate()).checkDigit();
+		encoder.field(getPersonalNumber(), 14).checkDigit();
+		encoder.compositeCheckDigit();
+		encoder.newLine();
 	}
 
 	/**
@@ -114,6 +118,29 @@ public class MRP extends MrzRecord {
 		this.validPersonalNumber = validPersonalNumber;
 	}
 
+	@Override
+	public boolean isValid(final MrzField field) {
+		return field == MrzField.PERSONAL_NUMBER ? isValidPersonalNumber() : super.isValid(field);
+	}
+
+	@Override
+	protected void setValid(final MrzField field, final boolean valid) {
+		if (field == MrzField.PERSONAL_NUMBER) {
+			setValidPersonalNumber(valid);
+		} else {
+			super.setValid(field, valid);
+		}
+	}
+
+	@Override
+	protected boolean setField(final MrzField field, final MrzParser parser, final MrzRange range) throws MrzParseException {
+		if (field == MrzField.PERSONAL_NUMBER) {
+			setPersonalNumber(parser.parseString(range));
+			return true;
+		}
+		return super.setField(field, parser, range);
+	}
+
 	@Override
 	protected void buildToString(final StringBuilder sb) {
 		super.buildToString(sb);
@@ -18,12 +18,15 @@
  */
 package com.innovatrics.mrz.records;
 
+import com.innovatrics.mrz.MrzDocumentNumberRule;
+import com.innovatrics.mrz.MrzEncoder;
 import com.innovatrics.mrz.MrzParseException;
 import com.innovatrics.mrz.MrzParser;
+import com.innovatrics.mrz.MrzProfile;
 import com.innovatrics.mrz.MrzRange;
 import com.innovatrics.mrz.MrzRecordOptional;
+import com.innovatrics.mrz.types.MrzField;
 import com.innovatrics.mrz.types.MrzFormat;
-import java.util.regex.Pattern;
 
 /**
  * MRTD TD1 format: A three line long, 30 characters per line format.
@@ -34,6 +37,16 @@ public class MrtdTd1 extends MrzRecordOptional {
 
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * French ID card number: 8 alphanumeric characters and a digit; the weighted sum of the first 8 characters is a multiple of 10.
+	 */
+	public static final MrzDocumentNumberRule FRENCH_ID_NUMBER = MrzDocumentNumberRule.compile("[A-Z0-9]{8}[0-9]", MrzDocumentNumberRule
+			.weightedSum(8, 0));
+	/**
+	 * Portuguese ID card number, with the ambiguous characters replaced by {@link #replaceNumberChar(String)}.
+	 */
+	public static final MrzDocumentNumberRule PORTUGAL_ID_NUMBER = MrzDocumentNumberRule.compile("[0-9]{9}[A-Za-z]{2}[0-9]");
+
 	/**
 	 * Optional (for U.S. passport holders, 21-29 may be corresponding passport number).
 	 */
@@ -50,52 +63,21 @@ public class MrtdTd1 extends MrzRecordOptional {
 	public void fromMrz(final String mrz) throws MrzParseException {
 		super.fromMrz(mrz);
 		setMrz(mrz);
-		if (mrz.startsWith("I<PRT")) {
-			final MrzParser parser = new MrzParser(mrz);
-			setDocumentNumber(replaceNumberChar(parser.parseString(new MrzRange(5, 18, 0))));
-			setPersonalNumberID(parser.parseString(new MrzRange(15, 24, 0)));
-			setValidDocumentNumber(isValidPortugalIDNumber(replaceNumberChar(parser.parseString(new MrzRange(5, 18, 0)))));
-			setOptional(parser.parseString(new MrzRange(15, 30, 0)));
-			setDateOfBirth(parser.parseDate(new MrzRange(0, 6, 1)));
-			setValidDateOfBirth(parser.checkDigit(6, 1, new MrzRange(0, 6, 1), "date of birth") && getDateOfBirth().isDateValid());
-			setSex(parser.parseSex(7, 1));
-			setExpirationDate(parser.parseDate(new MrzRange(8, 14, 1)));
-			setValidExpirationDate(parser.checkDigit(14, 1, new MrzRange(8, 14, 1), "expiration date") && getExpirationDate().isDateValid());
-			setNationality(parser.parseString(new MrzRange(15, 18, 1)));
-			setOptional2(parser.parseString(new MrzRange(18, 29, 1)));
-			setValidComposite(parser.checkDigit(29, 1, parser.rawValue(new MrzRange(5, 30, 0), new MrzRange(0, 7, 1), new MrzRange(8, 15, 1), new MrzRange(18, 29, 1)), "mrz"));
-			setName(parser.parseName(new MrzRange(0, 30, 2)));
-		} else if (mrz.startsWith("IDFRA")) {
-			final MrzParser parser = new MrzParser(mrz);
-			setDocumentNumber(parser.parseString(new MrzRange(5, 14, 0)));
-			setPersonalNumberID(parser.parseString(new MrzRange(15, 24, 0)));
-			setValidDocumentNumber(isValidFrenchIDNumber(parser.parseString(new MrzRange(5, 14, 0))));
-			setOptional(parser.parseString(new MrzRange(15, 30, 0)));
-			setDateOfBirth(parser.parseDate(new MrzRange(0, 6, 1)));
-			setValidDateOfBirth(parser.checkDigit(6, 1, new MrzRange(0, 6, 1), "date of birth") && getDateOfBirth().isDateValid());
-			setSex(parser.parseSex(7, 1));
-			setExpirationDate(parser.parseDate(new MrzRange(8, 14, 1)));
-			setValidExpirationDate(parser.checkDigit(14, 1, new MrzRange(8, 14, 1), "expiration date") && getExpirationDate().isDateValid());
-			setNationality(parser.parseString(new MrzRange(15, 18, 1)));
-			setOptional2(parser.parseString(new MrzRange(18, 29, 1)));
-			setValidComposite(parser.checkDigit(29, 1, parser.rawValue(new MrzRange(5, 30, 0), new MrzRange(0, 7, 1), new MrzRange(8, 15, 1), new MrzRange(18, 29, 1)), "mrz"));
-			setName(parser.parseName(new MrzRange(0, 30, 2)));
-		} else {
-			final MrzParser parser = new MrzParser(mrz);
-			setDocumentNumber(parser.parseString(new MrzRange(5, 14, 0)));
-			setPersonalNumberID(parser.parseString(new MrzRange(15, 24, 0)));
-			setValidDocumentNumber(parser.checkDigit(14, 0, new MrzRange(5, 14, 0), "document number"));
-			setOptional(parser.parseString(new MrzRange(15, 30, 0)));
-			setDateOfBirth(parser.parseDate(new MrzRange(0, 6, 1)));
-			setValidDateOfBirth(parser.checkDigit(6, 1, new MrzRange(0, 6, 1), "date of birth") && getDateOfBirth().isDateValid());
-			setSex(parser.parseSex(7, 1));
-			setExpirationDate(parser.parseDate(new MrzRange(8, 14, 1)));
-			setValidExpirationDate(parser.checkDigit(14, 1, new MrzRange(8, 14, 1), "expiration date") && getExpirationDate().isDateValid());
-			setNationality(parser.parseString(new MrzRange(15, 18, 1)));
-			setOptional2(parser.parseString(new MrzRange(18, 29, 1)));
-			setValidComposite(parser.checkDigit(29, 1, parser.rawValue(new MrzRange(5, 30, 0), new MrzRange(0, 7, 1), new MrzRange(8, 15, 1), new MrzRange(18, 29, 1)), "mrz"));
-			setName(parser.parseName(new MrzRange(0, 30, 2)));
-		}
+		final MrzProfile profile = MrzProfile.get(getFormat(), mrz);
+		final MrzParser parser = new MrzParser(mrz);
+		setDocumentNumber(profile.parseDocumentNumber(parser));
+		setPersonalNumberID(parser.parseString(profile.getRange(MrzField.PERSONAL_NUMBER)));
+		setValidDocumentNumber(profile.isValidDocumentNumber(parser, getDocumentNumber()));
+		setOptional(parser.parseString(profile.getRange(MrzField.OPTIONAL)));
+		setDateOfBirth(parser.parseDate(profile.getRange(MrzField.DATE_OF_BIRTH)));
+		setValidDateOfBirth(profile.checkDigit(parser, MrzField.DATE_OF_BIRTH) && getDateOfBirth().isDateValid());
+		setSex(parser.parseSex(profile.getRange(MrzField.SEX).getColumn(), profile.getRange(MrzField.SEX).getRow()));
+		setExpirationDate(parser.parseDate(profile.getRange(MrzField.EXPIRATION_DATE)));
+		setValidExpirationDate(profile.checkDigit(parser, MrzField.EXPIRATION_DATE) && getExpirationDate().isDateValid());
+		setNationality(parser.parseCountry(profile.getRange(MrzField.NATIONALITY)));
+		setOptional2(parser.parseString(profile.getRange(MrzField.OPTIONAL2)));
+		setValidComposite(profile.checkDigit(parser, MrzField.COMPOSITE));
+		setName(parser.parseName(profile.getRange(MrzField.SURNAME)));
 	}
 
 	/**
@@ -106,96 +88,56 @@ public class MrtdTd1 extends MrzRecordOptional {
 		if (input == null) {
 			return null;
 		}
-
-		StringBuilder result = new StringBuilder();
-
+		final char[] result = new char[input.length()];
+		int length = 0;
 		for (int i = 0; i < input.length(); i++) {
-			char ch = input.charAt(i);
-
-			// Check if the current index is 10 or 11 (0-based index)
+			final char ch = input.charAt(i);
+			// Leave characters at positions 10 and 11 unchanged, except spaces
 			if (i == 9 || i == 10) {
-				result.append(ch); // Leave characters at positions 10 and 11 unchanged
-			} else {
-				switch (ch) {
-					case 'O':
-						result.append('0');
-						break;
-					case 'I':
-						result.append('1');
-						break;
-					case 'B':
-						result.append('8');
-						break;
-					case 'S':
-						result.append('5');
-						break;
-					case 'J':
-						result.append('3');
-						break;
-					case 'Z':
-						result.append('2');
-						break;
-					case '<':
-					case ' ':
-						// Replace < and space with empty string (do not append)
-						break;
-					default:
-						result.append(ch); // Append all other characters as they are
-						break;
+				if (ch != ' ') {
+					result[length++] = ch;
 				}
+				continue;
+			}
+			switch (ch) {
+				case 'O':
+					result[length++] = '0';
+					break;
+				case 'I':
+					result[length++] = '1';
+					break;
+				case 'B':
+					result[length++] = '8';
+					break;
+				case 'S':
+					result[length++] = '5';
+					break;
+				case 'J':
+					result[length++] = '3';
+					break;
+				case 'Z':
+					result[length++] = '2';
+					break;
+				case '<':
+				case ' ':
+					// Drop fillers and spaces
+					break;
+				default:
+					result[length++] = ch;
+					break;
 			}
 		}
-
-		// Convert StringBuilder to String and remove any remaining spaces
-		return result.toString().replace(" ", "");
-	}
-
-
-	public static boolean isValidFrenchIDNumber(String documentNumber) {
-		// Trim the input to remove leading/trailing whitespace
-		String trimmedDocNum = documentNumber.trim();
-
-		// Ensure the document number is exactly 9 characters
-		if (trimmedDocNum.length() != 9) {
-			return false;
-		}
-
-		// Validate format: first 8 characters must be alphanumeric, 9th is a digit
-		String pattern = "^[A-Z0-9]{8}[0-9]$";
-		if (!trimmedDocNum.matches(pattern)) {
-			return false;
-		}
-
-		// Calculate and validate the check digit
-		return isValidCheckDigit(trimmedDocNum);
+		return new String(result, 0, length);
 	}
 
-	private static boolean isValidCheckDigit(String documentNumber) {
-		// Weights for MRZ calculation
-		int[] weights = {7, 3, 1, 7, 3, 1, 7, 3};
 
-		// Map MRZ characters to numerical values
-		String chars = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ";
-		int checkSum = 0;
 
-		// Calculate weighted sum for the first 8 characters
-		for (int i = 0; i < 8; i++) {
-			char c = documentNumber.charAt(i);
-			int value = chars.indexOf(c); // Get numeric value of the character
-			if (value == -1) {
-				return false; // Invalid character
-			}
-			checkSum += value * weights[i];
-		}
-
-		int computedCheckDigit = checkSum % 10;
-
-		// Check if the computed check digit is 0
-		if (computedCheckDigit == 0) {
-			return true;
-		} else {
-			return false;
-		}
+	/**
+	 * @param documentNumber The French ID number to be validated.
+	 * @return {@code true} if the document number matches the expected format and check digit, {@code false} otherwise.
+	 */
+	public static boolean isValidFrenchIDNumber(final String documentNumber) {
+		return FRENCH_ID_NUMBER.test(documentNumber.trim());
 	}
 
 	/**
@@ -203,46 +145,33 @@ public class MrtdTd1 extends MrzRecordOptional {
 	 * @return {@code true} if the document number matches the expected format, {@code false} otherwise.
 	 */
 	public static boolean isValidPortugalIDNumber(final String documentNumber) {
-		// Trim the input to remove any leading or trailing whitespace
-		String trimmedDocumentNumber = documentNumber.trim();
-
-		// Check if the trimmed document number is empty
-		if (trimmedDocumentNumber.isEmpty()) {
-			return false;
-		}
-
-		// Define the regex pattern based on the actual Portuguese ID format
-		String pattern = "^[0-9]{2}[0-9]{2}[0-9]{2}[0-9]{2}[0-9]{1}[A-Za-z]{2}[0-9]{1}$";
-		Pattern compiledPattern = Pattern.compile(pattern);
-
-		return compiledPattern.matcher(trimmedDocumentNumber).matches();
+		return PORTUGAL_ID_NUMBER.test(documentNumber.trim());
 	}
 
 	@Override
 	public String toMrz() {
+		return new MrzEncoder().encode(this);
+	}
+
+	@Override
+	protected void encode(final MrzEncoder encoder) {
 		// first line
-		final StringBuilder sb = new StringBuilder();
-		sb.append(getCode1());
-		sb.append(getCode2());
-		sb.append(MrzParser.toMrz(getIssuingCountry(), 3));
-		final String dno = MrzParser.toMrz(getDocumentNumber(), 9) + MrzParser.computeCheckDigitChar(MrzParser.toMrz(getDocumentNumber(), 9)) + MrzParser.toMrz(getOptional(), 15);
-		sb.append(dno);
-		sb.append('\n');
+		encoder.put(getCode1()).put(getCode2());
+		encoder.field(getIssuingCountry(), 3);
+		encoder.composite(true).field(getDocumentNumber(), 9).checkDigit();
+		encoder.field(getOptional(), 15);
+		encoder.newLine();
 		// second line
-		final String dob = getDateOfBirth().toMrz() + MrzParser.computeCheckDigitChar(getDateOfBirth().toMrz());
-		sb.append(dob);
-		sb.append(getSex().getMrz());
-		sb.append(getPersonalNumberID());
-		final String ed = getExpirationDate().toMrz() + MrzParser.computeCheckDigitChar(getExpirationDate().toMrz());
-		sb.append(ed);
-		sb.append(MrzParser.toMrz(getNationality(), 3));
-		sb.append(MrzParser.toMrz(getOptional2(), 11));
-		sb.append(MrzParser.computeCheckDigitChar(dno + dob + ed + MrzParser.toMrz(getOptional2(), 11)));
-		sb.append('\n');
+		encoder.date(getDateOfBirth()).checkDigit().composite(false);
+		encoder.put(getSex().getMrz());
+		encoder.composite(true).date(getExpirationDate()).checkDigit().composite(false);
+		encoder.field(getNationality(), 3);
+		encoder.composite(true).field(getOptional2(), 11);
+		encoder.compositeCheckDigit();
+		encoder.newLine();
 		// third line
-		sb.append(MrzParser.nameToMrz(getSurname(), getGivenNames(), 30));
-		sb.append('\n');
-		return sb.toString();
+		encoder.name(getSurname(), getGivenNames(), 30);
+		encoder.newLine();
 	}
 
 	/**
@@ -263,6 +192,15 @@ public class MrtdTd1 extends MrzRecordOptional {
 		this.optional2 = optional2;
 	}
 
+	@Override
+	protected boolean setField(final MrzField field, final MrzParser parser, final MrzRange range) throws MrzParseException {
+		if (field == MrzField.OPTIONAL2) {
+			setOptional2(parser.parseString(range));
+			return true;
+		}
+		return super.setField(field, parser, range);
+	}
+
 	@Override
 	protected void buildToString(final StringBuilder sb) {
 		super.buildToString(sb);
@@ -18,10 +18,12 @@
  */
 package com.innovatrics.mrz.records;
 
+import com.innovatrics.mrz.MrzEncoder;
 import com.innovatrics.mrz.MrzParseException;
 import com.innovatrics.mrz.MrzParser;
-import com.innovatrics.mrz.MrzRange;
+import com.innovatrics.mrz.MrzProfile;
 import com.innovatrics.mrz.MrzRecordOptional;
+import com.innovatrics.mrz.types.MrzField;
 import com.innovatrics.mrz.types.MrzFormat;
 
 /**
@@ -44,42 +46,42 @@ public class MrtdTd2 extends MrzRecordOptional {
 	public void fromMrz(final String mrz) throws MrzParseException {
 		super.fromMrz(mrz);
 		setMrz(mrz);
+		final MrzProfile profile = MrzProfile.get(getFormat(), mrz);
 		final MrzParser parser = new MrzParser(mrz);
-		setName(parser.parseName(new MrzRange(5, 36, 0)));
-		setDocumentNumber(parser.parseString(new MrzRange(0, 9, 1)));
-		setValidDocumentNumber(parser.checkDigit(9, 1, new MrzRange(0, 9, 1), "document number"));
-		setNationality(parser.parseString(new MrzRange(10, 13, 1)));
-		setDateOfBirth(parser.parseDate(new MrzRange(13, 19, 1)));
-		setValidDateOfBirth(parser.checkDigit(19, 1, new MrzRange(13, 19, 1), "date of birth") && getDateOfBirth().isDateValid());
-		setSex(parser.parseSex(20, 1));
-		setExpirationDate(parser.parseDate(new MrzRange(21, 27, 1)));
-		setValidExpirationDate(parser.checkDigit(27, 1, new MrzRange(21, 27, 1), "expiration date") && getExpirationDate().isDateValid());
-		setOptional(parser.parseString(new MrzRange(28, 35, 1)));
-		setValidComposite(parser.checkDigit(35, 1, parser.rawValue(new MrzRange(0, 10, 1), new MrzRange(13, 20, 1), new MrzRange(21, 35, 1)), "mrz"));
+		setName(parser.parseName(profile.getRange(MrzField.SURNAME)));
+		setDocumentNumber(profile.parseDocumentNumber(parser));
+		setValidDocumentNumber(profile.isValidDocumentNumber(parser, getDocumentNumber()));
+		setNationality(parser.parseCountry(profile.getRange(MrzField.NATIONALITY)));
+		setDateOfBirth(parser.parseDate(profile.getRange(MrzField.DATE_OF_BIRTH)));
+		setValidDateOfBirth(profile.checkDigit(parser, MrzField.DATE_OF_BIRTH) && getDateOfBirth().isDateValid());
+		setSex(parser.parseSex(profile.getRange(MrzField.SEX).getColumn(), profile.getRange(MrzField.SEX).getRow()));
+		setExpirationDate(parser.parseDate(profile.getRange(MrzField.EXPIRATION_DATE)));
+		setValidExpirationDate(profile.checkDigit(parser, MrzField.EXPIRATION_DATE) && getExpirationDate().isDateValid());
+		setOptional(parser.parseString(profile.getRange(MrzField.OPTIONAL)));
+		setValidComposite(profile.checkDigit(parser, MrzField.COMPOSITE));
 	}
 
 	@Override
 	public String toMrz() {
+		return new MrzEncoder().encode(this);
+	}
+
+	@Override
+	protected void encode(final MrzEncoder encoder) {
 		// first line
-		final StringBuilder sb = new StringBuilder();
-		sb.append(getCode1());
-		sb.append(getCode2());
-		sb.append(MrzParser.toMrz(getIssuingCountry(), 3));
-		sb.append(MrzParser.nameToMrz(getSurname(), getGivenNames(), 31));
-		sb.append('\n');
+		encoder.put(getCode1()).put(getCode2());
+		encoder.field(getIssuingCountry(), 3);
+		encoder.name(getSurname(), getGivenNames(), 31);
+		encoder.newLine();
 		// second line
-		final String dn = MrzParser.toMrz(getDocumentNumber(), 9) + MrzParser.computeCheckDigitChar(MrzParser.toMrz(getDocumentNumber(), 9));
-		sb.append(dn);
-		sb.append(MrzParser.toMrz(getNationality(), 3));
-		final String dob = getDateOfBirth().toMrz() + MrzParser.computeCheckDigitChar(getDateOfBirth().toMrz());
-		sb.append(dob);
-		sb.append(getSex().getMrz());
-		final String ed = getExpirationDate().toMrz() + MrzParser.computeCheckDigitChar(getExpirationDate().toMrz());
-		sb.append(ed);
-		sb.append(MrzParser.toMrz(getOptional(), 7));
-		sb.append(MrzParser.computeCheckDigitChar(dn + dob + ed + MrzParser.toMrz(getOptional(), 7)));
-		sb.append('\n');
-		return sb.toString();
+		encoder.composite(true).field(getDocumentNumber(), 9).checkDigit().composite(false);
+		encoder.field(getNationality(), 3);
+		encoder.composite(true).date(getDateOfBirth()).checkDigit().composite(false);
+		encoder.put(getSex().getMrz());
+		encoder.composite(true).date(getExpirationDate()).checkDigit();
+		encoder.field(getOptional(), 7);
+		encoder.compositeCheckDigit();
+		encoder.newLine();
 	}
 
 }
@@ -18,6 +18,7 @@
  */
 package com.innovatrics.mrz.records;
 
+import com.innovatrics.mrz.MrzEncoder;
 import com.innovatrics.mrz.MrzParseException;
 import com.innovatrics.mrz.MrzParser;
 import com.innovatrics.mrz.MrzRange;
@@ -52,7 +53,7 @@ public class MrvA extends MrzRecordOptional {
 		setName(parser.parseName(new MrzRange(5, 44, 0)));
 		setDocumentNumber(parser.parseString(new MrzRange(0, 9, 1)));
 		setValidDocumentNumber(parser.checkDigit(9, 1, new MrzRange(0, 9, 1), "passport number"));
-		setNationality(parser.parseString(new MrzRange(10, 13, 1)));
+		setNationality(parser.parseCountry(new MrzRange(10, 13, 1)));
 		setDateOfBirth(parser.parseDate(new MrzRange(13, 19, 1)));
 		setValidDateOfBirth(parser.checkDigit(19, 1, new MrzRange(13, 19, 1), "date of birth") && getDateOfBirth().isDateValid());
 		setSex(parser.parseSex(20, 1));
@@ -64,23 +65,24 @@ public class MrvA extends MrzRecordOptional {
 
 	@Override
 	public String toMrz() {
+		return new MrzEncoder().encode(this);
+	}
+
+	@Override
+	protected void encode(final MrzEncoder encoder) {
 		// first line
-		final StringBuilder sb = new StringBuilder("V<");
-		sb.append(MrzParser.toMrz(getIssuingCountry(), 3));
-		sb.append(MrzParser.nameToMrz(getSurname(), getGivenNames(), 39));
-		sb.append('\n');
+		encoder.put("V<");
+		encoder.field(getIssuingCountry(), 3);
+		encoder.name(getSurname(), getGivenNames(), 39);
+		encoder.newLine();
 		// second line
-		sb.append(MrzParser.toMrz(getDocumentNumber(), 9));
-		sb.append(MrzParser.computeCheckDigitChar(MrzParser.toMrz(getDocumentNumber(), 9)));
-		sb.append(MrzParser.toMrz(getNationality(), 3));
-		sb.append(getDateOfBirth().toMrz());
-		sb.append(MrzParser.computeCheckDigitChar(getDateOfBirth().toMrz()));
-		sb.append(getSex().getMrz());
-		sb.append(getExpirationDate().toMrz());
-		sb.append(MrzParser.computeCheckDigitChar(getExpirationDate().toMrz()));
-		sb.append(MrzParser.toMrz(getOptional(), 16));
-		sb.append('\n');
-		return sb.toString();
+		encoder.field(getDocumentNumber(), 9).checkDigit();
+		encoder.field(getNationality(), 3);
+		encoder.date(getDateOfBirth()).checkDigit();
+		encoder.put(getSex().getMrz());
+		encoder.date(getExpirationDate()).checkDigit();
+		encoder.field(getOptional(), 16);
+		encoder.newLine();
 	}
 
 }
@@ -0,0 +1,205 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.types;
+
+import java.util.Arrays;
+
+/**
+ * Canonical table of the country codes found in the MRZ: the ISO 3166-1 alpha-3 codes and the ICAO Doc 9303 Part 3 specials such as
+ * {@code D<<}, {@code UNO} or {@code XXA}.
+ * <p>
+ * Each code has a stable primitive ID, usable for indexing and columnar storage, and one shared String instance, in the form returned by the
+ * parser ({@code D} for {@code D<<}). The three characters index a table of 27<sup>3</sup> IDs directly, a collision-free (perfect) hash, so
+ * lookups neither search nor allocate. IDs are assigned in table order; new codes are only ever appended.
+ * </p>
+ */
+public final class MrzCountryCode {
+
+	/**
+	 * The ID of codes not in the table.
+	 */
+	public static final short UNKNOWN = -1;
+
+	/**
+	 * The ISO 3166-1 alpha-3 codes followed by the ICAO specials, in the MRZ form.
+	 */
+	private static final String[] MRZ_CODES = ("ABW AFG AGO AIA ALA ALB AND ARE ARG ARM ASM ATA ATF ATG AUS AUT AZE BDI BEL BEN BES BFA BGD BGR BHR BHS"
+			+ " BIH BLM BLR BLZ BMU BOL BRA BRB BRN BTN BVT BWA CAF CAN CCK CHE CHL CHN CIV CMR COD COG COK COL COM CPV CRI CUB CUW CXR CYM CYP CZE"
+			+ " DEU DJI DMA DNK DOM DZA ECU EGY ERI ESH ESP EST ETH FIN FJI FLK FRA FRO FSM GAB GBR GEO GGY GHA GIB GIN GLP GMB GNB GNQ GRC GRD GRL"
+			+ " GTM GUF GUM GUY HKG HMD HND HRV HTI HUN IDN IMN IND IOT IRL IRN IRQ ISL ISR ITA JAM JEY JOR JPN KAZ KEN KGZ KHM KIR KNA KOR KWT LAO"
+			+ " LBN LBR LBY LCA LIE LKA LSO LTU LUX LVA MAC MAF MAR MCO MDA MDG MDV MEX MHL MKD MLI MLT MMR MNE MNG MNP MOZ MRT MSR MTQ MUS MWI MYS"
+			+ " MYT NAM NCL NER NFK NGA NIC NIU NLD NOR NPL NRU NZL OMN PAK PAN PCN PER PHL PLW PNG POL PRI PRK PRT PRY PSE PYF QAT REU ROU RUS RWA"
+			+ " SAU SDN SEN SGP SGS SHN SJM SLB SLE SLV SMR SOM SPM SRB SSD STP SUR SVK SVN SWE SWZ SXM SYC SYR TCA TCD TGO THA TJK TKL TKM TLS TON"
+			+ " TTO TUN TUR TUV TWN TZA UGA UKR UMI URY USA UZB VAT VCT VEN VGB VIR VNM VUT WLF WSM YEM ZAF ZMB ZWE"
+			// ICAO specials: Germany, British nationals, the European Union, UN, other organizations, stateless persons and refugees, specimens
+			+ " D<< GBD GBN GBO GBP GBS EUE UNO UNA UNK XBA XIM XCC XCE XCO XDC XEC XES XMP XOM XPO XSC XXA XXB XXC XXX RKS UTO").split(" ");
+
+	/**
+	 * The codes in the parsed form, by ID.
+	 */
+	private static final String[] CODES = new String[MRZ_CODES.length];
+
+	/**
+	 * The filler and the letters.
+	 */
+	private static final int SYMBOLS = 27;
+
+	/**
+	 * The ID of each code by its perfect hash, {@link #UNKNOWN} for free slots.
+	 */
+	private static final short[] IDS = new short[SYMBOLS * SYMBOLS * SYMBOLS];
+
+	static {
+		Arrays.fill(IDS, UNKNOWN);
+		for (short id = 0; id < MRZ_CODES.length; id++) {
+			final String code = MRZ_CODES[id].intern();
+			MRZ_CODES[id] = code;
+			int end = code.length();
+			while (end > 0 && code.charAt(end - 1) == '<') {
+				end--;
+			}
+			CODES[id] = code.substring(0, end).intern();
+			final int hash = hash(code, 0);
+			if (hash < 0 || IDS[hash] != UNKNOWN) {
+				throw new IllegalStateException("Invalid or duplicate country code " + code);
+			}
+			IDS[hash] = id;
+		}
+	}
+
+	/**
+	 * Prevent instantiation.
+	 */
+	private MrzCountryCode() {
+		// Do nothing
+	}
+
+	/**
+	 * @param c the character
+	 * @return 0 for the filler, 1-26 for letters, -1 otherwise
+	 */
+	private static int symbol(final char c) {
+		if (c >= 'A' && c <= 'Z') {
+			return c - 'A' + 1;
+		}
+		return c == '<' ? 0 : -1;
+	}
+
+	/**
+	 * @param sequence the characters
+	 * @param start the start of the three characters
+	 * @return the table index, -1 if a character is neither a letter nor a filler
+	 */
+	private static int hash(final CharSequence sequence, final int start) {
+		final int a = symbol(sequence.charAt(start));
+		final int b = symbol(sequence.charAt(start + 1));
+		final int c = symbol(sequence.charAt(start + 2));
+		if ((a | b | c) < 0) {
+			return -1;
+		}
+		return (a * SYMBOLS + b) * SYMBOLS + c;
+	}
+
+	/**
+	 * Looks up a code in the MRZ form, for example straight in the MRZ row.
+	 *
+	 * @param sequence the characters
+	 * @param start the start of the three characters of the code
+	 * @return the ID, {@link #UNKNOWN} if not a known code
+	 */
+	public static short getId(final CharSequence sequence, final int start) {
+		final int hash = hash(sequence, start);
+		return hash < 0 ? UNKNOWN : IDS[hash];
+	}
+
+	/**
+	 * Looks up a code in the MRZ or the parsed form: codes shorter than three characters are padded with fillers.
+	 *
+	 * @param code the code, may be null
+	 * @return the ID, {@link #UNKNOWN} if not a known code
+	 */
+	public static short getId(final CharSequence code) {
+		if (code == null || code.length() == 0 || code.length() > 3) {
+			return UNKNOWN;
+		}
+		int hash = 0;
+		for (int i = 0; i < 3; i++) {
+			final int symbol = i < code.length() ? symbol(code.charAt(i)) : 0;
+			if (symbol < 0) {
+				return UNKNOWN;
+			}
+			hash = hash * SYMBOLS + symbol;
+		}
+		return IDS[hash];
+	}
+
+	/**
+	 * @param code the code
+	 * @return true if the code is in the table
+	 */
+	public static boolean isKnown(final CharSequence code) {
+		return getId(code) != UNKNOWN;
+	}
+
+	/**
+	 * @param id the ID
+	 * @return the shared instance of the code in the parsed form, e.g. {@code D} for Germany
+	 * @throws IllegalArgumentException invalid ID
+	 */
+	public static String getCode(final short id) {
+		checkId(id);
+		return CODES[id];
+	}
+
+	/**
+	 * @param id the ID
+	 * @return the shared instance of the code in the MRZ form, e.g. {@code D<<} for Germany
+	 * @throws IllegalArgumentException invalid ID
+	 */
+	public static String getMrz(final short id) {
+		checkId(id);
+		return MRZ_CODES[id];
+	}
+
+	/**
+	 * @param code the code, may be null
+	 * @return the shared instance of given code if known, the code itself otherwise
+	 */
+	public static String canonical(final String code) {
+		final short id = getId(code);
+		return id == UNKNOWN ? code : CODES[id];
+	}
+
+	/**
+	 * @return the number of codes, IDs range from 0 to this number, exclusive
+	 */
+	public static int size() {
+		return CODES.length;
+	}
+
+	/**
+	 * @param id the ID
+	 * @throws IllegalArgumentException invalid ID
+	 */
+	private static void checkId(final short id) {
+		if (id < 0 || id >= CODES.length) {
+			throw new IllegalArgumentException("Invalid country code ID " + id);
+		}
+	}
+}
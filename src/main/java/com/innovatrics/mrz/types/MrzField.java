@@ -0,0 +1,79 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.types;
+
+/**
+ * Lists the logical fields of a MRZ record. Not every format carries every field.
+ */
+public enum MrzField {
+
+	/**
+	 * Document code, e.g. P&lt; or ID.
+	 */
+	DOCUMENT_CODE,
+	/**
+	 * Issuing state or organization.
+	 */
+	ISSUING_COUNTRY,
+	/**
+	 * Surname (primary identifier).
+	 */
+	SURNAME,
+	/**
+	 * Given names (secondary identifier).
+	 */
+	GIVEN_NAMES,
+	/**
+	 * Document number.
+	 */
+	DOCUMENT_NUMBER,
+	/**
+	 * Nationality.
+	 */
+	NATIONALITY,
+	/**
+	 * Date of birth.
+	 */
+	DATE_OF_BIRTH,
+	/**
+	 * Sex.
+	 */
+	SEX,
+	/**
+	 * Date of expiry.
+	 */
+	EXPIRATION_DATE,
+	/**
+	 * Personal number.
+	 */
+	PERSONAL_NUMBER,
+	/**
+	 * Optional data at the discretion of the issuing state.
+	 */
+	OPTIONAL,
+	/**
+	 * Second optional data element (TD1 only).
+	 */
+	OPTIONAL2,
+	/**
+	 * The composite check digit, protecting several fields at once.
+	 */
+	COMPOSITE;
+
+}
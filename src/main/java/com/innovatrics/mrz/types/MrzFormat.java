@@ -19,7 +19,6 @@
 package com.innovatrics.mrz.types;
 
 import com.innovatrics.mrz.MrzParseException;
-import com.innovatrics.mrz.MrzRange;
 import com.innovatrics.mrz.MrzRecord;
 import com.innovatrics.mrz.records.FrenchIdCard;
 import com.innovatrics.mrz.records.MRP;
@@ -28,9 +27,10 @@ import com.innovatrics.mrz.records.MrtdTd2;
 import com.innovatrics.mrz.records.MrvA;
 import com.innovatrics.mrz.records.MrvB;
 import com.innovatrics.mrz.records.SlovakId2x34;
+import java.util.function.Supplier;
 
 /**
- * Lists all supported MRZ formats. Note that the order of the enum constants are important, see for example {@link  #FRENCH_ID}.
+ * Lists all supported MRZ formats. Formats are resolved by the {@link MrzFormatRegistry}, which also accepts national variants.
  *
  * @author Martin Vysny, Pierrick Martin
  */
@@ -39,70 +39,51 @@ public enum MrzFormat {
 	/**
 	 * MRTD td1 format: A three line long, 30 characters per line format.
 	 */
-	MRTD_TD1(3, 30, MrtdTd1.class),
+	MRTD_TD1(3, 30, "", MrtdTd1.class, MrtdTd1::new),
 	/**
-	 * French 2 line/36 characters per line format, used with French ID cards. Need to occur before the {@link #MRTD_TD2} enum constant because of the
-	 * same values for row/column. See below for the "if" test.
+	 * French 2 line/36 characters per line format, used with French ID cards. Takes precedence over {@link #MRTD_TD2}, which has the same
+	 * values for row/column, for MRZs starting with IDFRA.
 	 */
-	FRENCH_ID(2, 36, FrenchIdCard.class) {
-
-		@Override
-		public boolean isFormatOf(final String[] mrzRows) {
-			if (!super.isFormatOf(mrzRows)) {
-				return false;
-			}
-			return mrzRows[0].substring(0, 5).equals("IDFRA");
-		}
-	},
+	FRENCH_ID(2, 36, "IDFRA", FrenchIdCard.class, FrenchIdCard::new),
 	/**
-	 * MRV type-B format: A two lines long, 36 characters per line format. Need to occur before the {@link #MRTD_TD2} enum constant because of the
-	 * same values for row/column. See below for the "if" test.
+	 * MRV type-B format: A two lines long, 36 characters per line format. Takes precedence over {@link #MRTD_TD2}, which has the same values
+	 * for row/column, for MRZs starting with V.
 	 */
-	MRV_VISA_B(2, 36, MrvB.class) {
-
-		@Override
-		public boolean isFormatOf(final String[] mrzRows) {
-			if (!super.isFormatOf(mrzRows)) {
-				return false;
-			}
-			return mrzRows[0].substring(0, 1).equals("V");
-		}
-	},
+	MRV_VISA_B(2, 36, "V", MrvB.class, MrvB::new),
 	/**
 	 * MRTD td2 format: A two line long, 36 characters per line format.
 	 */
-	MRTD_TD2(2, 36, MrtdTd2.class),
+	MRTD_TD2(2, 36, "", MrtdTd2.class, MrtdTd2::new),
 	/**
-	 * MRV type-A format: A two lines long, 44 characters per line format Need to occur before {@link #PASSPORT} constant because of the same values
-	 * for row/column. See below for the "if" test.
+	 * MRV type-A format: A two lines long, 44 characters per line format. Takes precedence over {@link #PASSPORT}, which has the same values
+	 * for row/column, for MRZs starting with V.
 	 */
-	MRV_VISA_A(2, 44, MrvA.class) {
-
-		@Override
-		public boolean isFormatOf(final String[] mrzRows) {
-			if (!super.isFormatOf(mrzRows)) {
-				return false;
-			}
-			return mrzRows[0].substring(0, 1).equals("V");
-		}
-	},
+	MRV_VISA_A(2, 44, "V", MrvA.class, MrvA::new),
 	/**
 	 * MRP Passport format: A two line long, 44 characters per line format.
 	 */
-	PASSPORT(2, 44, MRP.class),
+	PASSPORT(2, 44, "", MRP.class, MRP::new),
 	/**
 	 * Unknown 2 line/34 characters per line format, used with old Slovak ID cards.
 	 */
-	SLOVAK_ID_234(2, 34, SlovakId2x34.class);
+	SLOVAK_ID_234(2, 34, "", SlovakId2x34.class, SlovakId2x34::new);
 
 	private final int rows;
 	private final int columns;
+	/**
+	 * The leading characters of the first row, empty if any.
+	 */
+	private final String prefix;
 	private final Class<? extends MrzRecord> recordClass;
+	private final Supplier<MrzRecord> records;
 
-	private MrzFormat(final int rows, final int columns, final Class<? extends MrzRecord> recordClass) {
+	private MrzFormat(final int rows, final int columns, final String prefix, final Class<? extends MrzRecord> recordClass,
+			final Supplier<MrzRecord> records) {
 		this.rows = rows;
 		this.columns = columns;
+		this.prefix = prefix;
 		this.recordClass = recordClass;
+		this.records = records;
 	}
 
 	/**
@@ -119,6 +100,13 @@ public enum MrzFormat {
 		return columns;
 	}
 
+	/**
+	 * @return the leading characters of the first row, empty if any
+	 */
+	final String getPrefix() {
+		return prefix;
+	}
+
 	/**
 	 * @return the recordClass
 	 */
@@ -133,30 +121,60 @@ public enum MrzFormat {
 	 * @return true if given MRZ record is of this type, false otherwise.
 	 */
 	public boolean isFormatOf(final String[] mrzRows) {
-		return getRows() == mrzRows.length && getColumns() == mrzRows[0].length();
+		return isFormatOf(mrzRows.length, mrzRows[0].length(), mrzRows[0]);
+	}
+
+	/**
+	 * Checks if this format is able to parse a MRZ record of given dimensions and first row.
+	 *
+	 * @param rowCount the number of rows.
+	 * @param columnCount the number of characters per row.
+	 * @param firstRow the first row, or at least its first five characters.
+	 * @return true if given MRZ record is of this type, false otherwise.
+	 */
+	public boolean isFormatOf(final int rowCount, final int columnCount, final CharSequence firstRow) {
+		return getRows() == rowCount && getColumns() == columnCount && startsWith(firstRow, prefix);
 	}
 
 	/**
-	 * Detects given MRZ format.
+	 * Detects the format of a MRZ record of given dimensions and first row, without splitting the record into rows.
+	 *
+	 * @param rowCount the number of rows.
+	 * @param columnCount the number of characters per row.
+	 * @param firstRow the first row, or at least its first five characters.
+	 * @return the format, or null if no format has given dimensions.
+	 */
+	public static MrzFormat get(final int rowCount, final int columnCount, final CharSequence firstRow) {
+		final MrzFormatDefinition definition = MrzFormatRegistry.get(rowCount, columnCount, firstRow);
+		return definition == null ? null : definition.getFormat();
+	}
+
+	/**
+	 * @param sequence the character sequence
+	 * @param prefix the prefix
+	 * @return true if the sequence starts with given prefix
+	 */
+	private static boolean startsWith(final CharSequence sequence, final String prefix) {
+		if (sequence.length() < prefix.length()) {
+			return false;
+		}
+		for (int i = 0; i < prefix.length(); i++) {
+			if (sequence.charAt(i) != prefix.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Detects given MRZ format, see {@link MrzFormatRegistry#get(String)}.
 	 *
 	 * @param mrz the MRZ string.
 	 * @return the format, never null.
 	 * @throws MrzParseException could not parse MRZ
 	 */
 	public static final MrzFormat get(final String mrz) throws MrzParseException {
-		final String[] rows = mrz.split("\n");
-		final int cols = rows[0].length();
-		for (int i = 1; i < rows.length; i++) {
-			if (rows[i].length() != cols) {
-				throw new MrzParseException("Different row lengths: 0: " + cols + " and " + i + ": " + rows[i].length(), mrz, new MrzRange(0, 0, 0), null);
-			}
-		}
-		for (final MrzFormat f : values()) {
-			if (f.isFormatOf(rows)) {
-				return f;
-			}
-		}
-		throw new MrzParseException("Unknown format / unsupported number of cols/rows: " + cols + "/" + rows.length, mrz, new MrzRange(0, 0, 0), null);
+		return MrzFormatRegistry.get(mrz).getFormat();
 	}
 
 	/**
@@ -165,11 +183,7 @@ public enum MrzFormat {
 	 * @return never null record instance.
 	 */
 	public final MrzRecord newRecord() {
-		try {
-			return getRecordClass().newInstance();
-		} catch (Exception ex) {
-			throw new IllegalStateException(ex);
-		}
+		return records.get();
 	}
 
 }
@@ -0,0 +1,102 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.types;
+
+import com.innovatrics.mrz.MrzRecord;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * An entry of the {@link MrzFormatRegistry}: MRZs of the rows and columns of a {@link MrzFormat} whose first row starts with a prefix are
+ * read into records created by a supplier.
+ * <p>
+ * A national variant reuses the geometry of a base format, e.g. a TD1 card of a country with its own record class:
+ * {@code new MrzFormatDefinition(MrzFormat.MRTD_TD1, "I<XYZ", XyzIdCard::new)}, where {@code XyzIdCard} extends
+ * {@link com.innovatrics.mrz.records.MrtdTd1}.
+ * </p>
+ */
+public final class MrzFormatDefinition {
+
+	private final MrzFormat format;
+	private final String prefix;
+	private final Supplier<? extends MrzRecord> records;
+
+	/**
+	 * @param format the base format, giving the rows and columns; records created by the supplier must be of this format
+	 * @param prefix the leading characters of the first row, empty to match any MRZ of the base format geometry
+	 * @param records creates the records
+	 */
+	public MrzFormatDefinition(final MrzFormat format, final String prefix, final Supplier<? extends MrzRecord> records) {
+		this.format = Objects.requireNonNull(format, "format");
+		this.prefix = Objects.requireNonNull(prefix, "prefix");
+		this.records = Objects.requireNonNull(records, "records");
+		if (prefix.length() > format.getColumns()) {
+			throw new IllegalArgumentException("Prefix " + prefix + " longer than a row of " + format);
+		}
+	}
+
+	/**
+	 * @return the base format
+	 */
+	public MrzFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * @return the leading characters of the first row, may be empty
+	 */
+	public String getPrefix() {
+		return prefix;
+	}
+
+	/**
+	 * @param rowCount the number of rows
+	 * @param columnCount the number of characters per row
+	 * @param firstRow the first row, or at least its leading characters
+	 * @return true if this definition reads MRZs of given dimensions and first row
+	 */
+	public boolean matches(final int rowCount, final int columnCount, final CharSequence firstRow) {
+		if (format.getRows() != rowCount || format.getColumns() != columnCount || firstRow.length() < prefix.length()) {
+			return false;
+		}
+		for (int i = 0; i < prefix.length(); i++) {
+			if (firstRow.charAt(i) != prefix.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return a new empty record
+	 * @throws IllegalStateException the supplier created a record of another format
+	 */
+	public MrzRecord newRecord() {
+		final MrzRecord record = records.get();
+		if (record.getFormat() != format) {
+			throw new IllegalStateException("Definition of " + this + " created a record of format " + record.getFormat());
+		}
+		return record;
+	}
+
+	@Override
+	public String toString() {
+		return format + (prefix.isEmpty() ? "" : "[" + prefix + "]");
+	}
+}
@@ -0,0 +1,42 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.types;
+
+import com.innovatrics.mrz.MrzProfile;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Contributes formats to the {@link MrzFormatRegistry} and national profiles to {@link MrzProfile}, looked up with
+ * {@link java.util.ServiceLoader}: list the implementation class in {@code META-INF/services/com.innovatrics.mrz.types.MrzFormatProvider}.
+ */
+public interface MrzFormatProvider {
+
+	/**
+	 * @return the formats to register
+	 */
+	Collection<MrzFormatDefinition> getFormats();
+
+	/**
+	 * @return the country or document profiles to register
+	 */
+	default Collection<MrzProfile> getProfiles() {
+		return Collections.emptyList();
+	}
+}
@@ -0,0 +1,229 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.types;
+
+import com.innovatrics.mrz.MrzParseException;
+import com.innovatrics.mrz.MrzRange;
+import com.innovatrics.mrz.jfr.MrzFlightRecorder;
+import com.innovatrics.mrz.metrics.MrzFailure;
+import com.innovatrics.mrz.metrics.MrzStage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resolves the {@link MrzFormatDefinition} of an MRZ from its rows, columns and leading characters with a table lookup.
+ * <p>
+ * Holds a definition for every {@link MrzFormat}, the definitions of the {@link MrzFormatProvider}s found by {@link ServiceLoader} and
+ * the definitions {@link #register(MrzFormatDefinition) registered} at runtime. When several definitions match an MRZ, the one with the
+ * longest prefix wins, then the one registered last, so a provider definition overrides a built-in one with the same prefix. A definition
+ * registered at runtime replaces any definition of the same format and prefix.
+ * </p>
+ */
+public final class MrzFormatRegistry {
+
+	private static final Logger LOG = LoggerFactory.getLogger(MrzFormatRegistry.class);
+
+	private static final int MAX_ROWS = 4;
+	private static final int MAX_COLUMNS = 64;
+	/**
+	 * The index of the candidates of a first row which is empty or does not start with an ASCII character.
+	 */
+	private static final int OTHER = 128;
+
+	/**
+	 * All definitions, in registration order. Guarded by the class lock.
+	 */
+	private static final List<MrzFormatDefinition> DEFINITIONS = new ArrayList<>();
+
+	/**
+	 * The candidate definitions by rows * {@link #MAX_COLUMNS} + columns, then by the first character of the first row, in the order of
+	 * precedence. Rebuilt on registration.
+	 */
+	private static final AtomicReference<MrzFormatDefinition[][][]> TABLE = new AtomicReference<>();
+
+	static {
+		for (final MrzFormat format : MrzFormat.values()) {
+			DEFINITIONS.add(new MrzFormatDefinition(format, format.getPrefix(), format::newRecord));
+		}
+		try {
+			for (final MrzFormatProvider provider : ServiceLoader.load(MrzFormatProvider.class)) {
+				DEFINITIONS.addAll(provider.getFormats());
+			}
+		} catch (ServiceConfigurationError e) {
+			LOG.warn("Failed to load MRZ format providers", e);
+		}
+		TABLE.set(build(DEFINITIONS));
+	}
+
+	/**
+	 * Prevent instantiation.
+	 */
+	private MrzFormatRegistry() {
+		// Do nothing
+	}
+
+	/**
+	 * Registers a definition, replacing the definition of the same format and prefix.
+	 *
+	 * @param definition the definition to add
+	 */
+	public static synchronized void register(final MrzFormatDefinition definition) {
+		for (int i = DEFINITIONS.size() - 1; i >= 0; i--) {
+			final MrzFormatDefinition registered = DEFINITIONS.get(i);
+			if (registered.getFormat() == definition.getFormat() && registered.getPrefix().equals(definition.getPrefix())) {
+				DEFINITIONS.remove(i);
+			}
+		}
+		DEFINITIONS.add(definition);
+		TABLE.set(build(DEFINITIONS));
+	}
+
+	/**
+	 * @return all definitions, in registration order
+	 */
+	public static synchronized List<MrzFormatDefinition> getDefinitions() {
+		return Collections.unmodifiableList(new ArrayList<>(DEFINITIONS));
+	}
+
+	/**
+	 * @param rowCount the number of rows
+	 * @param columnCount the number of characters per row
+	 * @param firstRow the first row, or at least its leading characters
+	 * @return the definition of an MRZ of given dimensions and first row, null if none
+	 */
+	public static MrzFormatDefinition get(final int rowCount, final int columnCount, final CharSequence firstRow) {
+		if (rowCount <= 0 || rowCount >= MAX_ROWS || columnCount < 0 || columnCount >= MAX_COLUMNS) {
+			return null;
+		}
+		final MrzFormatDefinition[][] byFirstChar = TABLE.get()[rowCount * MAX_COLUMNS + columnCount];
+		if (byFirstChar == null) {
+			return null;
+		}
+		final char first = firstRow.length() == 0 ? OTHER : firstRow.charAt(0);
+		for (final MrzFormatDefinition definition : byFirstChar[first < OTHER ? first : OTHER]) {
+			if (definition.matches(rowCount, columnCount, firstRow)) {
+				return definition;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Resolves the definition of an MRZ, rows separated by newlines, counting the rows in place.
+	 *
+	 * @param mrz the MRZ string.
+	 * @return the definition, never null.
+	 * @throws MrzParseException rows of different lengths or no definition matches
+	 */
+	public static MrzFormatDefinition get(final String mrz) throws MrzParseException {
+		if (!MrzFlightRecorder.isRecording()) {
+			return detect(mrz);
+		}
+		final Object event = MrzFlightRecorder.begin(MrzStage.DETECT);
+		MrzFormat format = null;
+		try {
+			final MrzFormatDefinition definition = detect(mrz);
+			format = definition.getFormat();
+			return definition;
+		} finally {
+			MrzFlightRecorder.end(event, format, mrz.length(), format == null ? MrzFailure.UNSUPPORTED_FORMAT : null);
+		}
+	}
+
+	/**
+	 * @param mrz the MRZ string.
+	 * @return the definition, never null.
+	 * @throws MrzParseException rows of different lengths or no definition matches
+	 */
+	private static MrzFormatDefinition detect(final String mrz) throws MrzParseException {
+		// Trailing newlines do not make rows, as with String.split
+		int end = mrz.length();
+		while (end > 0 && mrz.charAt(end - 1) == '\n') {
+			end--;
+		}
+		int cols = 0;
+		int rowCount = 0;
+		int start = 0;
+		while (true) {
+			final int newline = mrz.indexOf('\n', start);
+			final int rowEnd = newline < 0 || newline > end ? end : newline;
+			final int length = rowEnd - start;
+			if (rowCount == 0) {
+				cols = length;
+			} else if (length != cols) {
+				throw new MrzParseException("Different row lengths: 0: " + cols + " and " + rowCount + ": " + length, mrz, new MrzRange(0, 0, 0),
+						null);
+			}
+			rowCount++;
+			if (rowEnd == end) {
+				break;
+			}
+			start = rowEnd + 1;
+		}
+		final MrzFormatDefinition definition = get(rowCount, cols, mrz);
+		if (definition == null) {
+			throw new MrzParseException("Unknown format / unsupported number of cols/rows: " + cols + "/" + rowCount, mrz, new MrzRange(0, 0, 0),
+					null);
+		}
+		return definition;
+	}
+
+	/**
+	 * @param definitions the definitions, in registration order
+	 * @return the lookup table
+	 */
+	private static MrzFormatDefinition[][][] build(final List<MrzFormatDefinition> definitions) {
+		// Longest prefix first, then the last registered first
+		final List<MrzFormatDefinition> ordered = new ArrayList<>(definitions);
+		Collections.reverse(ordered);
+		ordered.sort(Comparator.comparingInt((MrzFormatDefinition d) -> d.getPrefix().length()).reversed());
+
+		final MrzFormatDefinition[][][] result = new MrzFormatDefinition[MAX_ROWS * MAX_COLUMNS][][];
+		for (int shape = 0; shape < result.length; shape++) {
+			final int rows = shape / MAX_COLUMNS;
+			final int columns = shape % MAX_COLUMNS;
+			boolean any = false;
+			final MrzFormatDefinition[][] byFirstChar = new MrzFormatDefinition[OTHER + 1][];
+			for (int c = 0; c <= OTHER; c++) {
+				final List<MrzFormatDefinition> candidates = new ArrayList<>();
+				for (final MrzFormatDefinition definition : ordered) {
+					final MrzFormat format = definition.getFormat();
+					final String prefix = definition.getPrefix();
+					if (format.getRows() == rows && format.getColumns() == columns && (prefix.isEmpty() || c == OTHER && prefix.charAt(0) >= OTHER
+							|| prefix.charAt(0) == c)) {
+						candidates.add(definition);
+					}
+				}
+				byFirstChar[c] = candidates.toArray(new MrzFormatDefinition[0]);
+				any |= !candidates.isEmpty();
+			}
+			if (any) {
+				result[shape] = byFirstChar;
+			}
+		}
+		return result;
+	}
+}
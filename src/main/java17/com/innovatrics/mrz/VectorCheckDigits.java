@@ -0,0 +1,116 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API kernel of {@link MrzCheckDigits}.
+ * <p>
+ * Each range is processed 16 characters at a time: the bytes are loaded into one vector, mapped to their values with lane-wise compares and
+ * blends, widened to 16-bit lanes and multiplied by the 7, 3, 1 weights laid out as lanes. The products accumulate lane-wise and are summed
+ * across the lanes once per range. Lanes past the end of the range have a weight of 0 and are not validated. Ranges longer than 128
+ * characters, and MRZs too close to the end of the buffer for a full load, fall back to the scalar kernel.
+ * </p>
+ */
+final class VectorCheckDigits {
+
+	private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_128;
+	private static final VectorSpecies<Short> SHORTS = ShortVector.SPECIES_256;
+	private static final int LANES = BYTES.length();
+	/**
+	 * The longest range summed in 16-bit lanes: 128 characters of value 35 at weight 7 stay below {@link Short#MAX_VALUE}.
+	 */
+	private static final int MAX_LENGTH = 128;
+
+	/**
+	 * The weights of a chunk of n characters starting with weight p at index p * (LANES + 1) + n, 0 past the n characters.
+	 */
+	private static final short[][] WEIGHTS = new short[MrzParser.MRZ_WEIGHTS.length * (LANES + 1)][LANES];
+
+	static {
+		for (int p = 0; p < MrzParser.MRZ_WEIGHTS.length; p++) {
+			for (int n = 0; n <= LANES; n++) {
+				for (int i = 0; i < n; i++) {
+					WEIGHTS[p * (LANES + 1) + n][i] = (short) MrzParser.MRZ_WEIGHTS[(p + i) % MrzParser.MRZ_WEIGHTS.length];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Prevent instantiation.
+	 */
+	private VectorCheckDigits() {
+		// Do nothing
+	}
+
+	/**
+	 * Adds the weighted sum of a contiguous range of each MRZ to its sum.
+	 *
+	 * @param data the ASCII bytes of the MRZs
+	 * @param offset the offset of the range in the first MRZ
+	 * @param stride the distance between two MRZs
+	 * @param count the number of MRZs
+	 * @param length the length of the range
+	 * @param phase the index of the weight of the first character, 0..2
+	 * @param sums the sum of each MRZ, {@link MrzCheckDigits#INVALID} if an invalid character was found
+	 */
+	static void sums(final byte[] data, final int offset, final int stride, final int count, final int length, final int phase,
+			final int[] sums) {
+		// Chunks are loaded whole, so MRZs reaching the last LANES bytes are summed by the scalar kernel
+		final int vectorEnd = length > MAX_LENGTH ? -1 : data.length - ((length + LANES - 1) / LANES) * LANES;
+		for (int i = 0, start = offset; i < count; i++, start += stride) {
+			final int sum = start <= vectorEnd ? sum(data, start, length, phase) : MrzCheckDigits.sum(data, start, length, phase);
+			sums[i] = sums[i] < 0 || sum < 0 ? MrzCheckDigits.INVALID : sums[i] + sum;
+		}
+	}
+
+	/**
+	 * @param data the ASCII bytes, with at least the length of the range rounded up to the lanes available from the start
+	 * @param start the start of the range
+	 * @param length the length of the range
+	 * @param phase the index of the weight of the first character, 0..2
+	 * @return the weighted sum of the range, {@link MrzCheckDigits#INVALID} if it holds an invalid character
+	 */
+	private static int sum(final byte[] data, final int start, final int length, final int phase) {
+		ShortVector sum = ShortVector.zero(SHORTS);
+		VectorMask<Byte> invalid = BYTES.maskAll(false);
+		int p = phase;
+		for (int j = 0; j < length; j += LANES) {
+			final int n = Math.min(LANES, length - j);
+			final ByteVector chars = ByteVector.fromArray(BYTES, data, start + j);
+			final ByteVector digits = chars.sub((byte) '0');
+			final ByteVector letters = chars.sub((byte) ('A' - 10));
+			final VectorMask<Byte> isDigit = digits.compare(VectorOperators.UNSIGNED_LT, (byte) 10);
+			final VectorMask<Byte> isLetter = chars.sub((byte) 'A').compare(VectorOperators.UNSIGNED_LT, (byte) 26);
+			final VectorMask<Byte> isFiller = chars.compare(VectorOperators.EQ, (byte) MrzParser.FILLER);
+			invalid = invalid.or(isDigit.or(isLetter).or(isFiller).not().and(BYTES.indexInRange(0, n)));
+			final ByteVector values = ByteVector.zero(BYTES).blend(digits, isDigit).blend(letters, isLetter);
+			final ShortVector weights = ShortVector.fromArray(SHORTS, WEIGHTS[p * (LANES + 1) + n], 0);
+			sum = sum.add(((ShortVector) values.convertShape(VectorOperators.B2S, SHORTS, 0)).mul(weights));
+			p = (p + n) % MrzParser.MRZ_WEIGHTS.length;
+		}
+		return invalid.anyTrue() ? MrzCheckDigits.INVALID : sum.reduceLanes(VectorOperators.ADD);
+	}
+}
@@ -0,0 +1,164 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz;
+
+import com.innovatrics.mrz.corpus.MrzCorpusGenerator;
+import com.innovatrics.mrz.types.MrzField;
+import com.innovatrics.mrz.types.MrzFormat;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Properties;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks the bytes allocated per operation of the detection, parsing, check digit and encoding paths of every format against the budgets of
+ * {@code allocation-budgets.properties}, with keys in the form of {@code parse.PASSPORT=12000}.
+ * <p>
+ * The allocation is read with {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)} around runs of {@value #OPERATIONS}
+ * operations, after a warm-up long enough for the JIT to compile and remove allocations it can eliminate. The lowest of {@value #ROUNDS} runs
+ * is kept, as a run may still see code the JIT has not finished optimizing. The test is skipped on JVMs which do not measure allocated bytes
+ * per thread.
+ * </p>
+ */
+public class AllocationBudgetTest {
+
+	private static final String BUDGETS = "/allocation-budgets.properties";
+	private static final long SEED = 9303;
+	private static final int SIZE = 1024;
+	private static final int MASK = SIZE - 1;
+	private static final int WARMUP = 50_000;
+	private static final int OPERATIONS = 20_000;
+	private static final int ROUNDS = 5;
+	private static final MrzProjection GATE = MrzProjection.of(EnumSet.of(MrzField.DOCUMENT_NUMBER, MrzField.EXPIRATION_DATE));
+
+	private final long threadId = Thread.currentThread().getId();
+	private final MrzEncoder encoder = new MrzEncoder(false);
+	private final char[] buffer = new char[128];
+	private final Properties budgets = new Properties();
+	private com.sun.management.ThreadMXBean threads;
+	private int sink;
+
+	/**
+	 * An operation on the input of given index.
+	 */
+	private interface Operation {
+
+		/**
+		 * @param index the index of the input, already wrapped
+		 * @return the result, consumed so that the operation is not eliminated
+		 * @throws MrzParseException malformed input
+		 */
+		Object run(int index) throws MrzParseException;
+	}
+
+	/**
+	 * @throws IOException failed to read the budgets
+	 */
+	@Before
+	public void setUp() throws IOException {
+		Assume.assumeTrue("This JVM does not measure allocated bytes per thread",
+				ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+		threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue("This JVM does not measure allocated bytes per thread", threads.isThreadAllocatedMemorySupported());
+		threads.setThreadAllocatedMemoryEnabled(true);
+		try (InputStream in = AllocationBudgetTest.class.getResourceAsStream(BUDGETS)) {
+			Assert.assertNotNull("Missing " + BUDGETS, in);
+			budgets.load(in);
+		}
+	}
+
+	/**
+	 * @throws MrzParseException a generated MRZ is malformed
+	 */
+	@Test
+	public void testAllocationWithinBudget() throws MrzParseException {
+		final StringBuilder failures = new StringBuilder();
+		for (final MrzFormat format : MrzFormat.values()) {
+			final String[] mrz = new String[SIZE];
+			final MrzRecord[] records = new MrzRecord[SIZE];
+			final MrzCorpusGenerator generator = new MrzCorpusGenerator(SEED, format);
+			generator.setCorruptionRate(0);
+			for (int i = 0; i < SIZE; i++) {
+				mrz[i] = generator.generate(i).getMrz();
+				records[i] = MrzParser.parse(mrz[i]);
+			}
+			check(failures, "detect", format, i -> MrzFormat.get(mrz[i]));
+			check(failures, "parse", format, i -> MrzParser.parse(mrz[i]));
+			check(failures, "parseProjected", format, i -> GATE.parse(mrz[i]));
+			check(failures, "checkDigit", format, i -> MrzParser.computeCheckDigit(records[i].getDocumentNumber()));
+			check(failures, "encode", format, i -> records[i].toMrz());
+			check(failures, "encodeInto", format, i -> encoder.encode(records[i], buffer, 0));
+		}
+		Assert.assertTrue("Paths over the allocation budget of " + BUDGETS + ":" + failures, failures.length() == 0);
+	}
+
+	/**
+	 * @param failures receives a line per path over or without a budget
+	 * @param path the name of the path
+	 * @param format the format of the inputs
+	 * @param operation the operation
+	 * @throws MrzParseException a generated MRZ is malformed
+	 */
+	private void check(final StringBuilder failures, final String path, final MrzFormat format, final Operation operation)
+			throws MrzParseException {
+		final double bytes = measure(operation);
+		final String budget = budgets.getProperty(path + "." + format);
+		if (budget == null) {
+			failures.append(String.format(Locale.ROOT, "%n%s.%s: %.1f B/op, no budget", path, format, bytes));
+		} else if (bytes > Double.parseDouble(budget)) {
+			failures.append(String.format(Locale.ROOT, "%n%s.%s: %.1f B/op, budget %s", path, format, bytes, budget));
+		}
+	}
+
+	/**
+	 * @param operation the operation
+	 * @return the lowest bytes allocated per operation of all runs, after the warm-up
+	 * @throws MrzParseException a generated MRZ is malformed
+	 */
+	private double measure(final Operation operation) throws MrzParseException {
+		run(operation, WARMUP);
+		long lowest = Long.MAX_VALUE;
+		for (int round = 0; round < ROUNDS; round++) {
+			final long before = threads.getThreadAllocatedBytes(threadId);
+			run(operation, OPERATIONS);
+			lowest = Math.min(lowest, threads.getThreadAllocatedBytes(threadId) - before);
+		}
+		return (double) lowest / OPERATIONS;
+	}
+
+	/**
+	 * @param operation the operation
+	 * @param count the number of operations to run
+	 * @throws MrzParseException a generated MRZ is malformed
+	 */
+	private void run(final Operation operation, final int count) throws MrzParseException {
+		int result = sink;
+		for (int i = 0; i < count; i++) {
+			result += System.identityHashCode(operation.run(i & MASK));
+		}
+		sink = result;
+	}
+
+}
@@ -0,0 +1,96 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz;
+
+import com.innovatrics.mrz.types.MrzCountryCode;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests {@link MrzCountryCode}.
+ */
+public class MrzCountryCodeTest {
+
+	private static final String TD3 = "P<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<<<<<<<<<\nL898902C36D<<7408122F1204159ZE184226B<<<<<10";
+
+	/**
+	 * Every code is found by its MRZ and parsed form, and IDs are stable.
+	 */
+	@Test
+	public void testTable() {
+		Assert.assertTrue(MrzCountryCode.size() > 250);
+		for (short id = 0; id < MrzCountryCode.size(); id++) {
+			Assert.assertEquals(id, MrzCountryCode.getId(MrzCountryCode.getMrz(id)));
+			Assert.assertEquals(id, MrzCountryCode.getId(MrzCountryCode.getCode(id)));
+			Assert.assertEquals(id, MrzCountryCode.getId("<<" + MrzCountryCode.getMrz(id), 2));
+		}
+		Assert.assertEquals(0, MrzCountryCode.getId("ABW"));
+		Assert.assertEquals("D", MrzCountryCode.getCode(MrzCountryCode.getId("D<<")));
+		Assert.assertEquals("D<<", MrzCountryCode.getMrz(MrzCountryCode.getId("D")));
+		Assert.assertTrue(MrzCountryCode.isKnown("XXA"));
+		Assert.assertTrue(MrzCountryCode.isKnown("UTO"));
+	}
+
+	/**
+	 * Codes not in the table, or not made of letters and fillers, are unknown.
+	 */
+	@Test
+	public void testUnknown() {
+		Assert.assertEquals(MrzCountryCode.UNKNOWN, MrzCountryCode.getId("QQQ"));
+		Assert.assertEquals(MrzCountryCode.UNKNOWN, MrzCountryCode.getId("uto"));
+		Assert.assertEquals(MrzCountryCode.UNKNOWN, MrzCountryCode.getId("U1O"));
+		Assert.assertEquals(MrzCountryCode.UNKNOWN, MrzCountryCode.getId("UTOO"));
+		Assert.assertEquals(MrzCountryCode.UNKNOWN, MrzCountryCode.getId(""));
+		Assert.assertEquals(MrzCountryCode.UNKNOWN, MrzCountryCode.getId(null));
+		Assert.assertEquals(MrzCountryCode.UNKNOWN, MrzCountryCode.getId("P<U TO", 3));
+		Assert.assertFalse(MrzCountryCode.isKnown("QQQ"));
+		try {
+			MrzCountryCode.getCode(MrzCountryCode.UNKNOWN);
+			Assert.fail("Returned the code of an unknown ID");
+		} catch (IllegalArgumentException ex) {
+			// expected
+		}
+		try {
+			MrzCountryCode.getMrz((short) MrzCountryCode.size());
+			Assert.fail("Returned the code of an ID past the table");
+		} catch (IllegalArgumentException ex) {
+			// expected
+		}
+	}
+
+	/**
+	 * Known codes are shared instances, in records as well; unknown codes are kept as they are.
+	 *
+	 * @throws MrzParseException malformed sample
+	 */
+	@Test
+	public void testCanonical() throws MrzParseException {
+		final short uto = MrzCountryCode.getId("UTO");
+		Assert.assertSame(MrzCountryCode.getCode(uto), MrzCountryCode.canonical(new String("UTO".toCharArray())));
+		final String unknown = new String("QQQ".toCharArray());
+		Assert.assertSame(unknown, MrzCountryCode.canonical(unknown));
+		Assert.assertNull(MrzCountryCode.canonical(null));
+
+		final MrzRecord record = MrzParser.parse(TD3);
+		Assert.assertSame(MrzCountryCode.getCode(uto), record.getIssuingCountry());
+		Assert.assertEquals(uto, record.getIssuingCountryId());
+		Assert.assertEquals("D", record.getNationality());
+		Assert.assertEquals(MrzCountryCode.getId("D<<"), record.getNationalityId());
+	}
+}
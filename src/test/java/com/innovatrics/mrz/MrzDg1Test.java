@@ -0,0 +1,186 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz;
+
+import com.innovatrics.mrz.types.MrzField;
+import com.innovatrics.mrz.types.MrzFormat;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests {@link MrzDg1}.
+ */
+public class MrzDg1Test {
+
+	private static final String TD3 = "P<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<<<<<<<<<\nL898902C36UTO7408122F1204159ZE184226B<<<<<10";
+	private static final String TD1 = "I<UTOD231458907<<<<<<<<<<<<<<<\n7408122F1204159UTO<<<<<<<<<<<6\nERIKSSON<<ANNA<MARIA<<<<<<<<<<";
+
+	/**
+	 * The MRZ is read from the DG1 template and from the bare MRZ data element.
+	 *
+	 * @throws MrzParseException malformed DG1
+	 */
+	@Test
+	public void testParse() throws MrzParseException {
+		final MrzRecord record = MrzDg1.parse(dg1(TD3));
+		Assert.assertEquals(MrzFormat.PASSPORT, record.getFormat());
+		Assert.assertEquals("L898902C3", record.getDocumentNumber());
+		Assert.assertEquals("ERIKSSON", record.getSurname());
+		Assert.assertTrue(record.isValidComposite());
+		Assert.assertEquals(TD3.replace('\n', '_'), record.getMrz());
+
+		final MrzRecord td1 = MrzDg1.parse(mrzElement(TD1));
+		Assert.assertEquals(MrzFormat.MRTD_TD1, td1.getFormat());
+		Assert.assertEquals("D23145890", td1.getDocumentNumber());
+	}
+
+	/**
+	 * DG1 is read at an offset of a larger buffer, skipping other data elements of the template.
+	 *
+	 * @throws MrzParseException malformed DG1
+	 */
+	@Test
+	public void testOffsetAndOtherElements() throws MrzParseException {
+		final byte[] mrz = mrzElement(TD3);
+		final ByteArrayOutputStream content = new ByteArrayOutputStream();
+		content.write(new byte[] {0x5F, 0x01, 0x02, 0x30, 0x31}, 0, 5);
+		content.write(mrz, 0, mrz.length);
+		final byte[] template = tlv(new byte[] {MrzDg1.TAG_DG1}, content.toByteArray());
+		final byte[] buffer = new byte[template.length + 7];
+		System.arraycopy(template, 0, buffer, 3, template.length);
+		Assert.assertEquals("L898902C3", MrzDg1.parse(buffer, 3, template.length).getDocumentNumber());
+		Assert.assertEquals(MrzFormat.PASSPORT, MrzDg1.getFormat(buffer, 3, template.length));
+	}
+
+	/**
+	 * Lengths of one, two and three bytes in the long form are read.
+	 *
+	 * @throws MrzParseException malformed DG1
+	 */
+	@Test
+	public void testLongFormLengths() throws MrzParseException {
+		final byte[] value = TD3.replace("\n", "").getBytes(StandardCharsets.US_ASCII);
+		for (int bytes = 1; bytes <= 3; bytes++) {
+			final ByteArrayOutputStream out = new ByteArrayOutputStream();
+			out.write(0x5F);
+			out.write(0x1F);
+			out.write(0x80 | bytes);
+			for (int i = bytes - 1; i >= 0; i--) {
+				out.write(value.length >> 8 * i);
+			}
+			out.write(value, 0, value.length);
+			final byte[] element = out.toByteArray();
+			final byte[] template = new byte[element.length + 4];
+			template[0] = MrzDg1.TAG_DG1;
+			template[1] = (byte) 0x82;
+			template[2] = (byte) (element.length >> 8);
+			template[3] = (byte) element.length;
+			System.arraycopy(element, 0, template, 4, element.length);
+			Assert.assertEquals("Length in " + bytes + " bytes", "L898902C3", MrzDg1.parse(template).getDocumentNumber());
+		}
+	}
+
+	/**
+	 * Truncated data, unsupported length encodings and MRZs of no known length are rejected.
+	 */
+	@Test
+	public void testMalformed() {
+		final byte[] dg1 = dg1(TD3);
+		// Value longer than the data
+		assertMalformed(Arrays.copyOf(dg1, dg1.length - 1), "Truncated");
+		// Cut inside the tag and inside the length
+		assertMalformed(new byte[] {MrzDg1.TAG_DG1}, "Truncated");
+		assertMalformed(new byte[] {0x5F}, "Truncated");
+		assertMalformed(new byte[] {0x5F, 0x1F, (byte) 0x82, 0x00}, "Truncated");
+		// Indefinite and four byte lengths
+		assertMalformed(new byte[] {0x5F, 0x1F, (byte) 0x80, 0x00}, "length encoding");
+		assertMalformed(new byte[] {0x5F, 0x1F, (byte) 0x84, 0x00, 0x00, 0x00, 0x01, 0x41}, "length encoding");
+		// Tag of more than three bytes
+		assertMalformed(new byte[] {0x5F, (byte) 0x9F, (byte) 0x9F, 0x01, 0x01, 0x41}, "tag too long");
+		// A template without MRZ and an MRZ of no known length
+		assertMalformed(tlv(new byte[] {MrzDg1.TAG_DG1}, new byte[] {0x5F, 0x01, 0x01, 0x30}), "No MRZ");
+		assertMalformed(tlv(new byte[] {0x5F, 0x1F}, "P<UTO".getBytes(StandardCharsets.US_ASCII)), "Unsupported MRZ length");
+	}
+
+	/**
+	 * The chip MRZ is compared with the printed one, with or without row separators, reporting the differing fields.
+	 *
+	 * @throws MrzParseException malformed DG1
+	 */
+	@Test
+	public void testCompare() throws MrzParseException {
+		final byte[] dg1 = dg1(TD3);
+		Assert.assertTrue(MrzDg1.compare(dg1, 0, dg1.length, TD3).isEmpty());
+		Assert.assertTrue(MrzDg1.compare(dg1, 0, dg1.length, TD3 + "\n").isEmpty());
+		Assert.assertTrue(MrzDg1.compare(dg1, 0, dg1.length, TD3.replace("\n", "")).isEmpty());
+
+		final String printed = TD3.replace("L898902C3", "L898902C4").replace("7408122F", "7408122M");
+		final Set<MrzField> diff = MrzDg1.compare(dg1, 0, dg1.length, printed);
+		Assert.assertEquals(EnumSet.of(MrzField.DOCUMENT_NUMBER, MrzField.SEX), diff);
+		final byte[] bytes = printed.getBytes(StandardCharsets.US_ASCII);
+		Assert.assertEquals(diff, MrzDg1.compare(dg1, 0, dg1.length, bytes, 0, bytes.length));
+
+		final String digit = TD3.substring(0, TD3.length() - 1) + '1';
+		Assert.assertEquals(EnumSet.of(MrzField.COMPOSITE), MrzDg1.compare(dg1, 0, dg1.length, digit));
+		try {
+			MrzDg1.compare(dg1, 0, dg1.length, TD1);
+			Assert.fail("Compared MRZs of different sizes");
+		} catch (MrzParseException ex) {
+			Assert.assertTrue(ex.getMessage(), ex.getMessage().contains("does not match"));
+		}
+	}
+
+	private static void assertMalformed(final byte[] dg1, final String message) {
+		try {
+			MrzDg1.parse(dg1);
+			Assert.fail("Parsed malformed DG1, expected " + message);
+		} catch (MrzParseException ex) {
+			Assert.assertTrue(ex.getMessage(), ex.getMessage().contains(message));
+		}
+	}
+
+	private static byte[] dg1(final String mrz) {
+		return tlv(new byte[] {MrzDg1.TAG_DG1}, mrzElement(mrz));
+	}
+
+	private static byte[] mrzElement(final String mrz) {
+		return tlv(new byte[] {0x5F, 0x1F}, mrz.replace("\n", "").getBytes(StandardCharsets.US_ASCII));
+	}
+
+	/**
+	 * @param tag the tag bytes
+	 * @param value the value
+	 * @return the data element, with the length in the short form if possible
+	 */
+	private static byte[] tlv(final byte[] tag, final byte[] value) {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(tag, 0, tag.length);
+		if (value.length > 0x7F) {
+			out.write(0x81);
+		}
+		out.write(value.length);
+		out.write(value, 0, value.length);
+		return out.toByteArray();
+	}
+}
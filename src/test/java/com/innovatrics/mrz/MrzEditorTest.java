@@ -0,0 +1,123 @@
+package com.innovatrics.mrz;
+
+import com.innovatrics.mrz.types.MrzField;
+import com.innovatrics.mrz.types.MrzFormat;
+import com.innovatrics.mrz.types.MrzSex;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests {@link MrzEditor}.
+ */
+public class MrzEditorTest {
+
+	private static final String TD3 = "P<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<<<<<<<<<\nL898902C36UTO7408122F1204159ZE184226B<<<<<10";
+	private static final String MRV_B = "V<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<\nL8988901C4XXX4009078F9612109<<<<<<<<";
+
+	/**
+	 * Editing a check digit updates the validity of its field and of the composite check digit.
+	 *
+	 * @throws MrzParseException could not parse MRZ
+	 */
+	@Test
+	public void testEditCheckDigit() throws MrzParseException {
+		final MrzEditor editor = new MrzEditor(TD3);
+		Assert.assertTrue(editor.isCheckDigitValid(MrzField.DOCUMENT_NUMBER));
+		final Set<MrzField> updated = editor.setChar(1, 9, '4');
+		Assert.assertTrue(updated.contains(MrzField.DOCUMENT_NUMBER));
+		Assert.assertTrue(updated.contains(MrzField.COMPOSITE));
+		Assert.assertFalse(editor.isCheckDigitValid(MrzField.DOCUMENT_NUMBER));
+		Assert.assertFalse(editor.isCheckDigitValid(MrzField.COMPOSITE));
+		Assert.assertFalse(editor.getRecord().isValidDocumentNumber());
+		editor.setChar(1, 9, '6');
+		Assert.assertTrue(editor.isCheckDigitValid(MrzField.DOCUMENT_NUMBER));
+		Assert.assertTrue(editor.isCheckDigitValid(MrzField.COMPOSITE));
+		Assert.assertEquals(TD3, editor.getMrz());
+	}
+
+	/**
+	 * Editing a date decodes the date again and invalidates its check digit.
+	 *
+	 * @throws MrzParseException could not parse MRZ
+	 */
+	@Test
+	public void testEditDate() throws MrzParseException {
+		final MrzEditor editor = new MrzEditor(TD3);
+		final Set<MrzField> updated = editor.setChar(1, 14, '5');
+		Assert.assertTrue(updated.contains(MrzField.DATE_OF_BIRTH));
+		final MrzRecord record = editor.getRecord();
+		Assert.assertEquals(75, record.getDateOfBirth().getYear());
+		Assert.assertFalse(record.isValidDateOfBirth());
+		Assert.assertEquals(MrzParser.parse(editor.getMrz()).getDateOfBirth().toString(), record.getDateOfBirth().toString());
+	}
+
+	/**
+	 * Editing the document code into one of another format parses the MRZ again.
+	 *
+	 * @throws MrzParseException could not parse MRZ
+	 */
+	@Test
+	public void testEditDocumentCode() throws MrzParseException {
+		final MrzEditor editor = new MrzEditor(MRV_B);
+		Assert.assertEquals(MrzFormat.MRV_VISA_B, editor.getFormat());
+		final Set<MrzField> updated = editor.setChar(0, 0, 'I');
+		Assert.assertTrue(updated.contains(MrzField.DOCUMENT_CODE));
+		Assert.assertEquals(MrzFormat.MRTD_TD2, editor.getFormat());
+		Assert.assertEquals(MrzFormat.MRTD_TD2, editor.getRecord().getFormat());
+		Assert.assertEquals('I', editor.getChar(0, 0));
+	}
+
+	/**
+	 * An invalid sex character is rejected, leaving the MRZ and the record unchanged.
+	 *
+	 * @throws MrzParseException could not parse MRZ
+	 */
+	@Test
+	public void testInvalidSex() throws MrzParseException {
+		final MrzEditor editor = new MrzEditor(TD3);
+		try {
+			editor.setChar(1, 20, 'Q');
+			Assert.fail("Accepted an invalid sex");
+		} catch (MrzParseException ex) {
+			Assert.assertEquals(new MrzRange(20, 21, 1).toString(), ex.getRange().toString());
+		}
+		Assert.assertEquals(TD3, editor.getMrz());
+		Assert.assertEquals('F', editor.getChar(1, 20));
+		Assert.assertEquals(MrzSex.FEMALE, editor.getRecord().getSex());
+	}
+
+	/**
+	 * A rejected edit leaves the buffer unchanged and the editor usable.
+	 *
+	 * @throws MrzParseException could not parse MRZ
+	 */
+	@Test
+	public void testRejectedEdit() throws MrzParseException {
+		final MrzEditor editor = new MrzEditor(TD3);
+		try {
+			editor.setChar(0, 8, '#');
+			Assert.fail("Accepted an invalid character");
+		} catch (MrzParseException ex) {
+			Assert.assertEquals(TD3, editor.getMrz());
+		}
+		editor.setChar(0, 8, 'C');
+		Assert.assertEquals("ERICSSON", editor.getRecord().getSurname());
+	}
+
+	/**
+	 * A check digit which is not a digit is invalid, as in {@link MrzParser#parse(String)}, instead of failing the editor.
+	 *
+	 * @throws MrzParseException could not parse MRZ
+	 */
+	@Test
+	public void testNonDigitCheckDigit() throws MrzParseException {
+		final String mrz = MRV_B.substring(0, 56) + ' ' + MRV_B.substring(57);
+		final MrzEditor editor = new MrzEditor(mrz);
+		Assert.assertFalse(editor.isCheckDigitValid(MrzField.DATE_OF_BIRTH));
+		editor.setChar(1, 19, '8');
+		Assert.assertTrue(editor.isCheckDigitValid(MrzField.DATE_OF_BIRTH));
+		Assert.assertTrue(editor.getRecord().isValidDateOfBirth());
+	}
+
+}
@@ -0,0 +1,115 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests {@link MrzEncoder}.
+ */
+public class MrzEncoderTest {
+
+	private static final String TD3 = "P<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<<<<<<<<<\nL898902C36UTO7408122F1204159ZE184226B<<<<<10";
+	private static final String TD1 = "I<UTOD231458907<<<<<<<<<<<<<<<\n7408122F1204159UTO<<<<<<<<<<<6\nERIKSSON<<ANNA<MARIA<<<<<<<<<<";
+	private static final String MRV_B = "V<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<\nL8988901C4XXX4009078F9612109<<<<<<<<";
+
+	/**
+	 * One encoder writes records of different formats in turn, matching {@link MrzRecord#toMrz()}.
+	 *
+	 * @throws MrzParseException malformed sample
+	 */
+	@Test
+	public void testEncodeBatch() throws MrzParseException {
+		final MrzEncoder encoder = new MrzEncoder();
+		for (int i = 0; i < 2; i++) {
+			for (final String mrz : new String[] {TD3, TD1, MRV_B}) {
+				final MrzRecord record = MrzParser.parse(mrz);
+				Assert.assertEquals(mrz + '\n', encoder.encode(record));
+				Assert.assertEquals(record.toMrz(), encoder.encode(record));
+			}
+		}
+		Assert.assertEquals(TD3.replace("\n", ""), new MrzEncoder(false).encode(MrzParser.parse(TD3)));
+	}
+
+	/**
+	 * Check digits are computed as the fields are written.
+	 *
+	 * @throws MrzParseException malformed sample
+	 */
+	@Test
+	public void testCheckDigits() throws MrzParseException {
+		final MrzRecord record = MrzParser.parse(TD3);
+		record.setDocumentNumber("L898902C4");
+		final String mrz = new MrzEncoder(false).encode(record);
+		Assert.assertEquals("L898902C4" + MrzParser.computeCheckDigitChar("L898902C4"), mrz.substring(44, 54));
+		final MrzRecord parsed = MrzParser.parse(mrz.substring(0, 44) + '\n' + mrz.substring(44));
+		Assert.assertTrue(parsed.isValidDocumentNumber());
+		Assert.assertTrue(parsed.isValidComposite());
+	}
+
+	/**
+	 * The MRZ is copied into character arrays at an offset and into byte buffers at their position.
+	 *
+	 * @throws MrzParseException malformed sample
+	 */
+	@Test
+	public void testEncodeIntoBuffers() throws MrzParseException {
+		final MrzEncoder encoder = new MrzEncoder(false);
+		final MrzRecord td1 = MrzParser.parse(TD1);
+		final MrzRecord td3 = MrzParser.parse(TD3);
+		final char[] chars = new char[200];
+		final int written = encoder.encode(td1, chars, 5);
+		Assert.assertEquals(90, written);
+		Assert.assertEquals(88, encoder.encode(td3, chars, 5 + written));
+		Assert.assertEquals(TD1.replace("\n", "") + TD3.replace("\n", ""), new String(chars, 5, 178));
+		try {
+			encoder.encode(td3, new char[100], 20);
+			Assert.fail("Wrote past the end of the array");
+		} catch (IndexOutOfBoundsException ex) {
+			// expected
+		}
+
+		final ByteBuffer bytes = ByteBuffer.allocate(100);
+		bytes.put((byte) '#');
+		Assert.assertEquals(90, new MrzEncoder(false).encode(td1, bytes));
+		Assert.assertEquals(91, bytes.position());
+		Assert.assertEquals('#' + TD1.replace("\n", ""), new String(bytes.array(), 0, 91, StandardCharsets.US_ASCII));
+		try {
+			encoder.encode(td1, bytes);
+			Assert.fail("Wrote past the end of the buffer");
+		} catch (BufferOverflowException ex) {
+			Assert.assertEquals(91, bytes.position());
+		}
+	}
+
+	/**
+	 * Names are transliterated, and names too long for the field are truncated, the last given names first, down to their initials.
+	 */
+	@Test
+	public void testNameTruncation() {
+		final MrzEncoder encoder = new MrzEncoder();
+		Assert.assertEquals("ERIKSSON<<ANNA<MARIA<<<<<<<<<<", encoder.encodeName("Eriksson", "Anna Maria", 30));
+		Assert.assertEquals("NGUYEN<DE<LA<CRUZ<<FANG<SEO<L<", encoder.encodeName("Nguyen De la Cruz", "Fang Seo-yeon Lucas", 30));
+		Assert.assertEquals("MUELLER<<JOSE<<<<<<<<<<<<<<<<<", encoder.encodeName("Müller", "José", 30));
+	}
+}
@@ -0,0 +1,104 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz;
+
+import com.innovatrics.mrz.records.MrtdTd1;
+import com.innovatrics.mrz.types.MrzFormat;
+import com.innovatrics.mrz.types.MrzFormatDefinition;
+import com.innovatrics.mrz.types.MrzFormatRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests {@link MrzFormatRegistry} with the definitions of {@link XyzFormatProvider}, loaded by {@link java.util.ServiceLoader}.
+ */
+public class MrzFormatRegistryTest {
+
+	private static final String UTO = "I<UTOD231458907<<<<<<<<<<<<<<<\n7408122F1204159UTO<<<<<<<<<<<6\nERIKSSON<<ANNA<MARIA<<<<<<<<<<";
+	private static final String XYZ = UTO.replace("UTO", "XYZ");
+
+	/**
+	 * The definitions of the provider are loaded after the built-in ones and win over them by their longer prefix.
+	 *
+	 * @throws MrzParseException malformed sample
+	 */
+	@Test
+	public void testProviderDefinitions() throws MrzParseException {
+		MrzFormatDefinition provided = null;
+		for (final MrzFormatDefinition definition : MrzFormatRegistry.getDefinitions()) {
+			if (XyzFormatProvider.PREFIX.equals(definition.getPrefix())) {
+				provided = definition;
+			}
+		}
+		Assert.assertNotNull("Provider definition not loaded", provided);
+		Assert.assertEquals(MrzFormat.MRTD_TD1, provided.getFormat());
+		Assert.assertSame(provided, MrzFormatRegistry.get(3, 30, XYZ));
+		Assert.assertSame(provided, MrzFormatRegistry.get(XYZ));
+		Assert.assertNotSame(provided, MrzFormatRegistry.get(UTO));
+
+		final MrzRecord card = MrzParser.parse(XYZ);
+		Assert.assertTrue(card instanceof XyzFormatProvider.XyzIdCard);
+		Assert.assertEquals("D23145890", card.getDocumentNumber());
+		Assert.assertEquals(MrzFormat.MRTD_TD1, card.getFormat());
+		final MrzRecord other = MrzParser.parse(UTO);
+		Assert.assertEquals(MrtdTd1.class, other.getClass());
+	}
+
+	/**
+	 * A definition registered at runtime wins over one with a shorter prefix, and replaces one with the same prefix registered earlier.
+	 *
+	 * @throws MrzParseException malformed sample
+	 */
+	@Test
+	public void testRegister() throws MrzParseException {
+		final String mrz = UTO.replace("I<UTO", "I<QQQ");
+		final MrzFormatDefinition longer = new MrzFormatDefinition(MrzFormat.MRTD_TD1, "I<QQQ", MrtdTd1::new);
+		final MrzFormatDefinition shorter = new MrzFormatDefinition(MrzFormat.MRTD_TD1, "I<QQ", MrtdTd1::new);
+		MrzFormatRegistry.register(longer);
+		MrzFormatRegistry.register(shorter);
+		Assert.assertSame(longer, MrzFormatRegistry.get(mrz));
+		Assert.assertSame(shorter, MrzFormatRegistry.get(3, 30, "I<QQA"));
+		final MrzFormatDefinition later = new MrzFormatDefinition(MrzFormat.MRTD_TD1, "I<QQQ", MrtdTd1::new);
+		MrzFormatRegistry.register(later);
+		Assert.assertSame(later, MrzFormatRegistry.get(mrz));
+		Assert.assertTrue(MrzFormatRegistry.getDefinitions().contains(later));
+		Assert.assertFalse(MrzFormatRegistry.getDefinitions().contains(longer));
+	}
+
+	/**
+	 * Unknown geometries resolve to no definition, or fail for an MRZ string.
+	 */
+	@Test
+	public void testUnknown() {
+		Assert.assertNull(MrzFormatRegistry.get(3, 31, UTO));
+		Assert.assertNull(MrzFormatRegistry.get(0, 30, UTO));
+		Assert.assertNull(MrzFormatRegistry.get(2, 200, UTO));
+		assertFails(UTO + "<", "Different row lengths");
+		assertFails("I<UTO\nI<UTO", "Unknown format");
+	}
+
+	private static void assertFails(final String mrz, final String message) {
+		try {
+			MrzFormatRegistry.get(mrz);
+			Assert.fail("Resolved " + mrz);
+		} catch (MrzParseException ex) {
+			Assert.assertTrue(ex.getMessage(), ex.getMessage().contains(message));
+		}
+	}
+}
@@ -0,0 +1,114 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz;
+
+import com.innovatrics.mrz.types.MrzField;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests {@link MrzName}.
+ */
+public class MrzNameTest {
+
+	/**
+	 * The surname, the given names and their components are found by their offsets in the row.
+	 */
+	@Test
+	public void testTokenize() {
+		final String row = "P<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<<<<<<<<<";
+		final MrzName name = new MrzName();
+		Assert.assertEquals(-1, name.tokenize(row, 5, 44));
+		Assert.assertEquals(5, name.getSurnameStart());
+		Assert.assertEquals(13, name.getSurnameEnd());
+		Assert.assertEquals(15, name.getGivenNamesStart());
+		Assert.assertEquals(25, name.getGivenNamesEnd());
+		Assert.assertEquals("ERIKSSON", name.getSurname());
+		Assert.assertEquals("ANNA MARIA", name.getGivenNames());
+		Assert.assertEquals("ERIKSSON<<ANNA<MARIA", name.toString());
+		Assert.assertEquals(1, name.getComponentCount(MrzField.SURNAME));
+		Assert.assertEquals(2, name.getComponentCount(MrzField.GIVEN_NAMES));
+		Assert.assertEquals("MARIA", name.getComponent(MrzField.GIVEN_NAMES, 1));
+		Assert.assertEquals(20, name.getComponentStart(MrzField.GIVEN_NAMES, 1));
+		Assert.assertEquals(25, name.getComponentEnd(MrzField.GIVEN_NAMES, 1));
+	}
+
+	/**
+	 * An instance is reused for names of several components, and for names without a surname.
+	 */
+	@Test
+	public void testReuse() {
+		final MrzName name = new MrzName();
+		Assert.assertEquals(-1, name.tokenize("DE<LA<CRUZ<<JOSE<<<<", 0, 20));
+		Assert.assertEquals("DE LA CRUZ", name.getSurname());
+		Assert.assertEquals("JOSE", name.getGivenNames());
+		Assert.assertEquals(3, name.getComponentCount(MrzField.SURNAME));
+		Assert.assertEquals("CRUZ", name.getComponent(MrzField.SURNAME, 2));
+
+		// No double filler between the names: given names only
+		Assert.assertEquals(-1, name.tokenize("ANNA<MARIA<<<<", 0, 14));
+		Assert.assertEquals("", name.getSurname());
+		Assert.assertEquals("ANNA MARIA", name.getGivenNames());
+		Assert.assertEquals(0, name.getComponentCount(MrzField.SURNAME));
+
+		Assert.assertEquals(-1, name.tokenize("<<<<", 0, 4));
+		Assert.assertEquals("", name.getSurname());
+		Assert.assertEquals("", name.getGivenNames());
+	}
+
+	/**
+	 * Invalid characters are reported by their index, missing components and other fields are rejected.
+	 */
+	@Test
+	public void testInvalid() {
+		final MrzName name = new MrzName();
+		Assert.assertEquals(12, name.tokenize("xxERIKSSON<<aNNA", 2, 16));
+		Assert.assertEquals(-1, name.tokenize("ERIKSSON<<ANNA", 0, 14));
+		try {
+			name.getComponent(MrzField.GIVEN_NAMES, 1);
+			Assert.fail("Returned a missing component");
+		} catch (IndexOutOfBoundsException ex) {
+			// expected
+		}
+		try {
+			name.getComponentCount(MrzField.NATIONALITY);
+			Assert.fail("Counted the components of a field which is no name");
+		} catch (IllegalArgumentException ex) {
+			// expected
+		}
+	}
+
+	/**
+	 * The parser reports invalid characters of a name with their position.
+	 *
+	 * @throws MrzParseException malformed sample
+	 */
+	@Test
+	public void testParser() throws MrzParseException {
+		final String mrz = "I<UTOD231458907<<<<<<<<<<<<<<<\n7408122F1204159UTO<<<<<<<<<<<6\nERIKSSON<<ANNA<MARIA<<<<<<<<<<";
+		final MrzParser parser = new MrzParser(mrz);
+		Assert.assertArrayEquals(new String[] {"ERIKSSON", "ANNA MARIA"}, parser.parseName(new MrzRange(0, 30, 2)));
+		try {
+			new MrzParser(mrz.replace("ANNA", "AN-A")).parseName(new MrzRange(0, 30, 2));
+			Assert.fail("Parsed an invalid name");
+		} catch (MrzParseException ex) {
+			Assert.assertEquals(new MrzRange(12, 13, 2).toString(), ex.getRange().toString());
+		}
+	}
+}
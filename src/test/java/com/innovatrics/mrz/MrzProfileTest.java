@@ -0,0 +1,101 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz;
+
+import com.innovatrics.mrz.records.MrtdTd1;
+import com.innovatrics.mrz.types.MrzFormat;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests {@link MrzProfile}.
+ */
+public class MrzProfileTest {
+
+	/**
+	 * A provider may look up profiles while the providers are loaded, getting the built-in ones, and its own profiles are then registered.
+	 */
+	@Test
+	public void testProviderLookupDuringLoading() {
+		final MrzProfile profile = MrzProfile.get(MrzFormat.MRTD_TD1, XyzFormatProvider.PREFIX + "D231458907");
+		Assert.assertEquals(XyzFormatProvider.PREFIX, profile.getPrefix());
+		Assert.assertTrue(profile.hasDocumentNumberValidator());
+		Assert.assertNotNull(XyzFormatProvider.getLoadingProfile());
+		Assert.assertEquals("", XyzFormatProvider.getLoadingProfile().getPrefix());
+	}
+
+	/**
+	 * The profile with the longest prefix wins, other first rows fall back to the default profile of the format.
+	 */
+	@Test
+	public void testLongestPrefix() {
+		Assert.assertEquals("I<PRT", MrzProfile.get(MrzFormat.MRTD_TD1, "I<PRT0012").getPrefix());
+		Assert.assertEquals("IDFRA", MrzProfile.get(MrzFormat.MRTD_TD1, "IDFRA").getPrefix());
+		Assert.assertEquals("", MrzProfile.get(MrzFormat.MRTD_TD1, "I<PR").getPrefix());
+		Assert.assertEquals("", MrzProfile.get(MrzFormat.PASSPORT, "I<PRT").getPrefix());
+	}
+
+	/**
+	 * The national rule of French TD1 cards is matched on the MRZ row in place.
+	 *
+	 * @throws MrzParseException could not parse MRZ
+	 */
+	@Test
+	public void testFrenchDocumentNumberRule() throws MrzParseException {
+		Assert.assertTrue(MrzParser.parse(td1("IDFRAAB12CD3400")).isValidDocumentNumber());
+		Assert.assertFalse(MrzParser.parse(td1("IDFRAAB12CD3500")).isValidDocumentNumber());
+		// Too short once the trailing fillers are removed
+		Assert.assertFalse(MrzParser.parse(td1("IDFRAAB12CD34<0")).isValidDocumentNumber());
+	}
+
+	/**
+	 * Portuguese TD1 card numbers are normalized before the national rule is applied.
+	 *
+	 * @throws MrzParseException could not parse MRZ
+	 */
+	@Test
+	public void testPortugueseDocumentNumberRule() throws MrzParseException {
+		final MrzRecord record = MrzParser.parse(td1("I<PRT00O555560ZZ4<"));
+		Assert.assertEquals("000555560ZZ4", record.getDocumentNumber());
+		Assert.assertTrue(record.isValidDocumentNumber());
+		Assert.assertFalse(MrzParser.parse(td1("I<PRT0065555600Z4<")).isValidDocumentNumber());
+	}
+
+	/**
+	 * Ambiguous letters are read as digits, except in the letter positions, and fillers are dropped.
+	 */
+	@Test
+	public void testReplaceNumberChar() {
+		Assert.assertEquals("018532000ZZ1", MrtdTd1.replaceNumberChar("OIBSJZ000ZZ1<"));
+		Assert.assertEquals("12AC", MrtdTd1.replaceNumberChar("1 2<AC"));
+		Assert.assertNull(MrtdTd1.replaceNumberChar(null));
+	}
+
+	/**
+	 * @param start the start of the first row
+	 * @return a TD1 MRZ with given start of the first row
+	 */
+	private static String td1(final String start) {
+		final StringBuilder first = new StringBuilder(start);
+		while (first.length() < 30) {
+			first.append('<');
+		}
+		return first + "\n7408122F1204159UTO<<<<<<<<<<<6\nERIKSSON<<ANNA<MARIA<<<<<<<<<<";
+	}
+}
@@ -0,0 +1,123 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz;
+
+import com.innovatrics.mrz.types.MrzField;
+import java.util.EnumSet;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests {@link MrzProjection}.
+ */
+public class MrzProjectionTest {
+
+	private static final String ROW1 = "P<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<<<<<<<<<\n";
+	private static final String TD3 = ROW1 + "L898902C36UTO7408122F1204159ZE184226B<<<<<10";
+
+	/**
+	 * Only the requested fields are decoded, the other fields are left null.
+	 *
+	 * @throws MrzParseException malformed sample
+	 */
+	@Test
+	public void testRequestedFields() throws MrzParseException {
+		final MrzProjection gate = MrzProjection.of(EnumSet.of(MrzField.DOCUMENT_NUMBER, MrzField.EXPIRATION_DATE));
+		final MrzRecord record = gate.parse(TD3);
+		Assert.assertEquals("L898902C3", record.getDocumentNumber());
+		Assert.assertEquals(MrzParser.parse(TD3).getExpirationDate(), record.getExpirationDate());
+		Assert.assertNull(record.getSurname());
+		Assert.assertNull(record.getDateOfBirth());
+		Assert.assertNull(record.getNationality());
+		Assert.assertTrue(record.isValidDocumentNumber());
+		Assert.assertTrue(record.isValidExpirationDate());
+		Assert.assertEquals(TD3.replace('\n', '_'), record.getMrz());
+
+		final MrzRecord all = MrzProjection.ALL.parse(TD3);
+		final MrzRecord parsed = MrzParser.parse(TD3);
+		Assert.assertEquals(parsed.getSurname(), all.getSurname());
+		Assert.assertEquals(parsed.getGivenNames(), all.getGivenNames());
+		Assert.assertEquals(parsed.getDateOfBirth(), all.getDateOfBirth());
+		Assert.assertEquals(parsed.getSex(), all.getSex());
+		Assert.assertEquals(parsed.isValidComposite(), all.isValidComposite());
+	}
+
+	/**
+	 * Only the requested check digits are verified, and verifying the check digit of a value decodes it.
+	 *
+	 * @throws MrzParseException malformed sample
+	 */
+	@Test
+	public void testRequestedChecks() throws MrzParseException {
+		// Wrong document number and composite check digits
+		final String corrupted = ROW1 + "L898902C37UTO7408122F1204159ZE184226B<<<<<11";
+		final MrzProjection composite = MrzProjection.of(EnumSet.of(MrzField.SURNAME), EnumSet.of(MrzField.COMPOSITE));
+		final MrzRecord record = composite.parse(corrupted);
+		Assert.assertEquals("ERIKSSON", record.getSurname());
+		Assert.assertFalse(record.isValidComposite());
+		Assert.assertTrue(record.isValidDocumentNumber());
+
+		final MrzProjection birth = MrzProjection.of(EnumSet.noneOf(MrzField.class), EnumSet.of(MrzField.DATE_OF_BIRTH));
+		Assert.assertTrue(birth.isDecoded(MrzField.DATE_OF_BIRTH));
+		Assert.assertFalse(birth.isDecoded(MrzField.SURNAME));
+		Assert.assertTrue(birth.isVerified(MrzField.DATE_OF_BIRTH));
+		Assert.assertFalse(birth.isVerified(MrzField.COMPOSITE));
+		final MrzRecord dated = birth.parse(corrupted);
+		Assert.assertNotNull(dated.getDateOfBirth());
+		Assert.assertTrue(dated.isValidDateOfBirth());
+
+		final MrzRecord unchecked = MrzProjection.of(EnumSet.of(MrzField.DOCUMENT_NUMBER), EnumSet.noneOf(MrzField.class)).parse(corrupted);
+		Assert.assertEquals("L898902C3", unchecked.getDocumentNumber());
+		Assert.assertTrue(unchecked.isValidDocumentNumber());
+		Assert.assertTrue(unchecked.isValidComposite());
+	}
+
+	/**
+	 * Invalid characters fail only in decoded fields or in ranges protected by a verified check digit.
+	 *
+	 * @throws MrzParseException malformed sample
+	 */
+	@Test
+	public void testInvalidCharacters() throws MrzParseException {
+		final String invalid = TD3.replace("ZE184226B", "ZE18-226B");
+		final MrzProjection number = MrzProjection.of(EnumSet.of(MrzField.DOCUMENT_NUMBER));
+		Assert.assertEquals("L898902C3", number.parse(invalid).getDocumentNumber());
+		try {
+			MrzProjection.of(EnumSet.noneOf(MrzField.class), EnumSet.of(MrzField.COMPOSITE)).parse(invalid);
+			Assert.fail("Verified a composite check digit over an invalid character");
+		} catch (MrzParseException ex) {
+			Assert.assertEquals(new MrzRange(43, 44, 1).toString(), ex.getRange().toString());
+		}
+		try {
+			MrzProjection.of(EnumSet.of(MrzField.PERSONAL_NUMBER), EnumSet.noneOf(MrzField.class)).parse(invalid);
+			Assert.fail("Decoded a field with an invalid character");
+		} catch (MrzParseException ex) {
+			Assert.assertEquals(new MrzRange(32, 33, 1).toString(), ex.getRange().toString());
+		}
+	}
+
+	/**
+	 * The projection lists the decoded and verified fields.
+	 */
+	@Test
+	public void testToString() {
+		final String string = MrzProjection.of(EnumSet.of(MrzField.SURNAME), EnumSet.of(MrzField.EXPIRATION_DATE)).toString();
+		Assert.assertTrue(string, string.contains("SURNAME,EXPIRATION_DATE"));
+	}
+}
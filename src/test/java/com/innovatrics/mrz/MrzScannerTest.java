@@ -0,0 +1,176 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz;
+
+import com.innovatrics.mrz.types.MrzDate;
+import com.innovatrics.mrz.types.MrzField;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests {@link MrzScanner} and {@link MrzFilter}.
+ */
+public class MrzScannerTest {
+
+	private static final String TD3 = "P<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<<<<<<<<<\nL898902C36UTO7408122F1204159ZE184226B<<<<<10";
+	private static final String TD1 = "I<UTOD231458907<<<<<<<<<<<<<<<\n7408122F1204159UTO<<<<<<<<<<<6\nERIKSSON<<ANNA<MARIA<<<<<<<<<<";
+	private static final String MRV_B = "V<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<\nL8988901C4XXX4009078F9612109<<<<<<<<";
+	/**
+	 * Matches the document number of the passport, but its surname holds an invalid character.
+	 */
+	private static final String INVALID = TD3.replace("ERIKSSON", "ERIK-SON");
+	private static final String ARCHIVE = "\n" + TD3 + "\n\n" + TD1 + "\n\nHELLO\nWORLD!\n\n" + MRV_B + "\n\n" + INVALID + "\n";
+
+	/**
+	 * Receives the scanned records and failures.
+	 */
+	private static final class Collector implements MrzScanner.Handler {
+
+		private final List<MrzRecord> records = new ArrayList<>();
+		private final List<String> failed = new ArrayList<>();
+
+		@Override
+		public void matched(final MrzRecord record) {
+			records.add(record);
+		}
+
+		@Override
+		public void failed(final String mrz, final MrzParseException ex) {
+			failed.add(mrz);
+		}
+
+		/**
+		 * @return the document numbers of the records
+		 */
+		private List<String> numbers() {
+			final List<String> numbers = new ArrayList<>();
+			for (final MrzRecord record : records) {
+				numbers.add(record.getDocumentNumber());
+			}
+			return numbers;
+		}
+	}
+
+	/**
+	 * MRZs of a known format are parsed, others are skipped and unparseable ones reported.
+	 */
+	@Test
+	public void testScanAll() {
+		final Collector collector = scan(MrzFilter.ALL);
+		Assert.assertEquals(3, collector.records.size());
+		Assert.assertEquals(TD3.replace('\n', '_'), collector.records.get(0).getMrz());
+		Assert.assertEquals(TD1.replace('\n', '_'), collector.records.get(1).getMrz());
+		Assert.assertEquals(MRV_B.replace('\n', '_'), collector.records.get(2).getMrz());
+		Assert.assertEquals(1, collector.failed.size());
+		Assert.assertEquals(INVALID, collector.failed.get(0));
+	}
+
+	/**
+	 * Conditions on text fields, names sharing a range and dates.
+	 */
+	@Test
+	public void testFilters() {
+		Assert.assertEquals(list("L898902C3"), scan(MrzFilter.equalTo(MrzField.DOCUMENT_NUMBER, "L898902C3")).numbers());
+		Assert.assertEquals(list("L898902C3", "L8988901C"), scan(MrzFilter.startsWith(MrzField.DOCUMENT_NUMBER, "L89")).numbers());
+		Assert.assertEquals(list("L898902C3", "D23145890", "L8988901C"), scan(MrzFilter.equalTo(MrzField.SURNAME, "Eriksson")).numbers());
+		Assert.assertEquals(list("L898902C3", "D23145890", "L8988901C"), scan(MrzFilter.equalTo(MrzField.GIVEN_NAMES, "Anna Maria")).numbers());
+		Assert.assertEquals(list(), scan(MrzFilter.equalTo(MrzField.SURNAME, "Eriks")).numbers());
+		Assert.assertEquals(list("L8988901C"), scan(MrzFilter.equalTo(MrzField.NATIONALITY, "XXX")).numbers());
+		Assert.assertEquals(list("L898902C3", "D23145890"), scan(MrzFilter.between(MrzField.DATE_OF_BIRTH, "740101", "741231")).numbers());
+		Assert.assertEquals(list("L8988901C"), scan(MrzFilter.before(MrzField.DATE_OF_BIRTH, new MrzDate(74, 1, 1))).numbers());
+		Assert.assertEquals(list("L8988901C"), scan(MrzFilter.after(MrzField.EXPIRATION_DATE, new MrzDate(12, 4, 15))).numbers());
+		Assert.assertEquals(list("L898902C3"), scan(MrzFilter.greaterThan(MrzField.DOCUMENT_NUMBER, "L8988901C")).numbers());
+		Assert.assertEquals(list("D23145890"), scan(MrzFilter.lessThan(MrzField.DOCUMENT_NUMBER, "E")).numbers());
+	}
+
+	/**
+	 * All conditions of a conjunction must match, and the matching records are parsed with the projection of the scanner.
+	 */
+	@Test
+	public void testConjunctionAndProjection() {
+		final MrzFilter filter = MrzFilter.equalTo(MrzField.NATIONALITY, "UTO").and(MrzFilter.startsWith(MrzField.DOCUMENT_NUMBER, "D"));
+		Assert.assertEquals("NATIONALITY=UTO AND DOCUMENT_NUMBER starts with D", filter.toString());
+		final Collector collector = new Collector();
+		final MrzScanner scanner = new MrzScanner(filter, MrzProjection.of(EnumSet.of(MrzField.DOCUMENT_NUMBER)));
+		Assert.assertEquals(1, scanner.scan(bytes(), 0, bytes().length, collector));
+		Assert.assertEquals("D23145890", collector.records.get(0).getDocumentNumber());
+		Assert.assertNull(collector.records.get(0).getSurname());
+		try {
+			MrzFilter.equalTo(MrzField.COMPOSITE, "0");
+			Assert.fail("Filtered on the composite check digit");
+		} catch (IllegalArgumentException ex) {
+			// expected
+		}
+	}
+
+	/**
+	 * A stream delivered in small reads yields the same records as the whole buffer; the buffer is scanned within its range only.
+	 *
+	 * @throws IOException failed to read the stream
+	 */
+	@Test
+	public void testStream() throws IOException {
+		final MrzScanner scanner = new MrzScanner(MrzFilter.ALL);
+		final Collector collector = new Collector();
+		final InputStream in = new ByteArrayInputStream(bytes()) {
+			@Override
+			public synchronized int read(final byte[] b, final int off, final int len) {
+				return super.read(b, off, Math.min(len, 7));
+			}
+		};
+		Assert.assertEquals(3, scanner.scan(in, collector));
+		Assert.assertEquals(list("L898902C3", "D23145890", "L8988901C"), collector.numbers());
+
+		final byte[] data = bytes();
+		final int start = ARCHIVE.indexOf(TD1);
+		Assert.assertEquals(1, scanner.scan(data, start, TD1.length(), new Collector()));
+		try {
+			scanner.scan(data, 1, data.length, new Collector());
+			Assert.fail("Scanned past the end of the buffer");
+		} catch (IllegalArgumentException ex) {
+			// expected
+		}
+	}
+
+	private static Collector scan(final MrzFilter filter) {
+		final Collector collector = new Collector();
+		final byte[] data = bytes();
+		new MrzScanner(filter).scan(data, 0, data.length, collector);
+		return collector;
+	}
+
+	private static byte[] bytes() {
+		return ARCHIVE.getBytes(StandardCharsets.US_ASCII);
+	}
+
+	private static List<String> list(final String... values) {
+		final List<String> list = new ArrayList<>();
+		for (final String value : values) {
+			list.add(value);
+		}
+		return list;
+	}
+}
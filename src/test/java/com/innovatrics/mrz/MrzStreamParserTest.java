@@ -0,0 +1,213 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz;
+
+import com.innovatrics.mrz.types.MrzField;
+import com.innovatrics.mrz.types.MrzFormat;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests {@link MrzStreamParser}.
+ */
+public class MrzStreamParserTest {
+
+	private static final String TD3_0 = "P<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<<<<<<<<<";
+	private static final String TD3_1 = "L898902C36UTO7408122F1204159ZE184226B<<<<<10";
+	private static final String TD1_0 = "I<UTOD231458907<<<<<<<<<<<<<<<";
+	private static final String TD1_1 = "7408122F1204159UTO<<<<<<<<<<<6";
+	private static final String TD1_2 = "ERIKSSON<<ANNA<MARIA<<<<<<<<<<";
+
+	private final List<MrzRecord> records = new ArrayList<>();
+	private final List<MrzParseException> errors = new ArrayList<>();
+	private final List<MrzField> checks = new ArrayList<>();
+	private final MrzStreamParser parser = new MrzStreamParser(new MrzStreamParser.Listener() {
+		@Override
+		public void onRecord(final MrzRecord record) {
+			records.add(record);
+		}
+
+		@Override
+		public void onCheckDigit(final MrzField field, final MrzRange digit, final boolean valid) {
+			Assert.assertTrue("Invalid check digit of " + field, valid);
+			checks.add(field);
+		}
+
+		@Override
+		public void onError(final MrzParseException ex) {
+			errors.add(ex);
+		}
+	});
+
+	/**
+	 * A record split across chunks at every position is emitted once, complete.
+	 */
+	@Test
+	public void testChunks() {
+		final byte[] data = (TD3_0 + "\n" + TD3_1 + "\n").getBytes(StandardCharsets.US_ASCII);
+		for (int split = 1; split < data.length; split++) {
+			records.clear();
+			parser.push(data, 0, split);
+			parser.push(data, split, data.length - split);
+			Assert.assertEquals("Split at " + split, 1, records.size());
+			assertPassport(records.get(0));
+		}
+		Assert.assertTrue(errors.isEmpty());
+	}
+
+	/**
+	 * CR, LF and CRLF all separate rows, and blank lines between documents are ignored.
+	 */
+	@Test
+	public void testSeparators() {
+		for (final String separator : Arrays.asList("\n", "\r", "\r\n")) {
+			parser.push(TD3_0 + separator + TD3_1 + separator + separator);
+			parser.push(TD1_0 + separator + TD1_1 + separator + TD1_2 + separator);
+		}
+		Assert.assertTrue(errors.isEmpty());
+		Assert.assertEquals(6, records.size());
+		for (int i = 0; i < records.size(); i += 2) {
+			assertPassport(records.get(i));
+			Assert.assertEquals(MrzFormat.MRTD_TD1, records.get(i + 1).getFormat());
+			Assert.assertEquals("D23145890", records.get(i + 1).getDocumentNumber());
+		}
+	}
+
+	/**
+	 * The record is emitted with the last character of the last row, without a trailing line separator.
+	 */
+	@Test
+	public void testEmitWithoutTrailingNewline() {
+		parser.push(TD3_0 + "\n" + TD3_1.substring(0, TD3_1.length() - 1));
+		Assert.assertTrue(records.isEmpty());
+		Assert.assertEquals(MrzFormat.PASSPORT, parser.getFormat());
+		parser.push(TD3_1.charAt(TD3_1.length() - 1));
+		Assert.assertEquals(1, records.size());
+		assertPassport(records.get(0));
+		Assert.assertNull(parser.getFormat());
+	}
+
+	/**
+	 * Check digits are reported in the order their last character arrives.
+	 */
+	@Test
+	public void testCheckDigitOrder() {
+		parser.push(TD1_0);
+		Assert.assertTrue(checks.isEmpty());
+		parser.push("\n");
+		Assert.assertEquals(Arrays.asList(MrzField.DOCUMENT_NUMBER), checks);
+		parser.push(TD1_1.substring(0, 7));
+		Assert.assertEquals(Arrays.asList(MrzField.DOCUMENT_NUMBER, MrzField.DATE_OF_BIRTH), checks);
+		parser.push(TD1_1.substring(7) + "\n" + TD1_2);
+		Assert.assertEquals(Arrays.asList(MrzField.DOCUMENT_NUMBER, MrzField.DATE_OF_BIRTH, MrzField.EXPIRATION_DATE, MrzField.COMPOSITE),
+				checks);
+		Assert.assertEquals(1, records.size());
+	}
+
+	/**
+	 * A row longer than the first row fails instead of wrapping into the next row.
+	 */
+	@Test
+	public void testOverlongRow() {
+		parser.push(TD1_0 + "\n" + TD1_1 + "<\n" + TD1_2 + "\n");
+		Assert.assertTrue(records.isEmpty());
+		Assert.assertEquals(1, errors.size());
+		Assert.assertEquals(new MrzRange(0, 30, 1).toString(), errors.get(0).getRange().toString());
+		Assert.assertTrue(errors.get(0).getMessage(), errors.get(0).getMessage().contains("Different row lengths"));
+	}
+
+	/**
+	 * A first row longer than any format fails.
+	 */
+	@Test
+	public void testOverlongFirstRow() {
+		parser.push(TD3_0 + "<\n" + TD3_1 + "\n");
+		Assert.assertTrue(records.isEmpty());
+		Assert.assertEquals(1, errors.size());
+	}
+
+	/**
+	 * The last row is complete with its last character, anything following it on the same line is ignored.
+	 */
+	@Test
+	public void testOverlongLastRow() {
+		parser.push(TD3_0 + "\n" + TD3_1 + "<<<\n");
+		Assert.assertEquals(1, records.size());
+		Assert.assertTrue(errors.isEmpty());
+	}
+
+	/**
+	 * A row shorter than the first row fails at the line separator.
+	 */
+	@Test
+	public void testShortRow() {
+		parser.push(TD3_0 + "\n" + TD3_1.substring(0, TD3_1.length() - 1));
+		Assert.assertTrue(errors.isEmpty());
+		parser.push("\n");
+		Assert.assertTrue(records.isEmpty());
+		Assert.assertEquals(1, errors.size());
+		Assert.assertEquals(new MrzRange(0, 43, 1).toString(), errors.get(0).getRange().toString());
+	}
+
+	/**
+	 * A first row which does not start with a document code is not a MRZ, even if its length matches a format.
+	 */
+	@Test
+	public void testFirstRowWithoutDocumentCode() {
+		parser.push(TD1_2 + "\n");
+		Assert.assertEquals(1, errors.size());
+		Assert.assertNull(parser.getFormat());
+	}
+
+	/**
+	 * An invalid character drops the document with a single error; its remaining rows are skipped and the next document is parsed.
+	 */
+	@Test
+	public void testRecoveryAfterInvalidCharacter() {
+		parser.push(TD3_0.replace('K', 'k') + "\n" + TD3_1 + "\n" + TD3_0 + "\n" + TD3_1 + "\n");
+		Assert.assertEquals(1, errors.size());
+		Assert.assertEquals(new MrzRange(8, 9, 0).toString(), errors.get(0).getRange().toString());
+		Assert.assertEquals(1, records.size());
+		assertPassport(records.get(0));
+	}
+
+	/**
+	 * An invalid character in the middle of a document skips the rest of it.
+	 */
+	@Test
+	public void testRecoveryInLastRow() {
+		parser.push(TD1_0 + "\n" + TD1_1 + "\n" + TD1_2.replace('A', '#') + "\n" + TD1_0 + "\n" + TD1_1 + "\n" + TD1_2 + "\n");
+		Assert.assertEquals(1, errors.size());
+		Assert.assertEquals(1, records.size());
+		Assert.assertEquals("ERIKSSON", records.get(0).getSurname());
+	}
+
+	private static void assertPassport(final MrzRecord record) {
+		Assert.assertEquals(MrzFormat.PASSPORT, record.getFormat());
+		Assert.assertEquals("L898902C3", record.getDocumentNumber());
+		Assert.assertEquals("ERIKSSON", record.getSurname());
+		Assert.assertEquals("ANNA MARIA", record.getGivenNames());
+		Assert.assertTrue(record.isValidComposite());
+	}
+
+}
@@ -0,0 +1,78 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests {@link MrzTransliterator} against the tables of ICAO Doc 9303 Part 3 Section 6.
+ */
+public class MrzTransliteratorTest {
+
+	/**
+	 * ASCII letters are upper-cased, apostrophes omitted and other punctuation replaced with fillers.
+	 */
+	@Test
+	public void testAscii() {
+		Assert.assertEquals("", MrzTransliterator.transliterate(null));
+		Assert.assertEquals("", MrzTransliterator.transliterate(""));
+		Assert.assertEquals("OBRIEN", MrzTransliterator.transliterate("O'Brien"));
+		Assert.assertEquals("JEAN<LUC<2ND", MrzTransliterator.transliterate("Jean-Luc 2nd"));
+	}
+
+	/**
+	 * Latin characters are transliterated by the listed exceptions first, then by their canonical decomposition.
+	 */
+	@Test
+	public void testLatin() {
+		Assert.assertEquals("MUELLER", MrzTransliterator.transliterate("Müller"));
+		Assert.assertEquals("AASTROEM", MrzTransliterator.transliterate("Åström"));
+		Assert.assertEquals("STRASSE", MrzTransliterator.transliterate("Straße"));
+		Assert.assertEquals("LODZ", MrzTransliterator.transliterate("Łódź"));
+		Assert.assertEquals("NUNEZ", MrzTransliterator.transliterate("Núñez"));
+		Assert.assertEquals("THORA", MrzTransliterator.transliterate("Þora"));
+		Assert.assertEquals("JOSE", MrzTransliterator.transliterate("José"));
+	}
+
+	/**
+	 * Cyrillic, Greek with its vowel digraphs, and Arabic.
+	 */
+	@Test
+	public void testOtherScripts() {
+		Assert.assertEquals("SHCHUKIN", MrzTransliterator.transliterate("Щукин"));
+		Assert.assertEquals("ZHUKOV", MrzTransliterator.transliterate("Жуков"));
+		Assert.assertEquals("EVANGELOS", MrzTransliterator.transliterate("Ευάνγελος"));
+		Assert.assertEquals("OURANIA", MrzTransliterator.transliterate("Ουρανία"));
+		Assert.assertEquals("MXHMD", MrzTransliterator.transliterate("محمد"));
+	}
+
+	/**
+	 * A part of the input is appended to the output, a digraph at the end of the range is not read past it.
+	 */
+	@Test
+	public void testRange() {
+		final StringBuilder out = new StringBuilder("X");
+		MrzTransliterator.transliterate("[Müller]", 1, 7, out);
+		Assert.assertEquals("XMUELLER", out.toString());
+		out.setLength(0);
+		MrzTransliterator.transliterate("ΑΥ", 0, 1, out);
+		Assert.assertEquals("A", out.toString());
+	}
+}
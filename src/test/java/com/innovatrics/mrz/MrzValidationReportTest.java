@@ -0,0 +1,139 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz;
+
+import com.innovatrics.mrz.types.MrzDocumentCode;
+import com.innovatrics.mrz.types.MrzField;
+import com.innovatrics.mrz.types.MrzFormat;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests {@link MrzParser#parseLenient(String)}.
+ */
+public class MrzValidationReportTest {
+
+	private static final String TD3_0 = "P<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<<<<<<<<<";
+	private static final String TD3_1 = "L898902C36UTO7408122F1204159ZE184226B<<<<<10";
+
+	/**
+	 * A valid MRZ has no problems and a fully decoded record.
+	 */
+	@Test
+	public void testValid() {
+		final MrzValidationReport report = MrzParser.parseLenient(TD3_0 + "\n" + TD3_1);
+		Assert.assertTrue(report.isValid());
+		Assert.assertEquals(MrzFormat.PASSPORT, report.getFormat());
+		Assert.assertEquals("L898902C3", report.getRecord().getDocumentNumber());
+		Assert.assertTrue(report.getRecord().isValidComposite());
+	}
+
+	/**
+	 * Every problem is reported, and the fields without problems are still decoded.
+	 */
+	@Test
+	public void testAllProblems() {
+		final String row1 = TD3_1.substring(0, 4) + '#' + TD3_1.substring(5, 20) + 'Q' + TD3_1.substring(21, 27) + '8' + TD3_1.substring(28);
+		final MrzValidationReport report = MrzParser.parseLenient(TD3_0 + "\n" + row1);
+		assertProblem(report, 0, new MrzRange(4, 5, 1), MrzField.DOCUMENT_NUMBER, MrzValidationReport.Reason.INVALID_CHARACTER);
+		assertProblem(report, 1, new MrzRange(20, 21, 1), MrzField.SEX, MrzValidationReport.Reason.INVALID_VALUE);
+		final MrzRecord record = report.getRecord();
+		Assert.assertNull(record.getDocumentNumber());
+		Assert.assertNull(record.getSex());
+		Assert.assertEquals("ERIKSSON", record.getSurname());
+		Assert.assertFalse(record.isValidDocumentNumber());
+		Assert.assertFalse(record.isValidExpirationDate());
+		Assert.assertTrue(record.isValidDateOfBirth());
+		boolean expiration = false;
+		for (int i = 0; i < report.size(); i++) {
+			expiration |= report.getReason(i) == MrzValidationReport.Reason.CHECK_DIGIT && report.getField(i) == MrzField.EXPIRATION_DATE;
+		}
+		Assert.assertTrue(expiration);
+	}
+
+	/**
+	 * An invalid character in the document code leaves the other code character and the document type decoded.
+	 */
+	@Test
+	public void testInvalidDocumentCodeCharacter() {
+		MrzValidationReport report = MrzParser.parseLenient("P#" + TD3_0.substring(2) + "\n" + TD3_1);
+		assertProblem(report, 0, new MrzRange(1, 2, 0), MrzField.DOCUMENT_CODE, MrzValidationReport.Reason.INVALID_CHARACTER);
+		MrzRecord record = report.getRecord();
+		Assert.assertEquals('P', record.getCode1());
+		Assert.assertEquals('\0', record.getCode2());
+		Assert.assertEquals(MrzDocumentCode.PASSPORT, record.getCode());
+		Assert.assertEquals("UTO", record.getIssuingCountry());
+
+		report = MrzParser.parseLenient("#<" + TD3_0.substring(2) + "\n" + TD3_1);
+		assertProblem(report, 0, new MrzRange(0, 1, 0), MrzField.DOCUMENT_CODE, MrzValidationReport.Reason.INVALID_CHARACTER);
+		record = report.getRecord();
+		Assert.assertEquals('\0', record.getCode1());
+		Assert.assertEquals('<', record.getCode2());
+		Assert.assertNull(record.getCode());
+	}
+
+	/**
+	 * A short row is reported with the missing columns; the fields it still holds are decoded.
+	 */
+	@Test
+	public void testShortRow() {
+		final MrzValidationReport report = MrzParser.parseLenient(TD3_0 + "\n" + TD3_1.substring(0, 30));
+		Assert.assertEquals(MrzFormat.PASSPORT, report.getFormat());
+		assertProblem(report, 0, new MrzRange(30, 44, 1), null, MrzValidationReport.Reason.ROW_LENGTH);
+		final MrzRecord record = report.getRecord();
+		Assert.assertNotNull(record);
+		Assert.assertEquals("L898902C3", record.getDocumentNumber());
+		Assert.assertEquals(12, record.getExpirationDate().getYear());
+		Assert.assertNull(record.getPersonalNumberID());
+		Assert.assertFalse(record.isValidComposite());
+		for (int i = 1; i < report.size(); i++) {
+			Assert.assertNotEquals(MrzValidationReport.Reason.INVALID_CHARACTER, report.getReason(i));
+		}
+	}
+
+	/**
+	 * A long row is reported with the extra columns, which are ignored.
+	 */
+	@Test
+	public void testLongRow() {
+		final MrzValidationReport report = MrzParser.parseLenient(TD3_0 + "\n" + TD3_1 + "<<");
+		Assert.assertEquals(1, report.size());
+		assertProblem(report, 0, new MrzRange(44, 46, 1), null, MrzValidationReport.Reason.ROW_LENGTH);
+		Assert.assertTrue(report.getRecord().isValidComposite());
+	}
+
+	/**
+	 * Rows of different lengths with a first row of no known format leave no record.
+	 */
+	@Test
+	public void testRowLengthUnknownFormat() {
+		final MrzValidationReport report = MrzParser.parseLenient("P<UTO\n" + TD3_1);
+		Assert.assertNull(report.getRecord());
+		assertProblem(report, 0, new MrzRange(5, 44, 1), null, MrzValidationReport.Reason.ROW_LENGTH);
+		assertProblem(report, 1, new MrzRange(0, 5, 0), null, MrzValidationReport.Reason.UNSUPPORTED_FORMAT);
+	}
+
+	private static void assertProblem(final MrzValidationReport report, final int index, final MrzRange range, final MrzField field,
+			final MrzValidationReport.Reason reason) {
+		Assert.assertTrue("Missing problem " + index, index < report.size());
+		Assert.assertEquals(range.toString(), report.getRange(index).toString());
+		Assert.assertEquals(field, report.getField(index));
+		Assert.assertEquals(reason, report.getReason(index));
+	}
+}
@@ -0,0 +1,70 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz;
+
+import com.innovatrics.mrz.records.MrtdTd1;
+import com.innovatrics.mrz.types.MrzFormat;
+import com.innovatrics.mrz.types.MrzFormatDefinition;
+import com.innovatrics.mrz.types.MrzFormatProvider;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Contributes the format and the profile of the TD1 cards of the fictional state XYZ, registered in {@code META-INF/services} of the
+ * tests.
+ */
+public class XyzFormatProvider implements MrzFormatProvider {
+
+	/**
+	 * The first row prefix of the cards.
+	 */
+	public static final String PREFIX = "I<XYZ";
+
+	/**
+	 * The profile the TD1 cards resolved to while the profiles were being loaded.
+	 */
+	private static MrzProfile loading;
+
+	/**
+	 * @return the profile the TD1 cards resolved to while the profiles were being loaded, null if not loaded by {@link java.util.ServiceLoader}
+	 */
+	public static MrzProfile getLoadingProfile() {
+		return loading;
+	}
+
+	@Override
+	public Collection<MrzFormatDefinition> getFormats() {
+		return Collections.singletonList(new MrzFormatDefinition(MrzFormat.MRTD_TD1, PREFIX, XyzIdCard::new));
+	}
+
+	@Override
+	public Collection<MrzProfile> getProfiles() {
+		// Looks up a profile while MrzProfile is still loading the providers
+		loading = MrzProfile.get(MrzFormat.MRTD_TD1, PREFIX);
+		return Collections.singletonList(new MrzProfile(MrzFormat.MRTD_TD1, PREFIX).withDocumentNumber(null, number -> number.startsWith("X")));
+	}
+
+	/**
+	 * The TD1 card of XYZ.
+	 */
+	public static class XyzIdCard extends MrtdTd1 {
+
+		private static final long serialVersionUID = 1L;
+	}
+}
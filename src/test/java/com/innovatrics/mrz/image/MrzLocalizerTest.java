@@ -0,0 +1,88 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.image;
+
+import com.innovatrics.mrz.MrzNotFoundException;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Locates the MRZ of synthetically rendered pages, see {@link MrzPage}.
+ */
+public class MrzLocalizerTest {
+
+	private static final double[] SKEWS = {0, 4, -4, 8, -8};
+	private static final int[] SCALES = {1, 2};
+	/**
+	 * The skew is searched in steps of 0.2 degrees.
+	 */
+	private static final double SKEW_TOLERANCE = 0.2;
+
+	/**
+	 * @throws MrzNotFoundException no MRZ band found
+	 */
+	@Test
+	public void testLocateSkewedAndScaledPages() throws MrzNotFoundException {
+		for (final String mrz : new String[]{MrzPage.TD1, MrzPage.TD2, MrzPage.TD3}) {
+			for (final double skew : SKEWS) {
+				for (final int scale : SCALES) {
+					final MrzPage page = new MrzPage(mrz, skew, scale);
+					final MrzLocation location = MrzLocalizer.locate(page.getImage());
+					final int rows = mrz.split("\n").length;
+					Assert.assertEquals(page + ": " + location, rows, location.getRows().size());
+					Assert.assertEquals(page + ": " + location, skew, location.getSkew(), SKEW_TOLERANCE);
+					for (int row = 0; row < rows; row++) {
+						Assert.assertTrue(page + ": " + location + ", row " + row,
+								location.getRows().get(row).getBounds().contains(page.getCenter(row)));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @throws MrzNotFoundException no MRZ band found
+	 */
+	@Test
+	public void testLocateRawBytes() throws MrzNotFoundException {
+		final MrzPage page = new MrzPage(MrzPage.TD3, -4, 1);
+		final BufferedImage image = page.getImage();
+		final byte[] gray = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+		final MrzLocation location = MrzLocalizer.locate(gray, image.getWidth(), image.getHeight());
+		Assert.assertEquals(MrzLocalizer.locate(image).toString(), location.toString());
+	}
+
+	/**
+	 * @throws MrzNotFoundException expected
+	 */
+	@Test(expected = MrzNotFoundException.class)
+	public void testLocateBlankPage() throws MrzNotFoundException {
+		final BufferedImage image = new BufferedImage(1000, 800, BufferedImage.TYPE_BYTE_GRAY);
+		final Graphics2D g = image.createGraphics();
+		g.setColor(Color.WHITE);
+		g.fillRect(0, 0, image.getWidth(), image.getHeight());
+		g.dispose();
+		MrzLocalizer.locate(image);
+	}
+
+}
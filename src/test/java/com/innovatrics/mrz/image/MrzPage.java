@@ -0,0 +1,134 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.image;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * A synthetically rendered document page: a heading, a photo frame, lines of regular text and the MRZ at the bottom, printed in the bold
+ * monospaced logical font and rotated by the skew around the page center.
+ */
+final class MrzPage {
+
+	/**
+	 * ICAO 9303 specimens, rows separated by \n.
+	 */
+	static final String TD1 = "I<UTOD231458907<<<<<<<<<<<<<<<\n7408122F1204159UTO<<<<<<<<<<<6\nERIKSSON<<ANNA<MARIA<<<<<<<<<<";
+	static final String TD2 = "I<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<\nD231458907UTO7408122F1204159<<<<<<<6";
+	static final String TD3 = "P<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<<<<<<<<<\nL898902C36UTO7408122F1204159ZE184226B<<<<<10";
+
+	private static final int WIDTH = 1000;
+	private static final int HEIGHT = 800;
+	private static final int MARGIN = 50;
+	private static final int MRZ_TOP = 560;
+
+	private final String mrz;
+	private final double skew;
+	private final BufferedImage image;
+	private final Point2D[] centers;
+
+	/**
+	 * @param mrz the MRZ, rows separated by \n
+	 * @param skew the rotation of the page in degrees, positive if the rows descend to the right
+	 * @param scale the page size, 1 for 1000x800 pixels
+	 */
+	MrzPage(final String mrz, final double skew, final int scale) {
+		this.mrz = mrz;
+		this.skew = skew;
+		final String[] rows = mrz.split("\n");
+		final int width = WIDTH * scale;
+		final int height = HEIGHT * scale;
+		image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+		final Graphics2D g = image.createGraphics();
+		g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+		g.setColor(new Color(235, 235, 230));
+		g.fillRect(0, 0, width, height);
+		final AffineTransform rotation = AffineTransform.getRotateInstance(Math.toRadians(skew), width / 2.0, height / 2.0);
+		g.transform(rotation);
+
+		g.setColor(Color.DARK_GRAY);
+		g.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 40 * scale));
+		g.drawString("PASSPORT  PASSEPORT", MARGIN * scale, 80 * scale);
+		g.drawRect(MARGIN * scale, 120 * scale, 220 * scale, 280 * scale);
+		g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 18 * scale));
+		for (int i = 0; i < 8; i++) {
+			g.drawString("Surname / Nom   ERIKSSON   Given names / Prenoms   ANNA MARIA", 320 * scale, (150 + i * 40) * scale);
+		}
+
+		// The MRZ spans the page width, less the margins
+		g.setColor(Color.BLACK);
+		Font font = new Font(Font.MONOSPACED, Font.BOLD, 100);
+		final FontMetrics probe = g.getFontMetrics(font);
+		font = font.deriveFont(100f * (width - 2 * MARGIN * scale) / probe.stringWidth(rows[0]));
+		g.setFont(font);
+		final FontMetrics metrics = g.getFontMetrics();
+		final int pitch = (int) Math.round(font.getSize2D() * 1.3);
+		final double capHeight = font.createGlyphVector(g.getFontRenderContext(), "X").getVisualBounds().getHeight();
+		centers = new Point2D[rows.length];
+		for (int i = 0; i < rows.length; i++) {
+			final int baseline = MRZ_TOP * scale + i * pitch;
+			g.drawString(rows[i], MARGIN * scale, baseline);
+			final Point2D center = new Point2D.Double(MARGIN * scale + metrics.stringWidth(rows[i]) / 2.0, baseline - capHeight / 2);
+			centers[i] = rotation.transform(center, null);
+		}
+		g.dispose();
+	}
+
+	/**
+	 * @return the MRZ, rows separated by \n
+	 */
+	String getMrz() {
+		return mrz;
+	}
+
+	/**
+	 * @return the rotation of the page in degrees
+	 */
+	double getSkew() {
+		return skew;
+	}
+
+	/**
+	 * @return the page
+	 */
+	BufferedImage getImage() {
+		return image;
+	}
+
+	/**
+	 * @param row the 0-based MRZ row
+	 * @return the center of the row text, in the page coordinates
+	 */
+	Point2D getCenter(final int row) {
+		return centers[row];
+	}
+
+	@Override
+	public String toString() {
+		return "page of " + mrz.length() + " MRZ characters, skew " + skew + ", " + image.getWidth() + "x" + image.getHeight();
+	}
+
+}
@@ -0,0 +1,106 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.innovatrics.mrz.image;
+
+import com.innovatrics.mrz.MrzNotFoundException;
+import com.innovatrics.mrz.MrzParseException;
+import com.innovatrics.mrz.MrzParser;
+import com.innovatrics.mrz.MrzRecord;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Reads the MRZ of synthetically rendered pages, see {@link MrzPage}.
+ */
+public class MrzRecognizerTest {
+
+	private static final double[] SKEWS = {0, 4, -4};
+	private static final int[] SCALES = {1, 2};
+	private static final String[] MRZS = {MrzPage.TD1, MrzPage.TD2, MrzPage.TD3};
+
+	private final MrzRecognizer recognizer = new MrzRecognizer();
+
+	/**
+	 * @throws MrzNotFoundException no MRZ band found
+	 * @throws MrzParseException the recognized MRZ is malformed
+	 */
+	@Test
+	public void testRecognizeSkewedAndScaledPages() throws MrzNotFoundException, MrzParseException {
+		for (final String mrz : MRZS) {
+			for (final double skew : SKEWS) {
+				for (final int scale : SCALES) {
+					final MrzPage page = new MrzPage(mrz, skew, scale);
+					final MrzOcrResult result = recognizer.recognize(MrzGrayImage.of(page.getImage()));
+					Assert.assertEquals(page.toString(), mrz, result.getText());
+					Assert.assertTrue(page.toString(), result.getMinConfidence() > 0);
+					final MrzRecord record = MrzParser.parse(result.getText());
+					Assert.assertTrue(page + ": " + record, record.isValidComposite());
+				}
+			}
+		}
+	}
+
+	/**
+	 * The recognition is reliable up to about 6 degrees of skew.
+	 *
+	 * @throws MrzNotFoundException no MRZ band found
+	 */
+	@Test
+	public void testRecognizeSkewLimit() throws MrzNotFoundException {
+		for (final String mrz : MRZS) {
+			for (final double skew : new double[]{6, -6}) {
+				final MrzPage page = new MrzPage(mrz, skew, 1);
+				Assert.assertEquals(page.toString(), mrz, recognizer.recognize(MrzGrayImage.of(page.getImage())).getText());
+			}
+		}
+	}
+
+	/**
+	 * @throws MrzNotFoundException no MRZ band found
+	 */
+	@Test
+	public void testRecognizeBatch() throws MrzNotFoundException {
+		final List<MrzGrayImage> images = new ArrayList<>();
+		final List<MrzLocation> locations = new ArrayList<>();
+		for (final String mrz : MRZS) {
+			final MrzGrayImage image = MrzGrayImage.of(new MrzPage(mrz, -4, 1).getImage());
+			images.add(image);
+			locations.add(MrzLocalizer.locate(image));
+		}
+		final List<MrzOcrResult> results = recognizer.recognize(images, locations);
+		Assert.assertEquals(MRZS.length, results.size());
+		for (int i = 0; i < MRZS.length; i++) {
+			Assert.assertEquals(MRZS[i], results.get(i).getText());
+			Assert.assertEquals(recognizer.recognize(images.get(i), locations.get(i)).getText(), results.get(i).getText());
+		}
+	}
+
+	/**
+	 * Every image needs a location.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testRecognizeMismatchedBatch() {
+		final List<MrzGrayImage> images = new ArrayList<>();
+		images.add(MrzGrayImage.of(new MrzPage(MrzPage.TD3, 0, 1).getImage()));
+		recognizer.recognize(images, new ArrayList<>());
+	}
+
+}